@@ -1,3 +1,11 @@
 @Library(['edp-library-stages', 'edp-library-pipelines']) _
 
-CodeReview()
\ No newline at end of file
+CodeReview()
+
+// the gRPC API is built and tested only with the grpc profile, the standard stages leave it off
+node('maven-java11') {
+    stage('grpc-build') {
+        checkout scm
+        sh 'mvn -B verify -Pgrpc'
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link FormSchemaProviderClient}: how many form reads were asked of the client and
+ * how they were served.
+ */
+public class ClientStatistics {
+
+  private final AtomicLong reads = new AtomicLong();
+  private final AtomicLong cacheHits = new AtomicLong();
+  private final AtomicLong coalescedReads = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong notModifiedResponses = new AtomicLong();
+  private final AtomicLong receivedBytes = new AtomicLong();
+
+  /**
+   * Forms asked of the client, every key of a batch read counts.
+   */
+  public long getReads() {
+    return reads.get();
+  }
+
+  /**
+   * Reads served from the cache without a request.
+   */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /**
+   * Reads that waited for the request of a concurrent read of the same form.
+   */
+  public long getCoalescedReads() {
+    return coalescedReads.get();
+  }
+
+  /**
+   * HTTP requests sent to the provider.
+   */
+  public long getRequests() {
+    return requests.get();
+  }
+
+  /**
+   * Conditional requests answered with {@code 304 Not Modified}.
+   */
+  public long getNotModifiedResponses() {
+    return notModifiedResponses.get();
+  }
+
+  /**
+   * Response body bytes received from the provider.
+   */
+  public long getReceivedBytes() {
+    return receivedBytes.get();
+  }
+
+  void read(int count) {
+    reads.addAndGet(count);
+  }
+
+  void cacheHit() {
+    cacheHits.incrementAndGet();
+  }
+
+  void coalescedRead() {
+    coalescedReads.incrementAndGet();
+  }
+
+  void request(int bodyBytes) {
+    requests.incrementAndGet();
+    receivedBytes.addAndGet(bodyBytes);
+  }
+
+  void notModified() {
+    notModifiedResponses.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("reads=%d, cacheHits=%d, coalescedReads=%d, requests=%d, "
+            + "notModifiedResponses=%d, receivedBytes=%d", getReads(), getCacheHits(),
+        getCoalescedReads(), getRequests(), getNotModifiedResponses(), getReceivedBytes());
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Client of the form schema provider API for downstream services that read the same forms over
+ * and over again.
+ * <ul>
+ *   <li>Forms are kept in a local LRU cache together with their {@code ETag}. A cached form
+ *   younger than {@code maxAge} is returned without a request, an older one is revalidated with
+ *   {@code If-None-Match}, so an unchanged form costs a {@code 304} without a body.</li>
+ *   <li>Concurrent reads of the same form share one request.</li>
+ *   <li>{@link #getForms(Collection)} fetches the missing forms with batch requests.</li>
+ *   <li>All requests go through one {@link HttpClient}, which keeps connections open between
+ *   requests.</li>
+ * </ul>
+ * The client is thread safe and meant to be created once per application. The returned
+ * {@link JsonNode}s are shared between callers and the cache and must not be modified.
+ */
+@Slf4j
+public class FormSchemaProviderClient {
+
+  static final String FORMS_PATH = "/api/forms";
+  static final String ACCESS_TOKEN_HEADER = "X-Access-Token";
+  static final String REGISTRY_ID_HEADER = "X-Registry-Id";
+
+  private final FormSchemaProviderClientConfig config;
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final Map<String, CachedForm> cache;
+  private final Map<String, CompletableFuture<Optional<JsonNode>>> inFlight =
+      new ConcurrentHashMap<>();
+  private final ClientStatistics statistics = new ClientStatistics();
+
+  public FormSchemaProviderClient(FormSchemaProviderClientConfig config) {
+    this(config, HttpClient.newBuilder().connectTimeout(config.getConnectTimeout()).build(),
+        new ObjectMapper(), Clock.systemUTC());
+  }
+
+  FormSchemaProviderClient(FormSchemaProviderClientConfig config, HttpClient httpClient,
+      ObjectMapper objectMapper, Clock clock) {
+    this.config = config;
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedForm> eldest) {
+        return size() > config.getCacheSize();
+      }
+    });
+  }
+
+  /**
+   * Returns the form with the given key or an empty optional if the provider does not have it.
+   *
+   * @throws FormSchemaProviderClientException if the provider cannot be reached or answers with
+   *                                           an error
+   */
+  public Optional<JsonNode> getForm(String key) {
+    var formKey = key.toLowerCase(Locale.ROOT);
+    statistics.read(1);
+    var cached = cache.get(formKey);
+    if (cached != null && isFresh(cached)) {
+      statistics.cacheHit();
+      return Optional.of(cached.form);
+    }
+
+    var future = new CompletableFuture<Optional<JsonNode>>();
+    var running = inFlight.putIfAbsent(formKey, future);
+    if (running != null) {
+      statistics.coalescedRead();
+      return join(running);
+    }
+    try {
+      future.complete(fetchForm(formKey, cached));
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    } finally {
+      inFlight.remove(formKey, future);
+    }
+    return join(future);
+  }
+
+  /**
+   * Returns the found forms by their lower case keys. Cached forms younger than
+   * {@code maxAge} are taken from the cache, all others are fetched with batch requests of at
+   * most {@code batchSize} keys.
+   *
+   * @throws FormSchemaProviderClientException if the provider cannot be reached or answers with
+   *                                           an error
+   */
+  public Map<String, JsonNode> getForms(Collection<String> keys) {
+    var formKeys = keys.stream()
+        .map(key -> key.toLowerCase(Locale.ROOT))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    statistics.read(formKeys.size());
+
+    var result = new LinkedHashMap<String, JsonNode>();
+    var missing = new ArrayList<String>();
+    for (var formKey : formKeys) {
+      var cached = cache.get(formKey);
+      if (cached != null && isFresh(cached)) {
+        statistics.cacheHit();
+        result.put(formKey, cached.form);
+      } else {
+        missing.add(formKey);
+      }
+    }
+
+    for (int from = 0; from < missing.size(); from += config.getBatchSize()) {
+      var batch = missing.subList(from, Math.min(from + config.getBatchSize(), missing.size()));
+      result.putAll(fetchForms(batch));
+    }
+    return result;
+  }
+
+  /**
+   * Drops the cached form, e.g. after a change event of the form was received.
+   */
+  public void invalidate(String key) {
+    cache.remove(key.toLowerCase(Locale.ROOT));
+  }
+
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  public ClientStatistics getStatistics() {
+    return statistics;
+  }
+
+  private Optional<JsonNode> fetchForm(String formKey, CachedForm cached) {
+    var request = newRequest(FORMS_PATH + "/" + encode(formKey));
+    if (cached != null && cached.etag != null) {
+      request.header("If-None-Match", cached.etag);
+    }
+    var response = send(request.build());
+
+    switch (response.statusCode()) {
+      case 304:
+        statistics.notModified();
+        var revalidated = new CachedForm(cached.form, cached.etag, now());
+        cache.put(formKey, revalidated);
+        return Optional.of(revalidated.form);
+      case 200:
+        var form = readTree(response.body());
+        cache.put(formKey,
+            new CachedForm(form, response.headers().firstValue("ETag").orElse(null), now()));
+        return Optional.of(form);
+      case 404:
+        cache.remove(formKey);
+        return Optional.empty();
+      default:
+        throw unexpectedResponse(response);
+    }
+  }
+
+  private Map<String, JsonNode> fetchForms(List<String> formKeys) {
+    var keysParameter = formKeys.stream()
+        .map(FormSchemaProviderClient::encode)
+        .collect(Collectors.joining(","));
+    var response = send(newRequest(FORMS_PATH + "?keys=" + keysParameter).build());
+    if (response.statusCode() != 200) {
+      throw unexpectedResponse(response);
+    }
+
+    var fetchedAt = now();
+    var result = new LinkedHashMap<String, JsonNode>();
+    for (var content : readTree(response.body())) {
+      var formKey = content.path("key").asText().toLowerCase(Locale.ROOT);
+      var form = content.path("form");
+      var contentHash = content.path("contentHash");
+      var etag = contentHash.isTextual() ? "\"" + contentHash.asText() + "\"" : null;
+      cache.put(formKey, new CachedForm(form, etag, fetchedAt));
+      result.put(formKey, form);
+    }
+    formKeys.stream().filter(formKey -> !result.containsKey(formKey)).forEach(cache::remove);
+    return result;
+  }
+
+  private HttpRequest.Builder newRequest(String pathAndQuery) {
+    var request = HttpRequest.newBuilder(URI.create(
+            config.getBaseUrl().toString().replaceAll("/+$", "") + pathAndQuery))
+        .timeout(config.getRequestTimeout())
+        .header("Accept", "application/json")
+        .GET();
+    if (config.getAccessTokenSupplier() != null) {
+      request.header(ACCESS_TOKEN_HEADER, config.getAccessTokenSupplier().get());
+    }
+    if (config.getRegistryId() != null) {
+      request.header(REGISTRY_ID_HEADER, config.getRegistryId());
+    }
+    return request;
+  }
+
+  private HttpResponse<byte[]> send(HttpRequest request) {
+    HttpResponse<byte[]> response;
+    try {
+      response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    } catch (IOException e) {
+      throw new FormSchemaProviderClientException(
+          "Form schema provider request failed: " + request.uri(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FormSchemaProviderClientException(
+          "Form schema provider request was interrupted: " + request.uri(), e);
+    }
+    statistics.request(response.body() == null ? 0 : response.body().length);
+    log.debug("{} {} -> {}", request.method(), request.uri(), response.statusCode());
+    return response;
+  }
+
+  private JsonNode readTree(byte[] body) {
+    try {
+      return objectMapper.readTree(body);
+    } catch (IOException e) {
+      throw new FormSchemaProviderClientException("Unreadable form schema provider response", e);
+    }
+  }
+
+  private FormSchemaProviderClientException unexpectedResponse(HttpResponse<byte[]> response) {
+    return new FormSchemaProviderClientException(String.format(
+        "Unexpected form schema provider response %d for %s", response.statusCode(),
+        response.uri()), response.statusCode());
+  }
+
+  private boolean isFresh(CachedForm cached) {
+    return cached.fetchedAt.plus(config.getMaxAge()).isAfter(now());
+  }
+
+  private Instant now() {
+    return clock.instant();
+  }
+
+  private static Optional<JsonNode> join(CompletableFuture<Optional<JsonNode>> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private static class CachedForm {
+
+    private final JsonNode form;
+    private final String etag;
+    private final Instant fetchedAt;
+
+    private CachedForm(JsonNode form, String etag, Instant fetchedAt) {
+      this.form = form;
+      this.etag = etag;
+      this.fetchedAt = fetchedAt;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FormSchemaProviderClientConfig {
+
+  /**
+   * Base URL of the provider, e.g. {@code http://form-schema-provider:8080}.
+   */
+  private URI baseUrl;
+  /**
+   * Supplies the {@code X-Access-Token} of every request, called per request so that refreshed
+   * tokens are picked up.
+   */
+  private Supplier<String> accessTokenSupplier;
+  /**
+   * Sent as {@code X-Registry-Id} when set.
+   */
+  private String registryId;
+  @Builder.Default
+  private Duration connectTimeout = Duration.ofSeconds(2);
+  @Builder.Default
+  private Duration requestTimeout = Duration.ofSeconds(5);
+  /**
+   * Number of forms kept in the local cache.
+   */
+  @Builder.Default
+  private int cacheSize = 1000;
+  /**
+   * How long a cached form is returned without asking the provider. Older forms are revalidated
+   * with a conditional request, which costs a round trip but no form transfer when the form is
+   * unchanged. Consumers of the change feed can use a long max age and invalidate changed forms.
+   */
+  @Builder.Default
+  private Duration maxAge = Duration.ofSeconds(30);
+  /**
+   * Maximum number of forms requested with one batch request, the provider accepts up to 100.
+   */
+  @Builder.Default
+  private int batchSize = 100;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.client;
+
+import lombok.Getter;
+
+@Getter
+public class FormSchemaProviderClientException extends RuntimeException {
+
+  /**
+   * HTTP status of the provider response, 0 if no response was received.
+   */
+  private final int status;
+
+  public FormSchemaProviderClientException(String message, int status) {
+    super(message);
+    this.status = status;
+  }
+
+  public FormSchemaProviderClientException(String message, Throwable cause) {
+    super(message, cause);
+    this.status = 0;
+  }
+}
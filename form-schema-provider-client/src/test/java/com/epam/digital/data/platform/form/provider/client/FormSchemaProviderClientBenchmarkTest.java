@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Compares the caching client with a client that fetches every form read, against a running
+ * provider. Run with {@code FORM_PROVIDER_URL=http://localhost:8080 FORM_PROVIDER_KEYS=a,b,c
+ * FORM_PROVIDER_TOKEN=... mvn test -Pperformance}; the keys must be deployed forms.
+ */
+@Slf4j
+@Tag("performance")
+@EnabledIfEnvironmentVariable(named = "FORM_PROVIDER_URL", matches = ".+")
+class FormSchemaProviderClientBenchmarkTest {
+
+  static final int THREADS = 16;
+  static final int READS_PER_THREAD = 500;
+
+  List<String> keys;
+  ExecutorService executor;
+
+  @BeforeEach
+  void init() {
+    keys = Arrays.stream(System.getenv().getOrDefault("FORM_PROVIDER_KEYS", "").split(","))
+        .map(String::trim)
+        .filter(key -> !key.isEmpty())
+        .collect(Collectors.toList());
+    assertThat(keys).as("FORM_PROVIDER_KEYS").isNotEmpty();
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldSendFewerRequestsThanNaiveClient() throws Exception {
+    // without a cache every read downloads the whole form, as a plain HTTP client would
+    var naive = new FormSchemaProviderClient(config(Duration.ZERO, 0));
+    var caching = new FormSchemaProviderClient(config(Duration.ofSeconds(30), 1000));
+    caching.getForms(keys);
+
+    var naiveTime = run(naive);
+    var cachingTime = run(caching);
+
+    log.info("Naive client: {} ms, {}", naiveTime, naive.getStatistics());
+    log.info("Caching client: {} ms, {}", cachingTime, caching.getStatistics());
+    assertThat(caching.getStatistics().getRequests())
+        .isLessThan(naive.getStatistics().getRequests());
+    assertThat(caching.getStatistics().getReceivedBytes())
+        .isLessThan(naive.getStatistics().getReceivedBytes());
+  }
+
+  private long run(FormSchemaProviderClient client) throws Exception {
+    var start = System.nanoTime();
+    List<Callable<Object>> tasks = IntStream.range(0, THREADS)
+        .mapToObj(thread -> (Callable<Object>) () -> {
+          for (int i = 0; i < READS_PER_THREAD; i++) {
+            client.getForm(keys.get((thread + i) % keys.size()));
+          }
+          return null;
+        })
+        .collect(Collectors.toList());
+    for (Future<Object> result : executor.invokeAll(tasks)) {
+      result.get(5, TimeUnit.MINUTES);
+    }
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private FormSchemaProviderClientConfig config(Duration maxAge, int cacheSize) {
+    return FormSchemaProviderClientConfig.builder()
+        .baseUrl(URI.create(System.getenv("FORM_PROVIDER_URL")))
+        .accessTokenSupplier(() -> System.getenv().getOrDefault("FORM_PROVIDER_TOKEN", ""))
+        .registryId(System.getenv("FORM_PROVIDER_REGISTRY_ID"))
+        .maxAge(maxAge)
+        .cacheSize(cacheSize)
+        .build();
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FormSchemaProviderClientTest {
+
+  HttpServer server;
+  Map<String, String> forms = new ConcurrentHashMap<>();
+  List<String> requests = new CopyOnWriteArrayList<>();
+  List<String> accessTokens = new CopyOnWriteArrayList<>();
+  volatile CountDownLatch releaseResponses = new CountDownLatch(0);
+
+  @BeforeEach
+  void init() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/api/forms", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void shouldReturnCachedFormWhileFresh() {
+    forms.put("form", "{\"name\":\"form\"}");
+    var client = newClient(Duration.ofMinutes(1));
+
+    var first = client.getForm("FORM");
+    var second = client.getForm("form");
+
+    assertThat(first).isPresent();
+    assertThat(first.get().path("name").asText()).isEqualTo("form");
+    assertThat(second.get()).isSameAs(first.get());
+    assertThat(requests).containsExactly("GET /api/forms/form");
+    assertThat(accessTokens).containsExactly("token");
+    assertThat(client.getStatistics().getCacheHits()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRevalidateStaleFormWithEtag() {
+    forms.put("form", "{\"name\":\"form\"}");
+    var client = newClient(Duration.ZERO);
+
+    client.getForm("form");
+    var revalidated = client.getForm("form");
+    forms.put("form", "{\"name\":\"changed\"}");
+    var changed = client.getForm("form");
+
+    assertThat(revalidated.get().path("name").asText()).isEqualTo("form");
+    assertThat(changed.get().path("name").asText()).isEqualTo("changed");
+    assertThat(requests).containsExactly("GET /api/forms/form",
+        "GET /api/forms/form If-None-Match=\"" + etagOf("{\"name\":\"form\"}") + "\"",
+        "GET /api/forms/form If-None-Match=\"" + etagOf("{\"name\":\"form\"}") + "\"");
+    assertThat(client.getStatistics().getNotModifiedResponses()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldReturnEmptyForMissingForm() {
+    var client = newClient(Duration.ofMinutes(1));
+
+    assertThat(client.getForm("missing")).isEmpty();
+  }
+
+  @Test
+  void shouldThrowOnErrorResponse() {
+    forms.put("broken", "error");
+    var client = newClient(Duration.ofMinutes(1));
+
+    var exception = assertThrows(FormSchemaProviderClientException.class,
+        () -> client.getForm("broken"));
+
+    assertThat(exception.getStatus()).isEqualTo(500);
+  }
+
+  @Test
+  void shouldShareRequestOfConcurrentReads() throws Exception {
+    forms.put("form", "{\"name\":\"form\"}");
+    var client = newClient(Duration.ofMinutes(1));
+    releaseResponses = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(8);
+
+    var results = IntStream.range(0, 8)
+        .mapToObj(i -> executor.submit(() -> client.getForm("form")))
+        .collect(Collectors.toList());
+    while (client.getStatistics().getReads() < 8) {
+      Thread.sleep(1);
+    }
+    releaseResponses.countDown();
+    for (var result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+    }
+    executor.shutdown();
+
+    assertThat(requests).hasSize(1);
+    assertThat(client.getStatistics().getCoalescedReads()).isEqualTo(7);
+  }
+
+  @Test
+  void shouldFetchMissingFormsInBatches() {
+    IntStream.range(0, 5).forEach(i -> forms.put("form-" + i, "{\"index\":" + i + "}"));
+    var client = newClient(Duration.ofMinutes(1), 2);
+    client.getForm("form-0");
+
+    var result = client.getForms(List.of("form-0", "form-1", "form-2", "form-3", "form-4",
+        "missing"));
+
+    assertThat(result).containsOnlyKeys("form-0", "form-1", "form-2", "form-3", "form-4");
+    assertThat(result.get("form-3").path("index").asInt()).isEqualTo(3);
+    assertThat(requests).containsExactly("GET /api/forms/form-0",
+        "GET /api/forms?keys=form-1,form-2", "GET /api/forms?keys=form-3,form-4",
+        "GET /api/forms?keys=missing");
+    client.getForms(List.of("form-1", "form-4"));
+    assertThat(requests).hasSize(4);
+  }
+
+  @Test
+  void shouldRevalidateBatchFetchedFormWithContentHash() {
+    forms.put("form", "{\"name\":\"form\"}");
+    var client = newClient(Duration.ZERO);
+
+    client.getForms(List.of("form"));
+    client.getForm("form");
+
+    assertThat(requests).containsExactly("GET /api/forms?keys=form",
+        "GET /api/forms/form If-None-Match=\"" + etagOf("{\"name\":\"form\"}") + "\"");
+    assertThat(client.getStatistics().getNotModifiedResponses()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldFetchInvalidatedForm() {
+    forms.put("form", "{\"name\":\"form\"}");
+    var client = newClient(Duration.ofMinutes(1));
+
+    client.getForm("form");
+    client.invalidate("FORM");
+    client.getForm("form");
+
+    assertThat(requests).containsExactly("GET /api/forms/form", "GET /api/forms/form");
+  }
+
+  private FormSchemaProviderClient newClient(Duration maxAge) {
+    return newClient(maxAge, 100);
+  }
+
+  private FormSchemaProviderClient newClient(Duration maxAge, int batchSize) {
+    return new FormSchemaProviderClient(FormSchemaProviderClientConfig.builder()
+        .baseUrl(URI.create("http://localhost:" + server.getAddress().getPort() + "/"))
+        .accessTokenSupplier(() -> "token")
+        .maxAge(maxAge)
+        .batchSize(batchSize)
+        .build());
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    var uri = exchange.getRequestURI();
+    var ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+    requests.add(exchange.getRequestMethod() + " " + uri
+        + (ifNoneMatch == null ? "" : " If-None-Match=" + ifNoneMatch));
+    accessTokens.add(exchange.getRequestHeaders().getFirst("X-Access-Token"));
+    try {
+      releaseResponses.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (uri.getQuery() != null) {
+      var keys = uri.getQuery().substring("keys=".length()).split(",");
+      var body = Arrays.stream(keys)
+          .filter(forms::containsKey)
+          .map(key -> String.format("{\"key\":\"%s\",\"contentHash\":\"%s\",\"form\":%s}", key,
+              etagOf(forms.get(key)), forms.get(key)))
+          .collect(Collectors.joining(",", "[", "]"));
+      respond(exchange, 200, body);
+      return;
+    }
+
+    var key = uri.getPath().substring("/api/forms/".length());
+    var form = forms.get(key);
+    if (form == null) {
+      respond(exchange, 404, "{}");
+    } else if ("error".equals(form)) {
+      respond(exchange, 500, "{}");
+    } else if (("\"" + etagOf(form) + "\"").equals(ifNoneMatch)) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+    } else {
+      exchange.getResponseHeaders().add("ETag", "\"" + etagOf(form) + "\"");
+      respond(exchange, 200, form);
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    var bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (var responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+
+  private static String etagOf(String form) {
+    return Integer.toHexString(form.hashCode());
+  }
+}
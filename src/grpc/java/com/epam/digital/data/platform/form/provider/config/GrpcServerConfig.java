@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import com.epam.digital.data.platform.form.provider.grpc.FormSchemaGrpcService;
+import com.epam.digital.data.platform.form.provider.grpc.GrpcTenantInterceptor;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.Assert;
+
+/**
+ * Serves the gRPC read API on {@code grpc.server.port} when {@code grpc.server.enabled} is set.
+ * The port is not behind the platform security filter, so every call has to bring an access token
+ * signed with a key of the {@code grpc.server.jwk-set-uri} key set, the one of the identity
+ * provider issuing the tokens of the REST API.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "grpc.server.enabled", havingValue = "true")
+public class GrpcServerConfig {
+
+  @Bean
+  public FormSchemaGrpcService formSchemaGrpcService(
+      FormSchemaProviderServiceImpl formSchemaProviderService,
+      FormChangeFeedService formChangeFeedService) {
+    return new FormSchemaGrpcService(formSchemaProviderService, formChangeFeedService);
+  }
+
+  /**
+   * Verifies the signature and the expiry of the access tokens of gRPC calls. The keys are fetched
+   * from the key set on first use and cached.
+   */
+  @Bean
+  public JwtDecoder grpcAccessTokenDecoder(@Value("${grpc.server.jwk-set-uri}") String jwkSetUri) {
+    Assert.hasText(jwkSetUri, "grpc.server.jwk-set-uri must be set to serve the gRPC API");
+    return NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build();
+  }
+
+  @Bean
+  public Server grpcServer(FormSchemaGrpcService formSchemaGrpcService, ObjectMapper objectMapper,
+      JwtDecoder grpcAccessTokenDecoder,
+      @Value("${tenant.token-claim}") String tokenClaim,
+      @Value("${grpc.server.port}") int port,
+      @Value("${grpc.server.max-inbound-message-size}") int maxInboundMessageSize,
+      @Value("${grpc.server.keep-alive-time}") Duration keepAliveTime) {
+    var tenantInterceptor = new GrpcTenantInterceptor(
+        new TenantInterceptor(objectMapper, tokenClaim), grpcAccessTokenDecoder);
+    return NettyServerBuilder.forPort(port)
+        .addService(ServerInterceptors.intercept(formSchemaGrpcService, tenantInterceptor))
+        .maxInboundMessageSize(maxInboundMessageSize)
+        .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * Starts the server with the application context and lets running calls finish within
+   * {@code grpc.server.shutdown-timeout} on shutdown.
+   */
+  @Bean
+  public SmartLifecycle grpcServerLifecycle(Server grpcServer,
+      @Value("${grpc.server.shutdown-timeout}") Duration shutdownTimeout) {
+    return new SmartLifecycle() {
+
+      private volatile boolean running;
+
+      @Override
+      public void start() {
+        try {
+          grpcServer.start();
+        } catch (IOException e) {
+          throw new IllegalStateException("Unable to start the gRPC server", e);
+        }
+        running = true;
+        log.info("gRPC server started on port {}", grpcServer.getPort());
+      }
+
+      @Override
+      public void stop() {
+        grpcServer.shutdown();
+        try {
+          if (!grpcServer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            grpcServer.shutdownNow();
+          }
+        } catch (InterruptedException e) {
+          grpcServer.shutdownNow();
+          Thread.currentThread().interrupt();
+        }
+        running = false;
+      }
+
+      @Override
+      public boolean isRunning() {
+        return running;
+      }
+    };
+  }
+}
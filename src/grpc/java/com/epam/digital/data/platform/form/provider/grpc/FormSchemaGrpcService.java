@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.grpc;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeEvent;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.exception.FormDataRepositoryCommunicationException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.exception.InvalidFormKeyException;
+import com.epam.digital.data.platform.form.provider.grpc.v1.Form;
+import com.epam.digital.data.platform.form.provider.grpc.v1.FormChange;
+import com.epam.digital.data.platform.form.provider.grpc.v1.FormSchemaProviderGrpc;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormRequest;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormResponse;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormsRequest;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormsResponse;
+import com.epam.digital.data.platform.form.provider.grpc.v1.WatchChangesRequest;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormChangeSink;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gRPC read API of the forms. It reads through the same service as the REST API, so requests
+ * share its key index, circuit breaker, snapshot fallback and request coalescing; only the
+ * encoding differs. Forms are sent as the UTF-8 bytes of their JSON within protobuf messages, and
+ * forms served from the snapshot are marked stale with their age, as the {@code Warning} and
+ * {@code Age} headers do on REST.
+ */
+@Slf4j
+public class FormSchemaGrpcService extends FormSchemaProviderGrpc.FormSchemaProviderImplBase {
+
+  private final FormSchemaProviderServiceImpl formSchemaProviderService;
+  private final FormChangeFeedService formChangeFeedService;
+
+  public FormSchemaGrpcService(FormSchemaProviderServiceImpl formSchemaProviderService,
+      FormChangeFeedService formChangeFeedService) {
+    this.formSchemaProviderService = formSchemaProviderService;
+    this.formChangeFeedService = formChangeFeedService;
+  }
+
+  @Override
+  public void getForm(GetFormRequest request, StreamObserver<GetFormResponse> responseObserver) {
+    respond(responseObserver, () -> {
+      var content = formSchemaProviderService.getFormContentByKey(request.getKey());
+      var response = GetFormResponse.newBuilder();
+      if (!request.getKnownContentHash().isEmpty()
+          && request.getKnownContentHash().equals(content.getContentHash())) {
+        return response.setNotModified(true).build();
+      }
+      return response.setForm(toForm(content)).build();
+    });
+  }
+
+  @Override
+  public void getForms(GetFormsRequest request,
+      StreamObserver<GetFormsResponse> responseObserver) {
+    respond(responseObserver, () -> GetFormsResponse.newBuilder()
+        .addAllForms(formSchemaProviderService.getFormsByKeys(request.getKeysList()).stream()
+            .map(FormSchemaGrpcService::toForm)
+            .collect(Collectors.toList()))
+        .build());
+  }
+
+  @Override
+  public void watchChanges(WatchChangesRequest request,
+      StreamObserver<FormChange> responseObserver) {
+    var observer = (ServerCallStreamObserver<FormChange>) responseObserver;
+    var unsubscribe = formChangeFeedService.subscribe(request.getLastEventId(),
+        new StreamSink(observer));
+    observer.setOnCancelHandler(unsubscribe);
+  }
+
+  private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> call) {
+    T response;
+    try {
+      response = call.get();
+    } catch (FormSchemaDataException e) {
+      // not found is a FormSchemaDataException as well
+      responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asException());
+      return;
+    } catch (FormSchemaValidationException | InvalidFormKeyException e) {
+      responseObserver.onError(
+          Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asException());
+      return;
+    } catch (FormDataRepositoryCommunicationException e) {
+      log.error("Error during communication with repository", e);
+      responseObserver.onError(Status.UNAVAILABLE.withDescription(e.getMessage()).asException());
+      return;
+    } catch (RuntimeException e) {
+      log.error("Unable to serve gRPC request", e);
+      responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asException());
+      return;
+    }
+    responseObserver.onNext(response);
+    responseObserver.onCompleted();
+  }
+
+  private static Form toForm(FormSchemaContent content) {
+    var form = Form.newBuilder()
+        .setKey(content.getKey())
+        .setContentHash(Objects.toString(content.getContentHash(), ""))
+        .setForm(ByteString.copyFromUtf8(content.getForm().toJSONString()));
+    if (content.getSnapshotCreatedAt() != null) {
+      form.setStale(true).setAgeSeconds(
+          Duration.between(content.getSnapshotCreatedAt(), Instant.now()).toSeconds());
+    }
+    return form.build();
+  }
+
+  /**
+   * Sends the changes to a {@code WatchChanges} call. Idle calls are kept open by HTTP/2 keep
+   * alive pings, so heartbeats are not sent.
+   */
+  private static class StreamSink implements FormChangeSink {
+
+    private final ServerCallStreamObserver<FormChange> observer;
+
+    private StreamSink(ServerCallStreamObserver<FormChange> observer) {
+      this.observer = observer;
+    }
+
+    @Override
+    public void send(String eventId, FormChangeEvent event) throws IOException {
+      if (observer.isCancelled()) {
+        throw new IOException("The call is cancelled");
+      }
+      var change = FormChange.newBuilder()
+          .setEventId(Objects.toString(eventId, ""))
+          .setType(FormChange.Type.valueOf(event.getType().name()))
+          .setKey(Objects.toString(event.getKey(), ""))
+          .setContentHash(Objects.toString(event.getContentHash(), ""));
+      observer.onNext(change.build());
+    }
+
+    @Override
+    public void heartbeat() {
+      // HTTP/2 keep alive pings keep the call open
+    }
+
+    @Override
+    public void fail(Exception e) {
+      if (!observer.isCancelled()) {
+        observer.onError(Status.UNAVAILABLE.withCause(e).asException());
+      }
+    }
+  }
+}
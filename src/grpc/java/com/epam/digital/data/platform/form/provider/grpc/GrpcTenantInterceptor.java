@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.grpc;
+
+import com.epam.digital.data.platform.form.provider.config.TenantInterceptor;
+import com.epam.digital.data.platform.form.provider.exception.InvalidTenantException;
+import com.epam.digital.data.platform.form.provider.util.Header;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Authenticates a gRPC call and resolves its tenant from its {@code x-registry-id} and {@code
+ * x-access-token} metadata the same way {@link TenantInterceptor} does for REST requests, and sets
+ * it into {@link TenantContext} for every callback of the call, as gRPC may run them on different
+ * threads.
+ * <p>
+ * The gRPC port is not behind the platform security filter, so the access token is verified here,
+ * signature and expiry included; a call without a valid token is closed as {@code
+ * UNAUTHENTICATED} and the tenant is taken only from the claims of a verified token.
+ */
+@Slf4j
+public class GrpcTenantInterceptor implements ServerInterceptor {
+
+  private static final Metadata.Key<String> REGISTRY_ID = Metadata.Key.of(
+      Header.REGISTRY_ID.getHeaderName(), Metadata.ASCII_STRING_MARSHALLER);
+  private static final Metadata.Key<String> ACCESS_TOKEN = Metadata.Key.of(
+      Header.ACCESS_TOKEN.getHeaderName(), Metadata.ASCII_STRING_MARSHALLER);
+
+  private final TenantInterceptor tenantInterceptor;
+  private final JwtDecoder accessTokenDecoder;
+
+  public GrpcTenantInterceptor(TenantInterceptor tenantInterceptor,
+      JwtDecoder accessTokenDecoder) {
+    this.tenantInterceptor = tenantInterceptor;
+    this.accessTokenDecoder = accessTokenDecoder;
+  }
+
+  @Override
+  public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+      ServerCallHandler<Q, R> next) {
+    var accessToken = headers.get(ACCESS_TOKEN);
+    if (StringUtils.isEmpty(accessToken)) {
+      return reject(call, Status.UNAUTHENTICATED.withDescription("The access token is missing."));
+    }
+    String tenant;
+    try {
+      var claims = accessTokenDecoder.decode(accessToken).getClaims();
+      tenant = tenantInterceptor.resolveVerifiedTenant(headers.get(REGISTRY_ID), claims);
+    } catch (JwtException e) {
+      log.debug("Rejected gRPC call with an invalid access token: {}", e.getMessage());
+      return reject(call, Status.UNAUTHENTICATED.withDescription("The access token is invalid."));
+    } catch (InvalidTenantException e) {
+      return reject(call, Status.INVALID_ARGUMENT.withDescription(e.getMessage()));
+    }
+    var listener = TenantContext.callAs(tenant, () -> next.startCall(call, headers));
+    return new SimpleForwardingServerCallListener<>(listener) {
+
+      @Override
+      public void onMessage(Q message) {
+        TenantContext.callAs(tenant, () -> {
+          super.onMessage(message);
+          return null;
+        });
+      }
+
+      @Override
+      public void onHalfClose() {
+        TenantContext.callAs(tenant, () -> {
+          super.onHalfClose();
+          return null;
+        });
+      }
+
+      @Override
+      public void onCancel() {
+        TenantContext.callAs(tenant, () -> {
+          super.onCancel();
+          return null;
+        });
+      }
+
+      @Override
+      public void onComplete() {
+        TenantContext.callAs(tenant, () -> {
+          super.onComplete();
+          return null;
+        });
+      }
+
+      @Override
+      public void onReady() {
+        TenantContext.callAs(tenant, () -> {
+          super.onReady();
+          return null;
+        });
+      }
+    };
+  }
+
+  private static <Q, R> ServerCall.Listener<Q> reject(ServerCall<Q, R> call, Status status) {
+    call.close(status, new Metadata());
+    return new ServerCall.Listener<>() {
+    };
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.epam.digital.data.platform.form.provider.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormsRequest;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormsResponse;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaValidationService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import net.minidev.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.sleuth.Tracer;
+
+class FormSchemaGrpcServiceTest {
+
+  @Test
+  void shouldServeFormsFromSnapshotWhileStorageIsDown() {
+    var formStorage = mock(FormStorage.class);
+    when(formStorage.findAllById(anyList())).thenThrow(new IllegalStateException("Redis is down"));
+    var formKeyIndex = mock(FormKeyIndex.class);
+    when(formKeyIndex.mightContain(anyString())).thenReturn(true);
+    var snapshotCreatedAt = Instant.now().minusSeconds(120);
+    var formSnapshotStore = mock(FormSnapshotStore.class);
+    when(formSnapshotStore.getCreatedAt()).thenReturn(Optional.of(snapshotCreatedAt));
+    when(formSnapshotStore.getFormContentByKey("form")).thenReturn(Optional.of(
+        FormSchemaContent.builder()
+            .key("form")
+            .form(new JSONObject().appendField("name", "form"))
+            .snapshotCreatedAt(snapshotCreatedAt)
+            .build()));
+    var objectMapper = new ObjectMapper();
+    var formSchemaProviderService = new FormSchemaProviderServiceImpl(
+        mock(FormSchemaValidationService.class), formStorage, objectMapper,
+        new FormComponentIndexer(objectMapper), mock(FormSchemaVersionService.class),
+        new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC()), formKeyIndex,
+        new StageTracer(mock(Tracer.class)), mock(TenantQuotaService.class),
+        mock(FormChangeFeedService.class), mock(FormDependencyIndex.class),
+        mock(FormFootprintService.class), formSnapshotStore, mock(FormGenerationService.class),
+        new SimpleMeterRegistry());
+    var responses = new RecordingObserver<GetFormsResponse>();
+
+    new FormSchemaGrpcService(formSchemaProviderService, mock(FormChangeFeedService.class))
+        .getForms(GetFormsRequest.newBuilder().addKeys("form").addKeys("missing").build(),
+            responses);
+
+    assertThat(responses.error).isNull();
+    var forms = responses.values.get(0).getFormsList();
+    assertThat(forms).hasSize(1);
+    assertThat(forms.get(0).getKey()).isEqualTo("form");
+    assertThat(forms.get(0).getForm().toStringUtf8()).isEqualTo("{\"name\":\"form\"}");
+    assertThat(forms.get(0).getContentHash()).isEmpty();
+    assertThat(forms.get(0).getStale()).isTrue();
+    assertThat(forms.get(0).getAgeSeconds()).isGreaterThanOrEqualTo(120);
+  }
+
+  static class RecordingObserver<T> implements StreamObserver<T> {
+
+    final List<T> values = new ArrayList<>();
+    Throwable error;
+
+    @Override
+    public void onNext(T value) {
+      values.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      error = t;
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.grpc.v1.FormSchemaProviderGrpc;
+import com.epam.digital.data.platform.form.provider.grpc.v1.FormSchemaProviderGrpc.FormSchemaProviderBlockingStub;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Compares the latency and throughput of reading forms over the REST and the gRPC API of a
+ * running provider. Run with {@code FORM_PROVIDER_URL=http://localhost:8080
+ * FORM_PROVIDER_GRPC_TARGET=localhost:9090 FORM_PROVIDER_KEYS=a,b,c FORM_PROVIDER_TOKEN=...
+ * mvn test -Pgrpc,performance}; the keys must be deployed forms and the provider must run with
+ * {@code grpc.server.enabled=true}.
+ */
+@Slf4j
+@Tag("performance")
+@EnabledIfEnvironmentVariable(named = "FORM_PROVIDER_GRPC_TARGET", matches = ".+")
+class GrpcRestBenchmarkTest {
+
+  static final int THREADS = 16;
+  static final int READS_PER_THREAD = 500;
+
+  List<String> keys;
+  ExecutorService executor;
+  ManagedChannel channel;
+
+  @BeforeEach
+  void init() {
+    keys = Arrays.stream(System.getenv().getOrDefault("FORM_PROVIDER_KEYS", "").split(","))
+        .map(String::trim)
+        .filter(key -> !key.isEmpty())
+        .collect(Collectors.toList());
+    assertThat(keys).as("FORM_PROVIDER_KEYS").isNotEmpty();
+    executor = Executors.newFixedThreadPool(THREADS);
+    channel = ManagedChannelBuilder.forTarget(System.getenv("FORM_PROVIDER_GRPC_TARGET"))
+        .usePlaintext()
+        .build();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void shouldCompareRestAndGrpcReads() throws Exception {
+    var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    var baseUrl = URI.create(System.getenv("FORM_PROVIDER_URL") + "/api/forms/");
+    ReadCall rest = key -> {
+      var request = HttpRequest.newBuilder(baseUrl.resolve(key))
+          .header("X-Access-Token", System.getenv().getOrDefault("FORM_PROVIDER_TOKEN", ""));
+      var registryId = System.getenv("FORM_PROVIDER_REGISTRY_ID");
+      if (registryId != null) {
+        request.header("X-Registry-Id", registryId);
+      }
+      var response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+      assertThat(response.statusCode()).isEqualTo(200);
+      return response.body().length;
+    };
+    var stub = stub();
+    ReadCall grpc = key -> stub.getForm(GetFormRequest.newBuilder().setKey(key).build())
+        .getSerializedSize();
+    // warms up connections, caches and the JIT before measuring
+    run(rest, 1);
+    run(grpc, 1);
+
+    var restResult = run(rest, READS_PER_THREAD);
+    var grpcResult = run(grpc, READS_PER_THREAD);
+
+    log.info("REST: {}", restResult);
+    log.info("gRPC: {}", grpcResult);
+    assertThat(grpcResult.bytes).isPositive();
+    assertThat(restResult.bytes).isPositive();
+  }
+
+  private FormSchemaProviderBlockingStub stub() {
+    var headers = new Metadata();
+    headers.put(Metadata.Key.of("x-access-token", Metadata.ASCII_STRING_MARSHALLER),
+        System.getenv().getOrDefault("FORM_PROVIDER_TOKEN", ""));
+    var registryId = System.getenv("FORM_PROVIDER_REGISTRY_ID");
+    if (registryId != null) {
+      headers.put(Metadata.Key.of("x-registry-id", Metadata.ASCII_STRING_MARSHALLER),
+          registryId);
+    }
+    return FormSchemaProviderGrpc.newBlockingStub(channel)
+        .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+  }
+
+  private Result run(ReadCall call, int readsPerThread) throws Exception {
+    var latencies = Collections.synchronizedList(new ArrayList<Long>());
+    var bytes = new long[THREADS];
+    var start = System.nanoTime();
+    List<Callable<Object>> tasks = IntStream.range(0, THREADS)
+        .mapToObj(thread -> (Callable<Object>) () -> {
+          for (int i = 0; i < readsPerThread; i++) {
+            var readStart = System.nanoTime();
+            bytes[thread] += call.read(keys.get((thread + i) % keys.size()));
+            latencies.add(System.nanoTime() - readStart);
+          }
+          return null;
+        })
+        .collect(Collectors.toList());
+    for (Future<Object> result : executor.invokeAll(tasks)) {
+      result.get(5, TimeUnit.MINUTES);
+    }
+    var elapsed = System.nanoTime() - start;
+    Collections.sort(latencies);
+    return new Result(latencies.size() * TimeUnit.SECONDS.toNanos(1) / elapsed,
+        percentile(latencies, 50), percentile(latencies, 99), Arrays.stream(bytes).sum());
+  }
+
+  private static long percentile(List<Long> sortedLatencies, int percentile) {
+    var index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.size()) - 1;
+    return TimeUnit.NANOSECONDS.toMicros(sortedLatencies.get(Math.max(index, 0)));
+  }
+
+  interface ReadCall {
+
+    long read(String key) throws Exception;
+  }
+
+  static class Result {
+
+    final long readsPerSecond;
+    final long p50Micros;
+    final long p99Micros;
+    final long bytes;
+
+    Result(long readsPerSecond, long p50Micros, long p99Micros, long bytes) {
+      this.readsPerSecond = readsPerSecond;
+      this.p50Micros = p50Micros;
+      this.p99Micros = p99Micros;
+      this.bytes = bytes;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d reads/s, p50 %d us, p99 %d us, %d bytes received",
+          readsPerSecond, p50Micros, p99Micros, bytes);
+    }
+  }
+}
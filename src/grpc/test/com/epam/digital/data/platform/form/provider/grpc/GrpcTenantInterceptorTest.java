@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.epam.digital.data.platform.form.provider.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.config.TenantInterceptor;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.grpc.v1.FormSchemaProviderGrpc;
+import com.epam.digital.data.platform.form.provider.grpc.v1.FormSchemaProviderGrpc.FormSchemaProviderBlockingStub;
+import com.epam.digital.data.platform.form.provider.grpc.v1.GetFormRequest;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import net.minidev.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@ExtendWith(MockitoExtension.class)
+class GrpcTenantInterceptorTest {
+
+  private static final String ISSUER = "https://keycloak/auth/realms/registry-a";
+
+  @Mock
+  FormSchemaProviderServiceImpl formSchemaProviderService;
+  @Mock
+  FormChangeFeedService formChangeFeedService;
+  @Mock
+  JwtDecoder accessTokenDecoder;
+
+  Server server;
+  ManagedChannel channel;
+
+  @BeforeEach
+  void init() throws Exception {
+    var name = InProcessServerBuilder.generateName();
+    var tenantInterceptor = new GrpcTenantInterceptor(
+        new TenantInterceptor(new ObjectMapper(), "iss"), accessTokenDecoder);
+    server = InProcessServerBuilder.forName(name).directExecutor()
+        .addService(ServerInterceptors.intercept(
+            new FormSchemaGrpcService(formSchemaProviderService, formChangeFeedService),
+            tenantInterceptor))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void shouldRejectCallWithoutAccessToken() {
+    var exception = assertThrows(StatusRuntimeException.class, () -> stub(null).getForm(
+        GetFormRequest.newBuilder().setKey("form").build()));
+
+    assertThat(exception.getStatus().getCode()).isEqualTo(Status.Code.UNAUTHENTICATED);
+    verify(formSchemaProviderService, never()).getFormContentByKey(anyString());
+  }
+
+  @Test
+  void shouldRejectCallWithTokenFailingVerification() {
+    // well-formed and naming a tenant, but not signed by the identity provider
+    var forged = unsignedToken("{\"iss\":\"" + ISSUER + "\"}");
+    when(accessTokenDecoder.decode(forged)).thenThrow(new BadJwtException("Invalid signature"));
+
+    var exception = assertThrows(StatusRuntimeException.class, () -> stub(forged).getForm(
+        GetFormRequest.newBuilder().setKey("form").build()));
+
+    assertThat(exception.getStatus().getCode()).isEqualTo(Status.Code.UNAUTHENTICATED);
+    verify(formSchemaProviderService, never()).getFormContentByKey(anyString());
+  }
+
+  @Test
+  void shouldServeCallAsTenantOfVerifiedToken() {
+    when(accessTokenDecoder.decode("signed")).thenReturn(Jwt.withTokenValue("signed")
+        .header("alg", "RS256")
+        .claim("iss", ISSUER)
+        .build());
+    when(formSchemaProviderService.getFormContentByKey("form")).thenAnswer(
+        invocation -> FormSchemaContent.builder()
+            .key("form")
+            .contentHash("hash")
+            .form(new JSONObject().appendField("tenant", TenantContext.getTenant()))
+            .build());
+
+    var response = stub("signed").getForm(GetFormRequest.newBuilder().setKey("form").build());
+
+    assertThat(response.getForm().getForm().toStringUtf8())
+        .isEqualTo("{\"tenant\":\"registry-a\"}");
+  }
+
+  private FormSchemaProviderBlockingStub stub(String accessToken) {
+    var stub = FormSchemaProviderGrpc.newBlockingStub(channel);
+    if (accessToken == null) {
+      return stub;
+    }
+    var headers = new Metadata();
+    headers.put(Metadata.Key.of("x-access-token", Metadata.ASCII_STRING_MARSHALLER),
+        accessToken);
+    return stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+  }
+
+  private static String unsignedToken(String payload) {
+    var encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+        + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".";
+  }
+}
@@ -17,7 +17,14 @@
 package com.epam.digital.data.platform.form.provider.config;
 
 import com.epam.digital.data.platform.form.provider.FormSchemaProviderApplication;
+import com.epam.digital.data.platform.form.provider.service.FormBundleService;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormDeletionJobService;
+import com.epam.digital.data.platform.form.provider.service.FormDeploymentJobService;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
 import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
 import org.mockito.Mockito;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
@@ -34,6 +41,41 @@ public class TestConfig {
     return Mockito.mock(FormSchemaProviderServiceImpl.class);
   }
 
+  @Bean
+  public FormDeploymentJobService testFormDeploymentJobService() {
+    return Mockito.mock(FormDeploymentJobService.class);
+  }
+
+  @Bean
+  public FormDeletionJobService testFormDeletionJobService() {
+    return Mockito.mock(FormDeletionJobService.class);
+  }
+
+  @Bean
+  public FormFootprintService testFormFootprintService() {
+    return Mockito.mock(FormFootprintService.class);
+  }
+
+  @Bean
+  public FormChangeFeedService testFormChangeFeedService() {
+    return Mockito.mock(FormChangeFeedService.class);
+  }
+
+  @Bean
+  public FormSchemaVersionService testFormSchemaVersionService() {
+    return Mockito.mock(FormSchemaVersionService.class);
+  }
+
+  @Bean
+  public FormSnapshotStore testFormSnapshotStore() {
+    return Mockito.mock(FormSnapshotStore.class);
+  }
+
+  @Bean
+  public FormBundleService testFormBundleService() {
+    return Mockito.mock(FormBundleService.class);
+  }
+
   @Bean
   public RedisConnectionFactory redisConnectionFactory(RedisProperties redisProperties) {
     return Mockito.mock(RedisConnectionFactory.class);
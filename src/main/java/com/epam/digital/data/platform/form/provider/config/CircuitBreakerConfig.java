@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CircuitBreakerConfig {
+
+  @Bean
+  public CircuitBreaker storageCircuitBreaker(
+      @Value("${storage.circuit-breaker.failure-threshold}") int failureThreshold,
+      @Value("${storage.circuit-breaker.open-duration}") Duration openDuration) {
+    return new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC());
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+@EnableScheduling
+public class DeploymentJobConfig {
+
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService deploymentJobExecutor(
+      @Value("${form.deployment.pool-size}") int poolSize) {
+    return Executors.newFixedThreadPool(poolSize,
+        new CustomizableThreadFactory("form-deployment-"));
+  }
+
+  /**
+   * Validates the forms of deployment jobs apart from the bounded {@code validationExecutor} of
+   * interactive uploads. A job waits for every batch, so at most one batch per running job is
+   * queued here.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService deploymentValidationExecutor(
+      @Value("${form.deployment.validation-pool-size}") int poolSize) {
+    return Executors.newFixedThreadPool(poolSize,
+        new CustomizableThreadFactory("form-deployment-validation-"));
+  }
+}
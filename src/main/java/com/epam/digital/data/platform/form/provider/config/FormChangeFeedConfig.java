@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import com.epam.digital.data.platform.form.provider.service.impl.FormChangeFeedServiceImpl;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Slf4j
+@Configuration
+public class FormChangeFeedConfig {
+
+  /**
+   * Reads the changes appended after the start of the instance; the subscription survives Redis
+   * errors and goes on from the last received change. The container does not start on its own, it
+   * is started here and stopped with the context.
+   */
+  @Bean
+  public StreamMessageListenerContainer<String, MapRecord<String, String, String>>
+      formChangeFeedListenerContainer(RedisConnectionFactory redisConnectionFactory,
+      FormChangeFeedServiceImpl formChangeFeedService,
+      @Value("${form.changes.stream}") String stream,
+      @Value("${form.changes.poll-timeout}") Duration pollTimeout) {
+    var options = StreamMessageListenerContainerOptions.builder()
+        .pollTimeout(pollTimeout)
+        .build();
+    var container = StreamMessageListenerContainer.create(redisConnectionFactory, options);
+    container.register(StreamReadRequest.builder(StreamOffset.create(stream, ReadOffset.latest()))
+        .cancelOnError(e -> false)
+        .errorHandler(e -> log.warn("Unable to read form changes: {}", e.getMessage()))
+        .build(), formChangeFeedService);
+    container.start();
+    return container;
+  }
+
+  /**
+   * Sends the queued changes to the subscribers. A thread is taken only while a subscriber has
+   * changes queued, and a consumer blocking its sends keeps only its own thread.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService formChangeDeliveryExecutor() {
+    return Executors.newCachedThreadPool(new CustomizableThreadFactory("form-change-delivery-"));
+  }
+}
@@ -16,14 +16,20 @@
 
 package com.epam.digital.data.platform.form.provider.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ClientOptions.DisconnectedBehavior;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
 import io.lettuce.core.internal.HostAndPort;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -31,16 +37,24 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+  /**
+   * Connects to Redis Cluster when {@code spring.redis.cluster.nodes} is set, otherwise to the
+   * master of the sentinel topology.
+   */
   @Bean
   public RedisConnectionFactory redisConnectionFactory(RedisProperties redisProperties) {
-    var redisSentinelConfig = new RedisSentinelConfiguration();
-
-    redisSentinelConfig.setMaster(redisProperties.getSentinel().getMaster());
-    setSentinelNodes(redisSentinelConfig, redisProperties);
-    redisSentinelConfig.setUsername(redisProperties.getUsername());
-    redisSentinelConfig.setPassword(redisProperties.getPassword());
-
-    var connectionFactory = new LettuceConnectionFactory(redisSentinelConfig);
+    var connectionFactory = redisProperties.getCluster() == null
+        ? new LettuceConnectionFactory(sentinelConfiguration(redisProperties),
+            clientConfiguration(redisProperties, ClientOptions.builder()
+                .disconnectedBehavior(DisconnectedBehavior.REJECT_COMMANDS)
+                .build()))
+        : new LettuceConnectionFactory(clusterConfiguration(redisProperties),
+            clientConfiguration(redisProperties, ClusterClientOptions.builder()
+                .disconnectedBehavior(DisconnectedBehavior.REJECT_COMMANDS)
+                .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                    .enableAllAdaptiveRefreshTriggers()
+                    .build())
+                .build()));
     connectionFactory.afterPropertiesSet();
     return connectionFactory;
   }
@@ -54,6 +68,37 @@ public class RedisConfig {
     return redisTemplate;
   }
 
+  private RedisSentinelConfiguration sentinelConfiguration(RedisProperties redisProperties) {
+    var redisSentinelConfig = new RedisSentinelConfiguration();
+
+    redisSentinelConfig.setMaster(redisProperties.getSentinel().getMaster());
+    setSentinelNodes(redisSentinelConfig, redisProperties);
+    redisSentinelConfig.setUsername(redisProperties.getUsername());
+    redisSentinelConfig.setPassword(redisProperties.getPassword());
+    return redisSentinelConfig;
+  }
+
+  private RedisClusterConfiguration clusterConfiguration(RedisProperties redisProperties) {
+    var redisClusterConfig = new RedisClusterConfiguration(
+        redisProperties.getCluster().getNodes());
+    if (redisProperties.getCluster().getMaxRedirects() != null) {
+      redisClusterConfig.setMaxRedirects(redisProperties.getCluster().getMaxRedirects());
+    }
+    redisClusterConfig.setUsername(redisProperties.getUsername());
+    redisClusterConfig.setPassword(redisProperties.getPassword());
+    return redisClusterConfig;
+  }
+
+  private LettuceClientConfiguration clientConfiguration(RedisProperties redisProperties,
+      ClientOptions clientOptions) {
+    var clientConfigBuilder = LettuceClientConfiguration.builder()
+        .clientOptions(clientOptions);
+    if (redisProperties.getTimeout() != null) {
+      clientConfigBuilder.commandTimeout(redisProperties.getTimeout());
+    }
+    return clientConfigBuilder.build();
+  }
+
   private void setSentinelNodes(RedisSentinelConfiguration sentinelConfiguration,
       RedisProperties storageConfiguration) {
 
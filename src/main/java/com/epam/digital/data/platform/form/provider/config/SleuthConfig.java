@@ -20,8 +20,20 @@ import brave.baggage.BaggageFields;
 import brave.baggage.CorrelationScopeConfig.SingleCorrelationField;
 import brave.context.slf4j.MDCScopeDecorator;
 import brave.propagation.CurrentTraceContext;
+import brave.sampler.CountingSampler;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.sleuth.SamplerFunction;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.http.HttpRequest;
+import org.springframework.cloud.sleuth.instrument.web.HttpServerSampler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class SleuthConfig {
@@ -40,4 +52,44 @@ public class SleuthConfig {
             .name("X-Span-Export").build())
         .build();
   }
+
+  @Bean
+  public StageTracer stageTracer(Tracer tracer) {
+    return new StageTracer(tracer);
+  }
+
+  /**
+   * Samples incoming requests without a sampling decision by endpoint kind: reads (GET and HEAD)
+   * with {@code tracing.sampling.read-probability}, all other requests with
+   * {@code tracing.sampling.write-probability}. Only sampled requests record stage spans.
+   */
+  @Bean(name = HttpServerSampler.NAME)
+  public SamplerFunction<HttpRequest> httpServerSampler(
+      @Value("${tracing.sampling.read-probability}") float readProbability,
+      @Value("${tracing.sampling.write-probability}") float writeProbability) {
+    var readSampler = CountingSampler.create(readProbability);
+    var writeSampler = CountingSampler.create(writeProbability);
+    return request -> {
+      var method = request.method();
+      var isRead = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+      return (isRead ? readSampler : writeSampler).isSampled(0L);
+    };
+  }
+
+  @Bean
+  public WebMvcConfigurer stageTracingMessageConverterConfigurer(StageTracer stageTracer) {
+    return new WebMvcConfigurer() {
+      @Override
+      public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+          if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+            var objectMapper = ((MappingJackson2HttpMessageConverter) converters.get(i))
+                .getObjectMapper();
+            converters.set(i, new StageTracingJsonHttpMessageConverter(objectMapper,
+                stageTracer));
+          }
+        }
+      }
+    };
+  }
 }
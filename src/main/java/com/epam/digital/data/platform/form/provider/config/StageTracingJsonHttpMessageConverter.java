@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Jackson converter that records JSON response serialization as the {@code response.serialize}
+ * stage, tagged with the number of written bytes.
+ */
+class StageTracingJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  private final StageTracer stageTracer;
+
+  StageTracingJsonHttpMessageConverter(ObjectMapper objectMapper, StageTracer stageTracer) {
+    super(objectMapper);
+    this.stageTracer = stageTracer;
+  }
+
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+      throws IOException, HttpMessageNotWritableException {
+    try (var stage = stageTracer.start("response.serialize")) {
+      if (!stage.isRecording()) {
+        super.writeInternal(object, type, outputMessage);
+        return;
+      }
+      var countingMessage = new CountingOutputMessage(outputMessage);
+      try {
+        super.writeInternal(object, type, countingMessage);
+      } catch (IOException | RuntimeException e) {
+        stage.error(e);
+        throw e;
+      }
+      stage.payloadSize(countingMessage.count);
+    }
+  }
+
+  private static class CountingOutputMessage implements HttpOutputMessage {
+
+    private final HttpOutputMessage delegate;
+    private long count;
+
+    CountingOutputMessage(HttpOutputMessage delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return delegate.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+      return new FilterOutputStream(delegate.getBody()) {
+        @Override
+        public void write(int b) throws IOException {
+          out.write(b);
+          count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          out.write(b, off, len);
+          count += len;
+        }
+      };
+    }
+  }
+}
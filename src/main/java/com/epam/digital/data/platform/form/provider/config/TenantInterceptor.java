@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import com.epam.digital.data.platform.form.provider.exception.InvalidTenantException;
+import com.epam.digital.data.platform.form.provider.util.Header;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URL;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Resolves the tenant of an API request into {@link TenantContext}.
+ * <p>
+ * When {@code tenant.token-claim} is set, the tenant is read from that claim of the
+ * {@code X-Access-Token} JWT and the request is rejected if the claim is missing; a claim holding
+ * a URL, such as the issuer, gives its last path segment. An {@code X-Registry-Id} header must
+ * then name the same tenant. Otherwise every request works with the default tenant and a request
+ * naming a registry in the header is rejected, so a client can never pick a tenant its token does
+ * not grant. The token signature of REST requests is checked by the platform security filter,
+ * not here; transports without that filter verify the token themselves and pass its claims to
+ * {@link #resolveVerifiedTenant(String, Map)}.
+ */
+public class TenantInterceptor implements AsyncHandlerInterceptor {
+
+  private static final Pattern TENANT_PATTERN = Pattern.compile("[a-z0-9][a-z0-9-]{0,62}");
+
+  private final ObjectMapper objectMapper;
+  private final String tokenClaim;
+
+  public TenantInterceptor(ObjectMapper objectMapper, String tokenClaim) {
+    this.objectMapper = objectMapper;
+    this.tokenClaim = tokenClaim;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    TenantContext.setTenant(resolveTenant(request.getHeader(Header.REGISTRY_ID.getHeaderName()),
+        request.getHeader(Header.ACCESS_TOKEN.getHeaderName())));
+    return true;
+  }
+
+  /**
+   * Resolves the tenant from the registry id and the access token of a request whose token
+   * signature was checked by the platform security filter.
+   */
+  public String resolveTenant(String registryId, String accessToken) {
+    return resolveTenant(registryId, () -> getTokenClaim(accessToken));
+  }
+
+  /**
+   * Resolves the tenant from the registry id and the claims of an access token the caller has
+   * verified, for transports other than HTTP.
+   */
+  public String resolveVerifiedTenant(String registryId, Map<String, Object> claims) {
+    return resolveTenant(registryId, () -> claimValue(claims.get(tokenClaim)));
+  }
+
+  private String resolveTenant(String registryId, Supplier<String> tokenClaimValue) {
+    if (StringUtils.isEmpty(tokenClaim)) {
+      if (StringUtils.isNotEmpty(registryId)) {
+        throw new InvalidTenantException(String.format(
+            "The registry '%s' can not be selected, registries are not taken from access tokens.",
+            registryId));
+      }
+      return TenantContext.DEFAULT_TENANT;
+    }
+
+    var tenant = tokenClaimValue.get();
+    if (tenant == null) {
+      throw new InvalidTenantException(
+          String.format("The access token has no '%s' claim to take the tenant from.",
+              tokenClaim));
+    }
+    tenant = tenant.toLowerCase();
+    if (!TENANT_PATTERN.matcher(tenant).matches()) {
+      throw new InvalidTenantException(String.format(
+          "The tenant '%s' is invalid, it must consist of at most 63 lowercase letters, digits "
+              + "and hyphens.", tenant));
+    }
+    if (StringUtils.isNotEmpty(registryId) && !registryId.equalsIgnoreCase(tenant)) {
+      throw new InvalidTenantException(String.format(
+          "The registry '%s' is not the registry '%s' of the access token.", registryId, tenant));
+    }
+    return tenant;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    TenantContext.clear();
+  }
+
+  /**
+   * Asynchronous requests, such as the change feed, release the request thread without
+   * {@link #afterCompletion}.
+   */
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request,
+      HttpServletResponse response, Object handler) {
+    TenantContext.clear();
+  }
+
+  private String getTokenClaim(String token) {
+    if (token == null) {
+      return null;
+    }
+    var parts = token.split("\\.");
+    if (parts.length < 2) {
+      throw new InvalidTenantException("The access token is not a JWT.");
+    }
+    try {
+      var payload = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+      var claim = payload.get(tokenClaim);
+      return claim == null || !claim.isTextual() ? null : claimValue(claim.asText());
+    } catch (Exception e) {
+      throw new InvalidTenantException("The access token payload can not be read.");
+    }
+  }
+
+  /**
+   * Returns the tenant named by a claim value, the last path segment of a URL.
+   */
+  private static String claimValue(Object claim) {
+    if (!(claim instanceof String) && !(claim instanceof URL)) {
+      return null;
+    }
+    var value = StringUtils.stripEnd(claim.toString(), "/");
+    return value.contains("://") ? StringUtils.substringAfterLast(value, "/") : value;
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class ValidationExecutorConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  public ThreadPoolExecutor validationExecutor(
+      @Value("${validator.executor.pool-size}") int poolSize,
+      @Value("${validator.executor.queue-capacity}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    var executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new CustomizableThreadFactory("form-validation-"),
+        new ThreadPoolExecutor.AbortPolicy());
+
+    // form.schema.validation.executor.* meters, e.g. executor.queued and executor.active
+    new ExecutorServiceMetrics(executor, "validation", "form.schema.validation", Tags.empty())
+        .bindTo(meterRegistry);
+    return executor;
+  }
+}
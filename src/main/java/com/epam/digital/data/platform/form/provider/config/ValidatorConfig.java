@@ -16,31 +16,73 @@
 
 package com.epam.digital.data.platform.form.provider.config;
 
+import com.epam.digital.data.platform.form.provider.exception.ValidationFailureReporter;
+import com.epam.digital.data.platform.form.provider.service.impl.GeneratedFormsSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.GenericSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.SchemaValidator;
+import com.epam.digital.data.platform.form.provider.util.ContentHash;
+import com.epam.digital.data.platform.form.provider.util.RateLimiter;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion.VersionFlag;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
 
+@Slf4j
 @Configuration
 public class ValidatorConfig {
 
+  @Bean
+  public JsonSchemaFactory jsonSchemaFactory() {
+    return JsonSchemaFactory
+        .builder(JsonSchemaFactory.getInstance(VersionFlag.V4))
+        .objectMapper(new JsonMapper())
+        .build();
+  }
+
   @Bean
   @SneakyThrows
   public JsonSchema jsonSchema(
       @Value("${validator.schema.location}") String jsonSchemaLocation,
-      ResourceLoader resourceLoader) {
+      ResourceLoader resourceLoader, JsonSchemaFactory jsonSchemaFactory) {
     var resource = resourceLoader.getResource(jsonSchemaLocation);
+    return jsonSchemaFactory.getSchema(resource.getInputStream());
+  }
 
-    var factory = JsonSchemaFactory
-        .builder(JsonSchemaFactory.getInstance(VersionFlag.V4))
-        .objectMapper(new JsonMapper())
-        .build();
+  /**
+   * Uses the validator generated from the built-in schema when the built-in schema is configured
+   * and the generic validator for any other schema.
+   */
+  @Bean
+  public SchemaValidator schemaValidator(
+      @Value("${validator.schema.location}") String jsonSchemaLocation,
+      JsonSchema jsonSchema, JsonSchemaFactory jsonSchemaFactory) {
+    if (GeneratedFormsSchemaValidator.SCHEMA_LOCATION.equals(jsonSchemaLocation)) {
+      if (GeneratedFormsSchemaValidator.SCHEMA_CONTENT_HASH.equals(
+          ContentHash.of(jsonSchema.getSchemaNode()))) {
+        log.info("Forms are validated with the validator generated from {}", jsonSchemaLocation);
+        return new GeneratedFormsSchemaValidator();
+      }
+      log.warn("{} differs from the schema of the generated validator, using generic validation",
+          jsonSchemaLocation);
+    }
+    return new GenericSchemaValidator(jsonSchema, jsonSchemaFactory);
+  }
 
-    return factory.getSchema(resource.getInputStream());
+  @Bean
+  public ValidationFailureReporter validationFailureReporter(
+      @Value("${validator.report.max-errors}") int maxErrors,
+      @Value("${validator.report.sample-rate}") double sampleRate,
+      @Value("${validator.report.max-per-second}") double maxPerSecond,
+      MeterRegistry meterRegistry) {
+    return new ValidationFailureReporter(maxErrors, sampleRate,
+        new RateLimiter(maxPerSecond, Clock.systemUTC()), meterRegistry);
   }
 }
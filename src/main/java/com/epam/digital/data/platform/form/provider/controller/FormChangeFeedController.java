@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@Tag(description = "Change feed of UI form schemes", name = "form-changes-api")
+@RequestMapping("/api/form-changes")
+public class FormChangeFeedController {
+
+  private final FormChangeFeedService formChangeFeedService;
+
+  public FormChangeFeedController(FormChangeFeedService formChangeFeedService) {
+    this.formChangeFeedService = formChangeFeedService;
+  }
+
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(summary = "Subscribe to form changes",
+      description = "### Endpoint purpose:\n This endpoint streams Server-Sent Events named 'form-change' for every created, updated and deleted form. The event data holds the change type, the form key and the content hash of the new form data; the event id can be sent back in the 'Last-Event-ID' header on reconnect to receive the missed changes. A 'RESET' change means the missed changes are no longer available and every cached form has to be dropped.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "Last-Event-ID",
+              description = "Id of the last received event, the changes made after it are sent first",
+              schema = @Schema(type = "string")
+          )
+      },
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Stream of form changes",
+              content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to subscribe to form changes",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public SseEmitter subscribe(
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return formChangeFeedService.subscribe(lastEventId);
+  }
+}
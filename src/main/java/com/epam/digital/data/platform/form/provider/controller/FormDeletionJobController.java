@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import com.epam.digital.data.platform.form.provider.dto.FormDeletionRequest;
+import com.epam.digital.data.platform.form.provider.entity.FormDeletionJob;
+import com.epam.digital.data.platform.form.provider.service.FormDeletionJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@Tag(description = "Asynchronous bulk deletion of UI form schemes", name = "form-deletion-jobs-api")
+@RequestMapping("/api/form-deletion-jobs")
+public class FormDeletionJobController {
+
+  private final FormDeletionJobService formDeletionJobService;
+
+  public FormDeletionJobController(FormDeletionJobService formDeletionJobService) {
+    this.formDeletionJobService = formDeletionJobService;
+  }
+
+  @PostMapping
+  @Operation(summary = "Submit forms deletion job",
+      description = "### Endpoint purpose:\n This endpoint accepts either a list of form keys or a form key prefix and deletes the forms asynchronously in batches. Unless force is set, forms referenced by forms that are not deleted by the same job are kept and listed in the job. The returned job id is used to poll the deletion progress.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          )
+      },
+      requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+          content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = FormDeletionRequest.class),
+              examples = {
+                  @ExampleObject(name = "keys", value = "{\n" +
+                      "  \"keys\": [\"test-form\", \"other-form\"]\n" +
+                      "}"
+                  ),
+                  @ExampleObject(name = "prefix", value = "{\n" +
+                      "  \"prefix\": \"test-\",\n" +
+                      "  \"force\": true\n" +
+                      "}"
+                  )
+              })),
+      responses = {
+          @ApiResponse(
+              responseCode = "202",
+              description = "Deletion job accepted",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to delete forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "422",
+              description = "Request contains neither or both of form keys and key prefix",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public ResponseEntity<FormDeletionJob> submitJob(@RequestBody FormDeletionRequest request) {
+    var job = formDeletionJobService.submitJob(request);
+    var location = ServletUriComponentsBuilder.fromCurrentRequest()
+        .path("/{jobId}")
+        .buildAndExpand(job.getId())
+        .toUri();
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .location(location)
+        .body(job);
+  }
+
+  @GetMapping("/{jobId}")
+  @Operation(summary = "Get forms deletion job",
+      description = "### Endpoint purpose:\n This endpoint returns the deletion job status, the number of processed and deleted forms and the forms kept because other forms reference them.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "jobId",
+              description = "Deletion job id",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Returns deletion job progress",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the deletion job",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Deletion job Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public ResponseEntity<FormDeletionJob> getJob(@PathVariable("jobId") String jobId) {
+    return ResponseEntity.ok(formDeletionJobService.getJob(jobId));
+  }
+}
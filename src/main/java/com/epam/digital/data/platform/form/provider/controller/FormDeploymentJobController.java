@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob;
+import com.epam.digital.data.platform.form.provider.service.FormDeploymentJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@Tag(description = "Asynchronous deployment of UI form schemes", name = "form-deployment-jobs-api")
+@RequestMapping("/api/form-deployment-jobs")
+public class FormDeploymentJobController {
+
+  private final FormDeploymentJobService formDeploymentJobService;
+
+  public FormDeploymentJobController(FormDeploymentJobService formDeploymentJobService) {
+    this.formDeploymentJobService = formDeploymentJobService;
+  }
+
+  @PostMapping
+  @Operation(summary = "Submit forms deployment job",
+      description = "### Endpoint purpose:\n This endpoint accepts a JSON array of forms and deploys them asynchronously. Every form is validated the same way as on upload, valid forms are created or replaced. The returned job id is used to poll the deployment progress.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "validationMode",
+              description = "FAIL_FAST stops validating every form at its first error, COMPLETE reports all errors of every form grouped by path",
+              in = ParameterIn.QUERY,
+              schema = @Schema(implementation = ValidationMode.class, defaultValue = "COMPLETE")
+          ),
+          @Parameter(
+              name = "newGeneration",
+              description = "Deploy the forms as a new generation that replaces the whole form set at once when every form is deployed. Forms that are not in the job are removed with the switch. If any form fails, the generation is discarded and the forms stay as they were",
+              in = ParameterIn.QUERY,
+              schema = @Schema(type = "boolean", defaultValue = "false")
+          )
+      },
+      requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+          content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = String.class),
+              examples = {
+                  @ExampleObject(value = "[\n" +
+                      "  {\n" +
+                      "    \"title\": \"Test Form\",\n" +
+                      "    \"name\": \"test-form\",\n" +
+                      "    \"display\": \"form\",\n" +
+                      "    \"components\": [\"...\"]\n" +
+                      "  }\n" +
+                      "]"
+                  )
+              })),
+      responses = {
+          @ApiResponse(
+              responseCode = "202",
+              description = "Deployment job accepted",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to deploy forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "422",
+              description = "Request body is not a JSON array of forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public ResponseEntity<FormDeploymentJob> submitJob(@RequestBody String formsData,
+      @RequestParam(value = "validationMode", defaultValue = "COMPLETE")
+      ValidationMode validationMode,
+      @RequestParam(value = "newGeneration", defaultValue = "false") boolean newGeneration) {
+    var job = formDeploymentJobService.submitJob(formsData, validationMode, newGeneration);
+    var location = ServletUriComponentsBuilder.fromCurrentRequest()
+        .path("/{jobId}")
+        .buildAndExpand(job.getId())
+        .toUri();
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .location(location)
+        .body(job);
+  }
+
+  @GetMapping("/{jobId}")
+  @Operation(summary = "Get forms deployment job",
+      description = "### Endpoint purpose:\n This endpoint returns the deployment job status together with the status, form name and validation errors of every submitted form.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "jobId",
+              description = "Deployment job id",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Returns deployment job progress",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the deployment job",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Deployment job Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public ResponseEntity<FormDeploymentJob> getJob(@PathVariable("jobId") String jobId) {
+    return ResponseEntity.ok(formDeploymentJobService.getJob(jobId));
+  }
+}
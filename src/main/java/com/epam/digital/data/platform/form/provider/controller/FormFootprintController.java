@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import com.epam.digital.data.platform.form.provider.dto.FootprintMetric;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprint;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprintReport;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Tag(description = "Storage footprint of UI form schemes", name = "form-footprints-api")
+@RequestMapping("/api/form-footprints")
+public class FormFootprintController {
+
+  private final FormFootprintService formFootprintService;
+
+  public FormFootprintController(FormFootprintService formFootprintService) {
+    this.formFootprintService = formFootprintService;
+  }
+
+  @GetMapping
+  @Operation(summary = "Get storage footprint report",
+      description = "### Endpoint purpose:\n This endpoint returns the form data size, compressed size estimate, component count, nesting depth and read count summed over all forms, together with the forms ranking highest by the chosen metric. The footprint of a form is recorded when the form is written, forms not written since the footprint was introduced are not reported.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "sortBy",
+              description = "Metric the reported forms are ranked by, highest first",
+              in = ParameterIn.QUERY,
+              schema = @Schema(implementation = FootprintMetric.class,
+                  defaultValue = "FORM_DATA_BYTES")
+          ),
+          @Parameter(
+              name = "limit",
+              description = "Number of reported forms, at most form.footprint.max-forms",
+              in = ParameterIn.QUERY,
+              schema = @Schema(type = "integer", defaultValue = "20")
+          )
+      },
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Returns storage footprint report",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the footprint report",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "422",
+              description = "The number of reported forms is out of range",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public ResponseEntity<FormFootprintReport> getReport(
+      @RequestParam(value = "sortBy", defaultValue = "FORM_DATA_BYTES") FootprintMetric sortBy,
+      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    return ResponseEntity.ok(formFootprintService.getReport(sortBy, limit));
+  }
+
+  @GetMapping("/{key}")
+  @Operation(summary = "Get storage footprint of a form",
+      description = "### Endpoint purpose:\n This endpoint returns the form data size, compressed size estimate, component count, nesting depth and read count of a form.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "key",
+              description = "Form key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Returns storage footprint of the form",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the form footprint",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Form footprint Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      })
+  public ResponseEntity<FormFootprint> getFootprint(@PathVariable("key") String key) {
+    return ResponseEntity.ok(formFootprintService.getFootprint(key));
+  }
+}
@@ -16,13 +16,26 @@
 
 package com.epam.digital.data.platform.form.provider.controller;
 
+import com.epam.digital.data.platform.form.provider.dto.FormBundle;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaVersion;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.service.FormBundleService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
 import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import net.minidev.json.JSONObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -33,6 +46,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -44,22 +58,35 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class FormSchemaProviderController {
 
   private final FormSchemaProviderServiceImpl formSchemaProviderServiceImpl;
+  private final FormSchemaVersionService formSchemaVersionService;
+  private final FormBundleService formBundleService;
 
-  public FormSchemaProviderController(FormSchemaProviderServiceImpl formSchemaProviderServiceImpl) {
+  public FormSchemaProviderController(FormSchemaProviderServiceImpl formSchemaProviderServiceImpl,
+      FormSchemaVersionService formSchemaVersionService, FormBundleService formBundleService) {
     this.formSchemaProviderServiceImpl = formSchemaProviderServiceImpl;
+    this.formSchemaVersionService = formSchemaVersionService;
+    this.formBundleService = formBundleService;
   }
 
   @PostMapping
   @Operation(summary = "Upload form for business process",
       description = "### Endpoint purpose:\n This endpoint allows to upload a form that being used by process instance for get user input data. " +
           "Input form being validated for duplicate names, validation of form schema structure and required properties fillment. Example : property `name` is required and should be unique for registry ",
-      parameters = @Parameter(
-          in = ParameterIn.HEADER,
-          name = "X-Access-Token",
-          description = "Token used for endpoint security",
-          required = true,
-          schema = @Schema(type = "string")
-      ),
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "validationMode",
+              description = "FAIL_FAST stops at the first validation error, COMPLETE reports all errors grouped by path",
+              in = ParameterIn.QUERY,
+              schema = @Schema(implementation = ValidationMode.class, defaultValue = "COMPLETE")
+          )
+      },
       requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
           content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE,
           schema = @Schema(implementation = String.class),
@@ -107,14 +134,16 @@ public class FormSchemaProviderController {
               content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
           )
       })
-  public ResponseEntity<Void> saveForm(@RequestBody String formData) {
-    formSchemaProviderServiceImpl.saveForm(formData);
+  public ResponseEntity<Void> saveForm(@RequestBody String formData,
+      @RequestParam(value = "validationMode", defaultValue = "COMPLETE")
+      ValidationMode validationMode) {
+    formSchemaProviderServiceImpl.saveForm(formData, validationMode);
     return ResponseEntity.status(HttpStatus.CREATED).build();
   }
 
   @GetMapping("/{key}")
   @Operation(summary = "Download form by key",
-      description = "### Endpoint purpose:\n This endpoint allows to download a form. The form is returned as a JSON object.",
+      description = "### Endpoint purpose:\n This endpoint allows to download a form. The form is returned as a JSON object with the content hash of the form as its `ETag`; a request with a matching `If-None-Match` header gets `304 Not Modified` without a body. While the storage is unavailable the form is served from the local snapshot, such responses have the `Warning: 110` and `Age` headers and no `ETag`.",
       parameters = {
         @Parameter(
           in = ParameterIn.HEADER,
@@ -174,9 +203,309 @@ public class FormSchemaProviderController {
       }
   )
   public ResponseEntity<JSONObject> getForm(@PathVariable("key") String key) {
+    var formContent = formSchemaProviderServiceImpl.getFormContentByKey(key);
+    var response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+    if (formContent.getSnapshotCreatedAt() != null) {
+      return stale(response, formContent.getSnapshotCreatedAt()).body(formContent.getForm());
+    }
+    if (formContent.getContentHash() != null) {
+      response.eTag(formContent.getContentHash());
+    }
+    return response.body(formContent.getForm());
+  }
+
+  @GetMapping(params = "keys")
+  @Operation(summary = "Download forms by keys",
+      description = "### Endpoint purpose:\n This endpoint allows to download up to 100 forms with one request. Every found form is returned together with its key and content hash, the content hash is the `ETag` of the form on the single form endpoint. Missing forms are left out of the response. While the storage is unavailable the forms are served from the local snapshot without content hashes, such responses have the `Warning: 110` and `Age` headers.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "keys",
+              description = "Comma separated form keys",
+              in = ParameterIn.QUERY,
+              required = true,
+              array = @ArraySchema(schema = @Schema(implementation = String.class))
+          )
+      },
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Returns found forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  array = @ArraySchema(schema = @Schema(implementation = FormSchemaContent.class)))
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "422",
+              description = "More than 100 forms are requested",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      }
+  )
+  public ResponseEntity<List<FormSchemaContent>> getForms(
+      @RequestParam("keys") List<String> keys) {
+    var formContents = formSchemaProviderServiceImpl.getFormsByKeys(keys);
+    var response = ResponseEntity.ok();
+    formContents.stream()
+        .map(FormSchemaContent::getSnapshotCreatedAt)
+        .filter(Objects::nonNull)
+        .min(Comparator.naturalOrder())
+        .ifPresent(snapshotCreatedAt -> stale(response, snapshotCreatedAt));
+    return response.body(formContents);
+  }
+
+  /**
+   * Marks a response served from the local snapshot while the storage is unavailable.
+   */
+  private static ResponseEntity.BodyBuilder stale(ResponseEntity.BodyBuilder response,
+      Instant snapshotCreatedAt) {
+    return response
+        .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+        .header(HttpHeaders.AGE, String.valueOf(
+            Duration.between(snapshotCreatedAt, Instant.now()).toSeconds()));
+  }
+
+  @GetMapping("/{key}/bundle")
+  @Operation(summary = "Download form with its nested forms",
+      description = "### Endpoint purpose:\n This endpoint allows to download a form together with all forms it embeds. Every nested form component (`\"type\": \"form\"` with the key of another form in `form`) gets the `components` of the referenced form, resolved recursively, so the returned form is self-contained. The keys of all bundled forms are listed in `forms`. The content hash of the resolved form is returned as the `ETag`; a request with a matching `If-None-Match` header gets `304 Not Modified` without a body. Resolved bundles are cached until one of their forms changes. While the storage is unavailable the forms are taken from the local snapshot, such bundles are not cached and their responses have the `Warning: 110` and `Age` headers and no `ETag`.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "key",
+              description = "Form key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              description = "Returns the form with its nested forms inlined",
+              responseCode = "200",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  schema = @Schema(implementation = FormBundle.class))
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the form",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "The form or one of the forms it references Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "422",
+              description = "The forms reference each other in a cycle or too many forms are referenced",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      }
+  )
+  public ResponseEntity<FormBundle> getFormBundle(@PathVariable("key") String key) {
+    var formBundle = formBundleService.getBundle(key);
+    var response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+    if (formBundle.getSnapshotCreatedAt() != null) {
+      return stale(response, formBundle.getSnapshotCreatedAt()).body(formBundle);
+    }
+    return response.eTag(formBundle.getContentHash()).body(formBundle);
+  }
+
+  @GetMapping("/{key}/components/{componentKey}")
+  @Operation(summary = "Download form component by key",
+      description = "### Endpoint purpose:\n This endpoint allows to download a single component definition of a form. The component is looked up in the component index built on form save, so the whole form is not parsed. While the storage is unavailable the component is served from the form in the local snapshot.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "key",
+              description = "Form key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          ),
+          @Parameter(
+              name = "componentKey",
+              description = "Component key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              description = "Returns form component definition",
+              responseCode = "200",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  schema = @Schema(implementation = String.class),
+                  examples = {
+                      @ExampleObject(value = "{\n" +
+                          "  \"type\": \"button\",\n" +
+                          "  \"label\": \"Submit\",\n" +
+                          "  \"key\": \"submit\",\n" +
+                          "  \"size\": \"md\",\n" +
+                          "  \"...\"\n" +
+                          "}"
+                      )
+                  })
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the form",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Form or component Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      }
+  )
+  public ResponseEntity<JSONObject> getFormComponent(@PathVariable("key") String key,
+      @PathVariable("componentKey") String componentKey) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(formSchemaProviderServiceImpl.getFormComponentByKey(key, componentKey));
+  }
+
+  @GetMapping("/{key}/versions")
+  @Operation(summary = "Get form version history",
+      description = "### Endpoint purpose:\n This endpoint allows to get the list of stored versions of a form, the newest first. Only a limited number of the latest versions is kept.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "key",
+              description = "Form key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              description = "Returns form versions",
+              responseCode = "200",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  array = @ArraySchema(schema = @Schema(implementation = FormSchemaVersion.class)))
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the form",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Form Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      }
+  )
+  public ResponseEntity<List<FormSchemaVersion>> getFormVersions(@PathVariable("key") String key) {
+    return ResponseEntity.ok(formSchemaVersionService.getVersions(key));
+  }
+
+  @GetMapping("/{key}/versions/{version}")
+  @Operation(summary = "Download form version",
+      description = "### Endpoint purpose:\n This endpoint allows to download a stored version of a form. The form is returned as a JSON object.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "key",
+              description = "Form key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          ),
+          @Parameter(
+              name = "version",
+              description = "Form version",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = Integer.class)
+          )
+      },
+      responses = {
+          @ApiResponse(
+              description = "Returns form version",
+              responseCode = "200",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  schema = @Schema(implementation = String.class))
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the form",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Form or version Not Found",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      }
+  )
+  public ResponseEntity<JSONObject> getFormVersion(@PathVariable("key") String key,
+      @PathVariable("version") int version) {
     return ResponseEntity.ok()
         .contentType(MediaType.APPLICATION_JSON)
-        .body(formSchemaProviderServiceImpl.getFormByKey(key));
+        .body(formSchemaVersionService.getVersion(key, version));
   }
 
   @PutMapping("/{key}")
@@ -196,8 +525,13 @@ public class FormSchemaProviderController {
               in = ParameterIn.PATH,
               required = true,
               schema = @Schema(implementation = String.class)
+          ),
+          @Parameter(
+              name = "validationMode",
+              description = "FAIL_FAST stops at the first validation error, COMPLETE reports all errors grouped by path",
+              in = ParameterIn.QUERY,
+              schema = @Schema(implementation = ValidationMode.class, defaultValue = "COMPLETE")
           )
-
       },
       requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
           content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
@@ -248,15 +582,66 @@ public class FormSchemaProviderController {
           )
       })
   public ResponseEntity<Void> updateForm(@PathVariable("key") String key,
-      @RequestBody String formSchemaData) {
-    formSchemaProviderServiceImpl.updateForm(key, formSchemaData);
+      @RequestBody String formSchemaData,
+      @RequestParam(value = "validationMode", defaultValue = "COMPLETE")
+      ValidationMode validationMode) {
+    formSchemaProviderServiceImpl.updateForm(key, formSchemaData, validationMode);
     return ResponseEntity.status(HttpStatus.OK).build();
   }
 
+  @GetMapping("/{key}/dependents")
+  @Operation(summary = "Get forms referencing a form",
+      description = "### Endpoint purpose:\n This endpoint allows to get the keys of the forms that embed the form as a nested form component (`\"type\": \"form\"` with the key of the form in `form`), sorted. With `transitive=true` the forms embedding those forms are returned as well, and so on. The form itself does not have to exist.",
+      parameters = {
+          @Parameter(
+              in = ParameterIn.HEADER,
+              name = "X-Access-Token",
+              description = "Token used for endpoint security",
+              required = true,
+              schema = @Schema(type = "string")
+          ),
+          @Parameter(
+              name = "key",
+              description = "Form key",
+              in = ParameterIn.PATH,
+              required = true,
+              schema = @Schema(implementation = String.class)
+          ),
+          @Parameter(
+              name = "transitive",
+              description = "Include the forms referencing the form indirectly",
+              in = ParameterIn.QUERY,
+              schema = @Schema(type = "boolean", defaultValue = "false")
+          )
+      },
+      responses = {
+          @ApiResponse(
+              description = "Returns the keys of the forms referencing the form",
+              responseCode = "200",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  array = @ArraySchema(schema = @Schema(implementation = String.class)))
+          ),
+          @ApiResponse(
+              responseCode = "401",
+              description = "You are not authorized to get the forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
+          @ApiResponse(
+              responseCode = "500",
+              description = "Internal server error",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          )
+      }
+  )
+  public ResponseEntity<List<String>> getFormDependents(@PathVariable("key") String key,
+      @RequestParam(value = "transitive", defaultValue = "false") boolean transitive) {
+    return ResponseEntity.ok(formSchemaProviderServiceImpl.getFormDependents(key, transitive));
+  }
+
   @DeleteMapping("/{key}")
   @Operation(
       summary = "Delete form by key",
-      description = "### Endpoint purpose:\n This endpoint allows the deletion of a specific form.",
+      description = "### Endpoint purpose:\n This endpoint allows the deletion of a specific form. A form referenced by other forms as a nested form is not deleted unless `force=true` is set.",
       parameters = {
           @Parameter(
               in = ParameterIn.HEADER,
@@ -271,6 +656,12 @@ public class FormSchemaProviderController {
               in = ParameterIn.PATH,
               required = true,
               schema = @Schema(implementation = String.class)
+          ),
+          @Parameter(
+              name = "force",
+              description = "Delete the form even if other forms reference it",
+              in = ParameterIn.QUERY,
+              schema = @Schema(type = "boolean", defaultValue = "false")
           )
       },
       responses = {
@@ -288,6 +679,11 @@ public class FormSchemaProviderController {
               description = "Forbidden",
               content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
           ),
+          @ApiResponse(
+              responseCode = "409",
+              description = "The form is referenced by other forms",
+              content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+          ),
           @ApiResponse(
               responseCode = "500",
               description = "Internal server error",
@@ -295,8 +691,9 @@ public class FormSchemaProviderController {
           )
       }
   )
-  public ResponseEntity<Void> deleteFormByKey(@PathVariable("key") String key) {
-    formSchemaProviderServiceImpl.deleteFormByKey(key);
+  public ResponseEntity<Void> deleteFormByKey(@PathVariable("key") String key,
+      @RequestParam(value = "force", defaultValue = "false") boolean force) {
+    formSchemaProviderServiceImpl.deleteFormByKey(key, force);
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Storage footprint of a form, measured when the form is written, and the number of times it
+ * was read.
+ */
+@Data
+@Builder
+public class FormFootprint {
+
+  private String key;
+  /**
+   * UTF-8 size of the form data, without the component index and version history kept with it.
+   */
+  private long formDataBytes;
+  /**
+   * Size of the form data compressed with DEFLATE, an estimate of what compression would save.
+   */
+  private long compressedBytes;
+  /**
+   * Number of components, nested ones included.
+   */
+  private long componentCount;
+  /**
+   * Nesting depth of the components, 1 for a form whose components contain no other components.
+   */
+  private long maxDepth;
+  private long readCount;
+}
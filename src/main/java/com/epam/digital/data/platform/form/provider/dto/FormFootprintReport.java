@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Storage footprint of all tracked forms of a tenant together with the forms ranking highest by
+ * the requested metric.
+ */
+@Data
+@Builder
+public class FormFootprintReport {
+
+  private long formCount;
+  private long formDataBytes;
+  private long compressedBytes;
+  private long componentCount;
+  /**
+   * The deepest component nesting of all forms.
+   */
+  private long maxDepth;
+  private long readCount;
+  private FootprintMetric sortedBy;
+  private List<FormFootprint> forms;
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+import net.minidev.json.JSONObject;
+
+@Data
+@Builder
+public class FormSchemaContent {
+
+  private String key;
+  /**
+   * {@link com.epam.digital.data.platform.form.provider.util.ContentHash} of the form data, used
+   * as the entity tag of the form. Forms stored before content hashes were introduced have none.
+   */
+  private String contentHash;
+  private JSONObject form;
+  /**
+   * When the form was read from the local snapshot because the storage is unavailable, the time
+   * the snapshot was taken.
+   */
+  @JsonIgnore
+  private Instant snapshotCreatedAt;
+}
@@ -16,6 +16,9 @@
 
 package com.epam.digital.data.platform.form.provider.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.util.List;
 import lombok.Builder;
 import lombok.Data;
 
@@ -24,4 +27,8 @@ import lombok.Data;
 public class ValidationError {
   private String path;
   private String massage;
+  @JsonInclude(Include.NON_EMPTY)
+  private List<String> messages;
+  @JsonInclude(Include.NON_DEFAULT)
+  private int omittedMessages;
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.dto;
+
+/**
+ * How much work form validation does before it reports the form as invalid.
+ */
+public enum ValidationMode {
+
+  /**
+   * Validation stops at the first error, and only that error is reported. Meant for bulk
+   * deployments that only need to know whether a form can be accepted.
+   */
+  FAIL_FAST,
+
+  /**
+   * Every error is collected and grouped by path, within the configured output limits. Meant for
+   * the form editor that shows all problems at once.
+   */
+  COMPLETE
+}
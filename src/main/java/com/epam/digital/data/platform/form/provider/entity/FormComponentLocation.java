@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.entity;
+
+import java.nio.charset.StandardCharsets;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Location of a single form component inside the stored form data.
+ * <p>
+ * {@code start} and {@code end} are offsets in the UTF-8 encoded form data, {@code end} is
+ * exclusive.
+ */
+@Data
+@Builder
+public class FormComponentLocation {
+
+  private String path;
+  private int start;
+  private int end;
+
+  /**
+   * Returns the data of the component cut from the form data, {@code null} if the location is
+   * outside of it.
+   */
+  public String cut(String formData) {
+    var bytes = formData.getBytes(StandardCharsets.UTF_8);
+    if (start < 0 || end > bytes.length || start >= end) {
+      return null;
+    }
+    return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.entity;
+
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.TimeToLive;
+
+@Data
+@Builder
+@RedisHash("bpm-form-deletion-jobs")
+public class FormDeletionJob {
+
+  @Id
+  private String id;
+  private JobStatus status;
+  private Instant createdAt;
+  private Instant updatedAt;
+
+  /**
+   * Forms whose key starts with the prefix are deleted, {@code null} if the keys are given.
+   */
+  private String prefix;
+
+  /**
+   * Keys of the forms to delete, {@code null} if the prefix is given.
+   */
+  @JsonIgnore
+  private List<String> keys;
+
+  /**
+   * Whether forms referenced by forms that are not deleted by the job are deleted as well.
+   */
+  private boolean force;
+
+  /**
+   * Number of requested keys or scanned forms processed so far.
+   */
+  private long processedCount;
+  private long deletedCount;
+
+  /**
+   * Forms that were not deleted because forms outside of the job reference them.
+   */
+  private List<String> referencedForms;
+
+  @JsonIgnore
+  private String tenant;
+
+  @JsonIgnore
+  @TimeToLive
+  private Long ttl;
+
+  public Integer getRequestedCount() {
+    return keys == null ? null : keys.size();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.entity;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.TimeToLive;
+
+@Data
+@Builder
+@RedisHash("bpm-form-deployment-jobs")
+public class FormDeploymentJob {
+
+  @Id
+  private String id;
+  private JobStatus status;
+  private ValidationMode validationMode;
+  private Instant createdAt;
+  private Instant updatedAt;
+  private List<FormDeploymentJobItem> items;
+
+  /**
+   * Generation the forms are deployed into when the job replaces the whole form set of the
+   * tenant, {@code null} when the forms are deployed one by one into the active generation.
+   */
+  private String generation;
+
+  /**
+   * Whether the generation was made the active one, which happens only when every form of the
+   * job was deployed.
+   */
+  private Boolean generationActivated;
+
+  /**
+   * Tenant that submitted the job, the forms are deployed for this tenant.
+   */
+  @JsonIgnore
+  private String tenant;
+
+  @JsonIgnore
+  @TimeToLive
+  private Long ttl;
+
+  public long getDeployedCount() {
+    return countItems(ItemStatus.DEPLOYED);
+  }
+
+  public long getFailedCount() {
+    return countItems(ItemStatus.FAILED);
+  }
+
+  public long getPendingCount() {
+    return countItems(ItemStatus.PENDING);
+  }
+
+  private long countItems(ItemStatus itemStatus) {
+    return items == null ? 0 : items.stream()
+        .filter(item -> item.getStatus() == itemStatus)
+        .count();
+  }
+
+  public enum JobStatus {
+    PENDING, IN_PROGRESS, COMPLETED
+  }
+
+  public enum ItemStatus {
+    PENDING, DEPLOYED, FAILED
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.entity;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.TimeToLive;
+
+/**
+ * Raw form data submitted with a {@link FormDeploymentJob}. It is kept apart from the job so that
+ * polling the job status does not read the forms back, and is removed once the job completes.
+ */
+@Data
+@Builder
+@RedisHash("bpm-form-deployment-job-payloads")
+public class FormDeploymentJobPayload {
+
+  @Id
+  private String id;
+  private List<String> forms;
+
+  @TimeToLive
+  private Long ttl;
+}
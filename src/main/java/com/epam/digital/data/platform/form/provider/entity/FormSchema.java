@@ -17,17 +17,33 @@
 
 package com.epam.digital.data.platform.form.provider.entity;
 
+import java.util.Map;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.redis.core.RedisHash;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 @RedisHash("bpm-form-schemas")
 public class FormSchema {
 
   @Id
   private String id;
   private String formData;
+  /**
+   * Not part of the form hash of the repository, the storage engines keep it apart from the form
+   * data, see {@link com.epam.digital.data.platform.form.provider.storage.FormStorage}.
+   */
+  @Transient
+  private Map<String, FormComponentLocation> componentIndex;
+  /**
+   * {@link com.epam.digital.data.platform.form.provider.util.ContentHash} of the form data.
+   */
+  private String contentHash;
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.epam.digital.data.platform.form.provider.entity;
+
+import com.epam.digital.data.platform.form.provider.util.ContentHash;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Rebuilds {@link #version} from the next version's form data, whose SHA-256 is
+ * {@link #baseHash}: the first {@link #prefixLength} and the last {@link #suffixLength} characters
+ * are kept and everything between them is rebuilt from {@link #segments}, each of them either
+ * copied from the next version or taken as is. Deltas recorded before segments were introduced
+ * replace everything between them with {@link #replacement}.
+ */
+@Data
+@Builder
+public class FormSchemaDelta {
+
+  /**
+   * Length of the blocks the next version is indexed by, shorter matches are stored as text.
+   */
+  private static final int BLOCK_LENGTH = 32;
+
+  private int version;
+  private Instant createdAt;
+  private String baseHash;
+  private int prefixLength;
+  private int suffixLength;
+  private List<Segment> segments;
+  private String replacement;
+
+  public static FormSchemaDelta between(String formData, String previousFormData) {
+    var maxLength = Math.min(formData.length(), previousFormData.length());
+    var prefix = 0;
+    while (prefix < maxLength && formData.charAt(prefix) == previousFormData.charAt(prefix)) {
+      prefix++;
+    }
+    var suffix = 0;
+    while (suffix < maxLength - prefix && formData.charAt(formData.length() - 1 - suffix)
+        == previousFormData.charAt(previousFormData.length() - 1 - suffix)) {
+      suffix++;
+    }
+    return FormSchemaDelta.builder()
+        .baseHash(ContentHash.ofText(formData))
+        .prefixLength(prefix)
+        .suffixLength(suffix)
+        .segments(segments(formData, prefix, formData.length() - suffix,
+            previousFormData, prefix, previousFormData.length() - suffix))
+        .build();
+  }
+
+  /**
+   * @throws IllegalStateException if the form data is not the version this delta was recorded
+   *                               against
+   */
+  public String applyTo(String formData) {
+    if (baseHash != null && !baseHash.equals(ContentHash.ofText(formData))
+        || prefixLength + suffixLength > formData.length()) {
+      throw new IllegalStateException("The delta does not apply to the form data");
+    }
+    var result = new StringBuilder(formData.length()).append(formData, 0, prefixLength);
+    if (segments == null) {
+      // an empty list of segments is not stored and reads back as null
+      result.append(replacement == null ? "" : replacement);
+    } else {
+      for (var segment : segments) {
+        if (segment.getText() != null) {
+          result.append(segment.getText());
+        } else if (segment.getOffset() >= 0
+            && segment.getOffset() + segment.getLength() <= formData.length()) {
+          result.append(formData, segment.getOffset(), segment.getOffset() + segment.getLength());
+        } else {
+          throw new IllegalStateException("The delta does not apply to the form data");
+        }
+      }
+    }
+    return result.append(formData, formData.length() - suffixLength, formData.length())
+        .toString();
+  }
+
+  /**
+   * Describes {@code target[start, end)} as copies of {@code base[baseStart, baseEnd)} and text,
+   * so an edit touching several places of a form keeps everything between them as copies.
+   */
+  private static List<Segment> segments(String base, int baseStart, int baseEnd, String target,
+      int start, int end) {
+    var blocks = new HashMap<String, Integer>();
+    for (var offset = baseStart; offset + BLOCK_LENGTH <= baseEnd; offset += BLOCK_LENGTH) {
+      blocks.putIfAbsent(base.substring(offset, offset + BLOCK_LENGTH), offset);
+    }
+
+    var segments = new ArrayList<Segment>();
+    var textStart = start;
+    var position = start;
+    while (position + BLOCK_LENGTH <= end) {
+      var offset = blocks.get(target.substring(position, position + BLOCK_LENGTH));
+      if (offset == null) {
+        position++;
+        continue;
+      }
+      var matchStart = position;
+      var copyStart = (int) offset;
+      while (matchStart > textStart && copyStart > baseStart
+          && target.charAt(matchStart - 1) == base.charAt(copyStart - 1)) {
+        matchStart--;
+        copyStart--;
+      }
+      var matchEnd = position + BLOCK_LENGTH;
+      var copyEnd = offset + BLOCK_LENGTH;
+      while (matchEnd < end && copyEnd < baseEnd
+          && target.charAt(matchEnd) == base.charAt(copyEnd)) {
+        matchEnd++;
+        copyEnd++;
+      }
+      if (matchStart > textStart) {
+        segments.add(Segment.builder().text(target.substring(textStart, matchStart)).build());
+      }
+      segments.add(Segment.builder().offset(copyStart).length(matchEnd - matchStart).build());
+      textStart = matchEnd;
+      position = matchEnd;
+    }
+    if (textStart < end) {
+      segments.add(Segment.builder().text(target.substring(textStart, end)).build());
+    }
+    return segments;
+  }
+
+  /**
+   * Either {@link #text} or {@link #length} characters of the next version starting at
+   * {@link #offset}.
+   */
+  @Data
+  @Builder
+  public static class Segment {
+
+    private int offset;
+    private int length;
+    private String text;
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.entity;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+
+/**
+ * Bounded version history of a form. The current version is the one stored in
+ * {@link FormSchema}; older versions are kept as {@link FormSchemaDelta reverse deltas}, the
+ * newest first, so each delta turns a version into the one before it.
+ */
+@Data
+@Builder
+@RedisHash("bpm-form-schema-histories")
+public class FormSchemaHistory {
+
+  @Id
+  private String id;
+  /**
+   * Random id of this history, regenerated when the form is created again after deletion, so
+   * reconstructed versions cached under the old history are never served for the new one.
+   */
+  private String lineage;
+  private int currentVersion;
+  private Instant currentCreatedAt;
+  /**
+   * SHA-256 of the current version's form data. A history whose hash does not match the stored
+   * form, because a write of it was lost or raced with another one, is started anew.
+   */
+  private String currentHash;
+  private List<FormSchemaDelta> deltas;
+}
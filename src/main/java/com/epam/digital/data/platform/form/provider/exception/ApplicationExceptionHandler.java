@@ -19,6 +19,7 @@ package com.epam.digital.data.platform.form.provider.exception;
 import com.epam.digital.data.platform.form.provider.dto.DetailedErrorResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -36,7 +37,20 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
   private static final String FORM_SCHEMA_NOT_FOUND = "FORM_SCHEMA_NOT_FOUND";
   private static final String FORBIDDEN_OPERATION = "FORBIDDEN_OPERATION";
   private static final String RUNTIME_ERROR = "RUNTIME_ERROR";
+  private static final String VALIDATION_CAPACITY_EXCEEDED = "VALIDATION_CAPACITY_EXCEEDED";
+  private static final String INVALID_TENANT = "INVALID_TENANT";
+  private static final String INVALID_FORM_KEY = "INVALID_FORM_KEY";
+  private static final String TENANT_QUOTA_EXCEEDED = "TENANT_QUOTA_EXCEEDED";
+  private static final String FORM_SCHEMA_REFERENCED = "FORM_SCHEMA_REFERENCED";
+  private static final String FORM_GENERATION_IN_PROGRESS = "FORM_GENERATION_IN_PROGRESS";
+  private static final String FORM_DEPENDENCY_INDEX_UNAVAILABLE =
+      "FORM_DEPENDENCY_INDEX_UNAVAILABLE";
 
+  private final ValidationFailureReporter validationFailureReporter;
+
+  public ApplicationExceptionHandler(ValidationFailureReporter validationFailureReporter) {
+    this.validationFailureReporter = validationFailureReporter;
+  }
 
   @ExceptionHandler(Exception.class)
   public ResponseEntity<DetailedErrorResponse> handleException(Exception exception) {
@@ -53,6 +67,14 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
         .body(newDetailedResponse(FORBIDDEN_OPERATION, exception));
   }
 
+  @ExceptionHandler(FormSchemaNotFoundException.class)
+  public ResponseEntity<DetailedErrorResponse> handleFormSchemaNotFoundException(
+      FormSchemaNotFoundException exception) {
+    log.debug("No form data: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+        .body(newDetailedResponse(FORM_SCHEMA_NOT_FOUND, exception));
+  }
+
   @ExceptionHandler(FormSchemaDataException.class)
   public ResponseEntity<DetailedErrorResponse> handleNoFormDataException(
       FormSchemaDataException exception) {
@@ -72,7 +94,7 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
   @ExceptionHandler(FormSchemaValidationException.class)
   public ResponseEntity<DetailedErrorResponse> handleFormSchemaValidationException(
       FormSchemaValidationException exception) {
-    log.error("Form validation exception", exception);
+    validationFailureReporter.report(exception);
 
     var detailedErrorResponse = newDetailedResponse(FORM_VALIDATION_EXCEPTION,
         exception);
@@ -82,6 +104,64 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
         .body(detailedErrorResponse);
   }
 
+  @ExceptionHandler(ValidationCapacityExceededException.class)
+  public ResponseEntity<DetailedErrorResponse> handleValidationCapacityExceededException(
+      ValidationCapacityExceededException exception) {
+    log.warn("Form validation capacity exceeded: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+        .body(newDetailedResponse(VALIDATION_CAPACITY_EXCEEDED, exception));
+  }
+
+  @ExceptionHandler(InvalidTenantException.class)
+  public ResponseEntity<DetailedErrorResponse> handleInvalidTenantException(
+      InvalidTenantException exception) {
+    log.warn("Invalid tenant: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body(newDetailedResponse(INVALID_TENANT, exception));
+  }
+
+  @ExceptionHandler(TenantQuotaExceededException.class)
+  public ResponseEntity<DetailedErrorResponse> handleTenantQuotaExceededException(
+      TenantQuotaExceededException exception) {
+    log.warn("Tenant quota exceeded: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+        .body(newDetailedResponse(TENANT_QUOTA_EXCEEDED, exception));
+  }
+
+  @ExceptionHandler(FormSchemaReferencedException.class)
+  public ResponseEntity<DetailedErrorResponse> handleFormSchemaReferencedException(
+      FormSchemaReferencedException exception) {
+    log.warn("Form is referenced: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(newDetailedResponse(FORM_SCHEMA_REFERENCED, exception));
+  }
+
+  @ExceptionHandler(FormGenerationInProgressException.class)
+  public ResponseEntity<DetailedErrorResponse> handleFormGenerationInProgressException(
+      FormGenerationInProgressException exception) {
+    log.warn("Form generation in progress: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(newDetailedResponse(FORM_GENERATION_IN_PROGRESS, exception));
+  }
+
+  @ExceptionHandler(InvalidFormKeyException.class)
+  public ResponseEntity<DetailedErrorResponse> handleInvalidFormKeyException(
+      InvalidFormKeyException exception) {
+    log.warn("Invalid form key: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body(newDetailedResponse(INVALID_FORM_KEY, exception));
+  }
+
+  @ExceptionHandler(FormDependencyIndexUnavailableException.class)
+  public ResponseEntity<DetailedErrorResponse> handleFormDependencyIndexUnavailableException(
+      FormDependencyIndexUnavailableException exception) {
+    log.warn("Form dependency index unavailable: {}", exception.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+        .body(newDetailedResponse(FORM_DEPENDENCY_INDEX_UNAVAILABLE, exception));
+  }
+
   private DetailedErrorResponse newDetailedResponse(String code, Exception exception) {
     var response = new DetailedErrorResponse();
     response.setTraceId(MDC.get(TRACE_ID.getHeaderName()));
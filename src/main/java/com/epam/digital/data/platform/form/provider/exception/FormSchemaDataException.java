@@ -26,4 +26,8 @@ public class FormSchemaDataException extends RuntimeException {
   public FormSchemaDataException(String message, Throwable cause) {
     super(message, cause);
   }
+
+  protected FormSchemaDataException(String message, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+  }
 }
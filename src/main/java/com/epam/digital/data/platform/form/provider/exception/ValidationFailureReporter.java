@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.exception;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs a single summary line per rejected form: the number of paths and messages and the first
+ * {@code maxErrors} errors. Summaries are sampled with {@code sampleRate} and rate limited, the
+ * ones left out are counted and reported with the next logged summary. The complete list of errors
+ * is only returned in the response.
+ */
+@Slf4j
+public class ValidationFailureReporter {
+
+  private final int maxErrors;
+  private final double sampleRate;
+  private final RateLimiter rateLimiter;
+  private final Counter failedCounter;
+  private final Counter suppressedCounter;
+  private final AtomicLong suppressedSinceLastReport = new AtomicLong();
+
+  public ValidationFailureReporter(int maxErrors, double sampleRate, RateLimiter rateLimiter,
+      MeterRegistry meterRegistry) {
+    this.maxErrors = maxErrors;
+    this.sampleRate = sampleRate;
+    this.rateLimiter = rateLimiter;
+    this.failedCounter = meterRegistry.counter("form.schema.validation.failed");
+    this.suppressedCounter = meterRegistry.counter("form.schema.validation.failed.suppressed");
+  }
+
+  public void report(FormSchemaValidationException exception) {
+    failedCounter.increment();
+    if (!isSampled() || !rateLimiter.tryAcquire()) {
+      suppressedSinceLastReport.incrementAndGet();
+      suppressedCounter.increment();
+      return;
+    }
+
+    var validationErrors = Objects.requireNonNullElse(exception.getValidationErrors(),
+        Map.<String, ValidationError>of());
+    log.error("Form validation failed: details='{}', paths={}, messages={}, firstErrors={}, "
+            + "suppressed={}", exception.getMessage(), validationErrors.size(),
+        countMessages(validationErrors), firstErrors(validationErrors),
+        suppressedSinceLastReport.getAndSet(0));
+  }
+
+  private boolean isSampled() {
+    return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private String firstErrors(Map<String, ValidationError> validationErrors) {
+    return validationErrors.values().stream()
+        .limit(maxErrors)
+        .map(validationError -> validationError.getPath() + ": " + validationError.getMassage())
+        .collect(Collectors.joining("; ", "[", "]"));
+  }
+
+  private static long countMessages(Map<String, ValidationError> validationErrors) {
+    return validationErrors.values().stream()
+        .mapToLong(validationError -> validationError.getMessages() == null
+            || validationError.getMessages().isEmpty() ? 1
+            : validationError.getMessages().size() + validationError.getOmittedMessages())
+        .sum();
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import java.util.function.BiConsumer;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface FormChangeFeedService {
+
+  /**
+   * Publishes a change of a form of the current tenant to the subscribers of every instance. A
+   * {@link FormChangeType#RESET} has no key, it concerns every form of the tenant.
+   */
+  void publish(FormChangeType type, String key, String contentHash);
+
+  /**
+   * Subscribes to the changes of the forms of the current tenant. With a last event id the
+   * retained changes made after that event are sent first.
+   */
+  SseEmitter subscribe(String lastEventId);
+
+  /**
+   * Subscribes a sink to the changes of the forms of the current tenant, like
+   * {@link #subscribe(String)} does for a Server-Sent Events response. The returned handle ends
+   * the subscription.
+   */
+  Runnable subscribe(String lastEventId, FormChangeSink sink);
+
+  /**
+   * Registers a listener called with the tenant and the key of every changed form, right away for
+   * the changes published by this instance and from the stream for the changes of all instances.
+   * The key is {@code null} when every form of the tenant may have changed.
+   */
+  void addListener(BiConsumer<String, String> listener);
+}
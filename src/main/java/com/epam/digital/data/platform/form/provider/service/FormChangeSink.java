@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeEvent;
+import java.io.IOException;
+
+/**
+ * Connection of a change feed subscriber, such as a Server-Sent Events response. Calls of one
+ * sink are never concurrent.
+ */
+public interface FormChangeSink {
+
+  /**
+   * Sends a change with the id of its stream entry. A reset sent while the stream is empty has no
+   * id.
+   */
+  void send(String eventId, FormChangeEvent event) throws IOException;
+
+  /**
+   * Keeps an idle connection open, for transports that need it.
+   */
+  void heartbeat() throws IOException;
+
+  /**
+   * Closes the connection after sending failed; the subscription has ended already.
+   */
+  void fail(Exception e);
+}
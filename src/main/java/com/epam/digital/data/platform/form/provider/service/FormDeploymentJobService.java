@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob;
+
+public interface FormDeploymentJobService {
+
+  /**
+   * Submits a deployment of a JSON array of forms. With {@code newGeneration} the forms replace
+   * the whole form set of the tenant at once when every form is deployed, see
+   * {@link com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService}.
+   */
+  FormDeploymentJob submitJob(String formsData, ValidationMode validationMode,
+      boolean newGeneration);
+
+  FormDeploymentJob getJob(String jobId);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import com.epam.digital.data.platform.form.provider.dto.FootprintMetric;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprint;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprintReport;
+import java.util.Collection;
+
+public interface FormFootprintService {
+
+  /**
+   * Returns the total footprint of the forms of the current tenant and the {@code limit} forms
+   * ranking highest by the given metric.
+   */
+  FormFootprintReport getReport(FootprintMetric sortBy, int limit);
+
+  /**
+   * Returns the footprint of a form of the current tenant.
+   */
+  FormFootprint getFootprint(String key);
+
+  /**
+   * Measures a created or updated form of the current tenant.
+   */
+  void updated(String formKey, String formData);
+
+  /**
+   * Counts a read of a form of the current tenant.
+   */
+  void read(String formKey);
+
+  /**
+   * Forgets deleted forms of the current tenant.
+   */
+  void removed(Collection<String> formKeys);
+}
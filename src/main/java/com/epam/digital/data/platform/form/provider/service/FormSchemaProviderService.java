@@ -17,16 +17,40 @@
 
 package com.epam.digital.data.platform.form.provider.service;
 
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaReferencedException;
+import java.util.Collection;
+import java.util.List;
 import net.minidev.json.JSONObject;
 
 public interface FormSchemaProviderService {
 
-  void saveForm(String formSchemaData);
+  void saveForm(String formSchemaData, ValidationMode validationMode);
 
   JSONObject getFormByKey(String key);
 
-  void updateForm(String key, String formSchemaData);
+  FormSchemaContent getFormContentByKey(String key);
 
-  void deleteFormByKey(String key);
+  /**
+   * Returns the stored forms for the given keys in no particular order, missing keys are skipped.
+   */
+  List<FormSchemaContent> getFormsByKeys(Collection<String> keys);
+
+  JSONObject getFormComponentByKey(String key, String componentKey);
+
+  void updateForm(String key, String formSchemaData, ValidationMode validationMode);
+
+  /**
+   * Returns the keys of the forms referencing the given form, sorted. With {@code transitive} the
+   * forms referencing those forms are included as well, and so on.
+   */
+  List<String> getFormDependents(String key, boolean transitive);
+
+  /**
+   * Deletes the form. A form referenced by other forms is not deleted unless {@code force} is
+   * set, {@link FormSchemaReferencedException} is thrown instead.
+   */
+  void deleteFormByKey(String key, boolean force);
 
 }
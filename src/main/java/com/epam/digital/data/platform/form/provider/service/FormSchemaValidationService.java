@@ -16,9 +16,10 @@
 package com.epam.digital.data.platform.form.provider.service;
 
 import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
 import java.util.Map;
 
 public interface FormSchemaValidationService {
 
-  Map<String, ValidationError> validate(String formSchemaData);
+  Map<String, ValidationError> validate(String formSchemaData, ValidationMode validationMode);
 }
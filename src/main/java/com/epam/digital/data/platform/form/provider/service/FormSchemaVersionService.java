@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaVersion;
+import java.util.List;
+import net.minidev.json.JSONObject;
+
+public interface FormSchemaVersionService {
+
+  void recordVersion(String key, String previousFormData, String formData);
+
+  void deleteHistory(String key);
+
+  List<FormSchemaVersion> getVersions(String key);
+
+  JSONObject getVersion(String key, int version);
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.exception.ValidationCapacityExceededException;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaValidationService;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs form validation on the dedicated bounded {@code validationExecutor} instead of the calling
+ * web worker thread. At most {@code pool-size + queue-capacity} write requests can wait for
+ * validation at a time; anything above that is rejected right away with
+ * {@link ValidationCapacityExceededException}, so a burst of uploads cannot occupy the web
+ * threads that serve read requests. The validation stages stay in the trace of the calling
+ * request.
+ */
+@Slf4j
+@Primary
+@Service
+public class BulkheadFormSchemaValidationService implements FormSchemaValidationService {
+
+  private final FormSchemaValidationService delegate;
+  private final ThreadPoolExecutor validationExecutor;
+  private final long retryAfterSeconds;
+  private final StageTracer stageTracer;
+  private final Counter rejectedCounter;
+
+  public BulkheadFormSchemaValidationService(
+      FormSchemaValidationServiceImpl delegate,
+      @Qualifier("validationExecutor") ThreadPoolExecutor validationExecutor,
+      @Value("${validator.executor.retry-after-seconds}") long retryAfterSeconds,
+      StageTracer stageTracer,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.validationExecutor = validationExecutor;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.stageTracer = stageTracer;
+    this.rejectedCounter = meterRegistry.counter("form.schema.validation.rejected");
+  }
+
+  @Override
+  public Map<String, ValidationError> validate(String formSchemaData,
+      ValidationMode validationMode) {
+    Future<Map<String, ValidationError>> future;
+    try {
+      future = validationExecutor.submit(stageTracer.inCurrentSpan(
+          () -> delegate.validate(formSchemaData, validationMode)));
+    } catch (RejectedExecutionException e) {
+      rejectedCounter.increment();
+      log.warn("Form validation rejected, queue size: {}", validationExecutor.getQueue().size());
+      throw new ValidationCapacityExceededException(
+          "Form validation capacity is exceeded, please retry later", retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new FormSchemaValidationException("Error during form schema validation", cause);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new FormSchemaValidationException("Form schema validation was interrupted", e);
+    }
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FormBundle;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaNotFoundException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.service.FormBundleService;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaProviderService;
+import com.epam.digital.data.platform.form.provider.util.ContentHash;
+import com.epam.digital.data.platform.form.provider.util.FormReferences;
+import com.epam.digital.data.platform.form.provider.util.RequestCoalescer;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the nested forms of a form on the server, so a renderer gets the whole form with one
+ * request.
+ * <p>
+ * A nested form is a component of {@code "type": "form"} whose {@code form} field holds the key of
+ * another form. The referenced forms are read level by level with one batch read per level, and
+ * every nested form component gets the {@code components} of the form it references, resolved
+ * the same way. A form referenced several times is resolved once. Reference cycles, missing
+ * referenced forms and bundles of more than {@code form.bundle.max-forms} forms are rejected.
+ * <p>
+ * Resolved bundles are cached for {@code form.bundle.cache-ttl}. A change of any form of a bundle
+ * published to the change feed evicts the bundle on every instance; the time limit only covers
+ * changes that could not be published.
+ */
+@Slf4j
+@Service
+public class FormBundleServiceImpl implements FormBundleService {
+
+  private static final String COMPONENTS = "components";
+  private static final int MAX_BATCH_KEYS = 100;
+
+  private final FormSchemaProviderService formSchemaProviderService;
+  private final ObjectMapper objectMapper;
+  private final int maxForms;
+  private final Duration cacheTtl;
+  private final Map<String, CachedBundle> cache;
+  private final AtomicLong changes = new AtomicLong();
+  private final RequestCoalescer<String, FormBundle> bundleCoalescer;
+  private final Counter cacheHitCounter;
+  private final Counter cacheMissCounter;
+
+  public FormBundleServiceImpl(FormSchemaProviderService formSchemaProviderService,
+      FormChangeFeedService formChangeFeedService,
+      ObjectMapper objectMapper,
+      @Value("${form.bundle.max-forms}") int maxForms,
+      @Value("${form.bundle.cache-size}") int cacheSize,
+      @Value("${form.bundle.cache-ttl}") Duration cacheTtl,
+      MeterRegistry meterRegistry) {
+    this.formSchemaProviderService = formSchemaProviderService;
+    this.objectMapper = objectMapper;
+    this.maxForms = maxForms;
+    this.cacheTtl = cacheTtl;
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedBundle> eldest) {
+        return size() > cacheSize;
+      }
+    });
+    this.bundleCoalescer = new RequestCoalescer<>(
+        meterRegistry.counter("form.bundle.read.coalesced"));
+    this.cacheHitCounter = meterRegistry.counter("form.bundle.cache.hit");
+    this.cacheMissCounter = meterRegistry.counter("form.bundle.cache.miss");
+    formChangeFeedService.addListener(this::evict);
+  }
+
+  /**
+   * The returned bundle is shared with other callers and the cache and must not be modified.
+   */
+  @Override
+  public FormBundle getBundle(String key) {
+    var formKey = key.toLowerCase();
+    var storageId = TenantContext.storageId(formKey);
+    var cached = cache.get(storageId);
+    if (cached != null && cached.expiresAt.isAfter(now())) {
+      cacheHitCounter.increment();
+      return cached.bundle;
+    }
+
+    cacheMissCounter.increment();
+    return bundleCoalescer.execute(storageId, () -> {
+      var changesBefore = changes.get();
+      var bundle = resolve(formKey);
+      // a form changed while resolving may be in the bundle in its previous version, and forms
+      // read from the snapshot may be older than the changes already evicted
+      if (changes.get() == changesBefore && bundle.getSnapshotCreatedAt() == null) {
+        cache.put(storageId, new CachedBundle(bundle, bundle.getForms().stream()
+            .map(TenantContext::storageId)
+            .collect(Collectors.toSet()), now().plus(cacheTtl)));
+      }
+      return bundle;
+    });
+  }
+
+  protected Instant now() {
+    return Instant.now();
+  }
+
+  private void evict(String tenant, String key) {
+    changes.incrementAndGet();
+    if (key == null) {
+      synchronized (cache) {
+        cache.keySet().removeIf(storageId -> TenantContext.isStorageIdOf(tenant, storageId));
+      }
+      return;
+    }
+    var storageId = TenantContext.storageId(tenant, key);
+    synchronized (cache) {
+      cache.values().removeIf(cached -> cached.storageIds.contains(storageId));
+    }
+  }
+
+  private FormBundle resolve(String formKey) {
+    var forms = new LinkedHashMap<String, FormSchemaContent>();
+    forms.put(formKey, formSchemaProviderService.getFormContentByKey(formKey));
+    var references = new HashMap<String, List<String>>();
+
+    var level = List.of(formKey);
+    while (!level.isEmpty()) {
+      // referenced key -> the key of a form referencing it
+      var missing = new LinkedHashMap<String, String>();
+      for (var key : level) {
+        var formReferences = FormReferences.of(forms.get(key).getForm());
+        references.put(key, formReferences);
+        formReferences.stream()
+            .filter(reference -> !forms.containsKey(reference))
+            .forEach(reference -> missing.putIfAbsent(reference, key));
+      }
+      if (forms.size() + missing.size() > maxForms) {
+        throw new FormSchemaValidationException(String.format(
+            "The form '%s' references more than %d forms.", formKey, maxForms - 1), Map.of());
+      }
+      readForms(new ArrayList<>(missing.keySet()))
+          .forEach(form -> forms.put(form.getKey(), form));
+      missing.forEach((reference, referencedBy) -> {
+        if (!forms.containsKey(reference)) {
+          throw new FormSchemaNotFoundException(String.format(
+              "The UI form scheme '%s' referenced by the form '%s' is missing.", reference,
+              referencedBy));
+        }
+      });
+      level = new ArrayList<>(missing.keySet());
+    }
+    checkCycles(formKey, references, new ArrayList<>(), new HashSet<>());
+
+    var resolvedComponents = new HashMap<String, Object>();
+    var form = (JSONObject) copy(forms.get(formKey).getForm(), false, forms, resolvedComponents);
+    return FormBundle.builder()
+        .key(formKey)
+        .contentHash(ContentHash.of(objectMapper.valueToTree(form)))
+        .forms(new ArrayList<>(forms.keySet()))
+        .form(form)
+        .snapshotCreatedAt(forms.values().stream()
+            .map(FormSchemaContent::getSnapshotCreatedAt)
+            .filter(Objects::nonNull)
+            .min(Comparator.naturalOrder())
+            .orElse(null))
+        .build();
+  }
+
+  private List<FormSchemaContent> readForms(List<String> keys) {
+    var forms = new ArrayList<FormSchemaContent>();
+    for (var from = 0; from < keys.size(); from += MAX_BATCH_KEYS) {
+      forms.addAll(formSchemaProviderService.getFormsByKeys(
+          keys.subList(from, Math.min(from + MAX_BATCH_KEYS, keys.size()))));
+    }
+    return forms;
+  }
+
+  private static void checkCycles(String key, Map<String, List<String>> references,
+      List<String> path, Set<String> checked) {
+    var cycleStart = path.indexOf(key);
+    if (cycleStart >= 0) {
+      var cycle = new ArrayList<>(path.subList(cycleStart, path.size()));
+      cycle.add(key);
+      throw new FormSchemaValidationException(
+          "The forms reference each other in a cycle: " + String.join(" -> ", cycle), Map.of());
+    }
+    if (checked.contains(key)) {
+      return;
+    }
+    path.add(key);
+    for (var reference : references.getOrDefault(key, List.of())) {
+      checkCycles(reference, references, path, checked);
+    }
+    path.remove(path.size() - 1);
+    checked.add(key);
+  }
+
+  /**
+   * Copies the node, giving every nested form component the resolved components of the form it
+   * references instead of its own. The resolved components of a form are shared by all
+   * components referencing it.
+   */
+  private static Object copy(Object node, boolean inComponents,
+      Map<String, FormSchemaContent> forms, Map<String, Object> resolvedComponents) {
+    if (node instanceof Map) {
+      var reference = inComponents ? FormReferences.referenceOf((Map<?, ?>) node) : null;
+      var copy = new JSONObject();
+      ((Map<?, ?>) node).forEach((field, value) -> {
+        if (reference == null || !COMPONENTS.equals(field)) {
+          copy.put(String.valueOf(field), copy(value, FormReferences.isComponents(field, value),
+              forms, resolvedComponents));
+        }
+      });
+      if (reference != null) {
+        copy.put(COMPONENTS, resolvedComponents(reference, forms, resolvedComponents));
+      }
+      return copy;
+    }
+    if (node instanceof List) {
+      var copy = new JSONArray();
+      ((List<?>) node).forEach(element -> copy.add(copy(element, inComponents, forms,
+          resolvedComponents)));
+      return copy;
+    }
+    return node;
+  }
+
+  private static Object resolvedComponents(String key, Map<String, FormSchemaContent> forms,
+      Map<String, Object> resolvedComponents) {
+    var resolved = resolvedComponents.get(key);
+    if (resolved == null) {
+      var components = forms.get(key).getForm().get(COMPONENTS);
+      resolved = components == null ? new JSONArray()
+          : copy(components, true, forms, resolvedComponents);
+      resolvedComponents.put(key, resolved);
+    }
+    return resolved;
+  }
+
+  private static class CachedBundle {
+
+    private final FormBundle bundle;
+    private final Set<String> storageIds;
+    private final Instant expiresAt;
+
+    private CachedBundle(FormBundle bundle, Set<String> storageIds, Instant expiresAt) {
+      this.bundle = bundle;
+      this.storageIds = storageIds;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
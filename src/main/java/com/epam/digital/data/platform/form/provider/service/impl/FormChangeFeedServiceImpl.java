@@ -0,0 +1,376 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeEvent;
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormChangeSink;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.RedisZSetCommands.Limit;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Change feed of forms served as Server-Sent Events, or to any other {@link FormChangeSink}.
+ * <p>
+ * Every create, update and delete is appended to the {@code form.changes.stream} Redis stream,
+ * which keeps about the last {@code form.changes.max-length} changes of all tenants. Every
+ * instance reads the stream with one listener and forwards the changes of a tenant to the
+ * subscribers of that tenant connected to it. The stream entry id is sent as the SSE event id, so a
+ * consumer reconnecting with {@code Last-Event-ID} first gets the retained changes it missed. If
+ * the changes after that id are no longer retained, a {@link FormChangeType#RESET} event is sent
+ * instead and the consumer has to drop its cached forms.
+ * <p>
+ * The listener only queues the changes; every subscriber is sent its queue on the
+ * {@code formChangeDeliveryExecutor}, so a slow consumer does not hold up the others. A subscriber
+ * more than {@code form.changes.subscriber-queue-size} calls behind is dropped.
+ * <p>
+ * Publishing is best effort: a change that cannot be appended is only logged, so consumers
+ * caching forms for a long time should still revalidate them from time to time.
+ */
+@Slf4j
+@Service
+public class FormChangeFeedServiceImpl implements FormChangeFeedService,
+    StreamListener<String, MapRecord<String, String, String>> {
+
+  private static final String EVENT_NAME = "form-change";
+  private static final String TYPE = "type";
+  private static final String KEY = "key";
+  private static final String TENANT = "tenant";
+  private static final String CONTENT_HASH = "contentHash";
+  private static final int REPLAY_PAGE_SIZE = 500;
+  private static final Comparator<RecordId> RECORD_ID_ORDER = Comparator
+      .comparing(RecordId::getTimestamp)
+      .thenComparing(RecordId::getSequence);
+
+  private final StringRedisTemplate redisTemplate;
+  private final String stream;
+  private final long maxLength;
+  private final Duration emitterTimeout;
+  private final int queueSize;
+  private final Executor deliveryExecutor;
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+  public FormChangeFeedServiceImpl(StringRedisTemplate redisTemplate,
+      @Value("${form.changes.stream}") String stream,
+      @Value("${form.changes.max-length}") long maxLength,
+      @Value("${form.changes.emitter-timeout}") Duration emitterTimeout,
+      @Value("${form.changes.subscriber-queue-size}") int queueSize,
+      @Qualifier("formChangeDeliveryExecutor") Executor deliveryExecutor) {
+    this.redisTemplate = redisTemplate;
+    this.stream = stream;
+    this.maxLength = maxLength;
+    this.emitterTimeout = emitterTimeout;
+    this.queueSize = queueSize;
+    this.deliveryExecutor = deliveryExecutor;
+  }
+
+  @Override
+  public void publish(FormChangeType type, String key, String contentHash) {
+    notifyListeners(TenantContext.getTenant(), key);
+    var fields = new HashMap<String, String>();
+    fields.put(TYPE, type.name());
+    if (key != null) {
+      fields.put(KEY, key);
+    }
+    fields.put(TENANT, TenantContext.getTenant());
+    if (contentHash != null) {
+      fields.put(CONTENT_HASH, contentHash);
+    }
+    var record = StreamRecords.string(fields).withStreamKey(stream);
+    try {
+      redisTemplate.execute((RedisCallback<RecordId>) connection ->
+          ((StringRedisConnection) connection).xAdd(record,
+              XAddOptions.maxlen(maxLength).approximateTrimming(true)));
+    } catch (RuntimeException e) {
+      log.warn("Unable to publish {} change of form {}", type, key, e);
+    }
+  }
+
+  @Override
+  public SseEmitter subscribe(String lastEventId) {
+    var emitter = newEmitter(emitterTimeout);
+    var unsubscribe = subscribe(lastEventId, new SseSink(emitter));
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(e -> unsubscribe.run());
+    return emitter;
+  }
+
+  @Override
+  public Runnable subscribe(String lastEventId, FormChangeSink sink) {
+    var subscriber = new Subscriber(sink, TenantContext.getTenant());
+    // registered before the replay, so no change made meanwhile is lost; live changes wait for
+    // the replay to finish and are sent after it
+    synchronized (subscriber) {
+      subscribers.add(subscriber);
+      if (StringUtils.isNotBlank(lastEventId)) {
+        replay(subscriber, lastEventId);
+      }
+    }
+    return subscriber::close;
+  }
+
+  /**
+   * Receives the changes made on every instance from the stream.
+   */
+  @Override
+  public void onMessage(MapRecord<String, String, String> record) {
+    var tenant = tenantOf(record);
+    notifyListeners(tenant, record.getValue().get(KEY));
+    for (var subscriber : subscribers) {
+      if (subscriber.tenant.equals(tenant)) {
+        subscriber.enqueue(() -> subscriber.send(record));
+      }
+    }
+  }
+
+  @Override
+  public void addListener(BiConsumer<String, String> listener) {
+    listeners.add(listener);
+  }
+
+  private void notifyListeners(String tenant, String key) {
+    for (var listener : listeners) {
+      try {
+        listener.accept(tenant, key);
+      } catch (RuntimeException e) {
+        log.warn("Change listener failed on form {}", key, e);
+      }
+    }
+  }
+
+  /**
+   * Keeps idle connections open through proxies that close connections without traffic.
+   */
+  @Scheduled(fixedDelayString = "${form.changes.heartbeat-interval}")
+  public void heartbeat() {
+    subscribers.forEach(subscriber -> subscriber.enqueue(subscriber::heartbeat));
+  }
+
+  protected SseEmitter newEmitter(Duration timeout) {
+    return new SseEmitter(timeout.toMillis());
+  }
+
+  /**
+   * Sends the retained changes made after the given event id, or a reset when some of them may be
+   * no longer retained.
+   */
+  private void replay(Subscriber subscriber, String lastEventId) {
+    RecordId from;
+    try {
+      from = RecordId.of(lastEventId);
+    } catch (IllegalArgumentException e) {
+      from = null;
+    }
+    var oldest = redisTemplate.<String, String>opsForStream()
+        .range(stream, Range.unbounded(), Limit.limit().count(1));
+    if (from == null || oldest.isEmpty()
+        || RECORD_ID_ORDER.compare(oldest.get(0).getId(), from) > 0) {
+      subscriber.reset(latestId());
+      return;
+    }
+
+    subscriber.lastSentId = from;
+    var cursor = from;
+    while (!subscriber.closed) {
+      var after = cursor;
+      var page = redisTemplate.<String, String>opsForStream().range(stream,
+              Range.rightUnbounded(Range.Bound.inclusive(cursor.getValue())),
+              Limit.limit().count(REPLAY_PAGE_SIZE)).stream()
+          .filter(record -> RECORD_ID_ORDER.compare(record.getId(), after) > 0)
+          .collect(Collectors.toList());
+      if (page.isEmpty()) {
+        break;
+      }
+      page.stream()
+          .filter(record -> subscriber.tenant.equals(tenantOf(record)))
+          .forEach(subscriber::send);
+      cursor = page.get(page.size() - 1).getId();
+    }
+  }
+
+  private static String tenantOf(MapRecord<String, String, String> record) {
+    return StringUtils.defaultString(record.getValue().get(TENANT));
+  }
+
+  private RecordId latestId() {
+    var latest = redisTemplate.<String, String>opsForStream()
+        .reverseRange(stream, Range.unbounded(), Limit.limit().count(1));
+    return latest.isEmpty() ? null : latest.get(0).getId();
+  }
+
+  private class Subscriber {
+
+    private final FormChangeSink sink;
+    private final String tenant;
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    private boolean draining;
+    private RecordId lastSentId;
+    private volatile boolean closed;
+
+    private Subscriber(FormChangeSink sink, String tenant) {
+      this.sink = sink;
+      this.tenant = tenant;
+    }
+
+    private synchronized void send(MapRecord<String, String, String> record) {
+      if (lastSentId != null && RECORD_ID_ORDER.compare(record.getId(), lastSentId) <= 0) {
+        return;
+      }
+      lastSentId = record.getId();
+      var fields = record.getValue();
+      var event = FormChangeEvent.builder()
+          .type(FormChangeType.valueOf(fields.get(TYPE)))
+          .key(fields.get(KEY))
+          .contentHash(fields.get(CONTENT_HASH))
+          .build();
+      emit(() -> sink.send(record.getId().getValue(), event));
+    }
+
+    private synchronized void reset(RecordId latestId) {
+      if (latestId != null) {
+        lastSentId = latestId;
+      }
+      emit(() -> sink.send(latestId == null ? null : latestId.getValue(),
+          FormChangeEvent.builder().type(FormChangeType.RESET).build()));
+    }
+
+    private synchronized void heartbeat() {
+      emit(sink::heartbeat);
+    }
+
+    private void close() {
+      closed = true;
+      subscribers.remove(this);
+    }
+
+    /**
+     * Queues a call for the delivery executor, which runs the calls of a subscriber one at a time
+     * and in order. Sends wait for a running replay, as they are synchronized with it.
+     */
+    private void enqueue(Runnable call) {
+      synchronized (pending) {
+        if (closed) {
+          return;
+        }
+        if (pending.size() < queueSize) {
+          pending.add(call);
+        } else {
+          // the failure is queued as well, so it is never concurrent with a running send
+          close();
+          pending.clear();
+          pending.add(() -> sink.fail(new IllegalStateException(
+              "The subscriber does not keep up with the form changes")));
+        }
+        if (draining) {
+          return;
+        }
+        draining = true;
+      }
+      deliveryExecutor.execute(this::drain);
+    }
+
+    private void drain() {
+      while (true) {
+        Runnable call;
+        synchronized (pending) {
+          call = pending.poll();
+          if (call == null) {
+            draining = false;
+            return;
+          }
+        }
+        call.run();
+      }
+    }
+
+    private void emit(SinkCall call) {
+      if (closed) {
+        return;
+      }
+      try {
+        call.run();
+      } catch (IOException | IllegalStateException e) {
+        close();
+        sink.fail(e);
+      }
+    }
+  }
+
+  private interface SinkCall {
+
+    void run() throws IOException;
+  }
+
+  private static class SseSink implements FormChangeSink {
+
+    private final SseEmitter emitter;
+
+    private SseSink(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void send(String eventId, FormChangeEvent event) throws IOException {
+      var sseEvent = SseEmitter.event();
+      if (eventId != null) {
+        sseEvent.id(eventId);
+      }
+      emitter.send(sseEvent.name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+      emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public void fail(Exception e) {
+      emitter.completeWithError(e);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits on the size and shape of an uploaded form, checked while the form is parsed so that
+ * schema validation never runs on a form that is too large. A limit of 0 disables the check.
+ * <p>
+ * Components are the objects in {@code components} arrays, as in {@link FormComponentIndexer},
+ * and their depth is the number of {@code components} arrays they are nested in. Violations are
+ * reported as {@link ValidationError}s with the JSON path of the offending value; the component
+ * count is reported once, at the first component above the limit.
+ */
+@Component
+public class FormComplexityBudget {
+
+  private static final String COMPONENTS = "components";
+  private static final String ROOT_PATH = "$";
+
+  private final long maxBytes;
+  private final int maxComponents;
+  private final int maxComponentDepth;
+  private final int maxStringLength;
+  private final int maxArraySize;
+
+  public FormComplexityBudget(
+      @Value("${validator.budget.max-bytes}") long maxBytes,
+      @Value("${validator.budget.max-components}") int maxComponents,
+      @Value("${validator.budget.max-component-depth}") int maxComponentDepth,
+      @Value("${validator.budget.max-string-length}") int maxStringLength,
+      @Value("${validator.budget.max-array-size}") int maxArraySize) {
+    this.maxBytes = maxBytes;
+    this.maxComponents = maxComponents;
+    this.maxComponentDepth = maxComponentDepth;
+    this.maxStringLength = maxStringLength;
+    this.maxArraySize = maxArraySize;
+  }
+
+  public static FormComplexityBudget unlimited() {
+    return new FormComplexityBudget(0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Reports a violation if the UTF-8 size of the form data is above the limit.
+   */
+  public void checkSize(String formData, Consumer<ValidationError> violations) {
+    // a char takes at most 3 bytes, so most forms are accepted without encoding them
+    if (maxBytes <= 0 || (long) formData.length() * 3 <= maxBytes) {
+      return;
+    }
+    var bytes = formData.getBytes(StandardCharsets.UTF_8).length;
+    if (bytes > maxBytes) {
+      violations.accept(violation(ROOT_PATH,
+          String.format("The form is %d bytes long, at most %d are allowed.", bytes, maxBytes)));
+    }
+  }
+
+  /**
+   * Wraps the parser so that the limits are checked on every token read through it.
+   */
+  public JsonParser track(JsonParser parser, Consumer<ValidationError> violations) {
+    return new TrackingParser(parser, violations);
+  }
+
+  private static ValidationError violation(String path, String message) {
+    return ValidationError.builder().path(path).massage(message).build();
+  }
+
+  /**
+   * Path of the current value of a container, in the {@code $.components[0].key} notation of the
+   * component index.
+   */
+  private static String pathOf(JsonStreamContext context) {
+    if (context == null || context.inRoot()) {
+      return ROOT_PATH;
+    }
+    var path = pathOf(context.getParent());
+    return context.inArray() ? path + "[" + context.getCurrentIndex() + "]"
+        : path + "." + context.getCurrentName();
+  }
+
+  private class TrackingParser extends JsonParserDelegate {
+
+    private final Consumer<ValidationError> violations;
+    private final Deque<Boolean> arrays = new ArrayDeque<>();
+    private int componentDepth;
+    private int components;
+
+    TrackingParser(JsonParser parser, Consumer<ValidationError> violations) {
+      super(parser);
+      this.violations = violations;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+      var token = super.nextToken();
+      if (token == null || token == JsonToken.FIELD_NAME || token == JsonToken.END_OBJECT) {
+        return token;
+      }
+      if (token == JsonToken.END_ARRAY) {
+        if (Boolean.TRUE.equals(arrays.poll())) {
+          componentDepth--;
+        }
+        return token;
+      }
+
+      var container = token.isStructStart() ? getParsingContext().getParent()
+          : getParsingContext();
+      if (container.inArray()) {
+        checkArraySize(container);
+      }
+      if (token == JsonToken.START_ARRAY) {
+        var isComponents = container.inObject() && COMPONENTS.equals(container.getCurrentName());
+        arrays.push(isComponents);
+        if (isComponents) {
+          componentDepth++;
+        }
+      } else if (token == JsonToken.START_OBJECT) {
+        if (container.inArray() && Boolean.TRUE.equals(arrays.peek())) {
+          checkComponent(container);
+        }
+      } else if (token == JsonToken.VALUE_STRING) {
+        checkStringLength(container);
+      }
+      return token;
+    }
+
+    private void checkArraySize(JsonStreamContext array) {
+      if (maxArraySize > 0 && array.getCurrentIndex() == maxArraySize) {
+        violations.accept(violation(pathOf(array.getParent()),
+            String.format("The array has more than %d elements.", maxArraySize)));
+      }
+    }
+
+    private void checkComponent(JsonStreamContext components) {
+      if (maxComponents > 0 && ++this.components == maxComponents + 1) {
+        violations.accept(violation(pathOf(components),
+            String.format("The form has more than %d components.", maxComponents)));
+      }
+      if (maxComponentDepth > 0 && componentDepth > maxComponentDepth) {
+        violations.accept(violation(pathOf(components), String.format(
+            "The component is nested %d levels deep, at most %d are allowed.", componentDepth,
+            maxComponentDepth)));
+      }
+    }
+
+    private void checkStringLength(JsonStreamContext container) throws IOException {
+      if (maxStringLength > 0 && getTextLength() > maxStringLength) {
+        violations.accept(violation(pathOf(container), String.format(
+            "The string is %d characters long, at most %d are allowed.", getTextLength(),
+            maxStringLength)));
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds an index from component {@code key} to its JSON path and byte range in the serialized
+ * form data. Only objects that are elements of a {@code components} array are treated as form
+ * components, so nested objects like {@code validate} or {@code data.values} are not indexed. If
+ * several components share the same key the first one in document order wins.
+ */
+@Component
+public class FormComponentIndexer {
+
+  private static final String COMPONENTS = "components";
+  private static final String KEY = "key";
+
+  private final JsonFactory jsonFactory;
+
+  public FormComponentIndexer(ObjectMapper objectMapper) {
+    this.jsonFactory = objectMapper.getFactory();
+  }
+
+  public Map<String, FormComponentLocation> index(String formData) {
+    var bytes = formData.getBytes(StandardCharsets.UTF_8);
+    Map<String, FormComponentLocation> componentIndex = new HashMap<>();
+    try (var parser = jsonFactory.createParser(bytes)) {
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        indexObject(parser, "$", false, componentIndex);
+      }
+    } catch (IOException e) {
+      throw new FormSchemaDataException("Error while form components indexing", e);
+    }
+    return componentIndex;
+  }
+
+  private void indexObject(JsonParser parser, String path, boolean isComponent,
+      Map<String, FormComponentLocation> componentIndex) throws IOException {
+    var start = parser.getTokenLocation().getByteOffset();
+    String componentKey = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var fieldName = parser.getCurrentName();
+      var token = parser.nextToken();
+      var fieldPath = path + "." + fieldName;
+
+      if (token == JsonToken.START_OBJECT) {
+        indexObject(parser, fieldPath, false, componentIndex);
+      } else if (token == JsonToken.START_ARRAY) {
+        indexArray(parser, fieldPath, COMPONENTS.equals(fieldName), componentIndex);
+      } else if (isComponent && KEY.equals(fieldName) && token == JsonToken.VALUE_STRING) {
+        componentKey = parser.getText();
+      }
+    }
+
+    if (componentKey != null) {
+      var end = parser.getCurrentLocation().getByteOffset();
+      componentIndex.putIfAbsent(componentKey, FormComponentLocation.builder()
+          .path(path)
+          .start((int) start)
+          .end((int) end)
+          .build());
+    }
+  }
+
+  private void indexArray(JsonParser parser, String path, boolean isComponents,
+      Map<String, FormComponentLocation> componentIndex) throws IOException {
+    var index = 0;
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      var elementPath = path + "[" + index++ + "]";
+      if (token == JsonToken.START_OBJECT) {
+        indexObject(parser, elementPath, isComponents, componentIndex);
+      } else if (token == JsonToken.START_ARRAY) {
+        indexArray(parser, elementPath, false, componentIndex);
+      }
+    }
+  }
+}
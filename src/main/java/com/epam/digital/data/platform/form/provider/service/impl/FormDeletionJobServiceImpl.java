@@ -0,0 +1,289 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FormDeletionRequest;
+import com.epam.digital.data.platform.form.provider.entity.FormDeletionJob;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.repository.FormDeletionJobRepository;
+import com.epam.digital.data.platform.form.provider.service.FormDeletionJobService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Asynchronous deletion of many forms, given by key or by key prefix.
+ * <p>
+ * Forms are deleted in batches of {@code form.deletion.batch-size}: the forms of a prefix are
+ * found with a storage cursor scan, every batch is deleted with one
+ * {@link FormSchemaProviderServiceImpl#deleteForms(List)} call and the progress is saved to the
+ * job after every batch. Unless the job is forced, a form referenced by a form the job does not
+ * delete is kept and reported in the job.
+ * <p>
+ * Jobs run on the deployment job executor and are leased, kept, tracked in a {@link JobIndex} and
+ * resumed like deployment jobs. Deleting is idempotent, so a resumed prefix job simply scans
+ * again and a resumed key job continues after the last processed key.
+ */
+@Slf4j
+@Service
+public class FormDeletionJobServiceImpl implements FormDeletionJobService {
+
+  private static final String LEASE_KEY_PREFIX = "bpm-form-deletion-job-leases:";
+  private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+          + "else return 0 end", Long.class);
+  private static final RedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then "
+          + "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+  private final FormDeletionJobRepository jobRepository;
+  private final FormSchemaProviderServiceImpl formSchemaProviderService;
+  private final FormDependencyIndex formDependencyIndex;
+  private final FormStorage formStorage;
+  private final StringRedisTemplate redisTemplate;
+  private final ExecutorService deploymentJobExecutor;
+  private final int batchSize;
+  private final Duration leaseDuration;
+  private final Duration retention;
+  private final JobIndex jobIndex;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  public FormDeletionJobServiceImpl(
+      FormDeletionJobRepository jobRepository,
+      FormSchemaProviderServiceImpl formSchemaProviderService,
+      FormDependencyIndex formDependencyIndex,
+      FormStorage formStorage,
+      StringRedisTemplate redisTemplate,
+      @Qualifier("deploymentJobExecutor") ExecutorService deploymentJobExecutor,
+      @Value("${form.deletion.batch-size}") int batchSize,
+      @Value("${form.deletion.lease-duration}") Duration leaseDuration,
+      @Value("${form.deletion.retention}") Duration retention) {
+    this.jobRepository = jobRepository;
+    this.formSchemaProviderService = formSchemaProviderService;
+    this.formDependencyIndex = formDependencyIndex;
+    this.formStorage = formStorage;
+    this.redisTemplate = redisTemplate;
+    this.deploymentJobExecutor = deploymentJobExecutor;
+    this.batchSize = batchSize;
+    this.leaseDuration = leaseDuration;
+    this.retention = retention;
+    this.jobIndex = new JobIndex(redisTemplate, FormDeletionJob.class);
+  }
+
+  @Override
+  public FormDeletionJob submitJob(FormDeletionRequest request) {
+    var hasKeys = request.getKeys() != null && !request.getKeys().isEmpty();
+    var hasPrefix = StringUtils.isNotBlank(request.getPrefix());
+    if (hasKeys == hasPrefix) {
+      throw new FormSchemaValidationException(
+          "The deletion job must contain either form keys or a non-blank key prefix", Map.of());
+    }
+    if (hasKeys) {
+      request.getKeys().stream().filter(Objects::nonNull).forEach(TenantContext::checkKey);
+    } else {
+      TenantContext.checkKey(request.getPrefix());
+    }
+
+    var now = Instant.now();
+    var job = FormDeletionJob.builder()
+        .id(UUID.randomUUID().toString())
+        .status(JobStatus.PENDING)
+        .createdAt(now)
+        .updatedAt(now)
+        .keys(hasKeys ? request.getKeys().stream()
+            .filter(StringUtils::isNotBlank)
+            .map(String::toLowerCase)
+            .distinct()
+            .collect(Collectors.toList()) : null)
+        .prefix(hasPrefix ? request.getPrefix().toLowerCase() : null)
+        .force(request.isForce())
+        .referencedForms(new ArrayList<>())
+        .tenant(TenantContext.getTenant())
+        .ttl(retention.toSeconds())
+        .build();
+
+    formSchemaProviderService.execute(() -> jobRepository.save(job));
+    formSchemaProviderService.execute(() -> {
+      jobIndex.started(job.getId(), retention);
+      return null;
+    });
+    log.info("Deletion job {} submitted for {}", job.getId(),
+        hasKeys ? job.getKeys().size() + " forms" : "prefix " + job.getPrefix());
+
+    deploymentJobExecutor.execute(() -> runJob(job.getId()));
+    return job;
+  }
+
+  @Override
+  public FormDeletionJob getJob(String jobId) {
+    return formSchemaProviderService.execute(() -> jobRepository.findById(jobId))
+        .filter(job -> tenantOf(job).equals(TenantContext.getTenant()))
+        .orElseThrow(() -> new FormSchemaDataException(
+            String.format("The deletion job '%s' is missing.", jobId)));
+  }
+
+  @Scheduled(fixedDelayString = "${form.deletion.resume-interval}")
+  public void resumeJobs() {
+    try {
+      jobIndex.removeExpired();
+      StreamSupport.stream(jobRepository.findAllById(jobIndex.activeIds()).spliterator(), false)
+          .filter(Objects::nonNull)
+          .filter(this::isUnfinished)
+          .filter(job -> !isLeased(job.getId()))
+          .forEach(job -> {
+            log.info("Resuming deletion job {}", job.getId());
+            deploymentJobExecutor.execute(() -> runJob(job.getId()));
+          });
+    } catch (Exception e) {
+      log.warn("Unable to resume deletion jobs: {}", e.getMessage());
+    }
+  }
+
+  private boolean isUnfinished(FormDeletionJob job) {
+    if (job.getStatus() == JobStatus.COMPLETED) {
+      jobIndex.finished(job.getId());
+      return false;
+    }
+    return true;
+  }
+
+  private static String tenantOf(FormDeletionJob job) {
+    return Objects.requireNonNullElse(job.getTenant(), TenantContext.DEFAULT_TENANT);
+  }
+
+  private boolean isLeased(String jobId) {
+    return Boolean.TRUE.equals(redisTemplate.hasKey(LEASE_KEY_PREFIX + jobId));
+  }
+
+  private void runJob(String jobId) {
+    var leaseKey = LEASE_KEY_PREFIX + jobId;
+    if (!Boolean.TRUE.equals(
+        redisTemplate.opsForValue().setIfAbsent(leaseKey, instanceId, leaseDuration))) {
+      log.debug("Deletion job {} is processed by another instance", jobId);
+      return;
+    }
+
+    try {
+      var job = jobRepository.findById(jobId).orElse(null);
+      if (job == null || job.getStatus() == JobStatus.COMPLETED) {
+        return;
+      }
+      TenantContext.callAs(tenantOf(job), () -> {
+        deleteJob(job, leaseKey);
+        return null;
+      });
+    } catch (Exception e) {
+      log.error("Deletion job {} interrupted, it will be resumed", jobId, e);
+    } finally {
+      redisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(leaseKey), instanceId);
+    }
+  }
+
+  private void deleteJob(FormDeletionJob job, String leaseKey) {
+    job.setStatus(JobStatus.IN_PROGRESS);
+    if (job.getReferencedForms() == null) {
+      job.setReferencedForms(new ArrayList<>());
+    }
+
+    if (job.getKeys() != null) {
+      var keys = job.getKeys();
+      Predicate<String> deletedByJob = Set.copyOf(keys)::contains;
+      for (var from = (int) job.getProcessedCount(); from < keys.size(); from += batchSize) {
+        deleteBatch(job, keys.subList(from, Math.min(from + batchSize, keys.size())),
+            deletedByJob, leaseKey);
+      }
+    } else {
+      var tenant = TenantContext.getTenant();
+      var prefix = job.getPrefix();
+      formStorage.scanIds(TenantContext.storageId(prefix), batchSize,
+          storageIds -> deleteBatch(job, storageIds.stream()
+              .filter(storageId -> TenantContext.isStorageIdOf(tenant, storageId))
+              .map(TenantContext::formKey)
+              .collect(Collectors.toList()), key -> key.startsWith(prefix), leaseKey));
+    }
+
+    job.setStatus(JobStatus.COMPLETED);
+    job.setUpdatedAt(Instant.now());
+    jobRepository.save(job);
+    jobIndex.finished(job.getId());
+    log.info("Deletion job {} completed: {} deleted, {} referenced forms kept", job.getId(),
+        job.getDeletedCount(), job.getReferencedForms().size());
+  }
+
+  private void deleteBatch(FormDeletionJob job, List<String> keys,
+      Predicate<String> deletedByJob, String leaseKey) {
+    renewLease(job.getId(), leaseKey);
+    var deletable = new ArrayList<String>(keys.size());
+    var dependents = job.isForce() ? Map.<String, Set<String>>of()
+        : formDependencyIndex.getDependents(keys);
+    var referencedForms = new HashSet<>(job.getReferencedForms());
+    for (var key : keys) {
+      var referenced = dependents.getOrDefault(key, Set.of()).stream()
+          .anyMatch(Predicate.not(deletedByJob));
+      if (!referenced) {
+        deletable.add(key);
+      } else if (referencedForms.add(key)) {
+        job.getReferencedForms().add(key);
+      }
+    }
+
+    job.setDeletedCount(job.getDeletedCount()
+        + formSchemaProviderService.deleteForms(deletable));
+    job.setProcessedCount(job.getProcessedCount() + keys.size());
+    job.setUpdatedAt(Instant.now());
+    jobRepository.save(job);
+    log.debug("Deletion job {}: {} processed, {} deleted", job.getId(), job.getProcessedCount(),
+        job.getDeletedCount());
+  }
+
+  /**
+   * Extends the lease of the job if this instance still holds it; a job whose lease expired and
+   * may have been taken by another instance is stopped before it deletes anything more.
+   */
+  private void renewLease(String jobId, String leaseKey) {
+    var renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(leaseKey), instanceId,
+        String.valueOf(leaseDuration.toMillis()));
+    if (renewed == null || renewed == 0) {
+      throw new IllegalStateException(
+          String.format("The lease of the deletion job '%s' is lost", jobId));
+    }
+  }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormDependencyIndexUnavailableException;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.FormReferences;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reverse dependency index of nested forms (see {@link FormReferences}): for every form it keeps
+ * the keys of the forms that reference it, so the dependents of a form are found without reading
+ * other forms.
+ * <p>
+ * The index of a tenant is kept in Redis sets shared by all instances: {@code
+ * bpm-form-schema-dependents:<form id>} holds the keys of the forms referencing the form and
+ * {@code bpm-form-schema-references:<form id>} the keys of the forms it references, so a change
+ * touches only the sets of the references that were added or removed. The index is built from
+ * the stored forms the first time it is needed, and again once the whole form set of the tenant
+ * is replaced, and updated after every write. Updates are not atomic with the writes; an update
+ * that fails drops the index of the tenant, so it is built again on the next use.
+ * <p>
+ * One instance at a time builds the index of a tenant, under a lease like the jobs, taken before
+ * the forms are read; reads of the other instances fail fast until the build is done. Writes made
+ * during a build update the sets as well and record the written form in a set of touched forms,
+ * which the build reads again once it has stored what it read, so no write is lost or makes the
+ * build start over. The state, lease and touched keys of a tenant share a hash tag, so the
+ * scripts work on Redis Cluster.
+ */
+@Slf4j
+@Service
+public class FormDependencyIndex {
+
+  private static final String DEPENDENTS_KEY_PREFIX = "bpm-form-schema-dependents:";
+  private static final String REFERENCES_KEY_PREFIX = "bpm-form-schema-references:";
+  private static final String STATE_KEY_PREFIX = "bpm-form-schema-dependency-index-state:";
+  private static final String LEASE_KEY_PREFIX = "bpm-form-schema-dependency-index-leases:";
+  private static final String TOUCHED_KEY_PREFIX = "bpm-form-schema-dependency-index-touched:";
+  private static final String BUILT = "built";
+  private static final int MAX_BATCH_KEYS = 100;
+  private static final int MAX_CATCH_UP_BATCHES = 100;
+  // KEYS: state, lease, touched; ARGV: written form keys
+  private static final RedisScript<Long> WRITTEN_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('hexists', KEYS[1], 'built') == 1 then return 1 end "
+          + "if redis.call('exists', KEYS[2]) == 1 then "
+          + "redis.call('sadd', KEYS[3], unpack(ARGV)) return 1 end "
+          + "return 0", Long.class);
+  // KEYS: state, lease, touched; ARGV: instance id, form count
+  private static final RedisScript<Long> MARK_BUILT_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[2]) ~= ARGV[1] then return -1 end "
+          + "if redis.call('scard', KEYS[3]) > 0 then return 0 end "
+          + "redis.call('hset', KEYS[1], 'built', ARGV[2]) return 1", Long.class);
+  private static final RedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then "
+          + "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+  private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+          + "else return 0 end", Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final FormStorage formStorage;
+  private final Duration leaseDuration;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  public FormDependencyIndex(StringRedisTemplate redisTemplate, FormStorage formStorage,
+      @Value("${form.dependencies.lease-duration}") Duration leaseDuration) {
+    this.redisTemplate = redisTemplate;
+    this.formStorage = formStorage;
+    this.leaseDuration = leaseDuration;
+  }
+
+  /**
+   * Returns the keys of the forms of the current tenant referencing the given form, sorted. With
+   * {@code transitive} the forms referencing those forms are included as well, and so on.
+   *
+   * @throws FormDependencyIndexUnavailableException if another instance builds the index
+   */
+  public List<String> getDependents(String formKey, boolean transitive) {
+    var tenant = TenantContext.getTenant();
+    buildIfNeeded(tenant);
+
+    var dependents = new HashSet<String>();
+    var pending = new ArrayDeque<String>();
+    pending.add(formKey);
+    while (!pending.isEmpty()) {
+      var key = pending.poll();
+      for (var dependent : members(dependentsKey(tenant, key))) {
+        if (!dependent.equals(formKey) && dependents.add(dependent) && transitive) {
+          pending.add(dependent);
+        }
+      }
+    }
+    return dependents.stream().sorted().collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the keys of the forms directly referencing each of the given forms of the current
+   * tenant, read in one pipelined round trip.
+   *
+   * @throws FormDependencyIndexUnavailableException if another instance builds the index
+   */
+  public Map<String, Set<String>> getDependents(List<String> formKeys) {
+    var tenant = TenantContext.getTenant();
+    buildIfNeeded(tenant);
+
+    var members = members(formKeys.stream()
+        .map(formKey -> dependentsKey(tenant, formKey))
+        .collect(Collectors.toList()));
+    var dependents = new HashMap<String, Set<String>>();
+    for (var i = 0; i < formKeys.size(); i++) {
+      var formKey = formKeys.get(i);
+      var formDependents = new HashSet<>(members.get(i));
+      formDependents.remove(formKey);
+      dependents.put(formKey, formDependents);
+    }
+    return dependents;
+  }
+
+  /**
+   * Records the references of a created or updated form of the current tenant.
+   */
+  public void updated(String formKey, String formData) {
+    var tenant = TenantContext.getTenant();
+    try {
+      if (written(tenant, List.of(formKey))) {
+        replaceReferences(tenant, formKey, referencesOf(formData));
+      }
+    } catch (RuntimeException e) {
+      drop(tenant, e);
+    }
+  }
+
+  /**
+   * Removes the references of a deleted form of the current tenant. The forms referencing the
+   * deleted form stay recorded, they reference it again once it is created again.
+   */
+  public void removed(String formKey) {
+    var tenant = TenantContext.getTenant();
+    try {
+      if (written(tenant, List.of(formKey))) {
+        replaceReferences(tenant, formKey, Set.of());
+      }
+    } catch (RuntimeException e) {
+      drop(tenant, e);
+    }
+  }
+
+  /**
+   * Removes the references of a batch of deleted forms of the current tenant with two pipelined
+   * round trips.
+   */
+  public void removed(List<String> formKeys) {
+    var tenant = TenantContext.getTenant();
+    try {
+      if (formKeys.isEmpty() || !written(tenant, formKeys)) {
+        return;
+      }
+      var referencesKeys = formKeys.stream()
+          .map(formKey -> referencesKey(tenant, formKey))
+          .collect(Collectors.toList());
+      var references = members(referencesKeys);
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        var stringConnection = (StringRedisConnection) connection;
+        for (var i = 0; i < formKeys.size(); i++) {
+          var formKey = formKeys.get(i);
+          references.get(i).forEach(reference -> stringConnection.sRem(
+              dependentsKey(tenant, reference), formKey));
+          stringConnection.del(referencesKeys.get(i));
+        }
+        return null;
+      });
+    } catch (RuntimeException e) {
+      drop(tenant, e);
+    }
+  }
+
+  /**
+   * Builds the index of the current tenant again after its whole form set was replaced. A build
+   * of the previous form set running meanwhile loses its lease, so it is never marked as done.
+   * The index of other tenants is kept.
+   */
+  public void rebuild() {
+    var tenant = TenantContext.getTenant();
+    try {
+      redisTemplate.opsForHash().delete(stateKey(tenant), BUILT);
+      redisTemplate.delete(leaseKey(tenant));
+      build(tenant);
+    } catch (FormDependencyIndexUnavailableException e) {
+      log.info("Form dependency index of tenant '{}' is built by another instance", tenant);
+    } catch (RuntimeException e) {
+      log.warn("Unable to build form dependency index of tenant '{}', it is built on the next "
+          + "use", tenant, e);
+    }
+  }
+
+  /**
+   * Tells whether the written forms have to be recorded in the index: when it is built, or when
+   * it is being built, in which case they are also recorded as touched for the build to read
+   * them again.
+   */
+  private boolean written(String tenant, List<String> formKeys) {
+    var written = redisTemplate.execute(WRITTEN_SCRIPT,
+        List.of(stateKey(tenant), leaseKey(tenant), touchedKey(tenant)),
+        formKeys.toArray());
+    return written != null && written > 0;
+  }
+
+  private void buildIfNeeded(String tenant) {
+    if (!redisTemplate.opsForHash().hasKey(stateKey(tenant), BUILT)) {
+      build(tenant);
+    }
+  }
+
+  /**
+   * Builds the index of the tenant under its lease, failing fast when another instance holds it.
+   * The forms are read in batches, renewing the lease after each, and the forms touched by writes
+   * meanwhile are read again before the index is marked as done.
+   */
+  private void build(String tenant) {
+    var leaseKey = leaseKey(tenant);
+    if (!Boolean.TRUE.equals(
+        redisTemplate.opsForValue().setIfAbsent(leaseKey, instanceId, leaseDuration))) {
+      var expire = redisTemplate.getExpire(leaseKey);
+      throw new FormDependencyIndexUnavailableException(String.format(
+          "The form dependency index of the tenant '%s' is being built, try again later.",
+          tenant), expire == null || expire <= 0 ? leaseDuration.toSeconds() : expire);
+    }
+    try {
+      var ids = formStorage.findAllIds().stream()
+          .filter(id -> TenantContext.isStorageIdOf(tenant, id))
+          .collect(Collectors.toList());
+      Map<String, Set<String>> references = new HashMap<>();
+      for (var from = 0; from < ids.size(); from += MAX_BATCH_KEYS) {
+        formStorage.findAllById(ids.subList(from, Math.min(from + MAX_BATCH_KEYS, ids.size())))
+            .stream()
+            .filter(Objects::nonNull)
+            .forEach(formSchema -> references.put(TenantContext.formKey(formSchema.getId()),
+                referencesOf(formSchema)));
+        if (!renewLease(leaseKey)) {
+          log.info("Form dependency index of tenant '{}' lost its lease while it was built",
+              tenant);
+          return;
+        }
+      }
+
+      Map<String, Set<String>> dependents = new HashMap<>();
+      references.forEach((formKey, formReferences) -> formReferences.forEach(reference ->
+          dependents.computeIfAbsent(reference, key -> new HashSet<>()).add(formKey)));
+      var keys = new HashSet<>(references.keySet());
+      keys.addAll(dependents.keySet());
+      for (var key : keys) {
+        replaceSet(referencesKey(tenant, key), references.getOrDefault(key, Set.of()));
+        replaceSet(dependentsKey(tenant, key), dependents.getOrDefault(key, Set.of()));
+      }
+
+      if (catchUp(tenant, references, ids.size())) {
+        log.info("Built form dependency index of tenant '{}': {} forms, {} referenced forms",
+            tenant, ids.size(), dependents.size());
+      } else {
+        log.info("Form dependency index of tenant '{}' could not catch up with the writes made "
+            + "while it was built, it is built again on the next use", tenant);
+      }
+    } finally {
+      redisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(leaseKey), instanceId);
+    }
+  }
+
+  /**
+   * Reads again the forms written while the index was built, in batches, and marks the index as
+   * done once no touched form is left. Gives up when the lease is lost or the writes keep coming.
+   */
+  private boolean catchUp(String tenant, Map<String, Set<String>> builtReferences, int forms) {
+    var touchedKey = touchedKey(tenant);
+    for (var batch = 0; batch < MAX_CATCH_UP_BATCHES; batch++) {
+      var touched = redisTemplate.opsForSet().pop(touchedKey, MAX_BATCH_KEYS);
+      if (touched == null || touched.isEmpty()) {
+        var marked = redisTemplate.execute(MARK_BUILT_SCRIPT,
+            List.of(stateKey(tenant), leaseKey(tenant), touchedKey), instanceId,
+            String.valueOf(forms));
+        if (marked == null || marked != 0) {
+          return marked != null && marked > 0;
+        }
+        continue;
+      }
+      Map<String, Set<String>> references = new HashMap<>();
+      formStorage.findAllById(touched.stream()
+              .map(formKey -> TenantContext.storageId(tenant, formKey))
+              .collect(Collectors.toList()))
+          .stream()
+          .filter(Objects::nonNull)
+          .forEach(formSchema -> references.put(TenantContext.formKey(formSchema.getId()),
+              referencesOf(formSchema)));
+      for (var formKey : touched) {
+        repairReferences(tenant, formKey, references.getOrDefault(formKey, Set.of()),
+            builtReferences.getOrDefault(formKey, Set.of()));
+      }
+    }
+    return false;
+  }
+
+  private void replaceReferences(String tenant, String formKey, Set<String> references) {
+    var previousReferences = members(referencesKey(tenant, formKey));
+    relink(tenant, formKey, references, previousReferences, previousReferences);
+  }
+
+  /**
+   * Records the references of a form written while the index was built. The build may have
+   * stored the references it read after the write, so the form is unlinked from those as well
+   * and linked to all of its references again.
+   */
+  private void repairReferences(String tenant, String formKey, Set<String> references,
+      Set<String> builtReferences) {
+    var previousReferences = new HashSet<>(members(referencesKey(tenant, formKey)));
+    previousReferences.addAll(builtReferences);
+    relink(tenant, formKey, references, previousReferences, Set.of());
+  }
+
+  private void relink(String tenant, String formKey, Set<String> references,
+      Set<String> unlinked, Set<String> linked) {
+    unlinked.stream()
+        .filter(reference -> !references.contains(reference))
+        .forEach(reference -> redisTemplate.opsForSet()
+            .remove(dependentsKey(tenant, reference), formKey));
+    references.stream()
+        .filter(reference -> !linked.contains(reference))
+        .forEach(reference -> redisTemplate.opsForSet()
+            .add(dependentsKey(tenant, reference), formKey));
+    replaceSet(referencesKey(tenant, formKey), references);
+  }
+
+  private boolean renewLease(String leaseKey) {
+    var renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(leaseKey), instanceId,
+        String.valueOf(leaseDuration.toMillis()));
+    return renewed != null && renewed > 0;
+  }
+
+  private void replaceSet(String key, Set<String> members) {
+    redisTemplate.delete(key);
+    if (!members.isEmpty()) {
+      redisTemplate.opsForSet().add(key, members.toArray(String[]::new));
+    }
+  }
+
+  private void drop(String tenant, RuntimeException e) {
+    log.warn("Unable to update form dependency index of tenant '{}', it is built again on the "
+        + "next use", tenant, e);
+    try {
+      redisTemplate.opsForHash().delete(stateKey(tenant), BUILT);
+    } catch (RuntimeException deleteException) {
+      log.warn("Unable to drop form dependency index of tenant '{}'", tenant, deleteException);
+    }
+  }
+
+  private Set<String> members(String key) {
+    var members = redisTemplate.opsForSet().members(key);
+    return members == null ? Set.of() : members;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Set<String>> members(List<String> keys) {
+    var results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      var stringConnection = (StringRedisConnection) connection;
+      keys.forEach(stringConnection::sMembers);
+      return null;
+    });
+    return results.stream()
+        .map(members -> members == null ? Set.<String>of() : (Set<String>) members)
+        .collect(Collectors.toList());
+  }
+
+  private static Set<String> referencesOf(FormSchema formSchema) {
+    return referencesOf(formSchema.getFormData());
+  }
+
+  private static Set<String> referencesOf(String formData) {
+    var form = formData == null ? null : JSONValue.parse(formData, JSONObject.class);
+    return form == null ? Set.of() : new LinkedHashSet<>(FormReferences.of(form));
+  }
+
+  private static String dependentsKey(String tenant, String formKey) {
+    return DEPENDENTS_KEY_PREFIX + TenantContext.storageId(tenant, formKey);
+  }
+
+  private static String referencesKey(String tenant, String formKey) {
+    return REFERENCES_KEY_PREFIX + TenantContext.storageId(tenant, formKey);
+  }
+
+  private static String stateKey(String tenant) {
+    return STATE_KEY_PREFIX + "{" + tenant + "}";
+  }
+
+  private static String leaseKey(String tenant) {
+    return LEASE_KEY_PREFIX + "{" + tenant + "}";
+  }
+
+  private static String touchedKey(String tenant) {
+    return TOUCHED_KEY_PREFIX + "{" + tenant + "}";
+  }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.ItemStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJobItem;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJobPayload;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormGenerationInProgressException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.exception.TenantQuotaExceededException;
+import com.epam.digital.data.platform.form.provider.repository.FormDeploymentJobPayloadRepository;
+import com.epam.digital.data.platform.form.provider.repository.FormDeploymentJobRepository;
+import com.epam.digital.data.platform.form.provider.service.FormDeploymentJobService;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Asynchronous deployment of a set of forms.
+ * <p>
+ * The submitted forms and the per-form progress are kept in Redis, so a job survives a pod
+ * restart: unfinished jobs are picked up again by {@link #resumeJobs()} on any pod. A pod works
+ * on a job only while it holds the job lease, which it renews after every batch; a lease left by
+ * a stopped pod expires after {@code form.deployment.lease-duration}. Forms of a batch are
+ * validated in parallel on the {@code deploymentValidationExecutor}, not on the bounded executor
+ * of interactive uploads, so a large job does not get them rejected, and then written with one
+ * {@link FormSchemaProviderServiceImpl#saveForms(List)} call. Existing forms are replaced.
+ * Unfinished jobs are tracked in a {@link JobIndex}, so resuming does not read every stored job.
+ * A job deploys the forms for the tenant that submitted it and is visible only to that tenant.
+ * <p>
+ * A job submitted with a new generation writes its batches into that generation instead, with
+ * {@link FormGenerationService#write(String, List)}, and activates it once all batches are done,
+ * so the forms of the tenant are replaced all at once.
+ */
+@Slf4j
+@Service
+public class FormDeploymentJobServiceImpl implements FormDeploymentJobService {
+
+  private static final String LEASE_KEY_PREFIX = "bpm-form-deployment-job-leases:";
+  private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+          + "else return 0 end", Long.class);
+  private static final RedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then "
+          + "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+  private final FormDeploymentJobRepository jobRepository;
+  private final FormDeploymentJobPayloadRepository payloadRepository;
+  private final FormSchemaProviderServiceImpl formSchemaProviderService;
+  private final FormSchemaValidationServiceImpl formSchemaValidationService;
+  private final FormGenerationService formGenerationService;
+  private final StringRedisTemplate redisTemplate;
+  private final ExecutorService deploymentJobExecutor;
+  private final ExecutorService validationExecutor;
+  private final ObjectMapper objectMapper;
+  private final JobIndex jobIndex;
+  private final JobIndex payloadIndex;
+  private final int batchSize;
+  private final Duration leaseDuration;
+  private final Duration retention;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  public FormDeploymentJobServiceImpl(
+      FormDeploymentJobRepository jobRepository,
+      FormDeploymentJobPayloadRepository payloadRepository,
+      FormSchemaProviderServiceImpl formSchemaProviderService,
+      FormSchemaValidationServiceImpl formSchemaValidationService,
+      FormGenerationService formGenerationService,
+      StringRedisTemplate redisTemplate,
+      @Qualifier("deploymentJobExecutor") ExecutorService deploymentJobExecutor,
+      @Qualifier("deploymentValidationExecutor") ExecutorService validationExecutor,
+      ObjectMapper objectMapper,
+      @Value("${form.deployment.batch-size}") int batchSize,
+      @Value("${form.deployment.lease-duration}") Duration leaseDuration,
+      @Value("${form.deployment.retention}") Duration retention) {
+    this.jobRepository = jobRepository;
+    this.payloadRepository = payloadRepository;
+    this.formSchemaProviderService = formSchemaProviderService;
+    this.formSchemaValidationService = formSchemaValidationService;
+    this.formGenerationService = formGenerationService;
+    this.redisTemplate = redisTemplate;
+    this.deploymentJobExecutor = deploymentJobExecutor;
+    this.validationExecutor = validationExecutor;
+    this.objectMapper = objectMapper;
+    this.batchSize = batchSize;
+    this.leaseDuration = leaseDuration;
+    this.retention = retention;
+    this.jobIndex = new JobIndex(redisTemplate, FormDeploymentJob.class);
+    this.payloadIndex = new JobIndex(redisTemplate, FormDeploymentJobPayload.class);
+  }
+
+  @Override
+  public FormDeploymentJob submitJob(String formsData, ValidationMode validationMode,
+      boolean newGeneration) {
+    var forms = splitForms(formsData);
+    var jobId = UUID.randomUUID().toString();
+    var now = Instant.now();
+
+    List<FormDeploymentJobItem> items = new ArrayList<>(forms.size());
+    for (int i = 0; i < forms.size(); i++) {
+      items.add(FormDeploymentJobItem.builder().index(i).status(ItemStatus.PENDING).build());
+    }
+    var job = FormDeploymentJob.builder()
+        .id(jobId)
+        .status(JobStatus.PENDING)
+        .validationMode(validationMode)
+        .createdAt(now)
+        .updatedAt(now)
+        .items(items)
+        .generation(newGeneration ? formGenerationService.createGeneration() : null)
+        .tenant(TenantContext.getTenant())
+        .ttl(retention.toSeconds())
+        .build();
+
+    formSchemaProviderService.execute(() -> payloadRepository.save(
+        FormDeploymentJobPayload.builder().id(jobId).forms(forms).ttl(retention.toSeconds())
+            .build()));
+    formSchemaProviderService.execute(() -> jobRepository.save(job));
+    formSchemaProviderService.execute(() -> {
+      jobIndex.started(jobId, retention);
+      payloadIndex.expiresIn(jobId, retention);
+      return null;
+    });
+    log.info("Deployment job {} submitted with {} forms", jobId, forms.size());
+
+    deploymentJobExecutor.execute(() -> runJob(jobId));
+    return job;
+  }
+
+  @Override
+  public FormDeploymentJob getJob(String jobId) {
+    return formSchemaProviderService.execute(() -> jobRepository.findById(jobId))
+        .filter(job -> tenantOf(job).equals(TenantContext.getTenant()))
+        .orElseThrow(() -> new FormSchemaDataException(
+            String.format("The deployment job '%s' is missing.", jobId)));
+  }
+
+  @Scheduled(fixedDelayString = "${form.deployment.resume-interval}")
+  public void resumeJobs() {
+    try {
+      jobIndex.removeExpired();
+      payloadIndex.removeExpired();
+      StreamSupport.stream(jobRepository.findAllById(jobIndex.activeIds()).spliterator(), false)
+          .filter(Objects::nonNull)
+          .filter(this::isUnfinished)
+          .filter(job -> !isLeased(job.getId()))
+          .forEach(job -> {
+            log.info("Resuming deployment job {}", job.getId());
+            deploymentJobExecutor.execute(() -> runJob(job.getId()));
+          });
+    } catch (Exception e) {
+      log.warn("Unable to resume deployment jobs: {}", e.getMessage());
+    }
+  }
+
+  private boolean isUnfinished(FormDeploymentJob job) {
+    if (job.getStatus() == JobStatus.COMPLETED) {
+      jobIndex.finished(job.getId());
+      return false;
+    }
+    return true;
+  }
+
+  private static String tenantOf(FormDeploymentJob job) {
+    return Objects.requireNonNullElse(job.getTenant(), TenantContext.DEFAULT_TENANT);
+  }
+
+  private boolean isLeased(String jobId) {
+    return Boolean.TRUE.equals(redisTemplate.hasKey(LEASE_KEY_PREFIX + jobId));
+  }
+
+  private void runJob(String jobId) {
+    var leaseKey = LEASE_KEY_PREFIX + jobId;
+    if (!Boolean.TRUE.equals(
+        redisTemplate.opsForValue().setIfAbsent(leaseKey, instanceId, leaseDuration))) {
+      log.debug("Deployment job {} is processed by another instance", jobId);
+      return;
+    }
+
+    try {
+      var job = jobRepository.findById(jobId).orElse(null);
+      if (job == null || job.getStatus() == JobStatus.COMPLETED) {
+        return;
+      }
+      TenantContext.callAs(tenantOf(job), () -> {
+        deployJob(job, leaseKey);
+        return null;
+      });
+    } catch (Exception e) {
+      log.error("Deployment job {} interrupted, it will be resumed", jobId, e);
+    } finally {
+      redisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(leaseKey), instanceId);
+    }
+  }
+
+  private void deployJob(FormDeploymentJob job, String leaseKey) {
+    var jobId = job.getId();
+    var forms = payloadRepository.findById(jobId)
+        .map(FormDeploymentJobPayload::getForms)
+        .orElse(List.of());
+
+    var validationMode = Objects.requireNonNullElse(job.getValidationMode(),
+        ValidationMode.COMPLETE);
+    job.setStatus(JobStatus.IN_PROGRESS);
+    var pendingItems = job.getItems().stream()
+        .filter(item -> item.getStatus() == ItemStatus.PENDING)
+        .collect(Collectors.toList());
+    for (int from = 0; from < pendingItems.size(); from += batchSize) {
+      renewLease(jobId, leaseKey);
+      var batch = pendingItems.subList(from, Math.min(from + batchSize, pendingItems.size()));
+      deployBatch(batch, forms, validationMode, job.getGeneration());
+      job.setUpdatedAt(Instant.now());
+      jobRepository.save(job);
+    }
+
+    if (job.getGeneration() != null) {
+      renewLease(jobId, leaseKey);
+      finishGeneration(job);
+    }
+    job.setStatus(JobStatus.COMPLETED);
+    job.setUpdatedAt(Instant.now());
+    jobRepository.save(job);
+    jobIndex.finished(jobId);
+    payloadRepository.deleteById(jobId);
+    log.info("Deployment job {} completed: {} deployed, {} failed", jobId,
+        job.getDeployedCount(), job.getFailedCount());
+  }
+
+  /**
+   * Extends the lease of the job if this instance still holds it; a job whose lease expired and
+   * may have been taken by another instance is stopped before it writes anything more.
+   */
+  private void renewLease(String jobId, String leaseKey) {
+    var renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(leaseKey), instanceId,
+        String.valueOf(leaseDuration.toMillis()));
+    if (renewed == null || renewed == 0) {
+      throw new IllegalStateException(
+          String.format("The lease of the deployment job '%s' is lost", jobId));
+    }
+  }
+
+  /**
+   * Activates the generation of the job only if every form was deployed, so a failed form never
+   * leaves the tenant with an incomplete form set; otherwise the generation is discarded.
+   */
+  private void finishGeneration(FormDeploymentJob job) {
+    if (job.getFailedCount() == 0) {
+      formGenerationService.activate(job.getGeneration());
+      job.setGenerationActivated(true);
+    } else {
+      formGenerationService.discard(job.getGeneration());
+      job.setGenerationActivated(false);
+      log.warn("Generation {} of deployment job {} discarded, {} forms failed",
+          job.getGeneration(), job.getId(), job.getFailedCount());
+    }
+  }
+
+  private void deployBatch(List<FormDeploymentJobItem> batch, List<String> forms,
+      ValidationMode validationMode, String generation) {
+    var preparedForms = batch.stream()
+        .map(item -> prepareAsync(item, forms, validationMode))
+        .collect(Collectors.toList());
+
+    var formSchemas = new ArrayList<FormSchema>();
+    for (int i = 0; i < batch.size(); i++) {
+      var formSchema = preparedForms.get(i).join();
+      if (formSchema != null) {
+        formSchemas.add(formSchema);
+      }
+    }
+
+    if (!formSchemas.isEmpty()) {
+      try {
+        if (generation != null) {
+          formGenerationService.write(generation, formSchemas);
+        } else {
+          formSchemaProviderService.saveForms(formSchemas);
+        }
+      } catch (TenantQuotaExceededException | FormGenerationInProgressException e) {
+        batch.stream()
+            .filter(item -> item.getStatus() == ItemStatus.PENDING)
+            .forEach(item -> markFailed(item, e.getMessage(), null));
+        return;
+      }
+    }
+    batch.stream()
+        .filter(item -> item.getStatus() == ItemStatus.PENDING)
+        .forEach(item -> item.setStatus(ItemStatus.DEPLOYED));
+  }
+
+  private CompletableFuture<FormSchema> prepareAsync(FormDeploymentJobItem item,
+      List<String> forms, ValidationMode validationMode) {
+    if (item.getIndex() >= forms.size()) {
+      markFailed(item, "The form data of the deployment job is missing", null);
+      return CompletableFuture.completedFuture(null);
+    }
+    var formData = forms.get(item.getIndex());
+    return CompletableFuture.supplyAsync(() -> prepare(item, formData, validationMode),
+        validationExecutor);
+  }
+
+  private FormSchema prepare(FormDeploymentJobItem item, String formData,
+      ValidationMode validationMode) {
+    try {
+      var validationErrors = formSchemaValidationService.validate(formData, validationMode);
+      if (!validationErrors.isEmpty()) {
+        markFailed(item, "Form Schema is not valid.", validationErrors);
+        return null;
+      }
+      var formSchema = formSchemaProviderService.toFormSchema(formData);
+      item.setFormName(formSchema.getId());
+      return formSchema;
+    } catch (FormSchemaValidationException | FormSchemaDataException e) {
+      markFailed(item, e.getMessage(), null);
+      return null;
+    }
+  }
+
+  private void markFailed(FormDeploymentJobItem item, String message,
+      Map<String, ValidationError> errors) {
+    item.setStatus(ItemStatus.FAILED);
+    item.setMessage(message);
+    item.setErrors(errors);
+  }
+
+  private List<String> splitForms(String formsData) {
+    var bytes = formsData.getBytes(StandardCharsets.UTF_8);
+    List<String> forms = new ArrayList<>();
+    try (var parser = objectMapper.getFactory().createParser(bytes)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new FormSchemaValidationException(
+            "The deployment job must contain a JSON array of forms", Map.of());
+      }
+      JsonToken token;
+      while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+        var start = (int) parser.getTokenLocation().getByteOffset();
+        parser.skipChildren();
+        var end = (int) parser.getCurrentLocation().getByteOffset();
+        forms.add(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+      }
+      if (token != JsonToken.END_ARRAY) {
+        throw new FormSchemaValidationException(
+            "The deployment job must contain a JSON array of forms", Map.of());
+      }
+    } catch (IOException e) {
+      throw new FormSchemaValidationException("Error during deployment job parsing", e);
+    }
+    return forms;
+  }
+}
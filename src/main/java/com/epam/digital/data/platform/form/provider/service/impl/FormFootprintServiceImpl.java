@@ -0,0 +1,285 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FootprintMetric;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprint;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprintReport;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaNotFoundException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
+import com.epam.digital.data.platform.form.provider.util.FormReferences;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import lombok.extern.slf4j.Slf4j;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Storage footprint of the forms of every tenant, collected when forms are written instead of by
+ * scanning the stored forms.
+ * <p>
+ * The footprint of a form is measured after every write and kept in the {@code
+ * bpm-form-schema-footprints:<tenant>} Redis hash shared by all instances, so a report reads one
+ * hash per tenant. Forms are tracked from their first write after the footprint was introduced.
+ * Only the form data is measured; the component index, the version history and the other keys
+ * kept for a form are not included.
+ * <p>
+ * Reads are counted in memory and added to the {@code bpm-form-schema-reads:<tenant>} hash every
+ * {@code form.footprint.flush-interval}; read counts of other instances are up to one interval
+ * behind. Recording never fails a request, an update that fails is logged and skipped.
+ */
+@Slf4j
+@Service
+public class FormFootprintServiceImpl implements FormFootprintService {
+
+  private static final String FOOTPRINTS_KEY_PREFIX = "bpm-form-schema-footprints:";
+  private static final String READS_KEY_PREFIX = "bpm-form-schema-reads:";
+  private static final String SEPARATOR = ":";
+
+  private final StringRedisTemplate redisTemplate;
+  private final int maxForms;
+  private final Map<String, Map<String, LongAdder>> pendingReads = new ConcurrentHashMap<>();
+
+  public FormFootprintServiceImpl(StringRedisTemplate redisTemplate,
+      @Value("${form.footprint.max-forms}") int maxForms) {
+    this.redisTemplate = redisTemplate;
+    this.maxForms = maxForms;
+  }
+
+  @Override
+  public FormFootprintReport getReport(FootprintMetric sortBy, int limit) {
+    if (limit < 1 || limit > maxForms) {
+      throw new FormSchemaValidationException(
+          String.format("The number of reported forms must be between 1 and %d.", maxForms),
+          Map.of());
+    }
+    var tenant = TenantContext.getTenant();
+    var readCounts = readCounts(tenant);
+    var footprints = redisTemplate.opsForHash().entries(footprintsKey(tenant)).entrySet().stream()
+        .map(entry -> toFootprint(entry.getKey().toString(), entry.getValue().toString(),
+            readCounts.getOrDefault(entry.getKey().toString(), 0L)))
+        .collect(Collectors.toList());
+
+    return FormFootprintReport.builder()
+        .formCount(footprints.size())
+        .formDataBytes(footprints.stream().mapToLong(FormFootprint::getFormDataBytes).sum())
+        .compressedBytes(footprints.stream().mapToLong(FormFootprint::getCompressedBytes).sum())
+        .componentCount(footprints.stream().mapToLong(FormFootprint::getComponentCount).sum())
+        .maxDepth(footprints.stream().mapToLong(FormFootprint::getMaxDepth).max().orElse(0))
+        .readCount(footprints.stream().mapToLong(FormFootprint::getReadCount).sum())
+        .sortedBy(sortBy)
+        .forms(footprints.stream()
+            .sorted(Comparator.<FormFootprint>comparingLong(sortBy::of).reversed()
+                .thenComparing(FormFootprint::getKey))
+            .limit(limit)
+            .collect(Collectors.toList()))
+        .build();
+  }
+
+  @Override
+  public FormFootprint getFootprint(String key) {
+    var tenant = TenantContext.getTenant();
+    var formKey = key.toLowerCase();
+    var value = redisTemplate.<String, String>opsForHash().get(footprintsKey(tenant), formKey);
+    if (value == null) {
+      throw new FormSchemaNotFoundException(String.format(
+          "The footprint of the UI form scheme '%s' is not recorded.", key));
+    }
+    var reads = redisTemplate.<String, String>opsForHash().get(readsKey(tenant), formKey);
+    return toFootprint(formKey, value,
+        (reads == null ? 0 : Long.parseLong(reads)) + pendingReads(tenant, formKey));
+  }
+
+  @Override
+  public void updated(String formKey, String formData) {
+    var tenant = TenantContext.getTenant();
+    try {
+      redisTemplate.opsForHash().put(footprintsKey(tenant), formKey, measure(formData));
+    } catch (RuntimeException e) {
+      log.warn("Unable to record the footprint of form {}: {}", formKey, e.getMessage());
+    }
+  }
+
+  @Override
+  public void read(String formKey) {
+    pendingReads.computeIfAbsent(TenantContext.getTenant(), tenant -> new ConcurrentHashMap<>())
+        .computeIfAbsent(formKey, key -> new LongAdder())
+        .increment();
+  }
+
+  @Override
+  public void removed(Collection<String> formKeys) {
+    if (formKeys.isEmpty()) {
+      return;
+    }
+    var tenant = TenantContext.getTenant();
+    var tenantReads = pendingReads.get(tenant);
+    if (tenantReads != null) {
+      formKeys.forEach(tenantReads::remove);
+    }
+    try {
+      var fields = formKeys.toArray();
+      redisTemplate.opsForHash().delete(footprintsKey(tenant), fields);
+      redisTemplate.opsForHash().delete(readsKey(tenant), fields);
+    } catch (RuntimeException e) {
+      log.warn("Unable to remove the footprint of {} forms: {}", formKeys.size(), e.getMessage());
+    }
+  }
+
+  /**
+   * Adds the reads counted since the previous flush to the shared read counts with one pipelined
+   * round trip. Counts that cannot be written are kept for the next flush.
+   */
+  @Scheduled(fixedDelayString = "${form.footprint.flush-interval}")
+  public void flushReads() {
+    var counts = new ArrayList<Map.Entry<String, Map<String, Long>>>();
+    pendingReads.forEach((tenant, tenantReads) -> {
+      var tenantCounts = new HashMap<String, Long>();
+      tenantReads.forEach((formKey, reads) -> {
+        var count = reads.sumThenReset();
+        if (count > 0) {
+          tenantCounts.put(formKey, count);
+        }
+      });
+      if (!tenantCounts.isEmpty()) {
+        counts.add(Map.entry(tenant, tenantCounts));
+      }
+    });
+    if (counts.isEmpty()) {
+      return;
+    }
+
+    try {
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        var stringConnection = (StringRedisConnection) connection;
+        counts.forEach(tenantCounts -> tenantCounts.getValue().forEach((formKey, count) ->
+            stringConnection.hIncrBy(readsKey(tenantCounts.getKey()), formKey, count)));
+        return null;
+      });
+    } catch (RuntimeException e) {
+      log.warn("Unable to flush form read counts: {}", e.getMessage());
+      counts.forEach(tenantCounts -> tenantCounts.getValue().forEach((formKey, count) ->
+          pendingReads.computeIfAbsent(tenantCounts.getKey(), tenant -> new ConcurrentHashMap<>())
+              .computeIfAbsent(formKey, key -> new LongAdder())
+              .add(count)));
+    }
+  }
+
+  private Map<String, Long> readCounts(String tenant) {
+    var readCounts = new HashMap<String, Long>();
+    redisTemplate.<String, String>opsForHash().entries(readsKey(tenant))
+        .forEach((formKey, reads) -> readCounts.put(formKey, Long.parseLong(reads)));
+    var tenantReads = pendingReads.get(tenant);
+    if (tenantReads != null) {
+      tenantReads.forEach((formKey, reads) -> readCounts.merge(formKey, reads.sum(), Long::sum));
+    }
+    return readCounts;
+  }
+
+  private long pendingReads(String tenant, String formKey) {
+    var reads = pendingReads.getOrDefault(tenant, Map.of()).get(formKey);
+    return reads == null ? 0 : reads.sum();
+  }
+
+  /**
+   * Encodes the footprint of the form data as {@code
+   * formDataBytes:compressedBytes:componentCount:maxDepth}.
+   */
+  static String measure(String formData) {
+    var data = formData.getBytes(StandardCharsets.UTF_8);
+    var shape = new long[2];
+    countComponents(JSONValue.parse(formData, JSONObject.class), false, 0, shape);
+    return String.join(SEPARATOR, String.valueOf(data.length),
+        String.valueOf(compressedSize(data)), String.valueOf(shape[0]), String.valueOf(shape[1]));
+  }
+
+  /**
+   * Counts the components of the node into {@code shape[0]} and their deepest nesting into
+   * {@code shape[1]}. A nested form component counts as one component, the referenced form is
+   * measured on its own.
+   */
+  private static void countComponents(Object node, boolean inComponents, int depth,
+      long[] shape) {
+    if (node instanceof Map) {
+      if (inComponents) {
+        shape[0]++;
+        shape[1] = Math.max(shape[1], depth);
+        if (FormReferences.referenceOf((Map<?, ?>) node) != null) {
+          return;
+        }
+      }
+      ((Map<?, ?>) node).forEach((field, value) -> {
+        var components = FormReferences.isComponents(field, value);
+        countComponents(value, components, components ? depth + 1 : depth, shape);
+      });
+    } else if (node instanceof List) {
+      ((List<?>) node).forEach(element -> countComponents(element, inComponents, depth, shape));
+    }
+  }
+
+  private static long compressedSize(byte[] data) {
+    var deflater = new Deflater();
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      var buffer = new byte[8192];
+      while (!deflater.finished()) {
+        deflater.deflate(buffer);
+      }
+      return deflater.getBytesWritten();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static FormFootprint toFootprint(String formKey, String value, long readCount) {
+    var parts = value.split(SEPARATOR);
+    return FormFootprint.builder()
+        .key(formKey)
+        .formDataBytes(Long.parseLong(parts[0]))
+        .compressedBytes(Long.parseLong(parts[1]))
+        .componentCount(Long.parseLong(parts[2]))
+        .maxDepth(Long.parseLong(parts[3]))
+        .readCount(readCount)
+        .build();
+  }
+
+  private static String footprintsKey(String tenant) {
+    return FOOTPRINTS_KEY_PREFIX + tenant;
+  }
+
+  private static String readsKey(String tenant) {
+    return READS_KEY_PREFIX + tenant;
+  }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormGenerationInProgressException;
+import com.epam.digital.data.platform.form.provider.exception.TenantQuotaExceededException;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
+import com.epam.digital.data.platform.form.provider.storage.impl.GenerationalFormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Blue/green deployment of the whole form set of a tenant, on top of
+ * {@link GenerationalFormStorage}.
+ * <p>
+ * A deployment writes its forms into a new generation that reads do not see, then
+ * {@link #activate(String)} switches the active generation pointer of the tenant with one Redis
+ * script, so readers see either the complete previous or the complete new form set. The
+ * previously active generation is retired: it stays readable by instances that have not seen the
+ * switch yet and is deleted by {@link #collectGarbage()} once it has been retired for
+ * {@code form.generation.retention}. Other instances learn about the switch from the
+ * {@link FormChangeType#RESET} change published after it, or on the next
+ * {@code form.generation.refresh-interval} tick if they missed it, so the retention must be
+ * longer than the refresh interval.
+ * <p>
+ * A generation is being built from its creation until it is activated or discarded, or until
+ * no batch has been written to it for {@code form.generation.build-timeout}. Forms written to the
+ * active generation meanwhile would be lost with the switch, so the writes of single forms and
+ * of batches are rejected with {@link FormGenerationInProgressException} in that time. The
+ * batches of a generation are checked against the tenant quota as a whole new form set, and the
+ * activation records the versions of the changed forms and drops the history of the removed
+ * ones, like writes of single forms do.
+ * <p>
+ * The generation being built is the {@code building:<tenant>} field of the generations hash,
+ * holding the generation and the time the build times out, so the scripts switching and
+ * retiring generations touch that one key and work on Redis Cluster too.
+ */
+@Slf4j
+@Service
+public class FormGenerationService {
+
+  private static final String RETIRED_FIELD_PREFIX = "retired:";
+  private static final String BUILDING_FIELD_PREFIX = "building:";
+  private static final String USAGE_KEY_PREFIX = "bpm-form-schema-generation-usage:";
+  private static final String FORMS = "forms";
+  private static final String BYTES = "bytes";
+
+  // Ends the build of the generation ARGV[2] of the tenant ARGV[1], unless another generation is
+  // being built meanwhile
+  private static final String END_BUILD =
+      "local building = 'building:' .. ARGV[1]\n"
+          + "local marker = redis.call('HGET', KEYS[1], building)\n"
+          + "if marker and string.sub(marker, 1, #ARGV[2] + 1) == ARGV[2] .. ':' then\n"
+          + "  redis.call('HDEL', KEYS[1], building)\n"
+          + "end\n";
+
+  // KEYS: generations hash; ARGV: tenant, generation, retirement time. Makes the generation the
+  // active one, retires the previous one and returns its name; returns nil if the generation is
+  // active already
+  private static final RedisScript<String> ACTIVATE_SCRIPT = RedisScript.of(
+      END_BUILD
+          + "local active = 'active:' .. ARGV[1]\n"
+          + "local previous = redis.call('HGET', KEYS[1], active) or ''\n"
+          + "if previous == ARGV[2] then\n"
+          + "  return false\n"
+          + "end\n"
+          + "redis.call('HSET', KEYS[1], active, ARGV[2], "
+          + "'retired:' .. ARGV[1] .. ':' .. previous, ARGV[3])\n"
+          + "return previous", String.class);
+
+  // KEYS: generations hash; ARGV: tenant, generation, retirement time. Retires the generation
+  // unless it is the active one
+  private static final RedisScript<Long> RETIRE_SCRIPT = RedisScript.of(
+      END_BUILD
+          + "if (redis.call('HGET', KEYS[1], 'active:' .. ARGV[1]) or '') == ARGV[2] then\n"
+          + "  return 0\n"
+          + "end\n"
+          + "redis.call('HSET', KEYS[1], 'retired:' .. ARGV[1] .. ':' .. ARGV[2], ARGV[3])\n"
+          + "return 1", Long.class);
+
+  private final GenerationalFormStorage formStorage;
+  private final CircuitBreaker storageCircuitBreaker;
+  private final StringRedisTemplate redisTemplate;
+  private final FormKeyIndex formKeyIndex;
+  private final FormDependencyIndex formDependencyIndex;
+  private final FormFootprintService formFootprintService;
+  private final FormSchemaVersionService formSchemaVersionService;
+  private final TenantQuotaService tenantQuotaService;
+  private final FormChangeFeedService formChangeFeedService;
+  private final int batchSize;
+  private final Duration retention;
+  private final Duration buildTimeout;
+
+  public FormGenerationService(GenerationalFormStorage formStorage,
+      @Qualifier("storageCircuitBreaker") CircuitBreaker storageCircuitBreaker,
+      StringRedisTemplate redisTemplate,
+      FormKeyIndex formKeyIndex,
+      FormDependencyIndex formDependencyIndex,
+      FormFootprintService formFootprintService,
+      FormSchemaVersionService formSchemaVersionService,
+      TenantQuotaService tenantQuotaService,
+      FormChangeFeedService formChangeFeedService,
+      @Value("${form.generation.batch-size}") int batchSize,
+      @Value("${form.generation.retention}") Duration retention,
+      @Value("${form.generation.build-timeout}") Duration buildTimeout) {
+    this.formStorage = formStorage;
+    this.storageCircuitBreaker = storageCircuitBreaker;
+    this.redisTemplate = redisTemplate;
+    this.formKeyIndex = formKeyIndex;
+    this.formDependencyIndex = formDependencyIndex;
+    this.formFootprintService = formFootprintService;
+    this.formSchemaVersionService = formSchemaVersionService;
+    this.tenantQuotaService = tenantQuotaService;
+    this.formChangeFeedService = formChangeFeedService;
+    this.batchSize = batchSize;
+    this.retention = retention;
+    this.buildTimeout = buildTimeout;
+    formChangeFeedService.addListener((tenant, key) -> {
+      if (key == null) {
+        refresh();
+      }
+    });
+  }
+
+  /**
+   * Returns the name of a new, empty generation for the forms of the current tenant, which is
+   * being built from now on.
+   */
+  public String createGeneration() {
+    var generation = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    markBuilding(TenantContext.getTenant(), generation);
+    return generation;
+  }
+
+  /**
+   * Throws {@link FormGenerationInProgressException} while a generation of the current tenant is
+   * being built, as forms written to the active generation meanwhile would be lost with the
+   * switch.
+   */
+  public void checkNoGenerationInProgress() {
+    var tenant = TenantContext.getTenant();
+    var marker = redisTemplate.<String, String>opsForHash()
+        .get(GenerationalFormStorage.GENERATIONS_KEY, BUILDING_FIELD_PREFIX + tenant);
+    if (marker == null) {
+      return;
+    }
+    var separator = marker.lastIndexOf(':');
+    var generation = marker.substring(0, separator);
+    if (Long.parseLong(marker.substring(separator + 1)) > Instant.now().toEpochMilli()) {
+      throw new FormGenerationInProgressException(String.format(
+          "The forms of the tenant '%s' are being replaced by the generation %s, "
+              + "try again once its deployment is finished.", tenant, generation));
+    }
+  }
+
+  /**
+   * Writes a batch of forms prepared by {@link FormSchemaProviderServiceImpl#toFormSchema(String)}
+   * into an inactive generation of the current tenant with one storage call. The keys are added
+   * to the {@link FormKeyIndex} right away, so every instance knows them once the generation is
+   * activated.
+   * <p>
+   * Throws {@link TenantQuotaExceededException} without writing the batch if the forms of the
+   * generation would exceed the quota of the tenant with it. A batch written again, after a job
+   * was interrupted, is counted again, so the check errs on the strict side.
+   */
+  public void write(String generation, List<FormSchema> preparedFormSchemas) {
+    var tenant = TenantContext.getTenant();
+    var formSchemas = preparedFormSchemas.stream()
+        .map(formSchema -> formSchema.toBuilder()
+            .id(TenantContext.storageId(formSchema.getId()))
+            .build())
+        .collect(Collectors.toList());
+    var bytes = formSchemas.stream()
+        .mapToLong(formSchema -> TenantQuotaService.sizeOf(formSchema.getFormData()))
+        .sum();
+    var usageKey = usageKey(tenant, generation);
+    if (tenantQuotaService.isEnabled()) {
+      tenantQuotaService.checkFormSetQuota(getCounter(usageKey, FORMS) + formSchemas.size(),
+          getCounter(usageKey, BYTES) + bytes);
+    }
+    markBuilding(tenant, generation);
+    storageCircuitBreaker.call(() -> {
+      formStorage.saveAll(generation, formSchemas);
+      return null;
+    });
+    if (tenantQuotaService.isEnabled()) {
+      redisTemplate.opsForHash().increment(usageKey, FORMS, formSchemas.size());
+      redisTemplate.opsForHash().increment(usageKey, BYTES, bytes);
+      redisTemplate.expire(usageKey, buildTimeout);
+    }
+    formSchemas.forEach(formSchema -> formKeyIndex.added(formSchema.getId()));
+  }
+
+  /**
+   * Makes the generation the active one of the current tenant in one step and updates the
+   * indexes, the usage and the version histories of the tenant to its forms. Activating the
+   * active generation again only updates the indexes and the usage, so an interrupted activation
+   * can be repeated; versions are recorded by the activation that switched, while the previous
+   * generation is known.
+   */
+  public void activate(String generation) {
+    var tenant = TenantContext.getTenant();
+    var previousKeys = formKeys();
+    var previousGeneration = redisTemplate.execute(ACTIVATE_SCRIPT,
+        List.of(GenerationalFormStorage.GENERATIONS_KEY), tenant, generation,
+        String.valueOf(Instant.now().toEpochMilli()));
+    redisTemplate.delete(usageKey(tenant, generation));
+    formStorage.reload();
+
+    var keys = new HashSet<String>();
+    scanForms(formSchemas -> {
+      var previousFormSchemas = previousGeneration == null ? Map.<String, FormSchema>of()
+          : formStorage.findAllById(previousGeneration, formSchemas.stream()
+                  .map(FormSchema::getId)
+                  .collect(Collectors.toList())).stream()
+              .collect(Collectors.toMap(FormSchema::getId, Function.identity()));
+      formSchemas.forEach(formSchema -> {
+        var formKey = TenantContext.formKey(formSchema.getId());
+        keys.add(formKey);
+        formFootprintService.updated(formKey, formSchema.getFormData());
+        var previous = previousFormSchemas.get(formSchema.getId());
+        if (previousGeneration != null && (previous == null
+            || !Objects.equals(previous.getContentHash(), formSchema.getContentHash()))) {
+          formSchemaVersionService.recordVersion(formKey,
+              previous == null ? null : previous.getFormData(), formSchema.getFormData());
+        }
+      });
+    });
+    var removedKeys = previousKeys.stream()
+        .filter(key -> !keys.contains(key))
+        .collect(Collectors.toList());
+    formFootprintService.removed(removedKeys);
+    formKeyIndex.removed(removedKeys.stream()
+        .map(TenantContext::storageId)
+        .collect(Collectors.toList()));
+    if (previousGeneration != null) {
+      removedKeys.forEach(formSchemaVersionService::deleteHistory);
+    }
+    formDependencyIndex.rebuild();
+    tenantQuotaService.resetUsage();
+    formChangeFeedService.publish(FormChangeType.RESET, null, null);
+    log.info("Generation {} of tenant '{}' {} with {} forms, {} forms removed", generation, tenant,
+        previousGeneration != null ? "activated" : "was active already", keys.size(),
+        removedKeys.size());
+  }
+
+  /**
+   * Retires an inactive generation of the current tenant, its forms are deleted with the other
+   * retired generations.
+   */
+  public void discard(String generation) {
+    var tenant = TenantContext.getTenant();
+    redisTemplate.execute(RETIRE_SCRIPT, List.of(GenerationalFormStorage.GENERATIONS_KEY),
+        tenant, generation, String.valueOf(Instant.now().toEpochMilli()));
+    redisTemplate.delete(usageKey(tenant, generation));
+  }
+
+  /**
+   * Deletes the forms of the generations retired for longer than {@code form.generation.retention}.
+   */
+  @Scheduled(fixedDelayString = "${form.generation.gc-interval}")
+  public void collectGarbage() {
+    try {
+      var entries = redisTemplate.<String, String>opsForHash()
+          .entries(GenerationalFormStorage.GENERATIONS_KEY);
+      var expiredBefore = Instant.now().minus(retention).toEpochMilli();
+      formStorage.reload();
+      entries.forEach((field, retiredAt) -> {
+        if (field.startsWith(RETIRED_FIELD_PREFIX) && Long.parseLong(retiredAt) < expiredBefore) {
+          var tenantAndGeneration = field.substring(RETIRED_FIELD_PREFIX.length());
+          var separator = tenantAndGeneration.indexOf(':');
+          collect(tenantAndGeneration.substring(0, separator),
+              tenantAndGeneration.substring(separator + 1), field);
+        }
+      });
+    } catch (RuntimeException e) {
+      log.warn("Unable to collect retired form generations: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Reloads the active generations, in case the change announcing a switch was missed.
+   */
+  @Scheduled(fixedDelayString = "${form.generation.refresh-interval}")
+  public void refresh() {
+    try {
+      formStorage.reload();
+    } catch (RuntimeException e) {
+      log.warn("Unable to reload active form generations: {}", e.getMessage());
+    }
+  }
+
+  private void collect(String tenant, String generation, String field) {
+    if (generation.equals(formStorage.activeGeneration(tenant))) {
+      redisTemplate.opsForHash().delete(GenerationalFormStorage.GENERATIONS_KEY, field);
+      return;
+    }
+    var deleted = formStorage.deleteGeneration(tenant, generation, batchSize);
+    redisTemplate.opsForHash().delete(GenerationalFormStorage.GENERATIONS_KEY, field);
+    log.info("Retired generation {} of tenant '{}' deleted with {} forms", generation, tenant,
+        deleted);
+  }
+
+  private Set<String> formKeys() {
+    var keys = new HashSet<String>();
+    var tenant = TenantContext.getTenant();
+    formStorage.scanIds(TenantContext.storageId(""), batchSize, ids -> ids.stream()
+        .filter(id -> TenantContext.isStorageIdOf(tenant, id))
+        .forEach(id -> keys.add(TenantContext.formKey(id))));
+    return keys;
+  }
+
+  private void scanForms(Consumer<List<FormSchema>> consumer) {
+    var tenant = TenantContext.getTenant();
+    formStorage.scanIds(TenantContext.storageId(""), batchSize, ids -> consumer.accept(
+        formStorage.findAllById(ids.stream()
+            .filter(id -> TenantContext.isStorageIdOf(tenant, id))
+            .collect(Collectors.toList()))));
+  }
+
+  private long getCounter(String usageKey, String field) {
+    var value = redisTemplate.opsForHash().get(usageKey, field);
+    return value == null ? 0 : Long.parseLong(value.toString());
+  }
+
+  private void markBuilding(String tenant, String generation) {
+    redisTemplate.opsForHash().put(GenerationalFormStorage.GENERATIONS_KEY,
+        BUILDING_FIELD_PREFIX + tenant,
+        generation + ":" + Instant.now().plus(buildTimeout).toEpochMilli());
+  }
+
+  private static String usageKey(String tenant, String generation) {
+    return USAGE_KEY_PREFIX + tenant + ":" + generation;
+  }
+}
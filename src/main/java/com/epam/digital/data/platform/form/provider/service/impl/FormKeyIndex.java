@@ -0,0 +1,201 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.BloomFilter;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory Bloom filter of the keys of all stored forms, used to answer lookups of missing
+ * forms without a storage round trip.
+ * <p>
+ * The filter is built from {@link FormStorage#findAllIds()} at startup. Every instance announces
+ * its writes and deletes on the {@code form.key-index.channel} Redis channel: written keys are
+ * added to the filter of every instance right away, while a delete only marks the filter as
+ * stale, since keys cannot be removed from a Bloom filter, and the filter is rebuilt on the next
+ * {@code form.key-index.refresh-interval} tick. It is also rebuilt once it is older than
+ * {@code form.key-index.max-age}, which bounds for how long a notification lost while the
+ * subscription was down can hide a form created on another instance.
+ * <p>
+ * Notifications published before the channel is subscribed, or while the listener container
+ * resubscribes after a lost connection, are never delivered. So after every subscription every
+ * key is reported as possibly present, and lookups go to the storage, until a rebuild started
+ * after that subscription succeeds. The same holds until the first build succeeds.
+ */
+@Slf4j
+@Component
+public class FormKeyIndex implements MessageListener, SubscriptionListener {
+
+  private static final char ADDED = '+';
+  private static final char REMOVED = '-';
+
+  private final FormStorage formStorage;
+  private final CircuitBreaker storageCircuitBreaker;
+  private final StringRedisTemplate redisTemplate;
+  private final String channel;
+  private final long expectedKeys;
+  private final double falsePositiveRate;
+  private final Duration maxAge;
+
+  private volatile BloomFilter filter;
+  private volatile BloomFilter rebuildingFilter;
+  private volatile Instant builtAt;
+  private volatile boolean stale;
+  private final AtomicLong subscriptions = new AtomicLong();
+  private volatile long verifiedSubscriptions;
+
+  public FormKeyIndex(FormStorage formStorage,
+      @Qualifier("storageCircuitBreaker") CircuitBreaker storageCircuitBreaker,
+      StringRedisTemplate redisTemplate,
+      @Value("${form.key-index.channel}") String channel,
+      @Value("${form.key-index.expected-keys}") long expectedKeys,
+      @Value("${form.key-index.false-positive-rate}") double falsePositiveRate,
+      @Value("${form.key-index.max-age}") Duration maxAge) {
+    this.formStorage = formStorage;
+    this.storageCircuitBreaker = storageCircuitBreaker;
+    this.redisTemplate = redisTemplate;
+    this.channel = channel;
+    this.expectedKeys = expectedKeys;
+    this.falsePositiveRate = falsePositiveRate;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Returns {@code false} only if no form with the given lowercase key is stored.
+   */
+  public boolean mightContain(String key) {
+    var current = filter;
+    return current == null || !isVerified() || current.mightContain(key);
+  }
+
+  public void added(String key) {
+    put(key);
+    publish(ADDED + key);
+  }
+
+  public void removed(String key) {
+    stale = true;
+    publish(REMOVED + key);
+  }
+
+  /**
+   * Marks the index stale once for a batch of removed keys.
+   */
+  public void removed(Collection<String> keys) {
+    if (!keys.isEmpty()) {
+      stale = true;
+      publish(String.valueOf(REMOVED));
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    var body = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (body.isEmpty()) {
+      return;
+    }
+    if (body.charAt(0) == ADDED) {
+      put(body.substring(1));
+    } else if (body.charAt(0) == REMOVED) {
+      stale = true;
+    }
+  }
+
+  @Override
+  public void onChannelSubscribed(byte[] channel, long count) {
+    subscriptions.incrementAndGet();
+    log.info("Subscribed to form key changes, missing keys are confirmed by the storage until "
+        + "the form key index is rebuilt");
+  }
+
+  @PostConstruct
+  public void rebuild() {
+    var subscription = subscriptions.get();
+    // keys added while the storage is listed go to both filters, so none of them is lost
+    var rebuilding = new BloomFilter(expectedKeys, falsePositiveRate);
+    rebuildingFilter = rebuilding;
+    stale = false;
+    try {
+      var ids = storageCircuitBreaker.call(formStorage::findAllIds);
+      if (ids.size() * 2L > expectedKeys) {
+        rebuilding = new BloomFilter(ids.size() * 2L, falsePositiveRate);
+        rebuildingFilter = rebuilding;
+        ids = storageCircuitBreaker.call(formStorage::findAllIds);
+      }
+      ids.forEach(rebuilding::put);
+      filter = rebuilding;
+      verifiedSubscriptions = subscription;
+      builtAt = Instant.now();
+      log.debug("Form key index rebuilt with {} keys", ids.size());
+    } catch (RuntimeException e) {
+      stale = true;
+      log.warn("Unable to rebuild form key index", e);
+    } finally {
+      rebuildingFilter = null;
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${form.key-index.refresh-interval}",
+      initialDelayString = "${form.key-index.refresh-interval}")
+  public void refresh() {
+    var lastBuild = builtAt;
+    if (stale || !isVerified() || lastBuild == null
+        || lastBuild.plus(maxAge).isBefore(Instant.now())) {
+      rebuild();
+    }
+  }
+
+  private boolean isVerified() {
+    return verifiedSubscriptions == subscriptions.get();
+  }
+
+  // the rebuilding filter is read first: once it is gone, the rebuilt filter is already current
+  private void put(String key) {
+    var rebuilding = rebuildingFilter;
+    if (rebuilding != null) {
+      rebuilding.put(key);
+    }
+    var current = filter;
+    if (current != null) {
+      current.put(key);
+    }
+  }
+
+  private void publish(String message) {
+    try {
+      redisTemplate.convertAndSend(channel, message);
+    } catch (RuntimeException e) {
+      log.warn("Unable to publish form key change, other instances refresh it on schedule", e);
+    }
+  }
+}
@@ -17,27 +17,48 @@
 
 package com.epam.digital.data.platform.form.provider.service.impl;
 
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
 import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
 import com.epam.digital.data.platform.form.provider.entity.FormSchema;
 import com.epam.digital.data.platform.form.provider.exception.FormDataRepositoryCommunicationException;
 import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
 import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
-import com.epam.digital.data.platform.form.provider.repository.FormRepository;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaNotFoundException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaReferencedException;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
 import com.epam.digital.data.platform.form.provider.service.FormSchemaProviderService;
 import com.epam.digital.data.platform.form.provider.service.FormSchemaValidationService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.ContentHash;
+import com.epam.digital.data.platform.form.provider.util.RequestCoalescer;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -45,23 +66,66 @@ import org.springframework.stereotype.Service;
 public class FormSchemaProviderServiceImpl implements FormSchemaProviderService {
 
   private static final String NAME = "name";
+  private static final int MAX_BATCH_KEYS = 100;
 
   private final FormSchemaValidationService formSchemaValidationService;
-  private final FormRepository repository;
+  private final FormStorage formStorage;
   private final ObjectMapper objectMapper;
+  private final FormComponentIndexer formComponentIndexer;
+  private final FormSchemaVersionService formSchemaVersionService;
+  private final CircuitBreaker storageCircuitBreaker;
+  private final FormKeyIndex formKeyIndex;
+  private final StageTracer stageTracer;
+  private final TenantQuotaService tenantQuotaService;
+  private final FormChangeFeedService formChangeFeedService;
+  private final FormDependencyIndex formDependencyIndex;
+  private final FormFootprintService formFootprintService;
+  private final FormSnapshotStore formSnapshotStore;
+  private final FormGenerationService formGenerationService;
+  private final RequestCoalescer<String, FormSchemaContent> formReadCoalescer;
+  private final Counter writeSkippedCounter;
+  private final Counter missingKeyCounter;
 
   public FormSchemaProviderServiceImpl(
       FormSchemaValidationService formSchemaValidationService,
-      FormRepository repository,
-      ObjectMapper objectMapper) {
+      FormStorage formStorage,
+      ObjectMapper objectMapper,
+      FormComponentIndexer formComponentIndexer,
+      FormSchemaVersionService formSchemaVersionService,
+      @Qualifier("storageCircuitBreaker") CircuitBreaker storageCircuitBreaker,
+      FormKeyIndex formKeyIndex,
+      StageTracer stageTracer,
+      TenantQuotaService tenantQuotaService,
+      FormChangeFeedService formChangeFeedService,
+      FormDependencyIndex formDependencyIndex,
+      FormFootprintService formFootprintService,
+      FormSnapshotStore formSnapshotStore,
+      FormGenerationService formGenerationService,
+      MeterRegistry meterRegistry) {
     this.formSchemaValidationService = formSchemaValidationService;
-    this.repository = repository;
+    this.formStorage = formStorage;
     this.objectMapper = objectMapper;
+    this.formComponentIndexer = formComponentIndexer;
+    this.formSchemaVersionService = formSchemaVersionService;
+    this.storageCircuitBreaker = storageCircuitBreaker;
+    this.formKeyIndex = formKeyIndex;
+    this.stageTracer = stageTracer;
+    this.tenantQuotaService = tenantQuotaService;
+    this.formChangeFeedService = formChangeFeedService;
+    this.formDependencyIndex = formDependencyIndex;
+    this.formFootprintService = formFootprintService;
+    this.formSnapshotStore = formSnapshotStore;
+    this.formGenerationService = formGenerationService;
+    this.formReadCoalescer = new RequestCoalescer<>(
+        meterRegistry.counter("form.schema.read.coalesced"));
+    this.writeSkippedCounter = meterRegistry.counter("form.schema.write.skipped");
+    this.missingKeyCounter = meterRegistry.counter("form.schema.read.missing-key");
   }
 
   @Override
-  public void saveForm(String formSchemaData) {
-    validateFormSchema(formSchemaData);
+  public void saveForm(String formSchemaData, ValidationMode validationMode) {
+    formGenerationService.checkNoGenerationInProgress();
+    validateFormSchema(formSchemaData, validationMode);
     JsonNode formSchemaJson = getFormJson(formSchemaData);
 
     var lowercaseName = formSchemaJson.get(NAME).asText().toLowerCase();
@@ -71,7 +135,7 @@ public class FormSchemaProviderServiceImpl implements FormSchemaProviderService
     validateFormExisting(formName, this::checkForSaveIsFormExists);
 
     log.debug("Saving form with name: {}", formName);
-    saveOrUpdate(formName, formSchemaJson);
+    saveOrUpdate(formName, formSchemaJson, null);
   }
 
   private JsonNode getFormJson(String formSchemaData) {
@@ -91,11 +155,109 @@ public class FormSchemaProviderServiceImpl implements FormSchemaProviderService
   }
 
 
-  private void saveOrUpdate(String formSchemaName, JsonNode formSchemaJson) {
-    execute(() -> repository.save(FormSchema.builder()
+  /**
+   * Converts already validated form data into a {@link FormSchema} ready to be stored: the form
+   * name is lowercased and the component index is built. The id of the returned form is the form
+   * name, not yet namespaced with the tenant.
+   */
+  public FormSchema toFormSchema(String formSchemaData) {
+    JsonNode formSchemaJson = getFormJson(formSchemaData);
+
+    var lowercaseName = formSchemaJson.get(NAME).asText().toLowerCase();
+    ((ObjectNode) formSchemaJson).put(NAME, lowercaseName);
+
+    return buildFormSchema(lowercaseName, formSchemaJson);
+  }
+
+  /**
+   * Stores a batch of forms prepared by {@link #toFormSchema(String)} for the current tenant,
+   * creating or replacing them. Forms whose content hash matches the stored one are not written
+   * again.
+   */
+  public void saveForms(List<FormSchema> preparedFormSchemas) {
+    formGenerationService.checkNoGenerationInProgress();
+    var formSchemas = preparedFormSchemas.stream()
+        .map(formSchema -> formSchema.toBuilder()
+            .id(TenantContext.storageId(formSchema.getId()))
+            .build())
+        .collect(Collectors.toList());
+    var ids = formSchemas.stream().map(FormSchema::getId).collect(Collectors.toList());
+    Map<String, FormSchema> previousFormSchemas = new HashMap<>();
+    read(() -> formStorage.findAllById(ids),
+        previous -> previous.stream().mapToLong(FormSchemaProviderServiceImpl::formDataSize).sum())
+        .forEach(previous -> previousFormSchemas.put(previous.getId(), previous));
+
+    var changedFormSchemas = formSchemas.stream()
+        .filter(formSchema -> !isSameContent(previousFormSchemas.get(formSchema.getId()),
+            formSchema))
+        .collect(Collectors.toList());
+    writeSkippedCounter.increment(formSchemas.size() - changedFormSchemas.size());
+    if (changedFormSchemas.isEmpty()) {
+      return;
+    }
+
+    var addedForms = changedFormSchemas.stream()
+        .filter(formSchema -> !previousFormSchemas.containsKey(formSchema.getId()))
+        .count();
+    var addedBytes = changedFormSchemas.stream()
+        .mapToLong(formSchema -> TenantQuotaService.sizeOf(formSchema.getFormData())
+            - previousSize(previousFormSchemas.get(formSchema.getId())))
+        .sum();
+    tenantQuotaService.checkQuota(addedForms, addedBytes);
+    write(changedFormSchemas.stream().mapToLong(FormSchemaProviderServiceImpl::formDataSize).sum(),
+        () -> {
+          formStorage.saveAll(changedFormSchemas);
+          return null;
+        });
+    tenantQuotaService.recordUsage(addedForms, addedBytes);
+    changedFormSchemas.forEach(formSchema -> formKeyIndex.added(formSchema.getId()));
+    changedFormSchemas.forEach(formSchema -> {
+      var previous = previousFormSchemas.get(formSchema.getId());
+      var formKey = TenantContext.formKey(formSchema.getId());
+      formDependencyIndex.updated(formKey, formSchema.getFormData());
+      formFootprintService.updated(formKey, formSchema.getFormData());
+      formSchemaVersionService.recordVersion(formKey,
+          previous == null ? null : previous.getFormData(), formSchema.getFormData());
+      formChangeFeedService.publish(previous == null ? FormChangeType.CREATED
+          : FormChangeType.UPDATED, formKey, formSchema.getContentHash());
+    });
+  }
+
+  private static long previousSize(FormSchema previous) {
+    return previous == null ? 0 : TenantQuotaService.sizeOf(previous.getFormData());
+  }
+
+  private static boolean isSameContent(FormSchema previous, FormSchema formSchema) {
+    return previous != null && previous.getContentHash() != null
+        && previous.getContentHash().equals(formSchema.getContentHash());
+  }
+
+  private void saveOrUpdate(String formSchemaName, JsonNode formSchemaJson,
+      String previousFormData) {
+    var formSchema = buildFormSchema(TenantContext.storageId(formSchemaName), formSchemaJson);
+    var addedForms = previousFormData == null ? 1 : 0;
+    var addedBytes = TenantQuotaService.sizeOf(formSchema.getFormData())
+        - TenantQuotaService.sizeOf(previousFormData);
+    tenantQuotaService.checkQuota(addedForms, addedBytes);
+    write(formDataSize(formSchema), () -> formStorage.save(formSchema));
+    tenantQuotaService.recordUsage(addedForms, addedBytes);
+    formKeyIndex.added(formSchema.getId());
+    formDependencyIndex.updated(formSchemaName, formSchema.getFormData());
+    formFootprintService.updated(formSchemaName, formSchema.getFormData());
+    formSchemaVersionService.recordVersion(formSchemaName, previousFormData,
+        formSchema.getFormData());
+    formChangeFeedService.publish(previousFormData == null ? FormChangeType.CREATED
+        : FormChangeType.UPDATED, formSchemaName, formSchema.getContentHash());
+  }
+
+  private FormSchema buildFormSchema(String formSchemaName, JsonNode formSchemaJson) {
+    var formData = serializeFormJson(formSchemaJson);
+    return FormSchema.builder()
         .id(formSchemaName)
-        .formData(serializeFormJson(formSchemaJson))
-        .build()));
+        .formData(formData)
+        .componentIndex(formComponentIndexer.index(formData))
+        .contentHash(ContentHash.of(formSchemaJson))
+        .build();
   }
 
   private void validateFormExisting(String formName,
@@ -106,33 +268,173 @@ public class FormSchemaProviderServiceImpl implements FormSchemaProviderService
     performIfFormExist.accept(isExists, formName);
   }
 
-  private void validateFormSchema(String formSchemaData) {
+  private void validateFormSchema(String formSchemaData, ValidationMode validationMode) {
     Map<String, ValidationError> validationErrors = formSchemaValidationService.validate(
-        formSchemaData);
+        formSchemaData, validationMode);
 
     if (!validationErrors.isEmpty()) {
-      validationErrors.values().forEach(validationError -> log.error(validationError.toString()));
       throw new FormSchemaValidationException("Form Schema is not valid.", validationErrors);
     }
   }
 
   @Override
   public JSONObject getFormByKey(String key) {
-    var lowercaseKey = key.toLowerCase();
-    Optional<FormSchema> formSchema = execute(() -> repository.findById(lowercaseKey));
+    return getFormContentByKey(key).getForm();
+  }
 
-    var schema = formSchema.orElseThrow(() ->
-        new FormSchemaDataException(
-            String.format("The UI form scheme for the specified key '%s' is missing.", key)));
+  /**
+   * Concurrent calls for the same key are coalesced into a single storage read and parse, so the
+   * callers of one flight share the returned {@link JSONObject} and must not modify it. While the
+   * storage is unavailable the form is read from the {@link FormSnapshotStore}.
+   */
+  @Override
+  public FormSchemaContent getFormContentByKey(String key) {
+    FormSchemaContent content;
+    try {
+      content = formReadCoalescer.execute(TenantContext.storageId(key.toLowerCase()),
+          () -> toFormSchemaContent(findFormSchema(key)));
+    } catch (FormDataRepositoryCommunicationException e) {
+      content = formSnapshotStore.getFormContentByKey(key).orElseThrow(() -> e);
+    }
+    formFootprintService.read(content.getKey());
+    return content;
+  }
+
+  /**
+   * Reads all forms with one storage call. Keys that are not in the {@link FormKeyIndex} are
+   * skipped without a storage lookup. While the storage is unavailable the forms are read from
+   * the {@link FormSnapshotStore}, if there is one.
+   */
+  @Override
+  public List<FormSchemaContent> getFormsByKeys(Collection<String> keys) {
+    if (keys.size() > MAX_BATCH_KEYS) {
+      throw new FormSchemaValidationException(
+          String.format("At most %d forms can be requested at once.", MAX_BATCH_KEYS), Map.of());
+    }
+    var storageIds = keys.stream()
+        .map(key -> TenantContext.storageId(key.toLowerCase()))
+        .distinct()
+        .filter(formKeyIndex::mightContain)
+        .collect(Collectors.toList());
+    if (storageIds.isEmpty()) {
+      return List.of();
+    }
+    List<FormSchemaContent> contents;
+    try {
+      contents = read(() -> formStorage.findAllById(storageIds),
+          formSchemas -> formSchemas.stream()
+              .mapToLong(FormSchemaProviderServiceImpl::formDataSize).sum())
+          .stream()
+          .map(this::toFormSchemaContent)
+          .collect(Collectors.toList());
+    } catch (FormDataRepositoryCommunicationException e) {
+      if (formSnapshotStore.getCreatedAt().isEmpty()) {
+        throw e;
+      }
+      contents = storageIds.stream()
+          .map(storageId -> formSnapshotStore.getFormContentByKey(TenantContext.formKey(storageId)))
+          .flatMap(Optional::stream)
+          .collect(Collectors.toList());
+    }
+    contents.forEach(content -> formFootprintService.read(content.getKey()));
+    return contents;
+  }
+
+  private FormSchemaContent toFormSchemaContent(FormSchema schema) {
     var formSchemaData = new String(schema.getFormData().getBytes(StandardCharsets.UTF_8),
         StandardCharsets.UTF_8);
 
-    return JSONValue.parse(formSchemaData, JSONObject.class);
+    return FormSchemaContent.builder()
+        .key(TenantContext.formKey(schema.getId()))
+        .contentHash(schema.getContentHash())
+        .form(JSONValue.parse(formSchemaData, JSONObject.class))
+        .build();
   }
 
+  /**
+   * The component is read with one storage call, {@link FormStorage#findComponentData}, which
+   * resolves its location from the component index of the form and returns its data alone. A form
+   * saved without an index, or rewritten while it was read so that the location points to other
+   * data, is read whole and indexed on read, as is a form read from the {@link FormSnapshotStore}
+   * while the storage is unavailable.
+   */
   @Override
-  public void updateForm(String key, String formSchemaData) {
-    validateFormSchema(formSchemaData);
+  public JSONObject getFormComponentByKey(String key, String componentKey) {
+    var storageId = TenantContext.storageId(key.toLowerCase());
+    JSONObject component;
+    String formData = null;
+    try {
+      checkIndexed(key, storageId);
+      component = read(() -> formStorage.findComponentData(storageId, componentKey),
+          componentData -> componentData.map(data -> (long) data.length()).orElse(0L))
+          .map(componentData -> component(componentData, componentKey))
+          .orElse(null);
+      if (component == null) {
+        formData = findFormSchema(key).getFormData();
+      }
+    } catch (FormDataRepositoryCommunicationException e) {
+      component = null;
+      formData = formSnapshotStore.getFormDataByKey(key).orElseThrow(() -> e);
+    }
+    formFootprintService.read(TenantContext.formKey(storageId));
+    if (component == null) {
+      log.debug("Component {} is not in the component index of form {}, indexing on read",
+          componentKey, storageId);
+      var location = formComponentIndexer.index(formData).get(componentKey);
+      component = location == null ? null : component(location.cut(formData), componentKey);
+    }
+    if (component == null) {
+      throw new FormSchemaDataException(
+          String.format("The component '%s' is missing in the UI form scheme '%s'.",
+              componentKey, key));
+    }
+    return component;
+  }
+
+  private static JSONObject component(String componentData, String componentKey) {
+    var component = componentData == null ? null : JSONValue.parse(componentData);
+    return component instanceof JSONObject
+        && componentKey.equals(((JSONObject) component).get("key"))
+        ? (JSONObject) component : null;
+  }
+
+  /**
+   * Keys that are not in the {@link FormKeyIndex} are reported as missing without a storage call.
+   */
+  private FormSchema findFormSchema(String key) {
+    var storageId = TenantContext.storageId(key.toLowerCase());
+    checkIndexed(key, storageId);
+    Optional<FormSchema> formSchema = read(() -> formStorage.findById(storageId),
+        FormSchemaProviderServiceImpl::formDataSize);
+
+    return formSchema.orElseThrow(() -> formSchemaNotFound(key));
+  }
+
+  private void checkIndexed(String key, String storageId) {
+    if (!formKeyIndex.mightContain(storageId)) {
+      missingKeyCounter.increment();
+      throw formSchemaNotFound(key);
+    }
+  }
+
+  private static FormSchemaNotFoundException formSchemaNotFound(String key) {
+    return new FormSchemaNotFoundException(
+        String.format("The UI form scheme for the specified key '%s' is missing.", key));
+  }
+
+  @Override
+  public void updateForm(String key, String formSchemaData, ValidationMode validationMode) {
+    formGenerationService.checkNoGenerationInProgress();
+    var storageId = TenantContext.storageId(key.toLowerCase());
+    var previousFormSchema = read(() -> formStorage.findById(storageId),
+        FormSchemaProviderServiceImpl::formDataSize);
+    if (isUnchanged(previousFormSchema, formSchemaData)) {
+      log.debug("Form {} is unchanged, update is skipped", key);
+      writeSkippedCounter.increment();
+      return;
+    }
+
+    validateFormSchema(formSchemaData, validationMode);
     JsonNode formSchemaJson = getFormJson(formSchemaData);
 
     var lowercaseName = formSchemaJson.get(NAME).asText().toLowerCase();
@@ -151,14 +453,36 @@ public class FormSchemaProviderServiceImpl implements FormSchemaProviderService
               .build()));
     }
 
-    validateFormExisting(formSchemaName, this::checkForUpdateIsFromExists);
-    saveOrUpdate(formSchemaName, formSchemaJson);
+    checkForUpdateIsFromExists(previousFormSchema.isPresent(), formSchemaName);
+    saveOrUpdate(formSchemaName, formSchemaJson, previousFormSchema.get().getFormData());
+  }
+
+  /**
+   * Compares content hashes, so a re-upload that differs from the stored form only in formatting,
+   * field order or the case of its name is treated as unchanged. Data that cannot be hashed is
+   * treated as changed and goes through the usual validation.
+   */
+  private boolean isUnchanged(Optional<FormSchema> storedFormSchema, String formSchemaData) {
+    var storedHash = storedFormSchema.map(FormSchema::getContentHash).orElse(null);
+    if (storedHash == null) {
+      return false;
+    }
+    try {
+      var formSchemaJson = objectMapper.readTree(formSchemaData);
+      var name = formSchemaJson.get(NAME);
+      if (!formSchemaJson.isObject() || name == null || !name.isTextual()) {
+        return false;
+      }
+      ((ObjectNode) formSchemaJson).put(NAME, name.asText().toLowerCase());
+      return storedHash.equals(ContentHash.of(formSchemaJson));
+    } catch (Exception e) {
+      return false;
+    }
   }
 
   private void checkForUpdateIsFromExists(boolean isExists, String key) {
     if (!isExists) {
-      throw new FormSchemaDataException(
-          String.format("The UI form scheme for the specified key '%s' is missing.", key));
+      throw formSchemaNotFound(key);
     }
   }
 
@@ -174,22 +498,95 @@ public class FormSchemaProviderServiceImpl implements FormSchemaProviderService
   }
 
   private boolean isExistsByKey(String key) {
-    return execute(() -> repository.existsById(key));
+    var storageId = TenantContext.storageId(key);
+    return read(() -> formStorage.existsById(storageId), exists -> 0L);
   }
 
   @Override
-  public void deleteFormByKey(String key) {
-    try {
-      var lowercaseKey = key.toLowerCase();
-      repository.deleteById(lowercaseKey);
-    } catch (Exception e) {
-      throw new FormDataRepositoryCommunicationException("Error during storage invocation", e);
+  public List<String> getFormDependents(String key, boolean transitive) {
+    return formDependencyIndex.getDependents(key.toLowerCase(), transitive);
+  }
+
+  /**
+   * A form referenced by other forms is deleted only with {@code force}, the deletion is logged
+   * with the forms left with a missing reference.
+   */
+  @Override
+  public void deleteFormByKey(String key, boolean force) {
+    formGenerationService.checkNoGenerationInProgress();
+    var lowercaseKey = key.toLowerCase();
+    var storageId = TenantContext.storageId(lowercaseKey);
+    var dependents = formDependencyIndex.getDependents(lowercaseKey, false);
+    if (!dependents.isEmpty()) {
+      if (!force) {
+        throw new FormSchemaReferencedException(String.format(
+            "The UI form scheme '%s' is referenced by the forms %s.", key, dependents),
+            dependents);
+      }
+      log.warn("Deleting form {} referenced by the forms {}", lowercaseKey, dependents);
     }
+    var deletedBytes = tenantQuotaService.isEnabled()
+        ? read(() -> formStorage.findById(storageId), FormSchemaProviderServiceImpl::formDataSize)
+        .map(formSchema -> TenantQuotaService.sizeOf(formSchema.getFormData()))
+        : Optional.<Long>empty();
+    write(0L, () -> {
+      formStorage.deleteById(storageId);
+      return null;
+    });
+    deletedBytes.ifPresent(bytes -> tenantQuotaService.recordUsage(-1, -bytes));
+    formKeyIndex.removed(storageId);
+    formDependencyIndex.removed(lowercaseKey);
+    formFootprintService.removed(List.of(lowercaseKey));
+    formSchemaVersionService.deleteHistory(lowercaseKey);
+    formChangeFeedService.publish(FormChangeType.DELETED, lowercaseKey, null);
+  }
+
+  /**
+   * Deletes a batch of forms of the current tenant with one storage call and batched index
+   * updates, without checking whether other forms reference them, and returns the number of
+   * deleted forms. The usage of the tenant is counted again on its next quota check.
+   */
+  public long deleteForms(List<String> keys) {
+    if (keys.isEmpty()) {
+      return 0;
+    }
+    formGenerationService.checkNoGenerationInProgress();
+    var storageIds = keys.stream().map(TenantContext::storageId).collect(Collectors.toList());
+    long deleted = write(0L, () -> formStorage.deleteAllById(storageIds));
+    tenantQuotaService.resetUsage();
+    formKeyIndex.removed(storageIds);
+    formDependencyIndex.removed(keys);
+    formFootprintService.removed(keys);
+    keys.forEach(key -> {
+      formSchemaVersionService.deleteHistory(key);
+      formChangeFeedService.publish(FormChangeType.DELETED, key, null);
+    });
+    return deleted;
+  }
+
+  private <T> T read(Supplier<T> supplier, ToLongFunction<T> payloadSize) {
+    return stageTracer.trace("storage.read", () -> execute(supplier), payloadSize);
+  }
+
+  private <T> T write(long payloadSize, Supplier<T> supplier) {
+    return stageTracer.trace("storage.write", payloadSize, () -> execute(supplier));
+  }
+
+  private static long formDataSize(Optional<FormSchema> formSchema) {
+    return formSchema.map(FormSchemaProviderServiceImpl::formDataSize).orElse(0L);
+  }
+
+  private static long formDataSize(FormSchema formSchema) {
+    return formSchema.getFormData() == null ? 0L : formSchema.getFormData().length();
   }
 
+  /**
+   * Storage calls go through the storage circuit breaker: while it is open they fail right away
+   * with {@link FormDataRepositoryCommunicationException} instead of waiting for a timeout.
+   */
   protected <T> T execute(Supplier<T> supplier) {
     try {
-      return supplier.get();
+      return storageCircuitBreaker.call(supplier);
     } catch (Exception e) {
       throw new FormDataRepositoryCommunicationException("Error during storage invocation", e);
     }
@@ -18,41 +18,103 @@ package com.epam.digital.data.platform.form.provider.service.impl;
 
 import com.epam.digital.data.platform.form.provider.dto.DuplicateDto;
 import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
 import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
 import com.epam.digital.data.platform.form.provider.service.FormSchemaValidationService;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.networknt.schema.JsonSchema;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import com.networknt.schema.ValidationMessage;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Validates forms against the form JSON schema and checks them for duplicated properties.
+ * <p>
+ * The {@link FormComplexityBudget} is checked while the form is parsed; a form above the budget
+ * is reported with the budget violations alone, without running schema validation on it.
+ * <p>
+ * In {@link ValidationMode#COMPLETE} mode every message is kept and grouped by path: the first
+ * message of a path stays in {@link ValidationError#getMassage()}, and all of them are listed in
+ * {@link ValidationError#getMessages()}. The output is bounded by
+ * {@code validator.complete.max-paths} paths and {@code validator.complete.max-messages-per-path}
+ * messages per path, the messages above the limit of a path are only counted. In
+ * {@link ValidationMode#FAIL_FAST} mode validation stops at the first error and returns it alone.
+ * <p>
+ * Form names must not contain the {@link TenantContext#RESERVED_KEY_CHARACTERS}.
+ * <p>
+ * Parsing, schema validation and the duplicate check are traced as separate stages.
+ */
 @Slf4j
 @Service
 public class FormSchemaValidationServiceImpl implements FormSchemaValidationService {
 
   private static final int PROPERTY_PATH_INDEX = 0;
+  private static final String NAME = "name";
 
-  private final JsonSchema schema;
+  private final SchemaValidator schemaValidator;
   private final ObjectMapper objectMapper;
-
-  public FormSchemaValidationServiceImpl(JsonSchema schema, ObjectMapper objectMapper) {
-    this.schema = schema;
+  private final int maxPaths;
+  private final int maxMessagesPerPath;
+  private final StageTracer stageTracer;
+  private final FormComplexityBudget formComplexityBudget;
+
+  public FormSchemaValidationServiceImpl(SchemaValidator schemaValidator,
+      ObjectMapper objectMapper,
+      @Value("${validator.complete.max-paths}") int maxPaths,
+      @Value("${validator.complete.max-messages-per-path}") int maxMessagesPerPath,
+      StageTracer stageTracer,
+      FormComplexityBudget formComplexityBudget) {
+    this.schemaValidator = schemaValidator;
     this.objectMapper = objectMapper;
+    this.maxPaths = maxPaths;
+    this.maxMessagesPerPath = maxMessagesPerPath;
+    this.stageTracer = stageTracer;
+    this.formComplexityBudget = formComplexityBudget;
   }
 
   @Override
-  public Map<String, ValidationError> validate(String formSchemaData) {
+  public Map<String, ValidationError> validate(String formSchemaData,
+      ValidationMode validationMode) {
     try {
-      var jsonNode = objectMapper.readTree(formSchemaData);
-      var validationErrorMap = validateSchemaStructure(jsonNode);
+      var budgetViolations = new ArrayList<ValidationError>();
+      var jsonNode = parse(formSchemaData, validationMode, budgetViolations);
+      if (!budgetViolations.isEmpty()) {
+        return toErrorMap(budgetViolations, validationMode);
+      }
+      var nameError = validateName(jsonNode);
+      if (validationMode == ValidationMode.FAIL_FAST && nameError.isPresent()) {
+        return Map.of(NAME, ValidationError.builder().path(NAME).massage(nameError.get()).build());
+      }
+      if (validationMode == ValidationMode.FAIL_FAST) {
+        return validateFailFast(jsonNode, formSchemaData);
+      }
 
-      validationErrorMap.putAll(validateDuplications(formSchemaData));
+      Map<String, ValidationError> validationErrorMap = new LinkedHashMap<>();
+      nameError.ifPresent(message -> addError(validationErrorMap, NAME, message));
+      var validationMessages = stageTracer.trace("form.validate.schema",
+          formSchemaData.length(), () -> schemaValidator.validate(jsonNode));
+      for (ValidationMessage validationMessage : validationMessages) {
+        var propertyWithError = getPropertyWithError(validationMessage);
+        if (StringUtils.isNotBlank(propertyWithError)) {
+          addError(validationErrorMap, propertyWithError, validationMessage.getMessage());
+        }
+      }
+      validateDuplications(formSchemaData).values().forEach(
+          duplicate -> addError(validationErrorMap, duplicate.getPath(), duplicate.getMassage()));
 
       return validationErrorMap;
     } catch (JsonProcessingException e) {
@@ -61,31 +123,126 @@ public class FormSchemaValidationServiceImpl implements FormSchemaValidationServ
     }
   }
 
+  private static Optional<String> validateName(JsonNode jsonNode) {
+    var name = jsonNode.path(NAME);
+    if (!name.isTextual() || TenantContext.isValidKey(name.asText())) {
+      return Optional.empty();
+    }
+    return Optional.of(String.format("The form name must not contain any of the characters '%s'.",
+        TenantContext.RESERVED_KEY_CHARACTERS));
+  }
 
-  private Map<String, ValidationError> validateSchemaStructure(JsonNode jsonNode) {
-    var validationMessages = schema.validate(jsonNode);
-    Map<String, ValidationError> validationErrorMap = new HashMap<>();
+  private Map<String, ValidationError> validateFailFast(JsonNode jsonNode, String formSchemaData)
+      throws JsonProcessingException {
+    var firstError = stageTracer.trace("form.validate.schema", formSchemaData.length(),
+        () -> schemaValidator.findFirstError(jsonNode));
+    if (firstError.isPresent()) {
+      var validationMessage = firstError.get();
+      var path = StringUtils.defaultIfBlank(getPropertyWithError(validationMessage),
+          validationMessage.getPath());
+      return Map.of(path, ValidationError.builder()
+          .path(path)
+          .massage(validationMessage.getMessage())
+          .build());
+    }
+    return validateDuplications(formSchemaData).values().stream()
+        .findFirst()
+        .map(duplicate -> Map.of(duplicate.getPath(), duplicate))
+        .orElseGet(Map::of);
+  }
 
-    for (ValidationMessage validationMessage : validationMessages) {
-      String propertyWithError = ArrayUtils.get(validationMessage.getArguments(),
-          PROPERTY_PATH_INDEX);
+  private Map<String, ValidationError> toErrorMap(List<ValidationError> budgetViolations,
+      ValidationMode validationMode) {
+    if (validationMode == ValidationMode.FAIL_FAST) {
+      var violation = budgetViolations.get(0);
+      return Map.of(violation.getPath(), violation);
+    }
+    Map<String, ValidationError> validationErrorMap = new LinkedHashMap<>();
+    budgetViolations.forEach(
+        violation -> addError(validationErrorMap, violation.getPath(), violation.getMassage()));
+    return validationErrorMap;
+  }
 
-      if (StringUtils.isNotBlank(propertyWithError)) {
-        validationErrorMap.put(propertyWithError,
-            ValidationError.builder()
-                .path(propertyWithError)
-                .massage(validationMessage.getMessage())
-                .build());
+  private void addError(Map<String, ValidationError> validationErrorMap, String path,
+      String message) {
+    var validationError = validationErrorMap.get(path);
+    if (validationError == null) {
+      if (validationErrorMap.size() < maxPaths) {
+        var messages = new ArrayList<String>();
+        messages.add(message);
+        validationErrorMap.put(path,
+            ValidationError.builder().path(path).massage(message).messages(messages).build());
+      } else {
+        log.debug("Validation error on '{}' is omitted, {} paths reported already", path,
+            maxPaths);
       }
+    } else if (validationError.getMessages().size() < maxMessagesPerPath) {
+      validationError.getMessages().add(message);
+    } else {
+      validationError.setOmittedMessages(validationError.getOmittedMessages() + 1);
     }
+  }
 
-    return validationErrorMap;
+  private static String getPropertyWithError(ValidationMessage validationMessage) {
+    return ArrayUtils.get(validationMessage.getArguments(), PROPERTY_PATH_INDEX);
+  }
+
+  /**
+   * Parses the form and checks the complexity budget in the same pass. A form above the size
+   * limit is not parsed at all, and in {@link ValidationMode#FAIL_FAST} mode parsing stops at the
+   * first budget violation; {@code null} is returned in both cases.
+   */
+  private JsonNode parse(String formSchemaData, ValidationMode validationMode,
+      List<ValidationError> budgetViolations) throws JsonProcessingException {
+    Consumer<ValidationError> violations = violation -> {
+      budgetViolations.add(violation);
+      if (validationMode == ValidationMode.FAIL_FAST) {
+        throw new BudgetExceededException();
+      }
+    };
+    try (var stage = stageTracer.start("form.parse")) {
+      stage.payloadSize(formSchemaData.length());
+      try (var parser = formComplexityBudget.track(
+          objectMapper.getFactory().createParser(formSchemaData), violations)) {
+        formComplexityBudget.checkSize(formSchemaData, violations);
+        if (!budgetViolations.isEmpty()) {
+          return null;
+        }
+        JsonNode jsonNode = objectMapper.readTree(parser);
+        return jsonNode == null ? MissingNode.getInstance() : jsonNode;
+      } catch (BudgetExceededException e) {
+        return null;
+      } catch (JsonProcessingException e) {
+        stage.error(e);
+        throw e;
+      } catch (IOException e) {
+        stage.error(e);
+        throw new FormSchemaValidationException(
+            "Error during form schema validation: schema is not valid", e);
+      }
+    }
   }
 
   private Map<String, ValidationError> validateDuplications(String formSchemaData)
       throws JsonProcessingException {
-    var duplicateDto = objectMapper.readValue(formSchemaData, DuplicateDto.class);
-    return duplicateDto.getMessages();
+    try (var stage = stageTracer.start("form.validate.duplicates")) {
+      stage.payloadSize(formSchemaData.length());
+      try {
+        return objectMapper.readValue(formSchemaData, DuplicateDto.class).getMessages();
+      } catch (JsonProcessingException e) {
+        stage.error(e);
+        throw e;
+      }
+    }
   }
 
+  /**
+   * Stops parsing at the first budget violation in {@link ValidationMode#FAIL_FAST} mode.
+   */
+  private static class BudgetExceededException extends RuntimeException {
+
+    BudgetExceededException() {
+      super(null, null, false, false);
+    }
+  }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaVersion;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.entity.FormSchemaDelta;
+import com.epam.digital.data.platform.form.provider.entity.FormSchemaHistory;
+import com.epam.digital.data.platform.form.provider.exception.FormDataRepositoryCommunicationException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
+import com.epam.digital.data.platform.form.provider.repository.FormSchemaHistoryRepository;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.ContentHash;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the last {@code form.history.max-versions} versions of every form. Only the current
+ * version is stored in full, older ones are rebuilt on demand by applying reverse deltas to it and
+ * the rebuilt form data is kept in a small in-memory LRU cache. Every tenant has its own cache of
+ * {@code form.history.cache-size} entries, so a tenant browsing many versions does not evict the
+ * versions cached for others. Keys are form keys of the current tenant.
+ */
+@Slf4j
+@Service
+public class FormSchemaVersionServiceImpl implements FormSchemaVersionService {
+
+  private final FormSchemaHistoryRepository historyRepository;
+  private final FormStorage formStorage;
+  private final int maxVersions;
+  private final int cacheSize;
+  private final Map<String, Map<String, String>> versionCaches = new ConcurrentHashMap<>();
+
+  public FormSchemaVersionServiceImpl(
+      FormSchemaHistoryRepository historyRepository,
+      FormStorage formStorage,
+      @Value("${form.history.max-versions}") int maxVersions,
+      @Value("${form.history.cache-size}") int cacheSize) {
+    this.historyRepository = historyRepository;
+    this.formStorage = formStorage;
+    this.maxVersions = maxVersions;
+    this.cacheSize = cacheSize;
+  }
+
+  /**
+   * The form is already stored when its version is recorded, so failures are logged rather than
+   * reported to the client; the next write notices the stale history by its hash and starts anew.
+   */
+  @Override
+  public void recordVersion(String key, String previousFormData, String formData) {
+    var storageId = TenantContext.storageId(key);
+    try {
+      record(storageId, previousFormData, formData);
+    } catch (RuntimeException e) {
+      log.warn("Failed to record the version history of form {}", storageId, e);
+    }
+  }
+
+  private void record(String storageId, String previousFormData, String formData) {
+    var now = Instant.now();
+    var history = previousFormData == null ? null
+        : execute(() -> historyRepository.findById(storageId)).orElse(null);
+
+    if (history == null || !isCurrent(history, previousFormData)) {
+      if (history != null) {
+        log.warn("Version history of form {} does not match the stored form, starting anew",
+            storageId);
+      }
+      history = FormSchemaHistory.builder()
+          .id(storageId)
+          .lineage(UUID.randomUUID().toString())
+          .currentVersion(history == null ? 1 : history.getCurrentVersion())
+          .currentCreatedAt(history == null ? now : history.getCurrentCreatedAt())
+          .deltas(new ArrayList<>())
+          .build();
+      if (previousFormData == null) {
+        history.setCurrentHash(ContentHash.ofText(formData));
+        saveHistory(history);
+        return;
+      }
+    }
+    if (formData.equals(previousFormData)) {
+      return;
+    }
+
+    var delta = FormSchemaDelta.between(formData, previousFormData);
+    delta.setVersion(history.getCurrentVersion());
+    delta.setCreatedAt(history.getCurrentCreatedAt());
+
+    var deltas = new ArrayList<FormSchemaDelta>(maxVersions);
+    deltas.add(delta);
+    if (history.getDeltas() != null) {
+      deltas.addAll(history.getDeltas());
+    }
+    history.setDeltas(new ArrayList<>(deltas.subList(0, Math.min(deltas.size(), maxVersions - 1))));
+    history.setCurrentVersion(history.getCurrentVersion() + 1);
+    history.setCurrentCreatedAt(now);
+    history.setCurrentHash(delta.getBaseHash());
+    saveHistory(history);
+  }
+
+  /**
+   * Histories recorded before hashes were introduced are trusted.
+   */
+  private static boolean isCurrent(FormSchemaHistory history, String formData) {
+    return history.getCurrentHash() == null
+        || history.getCurrentHash().equals(ContentHash.ofText(formData));
+  }
+
+  @Override
+  public void deleteHistory(String key) {
+    var storageId = TenantContext.storageId(key);
+    execute(() -> {
+      historyRepository.deleteById(storageId);
+      return null;
+    });
+  }
+
+  @Override
+  public List<FormSchemaVersion> getVersions(String key) {
+    var storageId = TenantContext.storageId(key.toLowerCase());
+    var history = findHistory(storageId, key);
+
+    var versions = new ArrayList<FormSchemaVersion>();
+    versions.add(FormSchemaVersion.builder()
+        .version(history.getCurrentVersion())
+        .createdAt(history.getCurrentCreatedAt())
+        .current(true)
+        .build());
+    history.getDeltas().forEach(delta -> versions.add(FormSchemaVersion.builder()
+        .version(delta.getVersion())
+        .createdAt(delta.getCreatedAt())
+        .build()));
+    return versions;
+  }
+
+  @Override
+  public JSONObject getVersion(String key, int version) {
+    var storageId = TenantContext.storageId(key.toLowerCase());
+    var history = findHistory(storageId, key);
+    var oldestVersion = history.getCurrentVersion() - history.getDeltas().size();
+    if (version < oldestVersion || version > history.getCurrentVersion()) {
+      throw new FormSchemaDataException(
+          String.format("The version '%d' of the UI form scheme '%s' is missing.", version, key));
+    }
+
+    var cacheKey = history.getLineage() + ":" + version;
+    var versionCache = versionCache(TenantContext.getTenant());
+    var formData = versionCache.get(cacheKey);
+    if (formData == null) {
+      formData = findFormSchema(storageId, key).getFormData();
+      try {
+        for (var delta : history.getDeltas()) {
+          if (delta.getVersion() < version) {
+            break;
+          }
+          formData = delta.applyTo(formData);
+        }
+      } catch (IllegalStateException e) {
+        log.warn("Version history of form {} does not match the stored form", storageId);
+        throw new FormSchemaDataException(String.format(
+            "The version '%d' of the UI form scheme '%s' is missing.", version, key));
+      }
+      if (version != history.getCurrentVersion()) {
+        log.debug("Rebuilt version {} of form {}", version, storageId);
+        versionCache.put(cacheKey, formData);
+      }
+    }
+    return JSONValue.parse(formData, JSONObject.class);
+  }
+
+  private Map<String, String> versionCache(String tenant) {
+    return versionCaches.computeIfAbsent(tenant,
+        t -> Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > cacheSize;
+          }
+        }));
+  }
+
+  /**
+   * Forms stored before the history was introduced have no history record, for them the stored
+   * form is reported as the only version.
+   */
+  private FormSchemaHistory findHistory(String storageId, String key) {
+    var history = execute(() -> historyRepository.findById(storageId)).orElseGet(() -> {
+      findFormSchema(storageId, key);
+      return FormSchemaHistory.builder()
+          .id(storageId)
+          .lineage(storageId)
+          .currentVersion(1)
+          .deltas(List.of())
+          .build();
+    });
+    if (history.getDeltas() == null) {
+      history.setDeltas(List.of());
+    }
+    return history;
+  }
+
+  private FormSchema findFormSchema(String storageId, String key) {
+    return execute(() -> formStorage.findById(storageId)).orElseThrow(() ->
+        new FormSchemaDataException(
+            String.format("The UI form scheme for the specified key '%s' is missing.", key)));
+  }
+
+  private void saveHistory(FormSchemaHistory history) {
+    execute(() -> historyRepository.save(history));
+  }
+
+  private <T> T execute(Supplier<T> supplier) {
+    try {
+      return supplier.get();
+    } catch (Exception e) {
+      throw new FormDataRepositoryCommunicationException("Error during storage invocation", e);
+    }
+  }
+}
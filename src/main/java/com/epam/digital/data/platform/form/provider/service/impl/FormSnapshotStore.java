@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local copy of all forms used to serve reads while Redis is unavailable.
+ * <p>
+ * The snapshot is rewritten every {@code form.snapshot.refresh-interval} and memory-mapped
+ * read-only, so it does not take heap space and survives a restart during an outage. File layout,
+ * all numbers big-endian:
+ * <pre>
+ * int magic, int format version, long created at (epoch millis), int form count,
+ * then per form: int key length, key (UTF-8), int data length, form data (UTF-8)
+ * </pre>
+ */
+@Slf4j
+@Component
+public class FormSnapshotStore {
+
+  private static final int MAGIC = 0x46534e50;
+  private static final int FORMAT_VERSION = 1;
+
+  private final FormStorage formStorage;
+  private final CircuitBreaker storageCircuitBreaker;
+  private final Path snapshotFile;
+
+  private volatile Snapshot snapshot;
+
+  public FormSnapshotStore(FormStorage formStorage,
+      @Qualifier("storageCircuitBreaker") CircuitBreaker storageCircuitBreaker,
+      @Value("${form.snapshot.file}") Path snapshotFile) {
+    this.formStorage = formStorage;
+    this.storageCircuitBreaker = storageCircuitBreaker;
+    this.snapshotFile = snapshotFile;
+  }
+
+  @PostConstruct
+  public void load() {
+    if (!Files.exists(snapshotFile)) {
+      return;
+    }
+    try {
+      snapshot = map(snapshotFile);
+      log.info("Loaded form snapshot with {} forms created at {}", snapshot.index.size(),
+          snapshot.createdAt);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Unable to load form snapshot {}", snapshotFile, e);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${form.snapshot.refresh-interval}",
+      initialDelayString = "${form.snapshot.initial-delay}")
+  public void refresh() {
+    if (storageCircuitBreaker.isOpen()) {
+      log.debug("Storage circuit breaker is open, form snapshot is not refreshed");
+      return;
+    }
+    try {
+      var forms = storageCircuitBreaker.call(formStorage::findAll);
+      write(forms, Instant.now());
+      snapshot = map(snapshotFile);
+      log.debug("Form snapshot refreshed with {} forms", forms.size());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Unable to refresh form snapshot", e);
+    }
+  }
+
+  public Optional<JSONObject> getFormByKey(String key) {
+    return getFormDataByKey(key).map(formData -> JSONValue.parse(formData, JSONObject.class));
+  }
+
+  public Optional<String> getFormDataByKey(String key) {
+    var current = snapshot;
+    if (current == null) {
+      return Optional.empty();
+    }
+    return current.get(TenantContext.storageId(key.toLowerCase()));
+  }
+
+  /**
+   * Returns the form with the time the snapshot was taken and without a content hash, the
+   * snapshot does not keep one.
+   */
+  public Optional<FormSchemaContent> getFormContentByKey(String key) {
+    var current = snapshot;
+    if (current == null) {
+      return Optional.empty();
+    }
+    return current.get(TenantContext.storageId(key.toLowerCase()))
+        .map(formData -> FormSchemaContent.builder()
+            .key(key.toLowerCase())
+            .form(JSONValue.parse(formData, JSONObject.class))
+            .snapshotCreatedAt(current.createdAt)
+            .build());
+  }
+
+  public Optional<Instant> getCreatedAt() {
+    var current = snapshot;
+    return current == null ? Optional.empty() : Optional.of(current.createdAt);
+  }
+
+  private void write(Iterable<FormSchema> forms, Instant createdAt) throws IOException {
+    var directory = snapshotFile.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    var tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+    try (var channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+      var header = ByteBuffer.allocate(20);
+      var entries = new ArrayList<ByteBuffer>();
+      for (var form : forms) {
+        if (form == null || form.getFormData() == null) {
+          continue;
+        }
+        var key = form.getId().getBytes(StandardCharsets.UTF_8);
+        var data = form.getFormData().getBytes(StandardCharsets.UTF_8);
+        entries.add(ByteBuffer.allocate(8 + key.length + data.length)
+            .putInt(key.length).put(key).putInt(data.length).put(data).flip());
+      }
+      header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(createdAt.toEpochMilli())
+          .putInt(entries.size()).flip();
+      channel.write(header);
+      for (var entry : entries) {
+        channel.write(entry);
+      }
+      channel.force(true);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+    Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static Snapshot map(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+      throw new IOException("Unsupported form snapshot format");
+    }
+    var createdAt = Instant.ofEpochMilli(buffer.getLong());
+    var count = buffer.getInt();
+    var index = new HashMap<String, int[]>(count * 2);
+    for (var i = 0; i < count; i++) {
+      var key = new byte[buffer.getInt()];
+      buffer.get(key);
+      var length = buffer.getInt();
+      index.put(new String(key, StandardCharsets.UTF_8), new int[]{buffer.position(), length});
+      buffer.position(buffer.position() + length);
+    }
+    return new Snapshot(buffer, index, createdAt);
+  }
+
+  private static class Snapshot {
+
+    private final ByteBuffer buffer;
+    private final Map<String, int[]> index;
+    private final Instant createdAt;
+
+    private Snapshot(ByteBuffer buffer, Map<String, int[]> index, Instant createdAt) {
+      this.buffer = buffer;
+      this.index = index;
+      this.createdAt = createdAt;
+    }
+
+    private Optional<String> get(String key) {
+      var location = index.get(key);
+      if (location == null) {
+        return Optional.empty();
+      }
+      var data = new byte[location[1]];
+      buffer.duplicate().position(location[0]).get(data);
+      return Optional.of(new String(data, StandardCharsets.UTF_8));
+    }
+  }
+}
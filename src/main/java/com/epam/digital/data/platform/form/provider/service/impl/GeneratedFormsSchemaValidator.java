@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonType;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.TypeFactory;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Validates forms against {@code classpath:schema/forms-schema.json} with code generated from the
+ * schema. Returns the same messages in the same order as the generic networknt validator.
+ * <p>
+ * Generated by {@code SchemaValidatorGenerator}, do not edit. After changing the schema run
+ * {@code mvn test -Dtest=GeneratedFormsSchemaValidatorTest -Dvalidator.generate=true}.
+ */
+public class GeneratedFormsSchemaValidator implements SchemaValidator {
+
+  public static final String SCHEMA_LOCATION = "classpath:schema/forms-schema.json";
+  public static final String SCHEMA_CONTENT_HASH =
+      "77fd4ddf27b41314b267c44049b072f41d60ccee7c96512258c213cb947e75b7";
+
+  private static final SchemaValidatorsConfig CONFIG = new SchemaValidatorsConfig();
+  private static final ValidationMessage REQUIRED_NAME = ValidationMessage.of(
+      ValidatorTypeCode.REQUIRED.getValue(), ValidatorTypeCode.REQUIRED, "$",
+      "name");
+  private static final ValidationMessage REQUIRED_TITLE = ValidationMessage.of(
+      ValidatorTypeCode.REQUIRED.getValue(), ValidatorTypeCode.REQUIRED, "$",
+      "title");
+  private static final ValidationMessage REQUIRED_DISPLAY = ValidationMessage.of(
+      ValidatorTypeCode.REQUIRED.getValue(), ValidatorTypeCode.REQUIRED, "$",
+      "display");
+  private static final ValidationMessage ENUM_DISPLAY = ValidationMessage.of(
+      ValidatorTypeCode.ENUM.getValue(), ValidatorTypeCode.ENUM, "$.display",
+      "[form]");
+  private static final ValidationMessage MIN_LENGTH_NAME = ValidationMessage.of(
+      ValidatorTypeCode.MIN_LENGTH.getValue(), ValidatorTypeCode.MIN_LENGTH, "$.name",
+      "1");
+  private static final ValidationMessage ENUM_TYPE = ValidationMessage.of(
+      ValidatorTypeCode.ENUM.getValue(), ValidatorTypeCode.ENUM, "$.type",
+      "[form]");
+  private static final ValidationMessage MIN_LENGTH_TITLE = ValidationMessage.of(
+      ValidatorTypeCode.MIN_LENGTH.getValue(), ValidatorTypeCode.MIN_LENGTH, "$.title",
+      "1");
+
+  @Override
+  public List<ValidationMessage> validate(JsonNode formSchemaJson) {
+    var messages = new ArrayList<ValidationMessage>();
+    validateRoot(formSchemaJson, messages, false);
+    return messages;
+  }
+
+  @Override
+  public Optional<ValidationMessage> findFirstError(JsonNode formSchemaJson) {
+    var messages = new ArrayList<ValidationMessage>(1);
+    validateRoot(formSchemaJson, messages, true);
+    return messages.stream().findFirst();
+  }
+
+  // $
+  private static boolean validateRoot(JsonNode node, List<ValidationMessage> messages,
+      boolean failFast) {
+    var nodeType = TypeFactory.getValueNodeType(node, CONFIG);
+    if (nodeType != JsonType.OBJECT && add(messages,
+        typeMessage("$", nodeType, "object"), failFast)) {
+      return true;
+    }
+    if (node.isObject()) {
+      if (node.get("name") == null && add(messages, REQUIRED_NAME, failFast)) {
+        return true;
+      }
+      if (node.get("title") == null && add(messages, REQUIRED_TITLE, failFast)) {
+        return true;
+      }
+      if (node.get("display") == null && add(messages, REQUIRED_DISPLAY, failFast)) {
+        return true;
+      }
+    }
+    var displayNode = node.get("display");
+    if (displayNode != null && validateDisplay(displayNode, messages, failFast)) {
+      return true;
+    }
+    var nameNode = node.get("name");
+    if (nameNode != null && validateName(nameNode, messages, failFast)) {
+      return true;
+    }
+    var typeNode = node.get("type");
+    if (typeNode != null && validateType(typeNode, messages, failFast)) {
+      return true;
+    }
+    var titleNode = node.get("title");
+    if (titleNode != null && validateTitle(titleNode, messages, failFast)) {
+      return true;
+    }
+    return false;
+  }
+
+  // $.display
+  private static boolean validateDisplay(JsonNode node, List<ValidationMessage> messages,
+      boolean failFast) {
+    if ((!node.isTextual() || !"form".equals(node.textValue()))
+        && add(messages, ENUM_DISPLAY, failFast)) {
+      return true;
+    }
+    var nodeType = TypeFactory.getValueNodeType(node, CONFIG);
+    if (nodeType != JsonType.STRING && add(messages,
+        typeMessage("$.display", nodeType, "string"), failFast)) {
+      return true;
+    }
+    return false;
+  }
+
+  // $.name
+  private static boolean validateName(JsonNode node, List<ValidationMessage> messages,
+      boolean failFast) {
+    if (TypeFactory.getValueNodeType(node, CONFIG) == JsonType.STRING
+        && node.textValue().codePointCount(0, node.textValue().length()) < 1
+        && add(messages, MIN_LENGTH_NAME, failFast)) {
+      return true;
+    }
+    var nodeType = TypeFactory.getValueNodeType(node, CONFIG);
+    if (nodeType != JsonType.STRING && add(messages,
+        typeMessage("$.name", nodeType, "string"), failFast)) {
+      return true;
+    }
+    return false;
+  }
+
+  // $.type
+  private static boolean validateType(JsonNode node, List<ValidationMessage> messages,
+      boolean failFast) {
+    if ((!node.isTextual() || !"form".equals(node.textValue()))
+        && add(messages, ENUM_TYPE, failFast)) {
+      return true;
+    }
+    var nodeType = TypeFactory.getValueNodeType(node, CONFIG);
+    if (nodeType != JsonType.STRING && add(messages,
+        typeMessage("$.type", nodeType, "string"), failFast)) {
+      return true;
+    }
+    return false;
+  }
+
+  // $.title
+  private static boolean validateTitle(JsonNode node, List<ValidationMessage> messages,
+      boolean failFast) {
+    if (TypeFactory.getValueNodeType(node, CONFIG) == JsonType.STRING
+        && node.textValue().codePointCount(0, node.textValue().length()) < 1
+        && add(messages, MIN_LENGTH_TITLE, failFast)) {
+      return true;
+    }
+    var nodeType = TypeFactory.getValueNodeType(node, CONFIG);
+    if (nodeType != JsonType.STRING && add(messages,
+        typeMessage("$.title", nodeType, "string"), failFast)) {
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean add(List<ValidationMessage> messages, ValidationMessage message,
+      boolean failFast) {
+    messages.add(message);
+    return failFast;
+  }
+
+  private static ValidationMessage typeMessage(String at, JsonType nodeType, String expected) {
+    return ValidationMessage.of(ValidatorTypeCode.TYPE.getValue(), ValidatorTypeCode.TYPE, at,
+        nodeType.toString(), expected);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SchemaValidatorsConfig;
+import com.networknt.schema.ValidationMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Validates a form against any form JSON schema with the generic JSON schema validator.
+ * <p>
+ * {@link #findFirstError(JsonNode)} uses a fail-fast copy of the schema, which stops at the first
+ * error.
+ * <p>
+ * The built-in {@code forms-schema.json} is validated by {@link GeneratedFormsSchemaValidator},
+ * so this validator is used for a custom {@code validator.schema.location} only.
+ */
+public class GenericSchemaValidator implements SchemaValidator {
+
+  private final JsonSchema schema;
+  private final JsonSchema failFastSchema;
+
+  public GenericSchemaValidator(JsonSchema schema, JsonSchemaFactory schemaFactory) {
+    this.schema = schema;
+
+    var failFastConfig = new SchemaValidatorsConfig();
+    failFastConfig.setFailFast(true);
+    this.failFastSchema = schemaFactory.getSchema(schema.getSchemaNode(), failFastConfig);
+  }
+
+  @Override
+  public List<ValidationMessage> validate(JsonNode formSchemaJson) {
+    return new ArrayList<>(schema.validate(formSchemaJson));
+  }
+
+  @Override
+  public Optional<ValidationMessage> findFirstError(JsonNode formSchemaJson) {
+    try {
+      return failFastSchema.validate(formSchemaJson).stream().findFirst();
+    } catch (JsonSchemaException e) {
+      if (e.getValidationMessages() == null) {
+        throw e;
+      }
+      return e.getValidationMessages().stream().findFirst();
+    }
+  }
+}
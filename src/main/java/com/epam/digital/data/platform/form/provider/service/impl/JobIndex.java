@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Index of the jobs kept in the repository keyspace of an entity with a time to live.
+ * <p>
+ * Keyspace events are not enabled, so the repository does not remove the id of an expired entity
+ * from its keyspace set and the set grows with every job ever stored. The index keeps the ids of
+ * unfinished jobs in the {@code <keyspace>-active} set, so resuming jobs reads only those, and
+ * the expiry time of every stored entity in the {@code <keyspace>-expirations} sorted set, so
+ * {@link #removeExpired()} removes the ids of expired entities from the keyspace set.
+ */
+@Slf4j
+public class JobIndex {
+
+  private static final int BATCH_SIZE = 100;
+
+  private final StringRedisTemplate redisTemplate;
+  private final String keyspace;
+  private final String activeKey;
+  private final String expirationsKey;
+  private final String indexedKey;
+  private volatile boolean existingIndexed;
+
+  public JobIndex(StringRedisTemplate redisTemplate, Class<?> entityType) {
+    this.redisTemplate = redisTemplate;
+    this.keyspace = entityType.getAnnotation(RedisHash.class).value();
+    this.activeKey = keyspace + "-active";
+    this.expirationsKey = keyspace + "-expirations";
+    this.indexedKey = keyspace + "-indexed";
+  }
+
+  /**
+   * Adds a stored job that is not finished yet.
+   */
+  public void started(String id, Duration ttl) {
+    redisTemplate.opsForSet().add(activeKey, id);
+    expiresIn(id, ttl);
+  }
+
+  public void finished(String id) {
+    redisTemplate.opsForSet().remove(activeKey, id);
+  }
+
+  /**
+   * Records when the stored entity expires, an entity saved again later is checked again then.
+   */
+  public void expiresIn(String id, Duration ttl) {
+    redisTemplate.opsForZSet().add(expirationsKey, id,
+        System.currentTimeMillis() + ttl.toMillis());
+  }
+
+  public Set<String> activeIds() {
+    indexExisting();
+    var ids = redisTemplate.opsForSet().members(activeKey);
+    return ids == null ? Set.of() : ids;
+  }
+
+  /**
+   * Checks the entities whose recorded expiry time has passed: the ids of expired ones are
+   * removed from the keyspace set and the index, the others are recorded with their current
+   * time to live.
+   */
+  public long removeExpired() {
+    indexExisting();
+    var removed = 0L;
+    Set<String> due;
+    do {
+      due = redisTemplate.opsForZSet().rangeByScore(expirationsKey, 0,
+          System.currentTimeMillis(), 0, BATCH_SIZE);
+      if (due == null) {
+        return removed;
+      }
+      for (var id : due) {
+        var ttl = redisTemplate.getExpire(keyspace + ":" + id, TimeUnit.MILLISECONDS);
+        if (ttl != null && ttl > 0) {
+          expiresIn(id, Duration.ofMillis(ttl));
+        } else if (ttl == null || ttl == -1) {
+          // stored without a time to live
+          redisTemplate.opsForZSet().remove(expirationsKey, id);
+        } else {
+          redisTemplate.opsForSet().remove(keyspace, id);
+          redisTemplate.opsForSet().remove(activeKey, id);
+          redisTemplate.opsForZSet().remove(expirationsKey, id);
+          removed++;
+        }
+      }
+    } while (due.size() == BATCH_SIZE);
+    if (removed > 0) {
+      log.info("Removed {} expired ids from {}", removed, keyspace);
+    }
+    return removed;
+  }
+
+  /**
+   * Adds the ids stored in the keyspace set before the index existed, once per keyspace: they
+   * are checked for expiry right away and resumed unless they are finished.
+   */
+  private void indexExisting() {
+    if (existingIndexed) {
+      return;
+    }
+    if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(indexedKey, "true"))) {
+      var ids = new HashSet<String>();
+      var options = ScanOptions.scanOptions().count(BATCH_SIZE).build();
+      try (var cursor = redisTemplate.opsForSet().scan(keyspace, options)) {
+        while (cursor.hasNext()) {
+          ids.add(cursor.next());
+        }
+      }
+      if (!ids.isEmpty()) {
+        redisTemplate.opsForSet().add(activeKey, ids.toArray(String[]::new));
+        ids.forEach(id -> redisTemplate.opsForZSet().addIfAbsent(expirationsKey, id, 0));
+      }
+      log.info("Indexed {} stored ids of {}", ids.size(), keyspace);
+    }
+    existingIndexed = true;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Validates a parsed form against the form JSON schema.
+ */
+public interface SchemaValidator {
+
+  /**
+   * Returns all messages of the form in a deterministic order.
+   */
+  List<ValidationMessage> validate(JsonNode formSchemaJson);
+
+  /**
+   * Returns the first message of the form, stopping validation as soon as it is found.
+   */
+  Optional<ValidationMessage> findFirstError(JsonNode formSchemaJson);
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.TenantQuotaExceededException;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Limits the number of forms and the total size of form data of every tenant to
+ * {@code tenant.quota.max-forms} and {@code tenant.quota.max-bytes}, a limit of 0 disables the
+ * check.
+ * <p>
+ * The usage of a tenant is kept in the {@code bpm-form-schema-usage:<tenant>} Redis hash shared
+ * by all instances. It is counted from the stored forms the first time it is needed and updated
+ * after every write. Checks and updates are not atomic, so concurrent writes may overshoot a
+ * limit by a few forms.
+ */
+@Slf4j
+@Service
+public class TenantQuotaService {
+
+  private static final String USAGE_KEY_PREFIX = "bpm-form-schema-usage:";
+  private static final String FORMS = "forms";
+  private static final String BYTES = "bytes";
+
+  private final StringRedisTemplate redisTemplate;
+  private final FormStorage formStorage;
+  private final long maxForms;
+  private final long maxBytes;
+
+  public TenantQuotaService(StringRedisTemplate redisTemplate, FormStorage formStorage,
+      @Value("${tenant.quota.max-forms}") long maxForms,
+      @Value("${tenant.quota.max-bytes}") long maxBytes) {
+    this.redisTemplate = redisTemplate;
+    this.formStorage = formStorage;
+    this.maxForms = maxForms;
+    this.maxBytes = maxBytes;
+  }
+
+  public static long sizeOf(String formData) {
+    return formData == null ? 0 : formData.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  /**
+   * Throws {@link TenantQuotaExceededException} if adding the given number of forms and bytes to
+   * the current tenant would exceed one of its limits.
+   */
+  public void checkQuota(long addedForms, long addedBytes) {
+    if (!isEnabled() || (addedForms <= 0 && addedBytes <= 0)) {
+      return;
+    }
+    var tenant = TenantContext.getTenant();
+    var usageKey = usageKey(tenant);
+    initUsage(tenant, usageKey);
+
+    var forms = getCounter(usageKey, FORMS);
+    if (maxForms > 0 && addedForms > 0 && forms + addedForms > maxForms) {
+      throw new TenantQuotaExceededException(String.format(
+          "The tenant '%s' can store at most %d forms, %d are stored already.", tenant, maxForms,
+          forms));
+    }
+    var bytes = getCounter(usageKey, BYTES);
+    if (maxBytes > 0 && addedBytes > 0 && bytes + addedBytes > maxBytes) {
+      throw new TenantQuotaExceededException(String.format(
+          "The tenant '%s' can store at most %d bytes of forms, %d are stored already.", tenant,
+          maxBytes, bytes));
+    }
+  }
+
+  /**
+   * Throws {@link TenantQuotaExceededException} if a form set of the given number of forms and
+   * bytes, replacing all forms of the current tenant, would exceed one of its limits.
+   */
+  public void checkFormSetQuota(long forms, long bytes) {
+    var tenant = TenantContext.getTenant();
+    if (maxForms > 0 && forms > maxForms) {
+      throw new TenantQuotaExceededException(String.format(
+          "The tenant '%s' can store at most %d forms, the new form set has %d.", tenant,
+          maxForms, forms));
+    }
+    if (maxBytes > 0 && bytes > maxBytes) {
+      throw new TenantQuotaExceededException(String.format(
+          "The tenant '%s' can store at most %d bytes of forms, the new form set has %d.", tenant,
+          maxBytes, bytes));
+    }
+  }
+
+  /**
+   * Adds the given, possibly negative, number of forms and bytes to the usage of the current
+   * tenant. Usage that is not counted yet is left alone, it is counted on the next check.
+   */
+  public void recordUsage(long addedForms, long addedBytes) {
+    if (!isEnabled() || (addedForms == 0 && addedBytes == 0)) {
+      return;
+    }
+    var usageKey = usageKey(TenantContext.getTenant());
+    if (!Boolean.TRUE.equals(redisTemplate.hasKey(usageKey))) {
+      return;
+    }
+    redisTemplate.opsForHash().increment(usageKey, FORMS, addedForms);
+    redisTemplate.opsForHash().increment(usageKey, BYTES, addedBytes);
+  }
+
+  /**
+   * Drops the usage of the current tenant, it is counted from the stored forms on the next check.
+   * Used after bulk changes whose size is not known without reading the forms.
+   */
+  public void resetUsage() {
+    if (isEnabled()) {
+      redisTemplate.delete(usageKey(TenantContext.getTenant()));
+    }
+  }
+
+  public boolean isEnabled() {
+    return maxForms > 0 || maxBytes > 0;
+  }
+
+  private void initUsage(String tenant, String usageKey) {
+    if (Boolean.TRUE.equals(redisTemplate.hasKey(usageKey))) {
+      return;
+    }
+    var ids = formStorage.findAllIds().stream()
+        .filter(id -> TenantContext.isStorageIdOf(tenant, id))
+        .collect(Collectors.toList());
+    var bytes = formStorage.findAllById(ids).stream()
+        .map(FormSchema::getFormData)
+        .mapToLong(TenantQuotaService::sizeOf)
+        .sum();
+    log.info("Counted usage of tenant '{}': {} forms, {} bytes", tenant, ids.size(), bytes);
+    redisTemplate.opsForHash().putIfAbsent(usageKey, FORMS, String.valueOf(ids.size()));
+    redisTemplate.opsForHash().putIfAbsent(usageKey, BYTES, String.valueOf(bytes));
+  }
+
+  private long getCounter(String usageKey, String field) {
+    var value = redisTemplate.opsForHash().get(usageKey, field);
+    return value == null ? 0 : Long.parseLong(value.toString());
+  }
+
+  private static String usageKey(String tenant) {
+    return USAGE_KEY_PREFIX + tenant;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine for form schemas. The engine is selected with the {@code storage.engine}
+ * property; every implementation documents the concurrency guarantees it gives and is checked by
+ * the shared conformance test suite.
+ * <p>
+ * Common contract: keys are used as given (callers lowercase them), a saved form is visible to
+ * every later read of the same process, and returned objects are not shared with the engine, so
+ * changing them does not change the stored form. Forms are read without their component index,
+ * which is needed only to serve single components and is read with
+ * {@link #findComponentIndex(String)}, so reads of whole forms do not load it.
+ */
+public interface FormStorage {
+
+  Optional<FormSchema> findById(String id);
+
+  /**
+   * Returns the stored forms for the given ids in no particular order, missing ids are skipped.
+   */
+  List<FormSchema> findAllById(Collection<String> ids);
+
+  List<FormSchema> findAll();
+
+  /**
+   * Returns the ids of all stored forms without reading the forms themselves.
+   */
+  Set<String> findAllIds();
+
+  /**
+   * Passes the ids of the stored forms starting with the prefix to the consumer in batches of at
+   * most {@code batchSize} ids. The ids are iterated with a cursor instead of being loaded at
+   * once; forms saved or deleted during the scan may or may not be passed and an id may be passed
+   * more than once.
+   */
+  void scanIds(String prefix, int batchSize, Consumer<List<String>> consumer);
+
+  /**
+   * Returns the component index saved with the form, empty if the form is missing or was saved
+   * without an index.
+   */
+  Optional<Map<String, FormComponentLocation>> findComponentIndex(String id);
+
+  /**
+   * Returns the data of a component of the form, cut from the form data at the location its
+   * component index records, empty if the form, its index or the component is missing. Engines
+   * backed by Redis read it with one call and without the rest of the index; the caller checks
+   * the component, as a form rewritten meanwhile may leave the location pointing elsewhere.
+   */
+  default Optional<String> findComponentData(String id, String componentKey) {
+    return findComponentIndex(id)
+        .map(componentIndex -> componentIndex.get(componentKey))
+        .flatMap(location -> findById(id)
+            .map(formSchema -> location.cut(formSchema.getFormData())));
+  }
+
+  boolean existsById(String id);
+
+  FormSchema save(FormSchema formSchema);
+
+  /**
+   * Saves every form; the batch as a whole is not atomic, a failure may leave some forms saved.
+   */
+  void saveAll(List<FormSchema> formSchemas);
+
+  void deleteById(String id);
+
+  /**
+   * Deletes the forms, missing ids are skipped, and returns the number of deleted forms. The
+   * batch as a whole is not atomic.
+   */
+  long deleteAllById(Collection<String> ids);
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes a component index as a Redis hash of component key to {@code start,end,path}, the path
+ * goes last as it may contain commas.
+ */
+final class ComponentIndexCodec {
+
+  private ComponentIndexCodec() {
+  }
+
+  static Map<String, String> encode(Map<String, FormComponentLocation> componentIndex) {
+    var hash = new HashMap<String, String>(componentIndex.size() * 2);
+    componentIndex.forEach((key, location) -> hash.put(key, encode(location)));
+    return hash;
+  }
+
+  static String encode(FormComponentLocation location) {
+    return location.getStart() + "," + location.getEnd() + "," + location.getPath();
+  }
+
+  /**
+   * Returns {@code null} for an empty hash, which is a form saved without an index.
+   */
+  static Map<String, FormComponentLocation> decode(Map<?, ?> hash) {
+    if (hash == null || hash.isEmpty()) {
+      return null;
+    }
+    var componentIndex = new HashMap<String, FormComponentLocation>(hash.size() * 2);
+    hash.forEach((key, value) -> componentIndex.put((String) key, decode((String) value)));
+    return componentIndex;
+  }
+
+  static FormComponentLocation decode(String location) {
+    var parts = location.split(",", 3);
+    return FormComponentLocation.builder()
+        .start(Integer.parseInt(parts[0]))
+        .end(Integer.parseInt(parts[1]))
+        .path(parts[2])
+        .build();
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormDataRepositoryCommunicationException;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine for single-node and edge deployments that keeps one file per form in
+ * {@code storage.file.directory} and reads it through a read-only memory mapping.
+ * <p>
+ * Concurrency: a form is written to a temporary file and atomically renamed over the old one, so
+ * readers always see either the old or the new complete form, never a partial one, and a crash
+ * never leaves a torn file. Concurrent writers of the same key are last-rename-wins. There is no
+ * locking between processes, so the directory must be owned by a single instance.
+ * <p>
+ * File layout, all numbers big-endian: int format version, int form data length, form data
+ * (UTF-8), int component count, then per component: key, path (both as int length + UTF-8), int
+ * start, int end, and since version 2 the content hash (int length + UTF-8).
+ */
+@Component
+@Qualifier("formStorageEngine")
+@ConditionalOnProperty(name = "storage.engine", havingValue = "file")
+public class FileFormStorage implements FormStorage {
+
+  private static final int FORMAT_VERSION = 2;
+  private static final String EXTENSION = ".form";
+
+  private final Path directory;
+
+  public FileFormStorage(@Value("${storage.file.directory}") Path directory) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to create form storage directory " + directory, e);
+    }
+  }
+
+  @Override
+  public Optional<FormSchema> findById(String id) {
+    return read(id, false);
+  }
+
+  @Override
+  public List<FormSchema> findAllById(Collection<String> ids) {
+    var result = new ArrayList<FormSchema>(ids.size());
+    for (var id : ids) {
+      findById(id).ifPresent(result::add);
+    }
+    return result;
+  }
+
+  @Override
+  public List<FormSchema> findAll() {
+    // a form deleted after listing is skipped
+    return findAllById(findAllIds());
+  }
+
+  @Override
+  public Set<String> findAllIds() {
+    try (var files = Files.list(directory)) {
+      return ids(files).collect(Collectors.toSet());
+    } catch (IOException e) {
+      throw new FormDataRepositoryCommunicationException("Unable to list forms", e);
+    }
+  }
+
+  /**
+   * Reads the directory lazily, forms deleted by the consumer do not affect the listing.
+   */
+  @Override
+  public void scanIds(String prefix, int batchSize, Consumer<List<String>> consumer) {
+    var batcher = new ScanBatcher(batchSize, consumer);
+    try (var files = Files.list(directory)) {
+      ids(files).filter(id -> id.startsWith(prefix)).forEach(batcher);
+    } catch (IOException | UncheckedIOException e) {
+      throw new FormDataRepositoryCommunicationException("Unable to list forms", e);
+    }
+    batcher.flush();
+  }
+
+  @Override
+  public Optional<Map<String, FormComponentLocation>> findComponentIndex(String id) {
+    return read(id, true).map(FormSchema::getComponentIndex);
+  }
+
+  @Override
+  public boolean existsById(String id) {
+    return Files.exists(pathOf(id));
+  }
+
+  @Override
+  public FormSchema save(FormSchema formSchema) {
+    Path tempFile = null;
+    try {
+      tempFile = Files.createTempFile(directory, ".", ".tmp");
+      Files.write(tempFile, write(formSchema));
+      Files.move(tempFile, pathOf(formSchema.getId()), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return formSchema;
+    } catch (IOException e) {
+      deleteQuietly(tempFile);
+      throw new FormDataRepositoryCommunicationException(
+          "Unable to write form " + formSchema.getId(), e);
+    }
+  }
+
+  @Override
+  public void saveAll(List<FormSchema> formSchemas) {
+    formSchemas.forEach(this::save);
+  }
+
+  @Override
+  public void deleteById(String id) {
+    delete(id);
+  }
+
+  @Override
+  public long deleteAllById(Collection<String> ids) {
+    return ids.stream().filter(this::delete).count();
+  }
+
+  private boolean delete(String id) {
+    try {
+      return Files.deleteIfExists(pathOf(id));
+    } catch (IOException e) {
+      throw new FormDataRepositoryCommunicationException("Unable to delete form " + id, e);
+    }
+  }
+
+  private static Stream<String> ids(Stream<Path> files) {
+    return files.map(file -> file.getFileName().toString())
+        .filter(fileName -> fileName.endsWith(EXTENSION))
+        .map(fileName -> URLDecoder.decode(
+            fileName.substring(0, fileName.length() - EXTENSION.length()),
+            StandardCharsets.UTF_8));
+  }
+
+  private Path pathOf(String id) {
+    return directory.resolve(URLEncoder.encode(id, StandardCharsets.UTF_8) + EXTENSION);
+  }
+
+  private static byte[] write(FormSchema formSchema) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    var out = new DataOutputStream(bytes);
+    out.writeInt(FORMAT_VERSION);
+    writeString(out, formSchema.getFormData());
+    var componentIndex = formSchema.getComponentIndex();
+    if (componentIndex == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(componentIndex.size());
+      for (var entry : componentIndex.entrySet()) {
+        writeString(out, entry.getKey());
+        writeString(out, entry.getValue().getPath());
+        out.writeInt(entry.getValue().getStart());
+        out.writeInt(entry.getValue().getEnd());
+      }
+    }
+    writeString(out, formSchema.getContentHash());
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private Optional<FormSchema> read(String id, boolean withComponentIndex) {
+    try (var channel = FileChannel.open(pathOf(id), StandardOpenOption.READ)) {
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return Optional.of(read(id, buffer, withComponentIndex));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new FormDataRepositoryCommunicationException("Unable to read form " + id, e);
+    }
+  }
+
+  /**
+   * Without the component index the components are skipped in the mapping, not decoded.
+   */
+  private static FormSchema read(String id, ByteBuffer buffer, boolean withComponentIndex)
+      throws IOException {
+    var formatVersion = buffer.getInt();
+    if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+      throw new IOException("Unsupported form file format");
+    }
+    var formData = readString(buffer);
+    var componentCount = buffer.getInt();
+    HashMap<String, FormComponentLocation> componentIndex = null;
+    if (componentCount >= 0 && !withComponentIndex) {
+      for (var i = 0; i < componentCount; i++) {
+        skipString(buffer);
+        skipString(buffer);
+        buffer.position(buffer.position() + 2 * Integer.BYTES);
+      }
+    } else if (componentCount >= 0) {
+      componentIndex = new HashMap<>(componentCount * 2);
+      for (var i = 0; i < componentCount; i++) {
+        var key = readString(buffer);
+        componentIndex.put(key, FormComponentLocation.builder()
+            .path(readString(buffer))
+            .start(buffer.getInt())
+            .end(buffer.getInt())
+            .build());
+      }
+    }
+    return FormSchema.builder()
+        .id(id)
+        .formData(formData)
+        .componentIndex(componentIndex)
+        .contentHash(formatVersion >= 2 ? readString(buffer) : null)
+        .build();
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    var length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    var bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void skipString(ByteBuffer buffer) {
+    var length = buffer.getInt();
+    if (length > 0) {
+      buffer.position(buffer.position() + length);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // the temporary file is left behind, it is never read
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the forms of every tenant in generations and serves the active generation of each tenant
+ * on top of the configured engine. A whole form set is deployed into a new generation and made
+ * visible at once by switching the active generation pointer of the tenant, see
+ * {@link com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService}.
+ * <p>
+ * The callers keep working with the plain storage ids. The forms of a generation are stored under
+ * {@code @<generation>:<storage id>}; the initial generation, which every tenant starts with, has
+ * an empty name and uses the plain storage ids, so forms stored before generations were
+ * introduced stay in place. The active generations of all tenants are the {@code active:<tenant>}
+ * fields of the {@value #GENERATIONS_KEY} Redis hash. They are cached in memory and reloaded
+ * with {@link #reload()}, so resolving a storage id costs one map lookup.
+ */
+@Primary
+@Component
+public class GenerationalFormStorage implements FormStorage {
+
+  public static final String GENERATIONS_KEY = "bpm-form-schema-generations";
+  public static final String ACTIVE_FIELD_PREFIX = "active:";
+  public static final String INITIAL_GENERATION = "";
+
+  private static final String GENERATION_PREFIX = "@";
+  private static final String SEPARATOR = ":";
+
+  private final FormStorage engine;
+  private final StringRedisTemplate redisTemplate;
+
+  private volatile Map<String, String> activeGenerations;
+
+  public GenerationalFormStorage(@Qualifier("formStorageEngine") FormStorage engine,
+      StringRedisTemplate redisTemplate) {
+    this.engine = engine;
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public Optional<FormSchema> findById(String id) {
+    return engine.findById(physicalId(activeGeneration(TenantContext.tenantOf(id)), id))
+        .map(formSchema -> withId(formSchema, id));
+  }
+
+  @Override
+  public List<FormSchema> findAllById(Collection<String> ids) {
+    var physicalIds = new HashMap<String, String>();
+    ids.forEach(id -> physicalIds.put(
+        physicalId(activeGeneration(TenantContext.tenantOf(id)), id), id));
+    return engine.findAllById(physicalIds.keySet()).stream()
+        .map(formSchema -> withId(formSchema, physicalIds.get(formSchema.getId())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Reads the forms of every generation of the engine and keeps the active ones.
+   */
+  @Override
+  public List<FormSchema> findAll() {
+    return engine.findAll().stream()
+        .filter(formSchema -> isActive(formSchema.getId()))
+        .map(formSchema -> withId(formSchema, logicalId(formSchema.getId())))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Set<String> findAllIds() {
+    return engine.findAllIds().stream()
+        .filter(this::isActive)
+        .map(GenerationalFormStorage::logicalId)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Scans the active generation of the tenant of the prefix; a prefix without a tenant is one of
+   * the default tenant.
+   */
+  @Override
+  public void scanIds(String prefix, int batchSize, Consumer<List<String>> consumer) {
+    var generation = activeGeneration(TenantContext.tenantOf(prefix));
+    engine.scanIds(physicalId(generation, prefix), batchSize, physicalIds -> {
+      var ids = physicalIds.stream()
+          .filter(this::isActive)
+          .map(GenerationalFormStorage::logicalId)
+          .collect(Collectors.toList());
+      if (!ids.isEmpty()) {
+        consumer.accept(ids);
+      }
+    });
+  }
+
+  @Override
+  public Optional<Map<String, FormComponentLocation>> findComponentIndex(String id) {
+    return engine.findComponentIndex(physicalId(activeGeneration(TenantContext.tenantOf(id)), id));
+  }
+
+  @Override
+  public Optional<String> findComponentData(String id, String componentKey) {
+    return engine.findComponentData(physicalId(activeGeneration(TenantContext.tenantOf(id)), id),
+        componentKey);
+  }
+
+  @Override
+  public boolean existsById(String id) {
+    return engine.existsById(physicalId(activeGeneration(TenantContext.tenantOf(id)), id));
+  }
+
+  @Override
+  public FormSchema save(FormSchema formSchema) {
+    var id = formSchema.getId();
+    engine.save(withId(formSchema, physicalId(activeGeneration(TenantContext.tenantOf(id)), id)));
+    return withId(formSchema, id);
+  }
+
+  @Override
+  public void saveAll(List<FormSchema> formSchemas) {
+    engine.saveAll(formSchemas.stream()
+        .map(formSchema -> withId(formSchema, physicalId(
+            activeGeneration(TenantContext.tenantOf(formSchema.getId())), formSchema.getId())))
+        .collect(Collectors.toList()));
+  }
+
+  @Override
+  public void deleteById(String id) {
+    engine.deleteById(physicalId(activeGeneration(TenantContext.tenantOf(id)), id));
+  }
+
+  @Override
+  public long deleteAllById(Collection<String> ids) {
+    return engine.deleteAllById(ids.stream()
+        .map(id -> physicalId(activeGeneration(TenantContext.tenantOf(id)), id))
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Saves the forms, given with their plain storage ids, into the given generation with one
+   * engine call, whether the generation is active or not.
+   */
+  public void saveAll(String generation, List<FormSchema> formSchemas) {
+    engine.saveAll(formSchemas.stream()
+        .map(formSchema -> withId(formSchema, physicalId(generation, formSchema.getId())))
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Reads the forms, given with their plain storage ids, from the given generation, whether the
+   * generation is active or not.
+   */
+  public List<FormSchema> findAllById(String generation, Collection<String> ids) {
+    var physicalIds = new HashMap<String, String>();
+    ids.forEach(id -> physicalIds.put(physicalId(generation, id), id));
+    return engine.findAllById(physicalIds.keySet()).stream()
+        .map(formSchema -> withId(formSchema, physicalIds.get(formSchema.getId())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Deletes every form of a generation of the tenant in batches of {@code batchSize} forms and
+   * returns the number of deleted forms.
+   */
+  public long deleteGeneration(String tenant, String generation, int batchSize) {
+    var deleted = new long[1];
+    engine.scanIds(physicalId(generation, TenantContext.storageId(tenant, "")), batchSize,
+        physicalIds -> {
+          var ids = physicalIds.stream()
+              .filter(id -> generationOf(id).equals(generation)
+                  && TenantContext.isStorageIdOf(tenant, logicalId(id)))
+              .collect(Collectors.toList());
+          if (!ids.isEmpty()) {
+            deleted[0] += engine.deleteAllById(ids);
+          }
+        });
+    return deleted[0];
+  }
+
+  public String activeGeneration(String tenant) {
+    var current = activeGenerations;
+    if (current == null) {
+      current = reload();
+    }
+    return current.getOrDefault(tenant, INITIAL_GENERATION);
+  }
+
+  /**
+   * Reads the active generations of all tenants from Redis into the cache.
+   */
+  public Map<String, String> reload() {
+    var loaded = new HashMap<String, String>();
+    redisTemplate.<String, String>opsForHash().entries(GENERATIONS_KEY).forEach(
+        (field, generation) -> {
+          if (field.startsWith(ACTIVE_FIELD_PREFIX)) {
+            loaded.put(field.substring(ACTIVE_FIELD_PREFIX.length()), generation);
+          }
+        });
+    activeGenerations = loaded;
+    return loaded;
+  }
+
+  private boolean isActive(String physicalId) {
+    return generationOf(physicalId)
+        .equals(activeGeneration(TenantContext.tenantOf(logicalId(physicalId))));
+  }
+
+  private static String physicalId(String generation, String id) {
+    return INITIAL_GENERATION.equals(generation) ? id
+        : GENERATION_PREFIX + generation + SEPARATOR + id;
+  }
+
+  private static String generationOf(String physicalId) {
+    return physicalId.startsWith(GENERATION_PREFIX)
+        ? physicalId.substring(GENERATION_PREFIX.length(), physicalId.indexOf(SEPARATOR))
+        : INITIAL_GENERATION;
+  }
+
+  private static String logicalId(String physicalId) {
+    return physicalId.startsWith(GENERATION_PREFIX)
+        ? physicalId.substring(physicalId.indexOf(SEPARATOR) + SEPARATOR.length())
+        : physicalId;
+  }
+
+  private static FormSchema withId(FormSchema formSchema, String id) {
+    return formSchema.toBuilder().id(id).build();
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-local engine for tests, local runs and benchmarks; nothing survives a restart.
+ * <p>
+ * Concurrency: backed by a {@link ConcurrentSkipListMap}, so reads and writes are lock-free and
+ * every single-key operation is atomic and linearizable. {@link #findAll()} is weakly consistent:
+ * it never fails under concurrent writes but may or may not see writes made while it runs.
+ * Forms are copied on the way in and out, so callers never share mutable state with the map.
+ */
+@Component
+@Qualifier("formStorageEngine")
+@ConditionalOnProperty(name = "storage.engine", havingValue = "memory")
+public class InMemoryFormStorage implements FormStorage {
+
+  private final ConcurrentNavigableMap<String, FormSchema> forms = new ConcurrentSkipListMap<>();
+
+  @Override
+  public Optional<FormSchema> findById(String id) {
+    return Optional.ofNullable(forms.get(id)).map(InMemoryFormStorage::withoutComponentIndex);
+  }
+
+  @Override
+  public List<FormSchema> findAllById(Collection<String> ids) {
+    var result = new ArrayList<FormSchema>(ids.size());
+    for (var id : ids) {
+      findById(id).ifPresent(result::add);
+    }
+    return result;
+  }
+
+  @Override
+  public List<FormSchema> findAll() {
+    var result = new ArrayList<FormSchema>(forms.size());
+    forms.values().forEach(formSchema -> result.add(withoutComponentIndex(formSchema)));
+    return result;
+  }
+
+  @Override
+  public Set<String> findAllIds() {
+    return new HashSet<>(forms.keySet());
+  }
+
+  @Override
+  public void scanIds(String prefix, int batchSize, Consumer<List<String>> consumer) {
+    var batcher = new ScanBatcher(batchSize, consumer);
+    for (var id : forms.tailMap(prefix).keySet()) {
+      if (!id.startsWith(prefix)) {
+        break;
+      }
+      batcher.accept(id);
+    }
+    batcher.flush();
+  }
+
+  @Override
+  public Optional<Map<String, FormComponentLocation>> findComponentIndex(String id) {
+    return Optional.ofNullable(forms.get(id))
+        .map(FormSchema::getComponentIndex)
+        .<Map<String, FormComponentLocation>>map(HashMap::new);
+  }
+
+  @Override
+  public boolean existsById(String id) {
+    return forms.containsKey(id);
+  }
+
+  @Override
+  public FormSchema save(FormSchema formSchema) {
+    forms.put(formSchema.getId(), copy(formSchema));
+    return formSchema;
+  }
+
+  @Override
+  public void saveAll(List<FormSchema> formSchemas) {
+    formSchemas.forEach(this::save);
+  }
+
+  @Override
+  public void deleteById(String id) {
+    forms.remove(id);
+  }
+
+  @Override
+  public long deleteAllById(Collection<String> ids) {
+    return ids.stream().filter(id -> forms.remove(id) != null).count();
+  }
+
+  private static FormSchema withoutComponentIndex(FormSchema formSchema) {
+    return formSchema.toBuilder().componentIndex(null).build();
+  }
+
+  private static FormSchema copy(FormSchema formSchema) {
+    var componentIndex = formSchema.getComponentIndex();
+    return formSchema.toBuilder()
+        .componentIndex(componentIndex == null ? null : new HashMap<>(componentIndex))
+        .build();
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine for Redis Cluster. All keys of a form carry the form id as a hash tag, so they are in
+ * the same slot and a form is read and written atomically by a single Lua script:
+ * <ul>
+ *   <li>{@code bpm-form-schemas:{id}} - hash with the {@code formData} and {@code contentHash}
+ *   fields</li>
+ *   <li>{@code bpm-form-schemas:{id}:components} - hash of the component index, component key
+ *   to {@code start,end,path}</li>
+ * </ul>
+ * There is no global set of ids, which would put a write of every form on one node; ids are
+ * listed by scanning every master. Batch reads and writes run one script per slot; reads of whole
+ * forms do not touch the component index.
+ * <p>
+ * Concurrency: a form is replaced atomically, so readers on any instance see either the old or
+ * the new complete form. Concurrent writers of the same key are last-writer-wins. A batch is not
+ * atomic as a whole.
+ * <p>
+ * Only these keys are tagged. The version history, dependency sets, footprints and generation
+ * pointers are kept by other services under their own keys, each written with single-key
+ * commands, so they never fail with {@code CROSSSLOT} but live in other slots and are not updated
+ * atomically with the form. Form names must not contain braces, which would change the tag.
+ */
+@Component
+@Qualifier("formStorageEngine")
+@ConditionalOnProperty(name = "storage.engine", havingValue = "redis-cluster")
+public class RedisClusterFormStorage implements FormStorage {
+
+  private static final String KEYSPACE = FormSchema.class.getAnnotation(RedisHash.class).value();
+  private static final String COMPONENTS_SUFFIX = ":components";
+  private static final String FORM_DATA = "formData";
+  private static final String CONTENT_HASH = "contentHash";
+  private static final int SCAN_COUNT = 1_000;
+
+  // KEYS: form and components key of every form; ARGV per form: form data, content hash
+  // (empty if absent), component count, then component key and location pairs
+  private static final RedisScript<Long> SAVE_SCRIPT = RedisScript.of(
+      "local arg = 1\n"
+          + "for i = 1, #KEYS, 2 do\n"
+          + "  redis.call('DEL', KEYS[i], KEYS[i + 1])\n"
+          + "  redis.call('HSET', KEYS[i], 'formData', ARGV[arg])\n"
+          + "  if ARGV[arg + 1] ~= '' then\n"
+          + "    redis.call('HSET', KEYS[i], 'contentHash', ARGV[arg + 1])\n"
+          + "  end\n"
+          + "  local components = tonumber(ARGV[arg + 2])\n"
+          + "  arg = arg + 3\n"
+          + "  for c = 1, components do\n"
+          + "    redis.call('HSET', KEYS[i + 1], ARGV[arg], ARGV[arg + 1])\n"
+          + "    arg = arg + 2\n"
+          + "  end\n"
+          + "end\n"
+          + "return #KEYS / 2", Long.class);
+
+  // KEYS: form key of every form; returns the hash of every form
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> FIND_SCRIPT = RedisScript.of(
+      "local result = {}\n"
+          + "for i = 1, #KEYS do\n"
+          + "  result[i] = redis.call('HGETALL', KEYS[i])\n"
+          + "end\n"
+          + "return result", List.class);
+
+  // KEYS: form and components key of a form; ARGV: component key; returns the component data,
+  // cut at its byte offsets, Lua strings being bytes
+  private static final RedisScript<String> FIND_COMPONENT_SCRIPT = RedisScript.of(
+      "local location = redis.call('HGET', KEYS[2], ARGV[1])\n"
+          + "if not location then return false end\n"
+          + "local from, to = string.match(location, '^(%d+),(%d+),')\n"
+          + "local data = redis.call('HGET', KEYS[1], 'formData')\n"
+          + "if not from or not data then return false end\n"
+          + "from, to = tonumber(from), tonumber(to)\n"
+          + "if from >= to or to > #data then return false end\n"
+          + "return string.sub(data, from + 1, to)", String.class);
+
+  // KEYS: form and components key of every form; returns the number of deleted forms
+  private static final RedisScript<Long> DELETE_SCRIPT = RedisScript.of(
+      "local deleted = 0\n"
+          + "for i = 1, #KEYS, 2 do\n"
+          + "  deleted = deleted + redis.call('UNLINK', KEYS[i])\n"
+          + "  redis.call('UNLINK', KEYS[i + 1])\n"
+          + "end\n"
+          + "return deleted", Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+
+  public RedisClusterFormStorage(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public Optional<FormSchema> findById(String id) {
+    return findAllById(List.of(id)).stream().findFirst();
+  }
+
+  @Override
+  public List<FormSchema> findAllById(Collection<String> ids) {
+    var result = new ArrayList<FormSchema>();
+    for (var slotIds : groupBySlot(ids, Function.identity()).values()) {
+      List<?> hashes = redisTemplate.execute(FIND_SCRIPT, slotIds.stream()
+          .map(RedisClusterFormStorage::formKey)
+          .collect(Collectors.toList()));
+      for (var i = 0; i < slotIds.size(); i++) {
+        toFormSchema(slotIds.get(i), (List<?>) hashes.get(i)).ifPresent(result::add);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<FormSchema> findAll() {
+    return findAllById(findAllIds());
+  }
+
+  @Override
+  public Set<String> findAllIds() {
+    var ids = new HashSet<String>();
+    scan("", ids::add);
+    return ids;
+  }
+
+  /**
+   * Scans every master with {@code SCAN}, matching the prefix inside the hash tag.
+   */
+  @Override
+  public void scanIds(String prefix, int batchSize, Consumer<List<String>> consumer) {
+    var batcher = new ScanBatcher(batchSize, consumer);
+    scan(prefix, batcher);
+    batcher.flush();
+  }
+
+  private void scan(String prefix, Consumer<String> ids) {
+    var pattern = KEYSPACE + ":{" + ScanBatcher.escapeGlob(prefix) + "*}";
+    redisTemplate.execute((RedisCallback<Void>) connection -> {
+      var options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+      if (connection instanceof RedisClusterConnection) {
+        var clusterConnection = (RedisClusterConnection) connection;
+        for (var node : clusterConnection.clusterGetNodes()) {
+          if (node.isMaster()) {
+            collectIds(clusterConnection.scan(node, options), ids);
+          }
+        }
+      } else {
+        collectIds(connection.scan(options), ids);
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public Optional<Map<String, FormComponentLocation>> findComponentIndex(String id) {
+    return Optional.ofNullable(ComponentIndexCodec.decode(
+        redisTemplate.opsForHash().entries(componentsKey(id))));
+  }
+
+  /**
+   * Cuts the component from the form data in Redis, so only the component is transferred.
+   */
+  @Override
+  public Optional<String> findComponentData(String id, String componentKey) {
+    return Optional.ofNullable(redisTemplate.execute(FIND_COMPONENT_SCRIPT,
+        List.of(formKey(id), componentsKey(id)), componentKey));
+  }
+
+  @Override
+  public boolean existsById(String id) {
+    return Boolean.TRUE.equals(redisTemplate.hasKey(formKey(id)));
+  }
+
+  @Override
+  public FormSchema save(FormSchema formSchema) {
+    saveAll(List.of(formSchema));
+    return formSchema;
+  }
+
+  @Override
+  public void saveAll(List<FormSchema> formSchemas) {
+    for (var slotForms : groupBySlot(formSchemas, FormSchema::getId).values()) {
+      var ids = slotForms.stream().map(FormSchema::getId).collect(Collectors.toList());
+      var args = new ArrayList<String>();
+      slotForms.forEach(formSchema -> addSaveArgs(formSchema, args));
+      redisTemplate.execute(SAVE_SCRIPT, keys(ids), args.toArray());
+    }
+  }
+
+  @Override
+  public void deleteById(String id) {
+    redisTemplate.delete(List.of(formKey(id), componentsKey(id)));
+  }
+
+  /**
+   * Runs one script per slot that frees the keys of the forms with {@code UNLINK}, so the memory
+   * of large forms is reclaimed in the background.
+   */
+  @Override
+  public long deleteAllById(Collection<String> ids) {
+    var deleted = 0L;
+    for (var slotIds : groupBySlot(ids, Function.identity()).values()) {
+      var slotDeleted = redisTemplate.execute(DELETE_SCRIPT, keys(slotIds));
+      deleted += slotDeleted == null ? 0 : slotDeleted;
+    }
+    return deleted;
+  }
+
+  static String formKey(String id) {
+    return KEYSPACE + ":{" + id + "}";
+  }
+
+  static String componentsKey(String id) {
+    return formKey(id) + COMPONENTS_SUFFIX;
+  }
+
+  private static <T> Map<Integer, List<T>> groupBySlot(Collection<T> items,
+      Function<T, String> id) {
+    return items.stream().collect(Collectors.groupingBy(
+        item -> ClusterSlotHashUtil.calculateSlot(formKey(id.apply(item))), LinkedHashMap::new,
+        Collectors.toList()));
+  }
+
+  private static List<String> keys(List<String> ids) {
+    var keys = new ArrayList<String>(ids.size() * 2);
+    ids.forEach(id -> {
+      keys.add(formKey(id));
+      keys.add(componentsKey(id));
+    });
+    return keys;
+  }
+
+  private static void addSaveArgs(FormSchema formSchema, List<String> args) {
+    args.add(formSchema.getFormData());
+    args.add(formSchema.getContentHash() == null ? "" : formSchema.getContentHash());
+    var componentIndex = formSchema.getComponentIndex() == null
+        ? Map.<String, FormComponentLocation>of() : formSchema.getComponentIndex();
+    args.add(String.valueOf(componentIndex.size()));
+    componentIndex.forEach((key, location) -> {
+      args.add(key);
+      args.add(ComponentIndexCodec.encode(location));
+    });
+  }
+
+  private static Optional<FormSchema> toFormSchema(String id, List<?> formHash) {
+    if (formHash == null || formHash.isEmpty()) {
+      return Optional.empty();
+    }
+    var fields = toMap(formHash);
+    return Optional.of(FormSchema.builder()
+        .id(id)
+        .formData(fields.get(FORM_DATA))
+        .contentHash(fields.get(CONTENT_HASH))
+        .build());
+  }
+
+  private static Map<String, String> toMap(List<?> flatHash) {
+    var map = new HashMap<String, String>();
+    if (flatHash != null) {
+      for (var i = 0; i + 1 < flatHash.size(); i += 2) {
+        map.put((String) flatHash.get(i), (String) flatHash.get(i + 1));
+      }
+    }
+    return map;
+  }
+
+  private static void collectIds(Cursor<byte[]> cursor, Consumer<String> ids) {
+    try (cursor) {
+      cursor.forEachRemaining(key -> {
+        var formKey = new String(key, StandardCharsets.UTF_8);
+        if (formKey.endsWith("}")) {
+          ids.accept(formKey.substring(KEYSPACE.length() + 2, formKey.length() - 1));
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.repository.FormRepository;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default engine backed by the Spring Data Redis {@link FormRepository}, shared by all instances
+ * of the service. The component index of a form is kept apart from the form hash, in the
+ * {@code bpm-form-schema-components:<id>} hash of component key to {@code start,end,path}, so
+ * reads of whole forms do not load and convert it.
+ * <p>
+ * Concurrency: a form is a Redis hash rewritten with separate {@code DEL} and {@code HMSET}
+ * commands, so a concurrent reader on any instance may briefly see an updated form as missing;
+ * concurrent writers of the same key are last-writer-wins. Reads and writes of different keys do
+ * not affect each other.
+ */
+@Component
+@Qualifier("formStorageEngine")
+@ConditionalOnProperty(name = "storage.engine", havingValue = "redis", matchIfMissing = true)
+public class RedisFormStorage implements FormStorage {
+
+  private static final String KEYSPACE = FormSchema.class.getAnnotation(RedisHash.class).value();
+  private static final String COMPONENTS_PREFIX = "bpm-form-schema-components:";
+  private static final String FORM_DATA = "formData";
+  private static final int SCAN_COUNT = 1_000;
+
+  private final FormRepository repository;
+  private final StringRedisTemplate redisTemplate;
+
+  public RedisFormStorage(FormRepository repository, StringRedisTemplate redisTemplate) {
+    this.repository = repository;
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public Optional<FormSchema> findById(String id) {
+    return repository.findById(id);
+  }
+
+  @Override
+  public List<FormSchema> findAllById(Collection<String> ids) {
+    return withoutMissing(repository.findAllById(ids));
+  }
+
+  @Override
+  public List<FormSchema> findAll() {
+    return withoutMissing(repository.findAll());
+  }
+
+  /**
+   * Reads the members of the keyspace set the repository keeps next to the form hashes.
+   */
+  @Override
+  public Set<String> findAllIds() {
+    var ids = redisTemplate.opsForSet().members(KEYSPACE);
+    return ids == null ? new HashSet<>() : ids;
+  }
+
+  /**
+   * Iterates the keyspace set with {@code SSCAN}.
+   */
+  @Override
+  public void scanIds(String prefix, int batchSize, Consumer<List<String>> consumer) {
+    var options = ScanOptions.scanOptions()
+        .match(ScanBatcher.escapeGlob(prefix) + "*")
+        .count(SCAN_COUNT)
+        .build();
+    var batcher = new ScanBatcher(batchSize, consumer);
+    try (var cursor = redisTemplate.opsForSet().scan(KEYSPACE, options)) {
+      cursor.forEachRemaining(batcher);
+    }
+    batcher.flush();
+  }
+
+  @Override
+  public Optional<Map<String, FormComponentLocation>> findComponentIndex(String id) {
+    return Optional.ofNullable(ComponentIndexCodec.decode(
+        redisTemplate.opsForHash().entries(COMPONENTS_PREFIX + id)));
+  }
+
+  /**
+   * Reads the location of the component and the form data with two {@code HGET} in one pipelined
+   * round trip.
+   */
+  @Override
+  public Optional<String> findComponentData(String id, String componentKey) {
+    var results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      var stringConnection = (StringRedisConnection) connection;
+      stringConnection.hGet(COMPONENTS_PREFIX + id, componentKey);
+      stringConnection.hGet(KEYSPACE + ":" + id, FORM_DATA);
+      return null;
+    });
+    var location = (String) results.get(0);
+    var formData = (String) results.get(1);
+    if (location == null || formData == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(ComponentIndexCodec.decode(location).cut(formData));
+  }
+
+  @Override
+  public boolean existsById(String id) {
+    return repository.existsById(id);
+  }
+
+  @Override
+  public FormSchema save(FormSchema formSchema) {
+    var saved = repository.save(formSchema);
+    saveComponentIndexes(List.of(formSchema));
+    return saved;
+  }
+
+  @Override
+  public void saveAll(List<FormSchema> formSchemas) {
+    repository.saveAll(formSchemas);
+    saveComponentIndexes(formSchemas);
+  }
+
+  @Override
+  public void deleteById(String id) {
+    repository.deleteById(id);
+    redisTemplate.unlink(COMPONENTS_PREFIX + id);
+  }
+
+  /**
+   * Frees the form hashes with one {@code UNLINK}, which returns right away and reclaims the
+   * memory in the background, instead of a blocking {@code DEL} per form, and removes the ids from
+   * the keyspace set with one {@code SREM}. Forms have no time to live, so there are no phantom
+   * keys to delete.
+   */
+  @Override
+  public long deleteAllById(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    redisTemplate.unlink(ids.stream()
+        .flatMap(id -> Stream.of(KEYSPACE + ":" + id, COMPONENTS_PREFIX + id))
+        .collect(Collectors.toList()));
+    var removed = redisTemplate.opsForSet().remove(KEYSPACE, ids.toArray());
+    return removed == null ? 0 : removed;
+  }
+
+  // replaces the component index of every form in one pipeline
+  private void saveComponentIndexes(List<FormSchema> formSchemas) {
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      var stringConnection = (StringRedisConnection) connection;
+      formSchemas.forEach(formSchema -> {
+        var key = COMPONENTS_PREFIX + formSchema.getId();
+        stringConnection.del(key);
+        var componentIndex = formSchema.getComponentIndex();
+        if (componentIndex != null && !componentIndex.isEmpty()) {
+          stringConnection.hMSet(key, ComponentIndexCodec.encode(componentIndex));
+        }
+      });
+      return null;
+    });
+  }
+
+  // the keyspace set may still reference a hash that has expired or is being rewritten
+  private static List<FormSchema> withoutMissing(Iterable<FormSchema> formSchemas) {
+    var result = new ArrayList<FormSchema>();
+    formSchemas.forEach(formSchema -> {
+      if (Objects.nonNull(formSchema)) {
+        result.add(formSchema);
+      }
+    });
+    return result;
+  }
+}
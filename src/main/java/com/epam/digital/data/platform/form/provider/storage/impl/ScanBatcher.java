@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.storage.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects the ids found by a scan into batches of at most {@code batchSize} ids and passes every
+ * full batch on; {@link #flush()} passes the last one.
+ */
+class ScanBatcher implements Consumer<String> {
+
+  private final int batchSize;
+  private final Consumer<List<String>> consumer;
+  private List<String> batch;
+
+  ScanBatcher(int batchSize, Consumer<List<String>> consumer) {
+    this.batchSize = batchSize;
+    this.consumer = consumer;
+    this.batch = new ArrayList<>(batchSize);
+  }
+
+  /**
+   * Escapes the glob special characters of a literal used in a Redis {@code MATCH} pattern.
+   */
+  static String escapeGlob(String literal) {
+    var escaped = new StringBuilder(literal.length());
+    for (var c : literal.toCharArray()) {
+      if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+        escaped.append('\\');
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  @Override
+  public void accept(String id) {
+    batch.add(id);
+    if (batch.size() == batchSize) {
+      flush();
+    }
+  }
+
+  void flush() {
+    if (!batch.isEmpty()) {
+      var full = batch;
+      batch = new ArrayList<>(batchSize);
+      consumer.accept(full);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of strings. {@link #mightContain(String)} never returns {@code false}
+ * for a string that was put, and returns {@code true} for a string that was not put with about
+ * the false positive rate given at creation. Strings cannot be removed.
+ * <p>
+ * Thread-safe: bits are set with atomic updates, so concurrent puts and lookups need no locking.
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    var insertions = Math.max(1, expectedInsertions);
+    var optimalBits = (long) Math.ceil(
+        -insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    var words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (optimalBits + 63) / 64));
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * Long.SIZE;
+    this.hashCount = Math.max(1,
+        (int) Math.round((double) bitCount / insertions * Math.log(2)));
+  }
+
+  public void put(String value) {
+    var hash = hash(value);
+    var combined = hash[0];
+    for (var i = 0; i < hashCount; i++) {
+      setBit(Math.floorMod(combined, bitCount));
+      combined += hash[1];
+    }
+  }
+
+  public boolean mightContain(String value) {
+    var hash = hash(value);
+    var combined = hash[0];
+    for (var i = 0; i < hashCount; i++) {
+      if (!isBitSet(Math.floorMod(combined, bitCount))) {
+        return false;
+      }
+      combined += hash[1];
+    }
+    return true;
+  }
+
+  private void setBit(long index) {
+    var word = (int) (index >>> 6);
+    var mask = 1L << index;
+    long current;
+    do {
+      current = bits.get(word);
+      if ((current & mask) != 0) {
+        return;
+      }
+    } while (!bits.compareAndSet(word, current, current | mask));
+  }
+
+  private boolean isBitSet(long index) {
+    return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+  }
+
+  // two independent 64-bit FNV-1a style hashes combined as h1 + i * h2 (Kirsch-Mitzenmacher)
+  private static long[] hash(String value) {
+    var h1 = 0xcbf29ce484222325L;
+    var h2 = 0x84222325cbf29ce4L;
+    for (var b : value.getBytes(StandardCharsets.UTF_8)) {
+      h1 = (h1 ^ (b & 0xff)) * 0x100000001b3L;
+      h2 = (h2 ^ (b & 0xff)) * 0x9e3779b97f4a7c15L;
+    }
+    return new long[]{mix(h1), mix(h2) | 1};
+  }
+
+  // finalizer of MurmurHash3, spreads the low-entropy bits of short keys over the whole word
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb93fe53a87e5L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
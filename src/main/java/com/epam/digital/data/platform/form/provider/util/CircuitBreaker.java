@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row calls are
+ * rejected without being made for {@code openDuration}; after that a single trial call is let
+ * through and its outcome either closes the circuit or opens it again.
+ */
+public class CircuitBreaker {
+
+  private static final long CLOSED = -1L;
+
+  private final int failureThreshold;
+  private final long openDurationMillis;
+  private final Clock clock;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final AtomicLong openedAt = new AtomicLong(CLOSED);
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationMillis = openDuration.toMillis();
+    this.clock = clock;
+  }
+
+  public <T> T call(Supplier<T> supplier) {
+    if (!tryAcquirePermission()) {
+      throw new CallNotPermittedException();
+    }
+    try {
+      var result = supplier.get();
+      onSuccess();
+      return result;
+    } catch (RuntimeException | Error e) {
+      onFailure();
+      throw e;
+    }
+  }
+
+  public boolean isOpen() {
+    var opened = openedAt.get();
+    return opened != CLOSED && clock.millis() - opened < openDurationMillis;
+  }
+
+  private boolean tryAcquirePermission() {
+    var opened = openedAt.get();
+    if (opened == CLOSED) {
+      return true;
+    }
+    if (clock.millis() - opened < openDurationMillis) {
+      return false;
+    }
+    // the open period is over, exactly one caller gets to make the trial call
+    return openedAt.compareAndSet(opened, clock.millis());
+  }
+
+  private void onSuccess() {
+    consecutiveFailures.set(0);
+    openedAt.set(CLOSED);
+  }
+
+  private void onFailure() {
+    if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+      openedAt.set(clock.millis());
+    }
+  }
+
+  public static class CallNotPermittedException extends RuntimeException {
+
+    public CallNotPermittedException() {
+      super("Circuit breaker is open", null, false, false);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * SHA-256 of the canonical form of a JSON document: object fields are sorted by name, there is no
+ * insignificant whitespace and numbers are written without trailing zeros. Documents that differ
+ * only in formatting or field order have the same hash.
+ */
+public final class ContentHash {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private ContentHash() {
+  }
+
+  public static String of(JsonNode jsonNode) {
+    var digest = sha256();
+    try (var generator = JSON_FACTORY.createGenerator(
+        new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+      writeCanonical(generator, jsonNode);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * SHA-256 of the text exactly as it is, for callers that depend on its characters rather than
+   * on the JSON document it holds.
+   */
+  public static String ofText(String text) {
+    return toHex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  private static void writeCanonical(JsonGenerator generator, JsonNode node) throws IOException {
+    if (node.isObject()) {
+      var fieldNames = new ArrayList<String>(node.size());
+      node.fieldNames().forEachRemaining(fieldNames::add);
+      Collections.sort(fieldNames);
+      generator.writeStartObject();
+      for (var fieldName : fieldNames) {
+        generator.writeFieldName(fieldName);
+        writeCanonical(generator, node.get(fieldName));
+      }
+      generator.writeEndObject();
+    } else if (node.isArray()) {
+      generator.writeStartArray();
+      for (var element : node) {
+        writeCanonical(generator, element);
+      }
+      generator.writeEndArray();
+    } else if (node.isNumber()) {
+      generator.writeNumber(node.decimalValue().stripTrailingZeros().toPlainString());
+    } else if (node.isBoolean()) {
+      generator.writeBoolean(node.booleanValue());
+    } else if (node.isNull()) {
+      generator.writeNull();
+    } else {
+      generator.writeString(node.asText());
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    var hex = new char[bytes.length * 2];
+    for (var i = 0; i < bytes.length; i++) {
+      hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * References between forms. A nested form is a component, an element of a {@code components}
+ * array, of {@code "type": "form"} whose {@code form} field holds the key of another form. Keys
+ * are compared in lowercase like form names. A key with a reserved character (see
+ * {@link TenantContext#RESERVED_KEY_CHARACTERS}) names no form, it is not a reference.
+ */
+public final class FormReferences {
+
+  private static final String COMPONENTS = "components";
+  private static final String TYPE = "type";
+  private static final String FORM = "form";
+
+  private FormReferences() {
+  }
+
+  /**
+   * Keys of the forms referenced by the nested form components of a parsed form, in document
+   * order and without duplicates. The inline components of a nested form component are not
+   * searched, they are replaced by the referenced form.
+   */
+  public static List<String> of(Map<?, ?> form) {
+    var references = new ArrayList<String>();
+    collect(form, false, references);
+    return references.stream().distinct().collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the lowercase key of the referenced form if the component is a nested form
+   * component, {@code null} otherwise.
+   */
+  public static String referenceOf(Map<?, ?> component) {
+    var form = component.get(FORM);
+    return FORM.equals(component.get(TYPE)) && form instanceof String
+        && StringUtils.isNotBlank((String) form) && TenantContext.isValidKey((String) form)
+        ? ((String) form).toLowerCase() : null;
+  }
+
+  /**
+   * Tells whether the elements of the field value are components.
+   */
+  public static boolean isComponents(Object field, Object value) {
+    return COMPONENTS.equals(field) && value instanceof List;
+  }
+
+  private static void collect(Object node, boolean inComponents, List<String> references) {
+    if (node instanceof Map) {
+      var reference = inComponents ? referenceOf((Map<?, ?>) node) : null;
+      if (reference != null) {
+        references.add(reference);
+        return;
+      }
+      ((Map<?, ?>) node).forEach((field, value) -> collect(value, isComponents(field, value),
+          references));
+    } else if (node instanceof List) {
+      ((List<?>) node).forEach(element -> collect(element, inComponents, references));
+    }
+  }
+}
@@ -18,7 +18,8 @@ package com.epam.digital.data.platform.form.provider.util;
 
 public enum Header {
   TRACE_ID("X-B3-TraceId"),
-  ACCESS_TOKEN("X-Access-Token");
+  ACCESS_TOKEN("X-Access-Token"),
+  REGISTRY_ID("X-Registry-Id");
 
   private final String headerName;
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import java.time.Clock;
+
+/**
+ * Token bucket that allows {@code permitsPerSecond} calls per second on average and bursts of up
+ * to the same number of calls.
+ */
+public class RateLimiter {
+
+  private final double permitsPerMilli;
+  private final double maxPermits;
+  private final Clock clock;
+  private double permits;
+  private long refilledAt;
+
+  public RateLimiter(double permitsPerSecond, Clock clock) {
+    this.permitsPerMilli = permitsPerSecond / 1_000;
+    this.maxPermits = Math.max(1, permitsPerSecond);
+    this.clock = clock;
+    this.permits = maxPermits;
+    this.refilledAt = clock.millis();
+  }
+
+  public synchronized boolean tryAcquire() {
+    var now = clock.millis();
+    if (now > refilledAt) {
+      permits = Math.min(maxPermits, permits + (now - refilledAt) * permitsPerMilli);
+      refilledAt = now;
+    }
+    if (permits < 1) {
+      return false;
+    }
+    permits--;
+    return true;
+  }
+}
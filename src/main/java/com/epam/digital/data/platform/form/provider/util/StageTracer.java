@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+
+/**
+ * Records processing stages of a request as child spans of the current span. Stages are only
+ * recorded when the current span is sampled, so requests left out by the sampler pay for a single
+ * current span lookup and nothing else.
+ */
+public class StageTracer {
+
+  public static final String PAYLOAD_SIZE_TAG = "payload.size";
+
+  private final Tracer tracer;
+
+  public StageTracer(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Starts a stage span in scope of the current span, the returned stage has to be closed. A
+   * no-op stage is returned if the current span is missing or not sampled.
+   */
+  public Stage start(String name) {
+    var parent = tracer.currentSpan();
+    if (parent == null || parent.isNoop()) {
+      return Stage.NOOP;
+    }
+    var span = tracer.nextSpan(parent).name(name).start();
+    return new Stage(span, tracer.withSpan(span));
+  }
+
+  public <T> T trace(String name, long payloadSize, Supplier<T> supplier) {
+    try (var stage = start(name)) {
+      stage.payloadSize(payloadSize);
+      return stage.call(supplier);
+    }
+  }
+
+  /**
+   * Same as {@link #trace(String, long, Supplier)} for stages whose payload size is known from
+   * their result only, e.g. storage reads.
+   */
+  public <T> T trace(String name, Supplier<T> supplier, ToLongFunction<T> payloadSize) {
+    try (var stage = start(name)) {
+      var result = stage.call(supplier);
+      if (stage.isRecording() && result != null) {
+        stage.payloadSize(payloadSize.applyAsLong(result));
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Binds the span current at the time of the call to the thread that runs the task, so stages of
+   * work handed over to an executor stay in the trace of the request.
+   */
+  public <T> Callable<T> inCurrentSpan(Callable<T> task) {
+    var span = tracer.currentSpan();
+    if (span == null || span.isNoop()) {
+      return task;
+    }
+    return () -> {
+      try (var ignored = tracer.withSpan(span)) {
+        return task.call();
+      }
+    };
+  }
+
+  public static class Stage implements AutoCloseable {
+
+    private static final Stage NOOP = new Stage(null, null);
+
+    private final Span span;
+    private final Tracer.SpanInScope scope;
+
+    private Stage(Span span, Tracer.SpanInScope scope) {
+      this.span = span;
+      this.scope = scope;
+    }
+
+    public boolean isRecording() {
+      return span != null;
+    }
+
+    public void payloadSize(long payloadSize) {
+      if (span != null) {
+        span.tag(PAYLOAD_SIZE_TAG, String.valueOf(payloadSize));
+      }
+    }
+
+    public void error(Throwable throwable) {
+      if (span != null) {
+        span.error(throwable);
+      }
+    }
+
+    <T> T call(Supplier<T> supplier) {
+      try {
+        return supplier.get();
+      } catch (RuntimeException | Error e) {
+        error(e);
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() {
+      if (span != null) {
+        scope.close();
+        span.end();
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.epam.digital.data.platform.form.provider.util;
+
+import com.epam.digital.data.platform.form.provider.exception.InvalidFormKeyException;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Tenant (registry) the current thread works for. Forms of a tenant are stored under ids prefixed
+ * with the tenant name, see {@link #storageId(String)}. The default tenant uses the plain form
+ * keys, so the stored keys of a single-registry deployment do not change. Form keys must not
+ * contain the {@link #RESERVED_KEY_CHARACTERS}, so they never collide with the ids of another
+ * tenant or generation; every storage id is built by {@link #storageId(String, String)}, which
+ * rejects such keys.
+ */
+public final class TenantContext {
+
+  public static final String DEFAULT_TENANT = "";
+  /**
+   * Characters a form key must not contain: braces delimit the hash tag of the Redis Cluster keys
+   * of the form, a colon separates the tenant from the form key in storage ids and an at sign
+   * starts the generation prefix of the storage ids of a form generation.
+   */
+  public static final String RESERVED_KEY_CHARACTERS = "{}:@";
+
+  private static final String SEPARATOR = ":";
+  private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+  private TenantContext() {
+  }
+
+  public static String getTenant() {
+    var tenant = CURRENT_TENANT.get();
+    return tenant == null ? DEFAULT_TENANT : tenant;
+  }
+
+  public static void setTenant(String tenant) {
+    CURRENT_TENANT.set(tenant);
+  }
+
+  public static void clear() {
+    CURRENT_TENANT.remove();
+  }
+
+  /**
+   * Runs the supplier on the current thread as the given tenant and restores the previous tenant
+   * afterwards, for work done outside of a request such as deployment jobs.
+   */
+  public static <T> T callAs(String tenant, Supplier<T> supplier) {
+    var previous = CURRENT_TENANT.get();
+    CURRENT_TENANT.set(tenant);
+    try {
+      return supplier.get();
+    } finally {
+      CURRENT_TENANT.set(previous);
+    }
+  }
+
+  public static String storageId(String key) {
+    return storageId(getTenant(), key);
+  }
+
+  /**
+   * Returns the storage id of a form key of the tenant.
+   *
+   * @throws InvalidFormKeyException if the key contains a reserved character
+   */
+  public static String storageId(String tenant, String key) {
+    checkKey(key);
+    return DEFAULT_TENANT.equals(tenant) ? key : tenant + SEPARATOR + key;
+  }
+
+  /**
+   * Rejects a form key or key prefix containing any of the {@link #RESERVED_KEY_CHARACTERS}.
+   */
+  public static void checkKey(String key) {
+    if (!isValidKey(key)) {
+      throw new InvalidFormKeyException(String.format(
+          "The form key '%s' must not contain any of the characters '%s'.", key,
+          RESERVED_KEY_CHARACTERS));
+    }
+  }
+
+  public static boolean isValidKey(String key) {
+    return !StringUtils.containsAny(key, RESERVED_KEY_CHARACTERS);
+  }
+
+  /**
+   * Returns the form key of a storage id of the current tenant.
+   */
+  public static String formKey(String storageId) {
+    var tenant = getTenant();
+    return DEFAULT_TENANT.equals(tenant) ? storageId
+        : storageId.substring(tenant.length() + SEPARATOR.length());
+  }
+
+  /**
+   * Returns the tenant a storage id belongs to.
+   */
+  public static String tenantOf(String storageId) {
+    var separator = storageId.indexOf(SEPARATOR);
+    return separator < 0 ? DEFAULT_TENANT : storageId.substring(0, separator);
+  }
+
+  public static boolean isStorageIdOf(String tenant, String storageId) {
+    return DEFAULT_TENANT.equals(tenant) ? !storageId.contains(SEPARATOR)
+        : storageId.startsWith(tenant + SEPARATOR);
+  }
+}
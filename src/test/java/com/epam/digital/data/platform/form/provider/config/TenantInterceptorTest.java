@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.epam.digital.data.platform.form.provider.exception.InvalidTenantException;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class TenantInterceptorTest {
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  MockHttpServletRequest request = new MockHttpServletRequest();
+  MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @AfterEach
+  void tearDown() {
+    TenantContext.clear();
+  }
+
+  @Test
+  void shouldRejectRegistryHeaderWithoutTokenClaim() {
+    request.addHeader("X-Registry-Id", "Registry-A");
+    var interceptor = new TenantInterceptor(objectMapper, "");
+
+    var exception = assertThrows(InvalidTenantException.class,
+        () -> interceptor.preHandle(request, response, null));
+
+    assertThat(exception.getMessage()).isEqualTo(
+        "The registry 'Registry-A' can not be selected, registries are not taken from access "
+            + "tokens.");
+  }
+
+  @Test
+  void shouldUseDefaultTenantWithoutHeader() {
+    new TenantInterceptor(objectMapper, "").preHandle(request, response, null);
+
+    assertThat(TenantContext.getTenant()).isEqualTo(TenantContext.DEFAULT_TENANT);
+  }
+
+  @Test
+  void shouldTakeTenantFromTokenClaim() {
+    request.addHeader("X-Access-Token",
+        token("{\"iss\":\"https://keycloak/auth/realms/registry-b/\"}"));
+    request.addHeader("X-Registry-Id", "Registry-B");
+
+    new TenantInterceptor(objectMapper, "iss").preHandle(request, response, null);
+
+    assertThat(TenantContext.getTenant()).isEqualTo("registry-b");
+  }
+
+  @Test
+  void shouldRejectRegistryHeaderNotMatchingTokenClaim() {
+    request.addHeader("X-Access-Token",
+        token("{\"iss\":\"https://keycloak/auth/realms/registry-b/\"}"));
+    request.addHeader("X-Registry-Id", "registry-a");
+    var interceptor = new TenantInterceptor(objectMapper, "iss");
+
+    var exception = assertThrows(InvalidTenantException.class,
+        () -> interceptor.preHandle(request, response, null));
+
+    assertThat(exception.getMessage()).isEqualTo(
+        "The registry 'registry-a' is not the registry 'registry-b' of the access token.");
+  }
+
+  @Test
+  void shouldRejectTokenWithoutClaim() {
+    request.addHeader("X-Access-Token", token("{\"sub\":\"user\"}"));
+    var interceptor = new TenantInterceptor(objectMapper, "iss");
+
+    assertThrows(InvalidTenantException.class,
+        () -> interceptor.preHandle(request, response, null));
+  }
+
+  @Test
+  void shouldRejectInvalidTenant() {
+    request.addHeader("X-Access-Token", token("{\"registry\":\"registry:a\"}"));
+    var interceptor = new TenantInterceptor(objectMapper, "registry");
+
+    var exception = assertThrows(InvalidTenantException.class,
+        () -> interceptor.preHandle(request, response, null));
+
+    assertThat(exception.getMessage()).startsWith("The tenant 'registry:a' is invalid");
+  }
+
+  @Test
+  void shouldClearTenantAfterCompletion() {
+    request.addHeader("X-Access-Token", token("{\"registry\":\"registry-a\"}"));
+    var interceptor = new TenantInterceptor(objectMapper, "registry");
+    interceptor.preHandle(request, response, null);
+
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertThat(TenantContext.getTenant()).isEqualTo(TenantContext.DEFAULT_TENANT);
+  }
+
+  private static String token(String payload) {
+    var encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+        + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+  }
+}
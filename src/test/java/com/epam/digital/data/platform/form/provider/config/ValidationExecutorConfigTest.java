@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class ValidationExecutorConfigTest {
+
+  @Test
+  void shouldPublishExecutorMetersWithValidationPrefix() {
+    var meterRegistry = new SimpleMeterRegistry();
+
+    var executor = new ValidationExecutorConfig().validationExecutor(2, 3, meterRegistry);
+
+    try {
+      assertThat(meterRegistry.get("form.schema.validation.executor.queue.remaining")
+          .tag("name", "validation").gauge().value()).isEqualTo(3);
+      assertThat(meterRegistry.get("form.schema.validation.executor.pool.core").gauge().value())
+          .isEqualTo(2);
+      assertThat(meterRegistry.find("executor.queued").meters()).isEmpty();
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
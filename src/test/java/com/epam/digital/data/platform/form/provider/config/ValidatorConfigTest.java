@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.service.impl.GeneratedFormsSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.GenericSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.SchemaValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+class ValidatorConfigTest {
+
+  private final ValidatorConfig validatorConfig = new ValidatorConfig();
+  private final DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+
+  @Test
+  void shouldUseGeneratedValidatorForBuiltInSchema() {
+    var schemaValidator = schemaValidator(GeneratedFormsSchemaValidator.SCHEMA_LOCATION);
+
+    assertThat(schemaValidator).isInstanceOf(GeneratedFormsSchemaValidator.class);
+  }
+
+  @Test
+  void shouldUseGenericValidatorForCustomSchema() {
+    var schemaValidator = schemaValidator("classpath:forms-schema-with-components.json");
+
+    assertThat(schemaValidator).isInstanceOf(GenericSchemaValidator.class);
+  }
+
+  private SchemaValidator schemaValidator(String location) {
+    var jsonSchemaFactory = validatorConfig.jsonSchemaFactory();
+    var jsonSchema = validatorConfig.jsonSchema(location, resourceLoader, jsonSchemaFactory);
+    return validatorConfig.schemaValidator(location, jsonSchema, jsonSchemaFactory);
+  }
+}
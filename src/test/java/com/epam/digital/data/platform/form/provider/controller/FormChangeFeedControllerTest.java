@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeEvent;
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import com.epam.digital.data.platform.form.provider.service.FormChangeFeedService;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ControllerTest(FormChangeFeedController.class)
+class FormChangeFeedControllerTest {
+
+  static final String BASE_URL = "/api/form-changes";
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @MockBean
+  FormChangeFeedService formChangeFeedService;
+
+  @Test
+  @SneakyThrows
+  void subscribe() {
+    var emitter = new SseEmitter();
+    when(formChangeFeedService.subscribe("1-0")).thenReturn(emitter);
+
+    var result = mockMvc.perform(get(BASE_URL).header("Last-Event-ID", "1-0")
+            .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    emitter.send(SseEmitter.event().id("2-0").name("form-change")
+        .data(FormChangeEvent.builder().type(FormChangeType.DELETED).key("test-form").build(),
+            MediaType.APPLICATION_JSON));
+    emitter.complete();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "id:2-0\nevent:form-change\ndata:{\"type\":\"DELETED\",\"key\":\"test-form\","
+                + "\"contentHash\":null}\n\n"));
+  }
+}
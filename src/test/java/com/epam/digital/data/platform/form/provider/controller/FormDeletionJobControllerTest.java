@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.digital.data.platform.form.provider.dto.FormDeletionRequest;
+import com.epam.digital.data.platform.form.provider.entity.FormDeletionJob;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.epam.digital.data.platform.form.provider.service.FormDeletionJobService;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ControllerTest(FormDeletionJobController.class)
+class FormDeletionJobControllerTest {
+
+  static final String BASE_URL = "/api/form-deletion-jobs";
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @MockBean
+  FormDeletionJobService formDeletionJobService;
+
+  @Test
+  @SneakyThrows
+  void submitJob() {
+    var request = FormDeletionRequest.builder().prefix("test-").force(true).build();
+    when(formDeletionJobService.submitJob(request)).thenReturn(job(JobStatus.PENDING));
+
+    mockMvc.perform(post(BASE_URL)
+            .content("{\"prefix\":\"test-\",\"force\":true}")
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpectAll(
+            status().isAccepted(),
+            header().string("Location", "http://localhost" + BASE_URL + "/job-id"),
+            jsonPath("$.id").value("job-id"),
+            jsonPath("$.requestedCount").value(2),
+            jsonPath("$.keys").doesNotExist(),
+            jsonPath("$.ttl").doesNotExist());
+  }
+
+  @Test
+  @SneakyThrows
+  void getJob() {
+    var job = job(JobStatus.COMPLETED);
+    job.setProcessedCount(2);
+    job.setDeletedCount(1);
+    job.setReferencedForms(List.of("other-form"));
+    when(formDeletionJobService.getJob("job-id")).thenReturn(job);
+
+    mockMvc.perform(get(BASE_URL + "/{jobId}", "job-id"))
+        .andExpectAll(
+            status().isOk(),
+            jsonPath("$.status").value("COMPLETED"),
+            jsonPath("$.deletedCount").value(1),
+            jsonPath("$.referencedForms[0]").value("other-form"));
+  }
+
+  private static FormDeletionJob job(JobStatus status) {
+    return FormDeletionJob.builder()
+        .id("job-id")
+        .status(status)
+        .keys(List.of("test-form", "other-form"))
+        .build();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.ItemStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJobItem;
+import com.epam.digital.data.platform.form.provider.service.FormDeploymentJobService;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ControllerTest(FormDeploymentJobController.class)
+class FormDeploymentJobControllerTest {
+
+  static final String BASE_URL = "/api/form-deployment-jobs";
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @MockBean
+  FormDeploymentJobService formDeploymentJobService;
+
+  @Test
+  @SneakyThrows
+  void submitJob() {
+    var forms = "[{\"name\":\"test-form\"}]";
+    when(formDeploymentJobService.submitJob(forms, ValidationMode.COMPLETE, false))
+        .thenReturn(job(ItemStatus.PENDING));
+
+    mockMvc.perform(post(BASE_URL)
+            .content(forms)
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpectAll(
+            status().isAccepted(),
+            header().string("Location", "http://localhost" + BASE_URL + "/job-id"),
+            jsonPath("$.id").value("job-id"),
+            jsonPath("$.pendingCount").value(1),
+            jsonPath("$.ttl").doesNotExist());
+  }
+
+  @Test
+  @SneakyThrows
+  void getJob() {
+    when(formDeploymentJobService.getJob("job-id")).thenReturn(job(ItemStatus.DEPLOYED));
+
+    mockMvc.perform(get(BASE_URL + "/{jobId}", "job-id"))
+        .andExpectAll(
+            status().isOk(),
+            jsonPath("$.status").value("PENDING"),
+            jsonPath("$.deployedCount").value(1),
+            jsonPath("$.items[0].formName").value("test-form"));
+  }
+
+  private static FormDeploymentJob job(ItemStatus itemStatus) {
+    return FormDeploymentJob.builder()
+        .id("job-id")
+        .status(JobStatus.PENDING)
+        .items(List.of(FormDeploymentJobItem.builder()
+            .index(0)
+            .formName("test-form")
+            .status(itemStatus)
+            .build()))
+        .build();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.digital.data.platform.form.provider.dto.FootprintMetric;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprint;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprintReport;
+import com.epam.digital.data.platform.form.provider.service.FormFootprintService;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ControllerTest(FormFootprintController.class)
+class FormFootprintControllerTest {
+
+  static final String BASE_URL = "/api/form-footprints";
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @MockBean
+  FormFootprintService formFootprintService;
+
+  @Test
+  @SneakyThrows
+  void getReport() {
+    when(formFootprintService.getReport(FootprintMetric.READ_COUNT, 5))
+        .thenReturn(FormFootprintReport.builder()
+            .formCount(1)
+            .formDataBytes(1000)
+            .sortedBy(FootprintMetric.READ_COUNT)
+            .forms(List.of(footprint()))
+            .build());
+
+    mockMvc.perform(get(BASE_URL).param("sortBy", "READ_COUNT").param("limit", "5"))
+        .andExpectAll(
+            status().isOk(),
+            jsonPath("$.formDataBytes").value(1000),
+            jsonPath("$.sortedBy").value("READ_COUNT"),
+            jsonPath("$.forms[0].key").value("test-form"));
+  }
+
+  @Test
+  @SneakyThrows
+  void getFootprint() {
+    when(formFootprintService.getFootprint("test-form")).thenReturn(footprint());
+
+    mockMvc.perform(get(BASE_URL + "/{key}", "test-form"))
+        .andExpectAll(
+            status().isOk(),
+            jsonPath("$.compressedBytes").value(300),
+            jsonPath("$.componentCount").value(40),
+            jsonPath("$.readCount").value(7));
+  }
+
+  private static FormFootprint footprint() {
+    return FormFootprint.builder()
+        .key("test-form")
+        .formDataBytes(1000)
+        .compressedBytes(300)
+        .componentCount(40)
+        .maxDepth(3)
+        .readCount(7)
+        .build();
+  }
+}
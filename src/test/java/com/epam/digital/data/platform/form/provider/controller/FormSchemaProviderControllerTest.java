@@ -17,22 +17,33 @@
 package com.epam.digital.data.platform.form.provider.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.epam.digital.data.platform.form.provider.dto.FormBundle;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaVersion;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.service.FormBundleService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
 import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import lombok.SneakyThrows;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import util.TestUtils;
@@ -48,6 +59,13 @@ class FormSchemaProviderControllerTest {
   @MockBean
   FormSchemaProviderServiceImpl formSchemaProviderService;
 
+  @MockBean
+  FormSchemaVersionService formSchemaVersionService;
+
+
+  @MockBean
+  FormBundleService formBundleService;
+
   @Test
   @SneakyThrows
   void saveForm() {
@@ -61,20 +79,105 @@ class FormSchemaProviderControllerTest {
             status().isCreated());
   }
 
+  @Test
+  @SneakyThrows
+  void saveFormInFailFastMode() {
+    var form = TestUtils.getContent("valid-form.json");
+
+    mockMvc.perform(post(BASE_URL)
+            .param("validationMode", "FAIL_FAST")
+            .content(form)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpectAll(
+            status().isCreated());
+
+    verify(formSchemaProviderService).saveForm(form, ValidationMode.FAIL_FAST);
+  }
+
   @Test
   @SneakyThrows
   void getForm() {
     var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json").getBytes(
         StandardCharsets.UTF_8));
-    when(formSchemaProviderService.getFormByKey(any())).thenReturn(form);
+    when(formSchemaProviderService.getFormContentByKey(any())).thenReturn(
+        FormSchemaContent.builder().key("test-form").contentHash("hash").form(form).build());
 
     mockMvc.perform(get(BASE_URL + "/{key}", form.getAsString("name")))
         .andExpectAll(
             status().isOk(),
+            header().string(HttpHeaders.ETAG, "\"hash\""),
             content().contentType(MediaType.APPLICATION_JSON),
             content().json(form.toJSONString()));
   }
 
+  @Test
+  @SneakyThrows
+  void getFormBundle() {
+    var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json"));
+    when(formBundleService.getBundle("test-form")).thenReturn(FormBundle.builder()
+        .key("test-form").contentHash("bundle-hash").forms(List.of("test-form")).form(form)
+        .build());
+
+    mockMvc.perform(get(BASE_URL + "/{key}/bundle", "test-form"))
+        .andExpectAll(
+            status().isOk(),
+            header().string(HttpHeaders.ETAG, "\"bundle-hash\""),
+            jsonPath("$.forms[0]").value("test-form"),
+            jsonPath("$.form.name").value(form.getAsString("name")));
+
+    mockMvc.perform(get(BASE_URL + "/{key}/bundle", "test-form")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"bundle-hash\""))
+        .andExpectAll(
+            status().isNotModified(),
+            content().string(""));
+  }
+
+  @Test
+  @SneakyThrows
+  void getFormShouldReturnNotModifiedForMatchingETag() {
+    var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json"));
+    when(formSchemaProviderService.getFormContentByKey("test-form")).thenReturn(
+        FormSchemaContent.builder().key("test-form").contentHash("hash").form(form).build());
+
+    mockMvc.perform(get(BASE_URL + "/{key}", "test-form")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"hash\""))
+        .andExpectAll(
+            status().isNotModified(),
+            content().string(""));
+  }
+
+  @Test
+  @SneakyThrows
+  void getFormsByKeys() {
+    var form = (JSONObject) JSONValue.parse("{\"name\":\"test-form\"}");
+    when(formSchemaProviderService.getFormsByKeys(List.of("test-form", "missing"))).thenReturn(
+        List.of(FormSchemaContent.builder().key("test-form").contentHash("hash").form(form)
+            .build()));
+
+    mockMvc.perform(get(BASE_URL).param("keys", "test-form,missing"))
+        .andExpectAll(
+            status().isOk(),
+            jsonPath("$.length()").value(1),
+            jsonPath("$[0].key").value("test-form"),
+            jsonPath("$[0].contentHash").value("hash"),
+            jsonPath("$[0].form.name").value("test-form"));
+  }
+
+  @Test
+  @SneakyThrows
+  void getFormComponent() {
+    var component = (JSONObject) JSONValue.parse("{\"key\":\"submit\",\"type\":\"button\"}");
+    when(formSchemaProviderService.getFormComponentByKey("test-form", "submit"))
+        .thenReturn(component);
+
+    mockMvc.perform(get(BASE_URL + "/{key}/components/{componentKey}", "test-form", "submit"))
+        .andExpectAll(
+            status().isOk(),
+            content().contentType(MediaType.APPLICATION_JSON),
+            content().json(component.toJSONString()));
+  }
+
   @Test
   @SneakyThrows
   void updateForm() {
@@ -96,5 +199,57 @@ class FormSchemaProviderControllerTest {
     mockMvc.perform(delete(BASE_URL + "/{key}", "test-key"))
         .andExpectAll(
             status().isNoContent());
+
+    verify(formSchemaProviderService).deleteFormByKey("test-key", false);
+  }
+
+  @Test
+  @SneakyThrows
+  void forceDeleteFormByKey() {
+    mockMvc.perform(delete(BASE_URL + "/{key}", "address").param("force", "true"))
+        .andExpectAll(
+            status().isNoContent());
+
+    verify(formSchemaProviderService).deleteFormByKey("address", true);
+  }
+
+  @Test
+  @SneakyThrows
+  void getFormDependents() {
+    when(formSchemaProviderService.getFormDependents("address", true))
+        .thenReturn(List.of("application", "profile"));
+
+    mockMvc.perform(get(BASE_URL + "/{key}/dependents", "address").param("transitive", "true"))
+        .andExpectAll(
+            status().isOk(),
+            content().json("[\"application\",\"profile\"]"));
+  }
+
+  @Test
+  @SneakyThrows
+  void getFormVersions() {
+    when(formSchemaVersionService.getVersions("test-form")).thenReturn(List.of(
+        FormSchemaVersion.builder().version(2).current(true).build(),
+        FormSchemaVersion.builder().version(1).build()));
+
+    mockMvc.perform(get(BASE_URL + "/{key}/versions", "test-form"))
+        .andExpectAll(
+            status().isOk(),
+            jsonPath("$[0].version").value(2),
+            jsonPath("$[0].current").value(true),
+            jsonPath("$[1].version").value(1));
+  }
+
+  @Test
+  @SneakyThrows
+  void getFormVersion() {
+    var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json"));
+    when(formSchemaVersionService.getVersion("test-form", 1)).thenReturn(form);
+
+    mockMvc.perform(get(BASE_URL + "/{key}/versions/{version}", "test-form", 1))
+        .andExpectAll(
+            status().isOk(),
+            content().contentType(MediaType.APPLICATION_JSON),
+            content().json(form.toJSONString()));
   }
-}
\ No newline at end of file
+}
@@ -20,14 +20,21 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.epam.digital.data.platform.form.provider.controller.FormSchemaProviderController;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.service.FormBundleService;
+import com.epam.digital.data.platform.form.provider.service.FormSchemaVersionService;
 import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import java.util.List;
 import lombok.SneakyThrows;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
@@ -57,11 +64,22 @@ class ApplicationExceptionHandlerTest {
   @MockBean
   FormSchemaProviderServiceImpl formSchemaProviderService;
 
+  @MockBean
+  FormSchemaVersionService formSchemaVersionService;
+
+
+  @MockBean
+  FormBundleService formBundleService;
+
+  @MockBean
+  ValidationFailureReporter validationFailureReporter;
+
   @Test
   @SneakyThrows
   void shouldReturnRuntimeErrorOnGenericException() {
     var form = TestUtils.getContent("valid-form.json");
-    doThrow(RuntimeException.class).when(formSchemaProviderService).saveForm(form);
+    doThrow(RuntimeException.class).when(formSchemaProviderService)
+        .saveForm(form, ValidationMode.COMPLETE);
 
     mockMvc.perform(post(BASE_URL)
             .content(form)
@@ -76,7 +94,7 @@ class ApplicationExceptionHandlerTest {
   @Test
   @SneakyThrows
   void shouldReturnNoFormDataException() {
-    when(formSchemaProviderService.getFormByKey(any())).thenThrow(new FormSchemaDataException("ERROR"));
+    when(formSchemaProviderService.getFormContentByKey(any())).thenThrow(new FormSchemaDataException("ERROR"));
 
     mockMvc.perform(get(BASE_URL + "/{key}", "test-key"))
         .andExpect(status().isNotFound())
@@ -90,7 +108,7 @@ class ApplicationExceptionHandlerTest {
   @Test
   @SneakyThrows
   void shouldReturnAccessDeniedException() {
-    when(formSchemaProviderService.getFormByKey(any())).thenThrow(AccessDeniedException.class);
+    when(formSchemaProviderService.getFormContentByKey(any())).thenThrow(AccessDeniedException.class);
 
     mockMvc.perform(get(BASE_URL + "/key", "test-key"))
         .andExpectAll(
@@ -102,7 +120,7 @@ class ApplicationExceptionHandlerTest {
   @Test
   @SneakyThrows
   void shouldReturnFormDataRepositoryCommunicationException() {
-    when(formSchemaProviderService.getFormByKey(any())).thenThrow(
+    when(formSchemaProviderService.getFormContentByKey(any())).thenThrow(
         FormDataRepositoryCommunicationException.class);
 
     mockMvc.perform(get(BASE_URL + "/key", "test-key"))
@@ -111,11 +129,67 @@ class ApplicationExceptionHandlerTest {
             jsonPath("$.code").value(is("RUNTIME_ERROR")));
   }
 
+  @Test
+  @SneakyThrows
+  void shouldReturnConflictOnFormSchemaReferencedException() {
+    doThrow(new FormSchemaReferencedException("referenced", List.of("application")))
+        .when(formSchemaProviderService).deleteFormByKey("address", false);
+
+    mockMvc.perform(delete(BASE_URL + "/{key}", "address"))
+        .andExpectAll(
+            status().isConflict(),
+            jsonPath("$.code").value(is("FORM_SCHEMA_REFERENCED")),
+            jsonPath("$.details").value(is("referenced")));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldReturnBadRequestOnInvalidFormKeyException() {
+    when(formSchemaProviderService.getFormContentByKey("registry-b:key"))
+        .thenThrow(new InvalidFormKeyException("reserved"));
+
+    mockMvc.perform(get(BASE_URL + "/{key}", "registry-b:key"))
+        .andExpectAll(
+            status().isBadRequest(),
+            jsonPath("$.code").value(is("INVALID_FORM_KEY")),
+            jsonPath("$.details").value(is("reserved")));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldReturnServiceUnavailableWhileDependencyIndexIsBuilt() {
+    doThrow(new FormDependencyIndexUnavailableException("being built", 42))
+        .when(formSchemaProviderService).deleteFormByKey("address", false);
+
+    mockMvc.perform(delete(BASE_URL + "/{key}", "address"))
+        .andExpectAll(
+            status().isServiceUnavailable(),
+            header().string("Retry-After", "42"),
+            jsonPath("$.code").value(is("FORM_DEPENDENCY_INDEX_UNAVAILABLE")));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldReturnTooManyRequestsOnValidationCapacityExceededException() {
+    doThrow(new ValidationCapacityExceededException("capacity exceeded", 5))
+        .when(formSchemaProviderService).saveForm(any(), any());
+
+    mockMvc.perform(post(BASE_URL)
+            .content(TestUtils.getContent("valid-form.json"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpectAll(
+            status().isTooManyRequests(),
+            header().string("Retry-After", "5"),
+            jsonPath("$.code").value(is("VALIDATION_CAPACITY_EXCEEDED")));
+  }
+
   @Test
   @SneakyThrows
   void shouldReturnFormSchemaValidationException() {
     var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json"));
-    doThrow(FormSchemaValidationException.class).when(formSchemaProviderService).saveForm(any());
+    doThrow(FormSchemaValidationException.class).when(formSchemaProviderService)
+        .saveForm(any(), any());
 
     mockMvc.perform(post(BASE_URL)
             .content(form.toJSONString())
@@ -124,5 +198,6 @@ class ApplicationExceptionHandlerTest {
         .andExpectAll(
             status().isUnprocessableEntity(),
             jsonPath("$.code").value(is("FORM_VALIDATION_EXCEPTION")));
+    verify(validationFailureReporter).report(any(FormSchemaValidationException.class));
   }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.util.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ValidationFailureReporterTest {
+
+  @Mock
+  Clock clock;
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void shouldSuppressReportsAboveRateLimit() {
+    when(clock.millis()).thenReturn(0L, 0L, 0L, 0L, 1_000L);
+    var reporter = new ValidationFailureReporter(5, 1.0, new RateLimiter(1, clock),
+        meterRegistry);
+
+    reporter.report(validationException(3));
+    reporter.report(validationException(3));
+    reporter.report(validationException(3));
+    reporter.report(validationException(3));
+
+    assertThat(failedCount()).isEqualTo(4);
+    assertThat(suppressedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldSuppressReportsLeftOutBySampling() {
+    var reporter = new ValidationFailureReporter(5, 0.0, new RateLimiter(100, Clock.systemUTC()),
+        meterRegistry);
+
+    for (var i = 0; i < 10; i++) {
+      reporter.report(validationException(1_000));
+    }
+
+    assertThat(failedCount()).isEqualTo(10);
+    assertThat(suppressedCount()).isEqualTo(10);
+  }
+
+  @Test
+  void shouldReportExceptionWithoutValidationErrors() {
+    var reporter = new ValidationFailureReporter(5, 1.0, new RateLimiter(100, Clock.systemUTC()),
+        meterRegistry);
+
+    reporter.report(new FormSchemaValidationException("schema is not valid",
+        new IllegalStateException()));
+
+    assertThat(failedCount()).isEqualTo(1);
+    assertThat(suppressedCount()).isZero();
+  }
+
+  private double failedCount() {
+    return meterRegistry.counter("form.schema.validation.failed").count();
+  }
+
+  private double suppressedCount() {
+    return meterRegistry.counter("form.schema.validation.failed.suppressed").count();
+  }
+
+  private static FormSchemaValidationException validationException(int errorCount) {
+    Map<String, ValidationError> validationErrors = new LinkedHashMap<>();
+    for (var i = 0; i < errorCount; i++) {
+      var path = "components[" + i + "].key";
+      validationErrors.put(path, ValidationError.builder()
+          .path(path)
+          .massage("is missing")
+          .messages(List.of("is missing"))
+          .build());
+    }
+    return new FormSchemaValidationException("Form Schema is not valid.", validationErrors);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.exception.ValidationCapacityExceededException;
+import com.epam.digital.data.platform.form.provider.service.impl.BulkheadFormSchemaValidationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaValidationServiceImpl;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.sleuth.Tracer;
+
+@ExtendWith(MockitoExtension.class)
+class BulkheadFormSchemaValidationServiceTest {
+
+  @Mock
+  FormSchemaValidationServiceImpl delegate;
+
+  @Mock
+  Tracer tracer;
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  ThreadPoolExecutor validationExecutor;
+  BulkheadFormSchemaValidationService validationService;
+
+  @BeforeEach
+  void init() {
+    validationExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    validationService = new BulkheadFormSchemaValidationService(delegate, validationExecutor, 5,
+        new StageTracer(tracer), meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    validationExecutor.shutdownNow();
+  }
+
+  @Test
+  void shouldReturnDelegateResult() {
+    var errors = Map.of("name", ValidationError.builder().path("name").massage("error").build());
+    when(delegate.validate("form", ValidationMode.COMPLETE)).thenReturn(errors);
+
+    assertThat(validationService.validate("form", ValidationMode.COMPLETE)).isEqualTo(errors);
+  }
+
+  @Test
+  void shouldRethrowDelegateException() {
+    when(delegate.validate("form", ValidationMode.COMPLETE))
+        .thenThrow(new FormSchemaValidationException("invalid", Map.of()));
+
+    var exception = assertThrows(FormSchemaValidationException.class,
+        () -> validationService.validate("form", ValidationMode.COMPLETE));
+
+    assertThat(exception.getMessage()).isEqualTo("invalid");
+  }
+
+  @Test
+  void shouldRejectWhenExecutorIsSaturated() throws Exception {
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    when(delegate.validate("slow", ValidationMode.COMPLETE)).thenAnswer(invocation -> {
+      started.countDown();
+      release.await();
+      return Map.of();
+    });
+
+    var running = CompletableFuture.runAsync(
+        () -> validationService.validate("slow", ValidationMode.COMPLETE));
+    started.await(5, TimeUnit.SECONDS);
+    var queued = CompletableFuture.runAsync(
+        () -> validationService.validate("slow", ValidationMode.COMPLETE));
+    while (validationExecutor.getQueue().isEmpty()) {
+      Thread.sleep(1);
+    }
+
+    var exception = assertThrows(ValidationCapacityExceededException.class,
+        () -> validationService.validate("rejected", ValidationMode.COMPLETE));
+
+    assertThat(exception.getRetryAfterSeconds()).isEqualTo(5);
+    assertThat(meterRegistry.counter("form.schema.validation.rejected").count()).isEqualTo(1);
+    release.countDown();
+    CompletableFuture.allOf(running, queued).get(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaNotFoundException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.service.impl.FormBundleServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FormBundleServiceTest {
+
+  @Mock
+  FormSchemaProviderService formSchemaProviderService;
+
+  @Mock
+  FormChangeFeedService formChangeFeedService;
+
+  Map<String, JSONObject> forms = new HashMap<>();
+  Instant now = Instant.parse("2022-01-01T00:00:00Z");
+  BiConsumer<String, String> changeListener;
+  FormBundleServiceImpl formBundleService;
+
+  @BeforeEach
+  void init() {
+    formBundleService = new FormBundleServiceImpl(formSchemaProviderService,
+        formChangeFeedService, new ObjectMapper(), 4, 10, Duration.ofMinutes(10),
+        new SimpleMeterRegistry()) {
+      @Override
+      protected Instant now() {
+        return now;
+      }
+    };
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<BiConsumer<String, String>> listenerCaptor =
+        ArgumentCaptor.forClass(BiConsumer.class);
+    verify(formChangeFeedService).addListener(listenerCaptor.capture());
+    changeListener = listenerCaptor.getValue();
+
+    when(formSchemaProviderService.getFormContentByKey(any())).thenAnswer(
+        invocation -> content(invocation.getArgument(0)));
+    lenient().when(formSchemaProviderService.getFormsByKeys(any())).thenAnswer(
+        invocation -> invocation.<Collection<String>>getArgument(0).stream()
+            .filter(forms::containsKey)
+            .map(this::content)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void shouldInlineNestedFormsAndResolveSharedFormOnce() {
+    form("root", "{'name':'root','components':[{'type':'form','form':'Address','key':'home'},"
+        + "{'type':'panel','components':[{'type':'form','form':'person','key':'owner',"
+        + "'components':[{'key':'stale'}]}]}]}");
+    form("address", "{'name':'address','components':[{'type':'textfield','key':'street'},"
+        + "{'type':'form','form':'country','key':'country'}]}");
+    form("person", "{'name':'person','components':[{'type':'form','form':'country',"
+        + "'key':'citizenship'}]}");
+    form("country", "{'name':'country','components':[{'type':'textfield','key':'code'}]}");
+
+    var bundle = formBundleService.getBundle("Root");
+
+    assertThat(bundle.getKey()).isEqualTo("root");
+    assertThat(bundle.getForms()).containsExactly("root", "address", "person", "country");
+    assertThat(bundle.getContentHash()).isNotBlank();
+    var components = (JSONArray) bundle.getForm().get("components");
+    var home = (JSONObject) components.get(0);
+    assertThat(home.getAsString("key")).isEqualTo("home");
+    var homeComponents = (JSONArray) home.get("components");
+    assertThat(((JSONObject) homeComponents.get(0)).getAsString("key")).isEqualTo("street");
+    assertThat(((JSONObject) homeComponents.get(1)).get("components").toString())
+        .isEqualTo("[{\"type\":\"textfield\",\"key\":\"code\"}]");
+    var owner = (JSONObject) ((JSONArray) ((JSONObject) components.get(1)).get("components"))
+        .get(0);
+    var citizenship = (JSONObject) ((JSONArray) owner.get("components")).get(0);
+    assertThat(citizenship.get("components").toString())
+        .isEqualTo("[{\"type\":\"textfield\",\"key\":\"code\"}]");
+    assertThat(owner.get("components").toString()).doesNotContain("stale");
+    verify(formSchemaProviderService, times(2)).getFormsByKeys(any());
+  }
+
+  @Test
+  void shouldRejectReferenceCycle() {
+    form("a", "{'name':'a','components':[{'type':'form','form':'b'}]}");
+    form("b", "{'name':'b','components':[{'type':'form','form':'a'}]}");
+
+    var exception = assertThrows(FormSchemaValidationException.class,
+        () -> formBundleService.getBundle("a"));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The forms reference each other in a cycle: a -> b -> a");
+  }
+
+  @Test
+  void shouldRejectMissingReferencedForm() {
+    form("a", "{'name':'a','components':[{'type':'form','form':'missing'}]}");
+
+    var exception = assertThrows(FormSchemaNotFoundException.class,
+        () -> formBundleService.getBundle("a"));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The UI form scheme 'missing' referenced by the form 'a' is missing.");
+  }
+
+  @Test
+  void shouldRejectTooManyReferencedForms() {
+    form("a", "{'name':'a','components':[{'type':'form','form':'b'},{'type':'form','form':'c'},"
+        + "{'type':'form','form':'d'},{'type':'form','form':'e'}]}");
+
+    var exception = assertThrows(FormSchemaValidationException.class,
+        () -> formBundleService.getBundle("a"));
+
+    assertThat(exception.getMessage()).isEqualTo("The form 'a' references more than 3 forms.");
+  }
+
+  @Test
+  void shouldCacheBundleUntilOneOfItsFormsChanges() {
+    form("a", "{'name':'a','components':[{'type':'form','form':'b'}]}");
+    form("b", "{'name':'b','components':[{'key':'field'}]}");
+
+    var bundle = formBundleService.getBundle("a");
+    assertThat(formBundleService.getBundle("a")).isSameAs(bundle);
+    verify(formSchemaProviderService, times(1)).getFormContentByKey("a");
+
+    changeListener.accept("other-registry", "b");
+    assertThat(formBundleService.getBundle("a")).isSameAs(bundle);
+
+    form("b", "{'name':'b','components':[{'key':'changed'}]}");
+    changeListener.accept("", "b");
+    var changed = formBundleService.getBundle("a");
+
+    assertThat(changed.getContentHash()).isNotEqualTo(bundle.getContentHash());
+    assertThat(changed.getForm().toString()).contains("changed");
+  }
+
+  @Test
+  void shouldResolveBundleAgainAfterCacheTtl() {
+    form("a", "{'name':'a','components':[{'key':'field'}]}");
+
+    var bundle = formBundleService.getBundle("a");
+    now = now.plus(Duration.ofMinutes(11));
+
+    assertThat(formBundleService.getBundle("a")).isNotSameAs(bundle);
+    verify(formSchemaProviderService, times(2)).getFormContentByKey("a");
+  }
+
+  @Test
+  void shouldNotCacheBundleOfFormsReadFromSnapshot() {
+    form("a", "{'name':'a','components':[{'type':'form','form':'b'}]}");
+    form("b", "{'name':'b','components':[{'key':'field'}]}");
+    var snapshotCreatedAt = now.minus(Duration.ofMinutes(1));
+    doReturn(List.of(FormSchemaContent.builder().key("b").form(forms.get("b"))
+        .snapshotCreatedAt(snapshotCreatedAt).build()))
+        .when(formSchemaProviderService).getFormsByKeys(any());
+
+    var bundle = formBundleService.getBundle("a");
+
+    assertThat(bundle.getSnapshotCreatedAt()).isEqualTo(snapshotCreatedAt);
+    assertThat(formBundleService.getBundle("a")).isNotSameAs(bundle);
+    verify(formSchemaProviderService, times(2)).getFormContentByKey("a");
+  }
+
+  private void form(String key, String json) {
+    forms.put(key, (JSONObject) JSONValue.parse(json.replace('\'', '"')));
+  }
+
+  private FormSchemaContent content(String key) {
+    return FormSchemaContent.builder().key(key).contentHash(key).form(forms.get(key)).build();
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.config.FormChangeFeedConfig;
+import com.epam.digital.data.platform.form.provider.dto.FormChangeEvent;
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import com.epam.digital.data.platform.form.provider.service.impl.FormChangeFeedServiceImpl;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisZSetCommands.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import util.RedisStandIn;
+
+@ExtendWith(MockitoExtension.class)
+class FormChangeFeedServiceTest {
+
+  private static final String STREAM = "bpm-form-schema-changes";
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+
+  @Mock
+  StreamOperations<String, String, String> streamOperations;
+
+  List<RecordingEmitter> emitters = new ArrayList<>();
+  FormChangeFeedServiceImpl formChangeFeedService;
+
+  @BeforeEach
+  void init() {
+    formChangeFeedService = new FormChangeFeedServiceImpl(redisTemplate, STREAM, 1000,
+        Duration.ofMinutes(1), 100, Runnable::run) {
+      @Override
+      protected SseEmitter newEmitter(Duration timeout) {
+        var emitter = new RecordingEmitter();
+        emitters.add(emitter);
+        return emitter;
+      }
+    };
+  }
+
+  @Test
+  void shouldSendChangesOfSubscribedTenantOnly() {
+    TenantContext.callAs("registry-a", () -> formChangeFeedService.subscribe(null));
+    TenantContext.callAs("registry-b", () -> formChangeFeedService.subscribe(null));
+
+    formChangeFeedService.onMessage(record("1-0", "registry-a", FormChangeType.CREATED, "form"));
+
+    assertThat(emitters.get(0).ids).containsExactly("1-0");
+    assertThat(emitters.get(0).events).containsExactly(FormChangeEvent.builder()
+        .type(FormChangeType.CREATED).key("form").contentHash("hash").build());
+    assertThat(emitters.get(1).ids).isEmpty();
+  }
+
+  @Test
+  void shouldReplayChangesAfterLastEventId() {
+    when(redisTemplate.<String, String>opsForStream()).thenReturn(streamOperations);
+    when(streamOperations.range(eq(STREAM), eq(Range.unbounded()), any(Limit.class)))
+        .thenReturn(List.of(record("1-0", "", FormChangeType.CREATED, "first")));
+    when(streamOperations.range(eq(STREAM),
+        eq(Range.rightUnbounded(Range.Bound.inclusive("2-0"))), any(Limit.class)))
+        .thenReturn(List.of(record("2-0", "", FormChangeType.CREATED, "second"),
+            record("3-0", "registry-a", FormChangeType.CREATED, "other"),
+            record("4-0", "", FormChangeType.UPDATED, "second")));
+    when(streamOperations.range(eq(STREAM),
+        eq(Range.rightUnbounded(Range.Bound.inclusive("4-0"))), any(Limit.class)))
+        .thenReturn(List.of(record("4-0", "", FormChangeType.UPDATED, "second")));
+
+    formChangeFeedService.subscribe("2-0");
+    formChangeFeedService.onMessage(record("4-0", "", FormChangeType.UPDATED, "second"));
+    formChangeFeedService.onMessage(record("5-0", "", FormChangeType.DELETED, "second"));
+
+    assertThat(emitters.get(0).ids).containsExactly("4-0", "5-0");
+  }
+
+  @Test
+  void shouldResetWhenMissedChangesAreNotRetained() {
+    when(redisTemplate.<String, String>opsForStream()).thenReturn(streamOperations);
+    when(streamOperations.range(eq(STREAM), eq(Range.unbounded()), any(Limit.class)))
+        .thenReturn(List.of(record("5-0", "", FormChangeType.CREATED, "form")));
+    when(streamOperations.reverseRange(eq(STREAM), eq(Range.unbounded()), any(Limit.class)))
+        .thenReturn(List.of(record("7-0", "", FormChangeType.CREATED, "form")));
+
+    formChangeFeedService.subscribe("2-0");
+
+    assertThat(emitters.get(0).ids).containsExactly("7-0");
+    assertThat(emitters.get(0).events).extracting(FormChangeEvent::getType)
+        .containsExactly(FormChangeType.RESET);
+  }
+
+  @Test
+  void shouldNotFailWriteWhenChangeCannotBePublished() {
+    when(redisTemplate.execute(any(RedisCallback.class)))
+        .thenThrow(new IllegalStateException("Redis is down"));
+
+    formChangeFeedService.publish(FormChangeType.DELETED, "form", null);
+  }
+
+  @Test
+  void shouldNotifyListenersOfLocalAndStreamedChanges() {
+    var changes = new ArrayList<String>();
+    formChangeFeedService.addListener((tenant, key) -> changes.add(tenant + "/" + key));
+
+    TenantContext.callAs("registry-a", () -> {
+      formChangeFeedService.publish(FormChangeType.UPDATED, "local", "hash");
+      return null;
+    });
+    formChangeFeedService.onMessage(record("1-0", "registry-b", FormChangeType.DELETED, "remote"));
+
+    assertThat(changes).containsExactly("registry-a/local", "registry-b/remote");
+  }
+
+  private static MapRecord<String, String, String> record(String id, String tenant,
+      FormChangeType type, String key) {
+    var fields = new HashMap<String, String>();
+    fields.put("type", type.name());
+    fields.put("key", key);
+    fields.put("tenant", tenant);
+    if (type != FormChangeType.DELETED) {
+      fields.put("contentHash", "hash");
+    }
+    return StreamRecords.<String, String, String>mapBacked(fields).withStreamKey(STREAM)
+        .withId(RecordId.of(id));
+  }
+
+  @Test
+  void shouldStopSendingToSinkAfterUnsubscribeOrFailure() throws IOException {
+    var sink = mock(FormChangeSink.class);
+    var failingSink = mock(FormChangeSink.class);
+    var failure = new IOException("closed");
+    doThrow(failure).when(failingSink).send(any(), any());
+    var unsubscribe = formChangeFeedService.subscribe(null, sink);
+    formChangeFeedService.subscribe(null, failingSink);
+
+    formChangeFeedService.onMessage(record("1-0", "", FormChangeType.CREATED, "form"));
+    unsubscribe.run();
+    formChangeFeedService.onMessage(record("2-0", "", FormChangeType.DELETED, "form"));
+
+    verify(sink).send("1-0", FormChangeEvent.builder()
+        .type(FormChangeType.CREATED).key("form").contentHash("hash").build());
+    verify(sink, never()).send(eq("2-0"), any());
+    verify(failingSink).send(eq("1-0"), any());
+    verify(failingSink).fail(failure);
+    verify(failingSink, never()).send(eq("2-0"), any());
+  }
+
+  @Test
+  void shouldDropSubscriberFallingBehindWithoutHoldingUpOthers() throws IOException {
+    var deliveries = new ArrayList<Runnable>();
+    var service = new FormChangeFeedServiceImpl(redisTemplate, STREAM, 1000,
+        Duration.ofMinutes(1), 2, deliveries::add);
+    var slowSink = mock(FormChangeSink.class);
+    service.subscribe(null, slowSink);
+    var sink = mock(FormChangeSink.class);
+    service.subscribe(null, sink);
+
+    service.onMessage(record("1-0", "", FormChangeType.CREATED, "form"));
+    service.onMessage(record("2-0", "", FormChangeType.UPDATED, "form"));
+    // the delivery of the first subscriber has not run, the one of the second runs meanwhile
+    deliveries.remove(1).run();
+    service.onMessage(record("3-0", "", FormChangeType.DELETED, "form"));
+    deliveries.forEach(Runnable::run);
+
+    verify(sink).send(eq("1-0"), any());
+    verify(sink).send(eq("2-0"), any());
+    verify(sink).send(eq("3-0"), any());
+    verify(slowSink, never()).send(any(), any());
+    verify(slowSink).fail(any(IllegalStateException.class));
+  }
+
+  @Test
+  void shouldSendChangesReadByListenerContainer() throws Exception {
+    try (var redis = new RedisStandIn().start(); var repositories = redis.repositories()) {
+      var service = new FormChangeFeedServiceImpl(repositories.getStringRedisTemplate(), STREAM,
+          1000, Duration.ofMinutes(1), 100, Runnable::run);
+      var sink = new QueueSink();
+      service.subscribe(null, sink);
+      var container = new FormChangeFeedConfig().formChangeFeedListenerContainer(
+          repositories.getConnectionFactory(), service, STREAM, Duration.ofMillis(100));
+      try {
+        // the container reads the changes appended after its first read, so publish until one
+        // arrives
+        FormChangeEvent event = null;
+        for (var attempt = 0; event == null && attempt < 50; attempt++) {
+          service.publish(FormChangeType.CREATED, "form", "hash");
+          event = sink.events.poll(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(container.isRunning()).isTrue();
+        assertThat(event).isEqualTo(FormChangeEvent.builder()
+            .type(FormChangeType.CREATED).key("form").contentHash("hash").build());
+      } finally {
+        container.stop();
+      }
+    }
+  }
+
+  static class QueueSink implements FormChangeSink {
+
+    final BlockingQueue<FormChangeEvent> events = new LinkedBlockingQueue<>();
+
+    @Override
+    public void send(String eventId, FormChangeEvent event) {
+      events.add(event);
+    }
+
+    @Override
+    public void heartbeat() {
+    }
+
+    @Override
+    public void fail(Exception e) {
+    }
+  }
+
+  static class RecordingEmitter extends SseEmitter {
+
+    final List<String> ids = new ArrayList<>();
+    final List<FormChangeEvent> events = new ArrayList<>();
+
+    @Override
+    public void send(SseEventBuilder builder) {
+      for (var data : builder.build()) {
+        if (data.getData() instanceof FormChangeEvent) {
+          events.add((FormChangeEvent) data.getData());
+        } else if (data.getData().toString().startsWith("id:")) {
+          ids.add(data.getData().toString().lines().findFirst().orElseThrow().substring(3));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class FormComponentIndexerTest {
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  FormComponentIndexer formComponentIndexer = new FormComponentIndexer(objectMapper);
+
+  @Test
+  void shouldIndexNestedComponentsWithByteRanges() throws Exception {
+    var formData = "{\"name\":\"форма\",\"components\":[{\"key\":\"columns\",\"type\":\"columns\","
+        + "\"columns\":[{\"components\":[{\"key\":\"назва\",\"type\":\"textfield\"}]}]},"
+        + "{\"key\":\"select\",\"data\":{\"values\":[{\"key\":\"v\",\"label\":\"V\"}]}}]}";
+
+    var componentIndex = formComponentIndexer.index(formData);
+
+    assertThat(componentIndex).containsOnlyKeys("columns", "назва", "select");
+    assertThat(componentIndex.get("назва").getPath())
+        .isEqualTo("$.components[0].columns[0].components[0]");
+    assertThat(componentIndex.get("select").getPath()).isEqualTo("$.components[1]");
+
+    var bytes = formData.getBytes(StandardCharsets.UTF_8);
+    var location = componentIndex.get("назва");
+    var component = new String(bytes, location.getStart(),
+        location.getEnd() - location.getStart(), StandardCharsets.UTF_8);
+    assertThat(objectMapper.readTree(component))
+        .isEqualTo(objectMapper.readTree("{\"key\":\"назва\",\"type\":\"textfield\"}"));
+  }
+
+  @Test
+  void shouldReturnEmptyIndexWhenNoComponents() {
+    assertThat(formComponentIndexer.index("{\"name\":\"test\"}")).isEmpty();
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.FormDeletionRequest;
+import com.epam.digital.data.platform.form.provider.entity.FormDeletionJob;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.exception.InvalidFormKeyException;
+import com.epam.digital.data.platform.form.provider.repository.FormDeletionJobRepository;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDeletionJobServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaValidationServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.impl.InMemoryFormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+@ExtendWith(MockitoExtension.class)
+class FormDeletionJobServiceTest {
+
+  @Mock
+  FormDeletionJobRepository jobRepository;
+  @Mock
+  FormDependencyIndex formDependencyIndex;
+  @Mock
+  FormKeyIndex formKeyIndex;
+  @Mock
+  TenantQuotaService tenantQuotaService;
+  @Mock
+  FormSchemaVersionService formSchemaVersionService;
+  @Mock
+  StringRedisTemplate redisTemplate;
+  @Mock
+  ValueOperations<String, String> valueOperations;
+  @Mock
+  SetOperations<String, String> setOperations;
+  @Mock
+  ZSetOperations<String, String> zSetOperations;
+
+  InMemoryFormStorage formStorage = new InMemoryFormStorage();
+  ObjectMapper objectMapper = new ObjectMapper();
+  ExecutorService deploymentJobExecutor;
+  FormDeletionJobService formDeletionJobService;
+
+  @BeforeEach
+  void init() {
+    lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    lenient().when(valueOperations.setIfAbsent(anyString(), eq("true"))).thenReturn(false);
+    lenient().when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(),
+        anyString())).thenReturn(1L);
+    deploymentJobExecutor = Executors.newSingleThreadExecutor();
+    var formSchemaProviderService = new FormSchemaProviderServiceImpl(
+        mock(FormSchemaValidationServiceImpl.class), formStorage, objectMapper,
+        new FormComponentIndexer(objectMapper), formSchemaVersionService,
+        new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC()), formKeyIndex,
+        new StageTracer(mock(Tracer.class)), tenantQuotaService,
+        mock(FormChangeFeedService.class), formDependencyIndex,
+        mock(FormFootprintService.class), mock(FormSnapshotStore.class),
+        mock(FormGenerationService.class), new SimpleMeterRegistry());
+    formDeletionJobService = new FormDeletionJobServiceImpl(jobRepository,
+        formSchemaProviderService, formDependencyIndex, formStorage, redisTemplate,
+        deploymentJobExecutor, 2, Duration.ofMinutes(1), Duration.ofHours(1));
+    List.of("orders-a", "orders-b", "orders-c", "ordersx", "users").forEach(key ->
+        formStorage.save(FormSchema.builder().id(TenantContext.storageId(key)).formData("{}")
+            .build()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    deploymentJobExecutor.shutdownNow();
+  }
+
+  @Test
+  void shouldDeleteFormsByPrefixInBatches() throws Exception {
+    var jobCaptor = leaseAndCaptureJobs();
+
+    var job = formDeletionJobService.submitJob(
+        FormDeletionRequest.builder().prefix("Orders-").build());
+    awaitJobs();
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    assertThat(job.getProcessedCount()).isEqualTo(3);
+    assertThat(job.getDeletedCount()).isEqualTo(3);
+    assertThat(formStorage.findAllIds()).containsExactlyInAnyOrder("ordersx", "users");
+    assertThat(jobCaptor.getAllValues()).hasSizeGreaterThan(2);
+    verify(formSchemaVersionService).deleteHistory("orders-b");
+    verify(tenantQuotaService, times(2)).resetUsage();
+  }
+
+  @Test
+  void shouldKeepFormsReferencedByFormsOutsideOfTheJob() throws Exception {
+    leaseAndCaptureJobs();
+    when(formDependencyIndex.getDependents(anyList())).thenAnswer(i -> Map.of(
+        "orders-a", Set.of("orders-b"),
+        "orders-c", Set.of("users")));
+
+    var job = formDeletionJobService.submitJob(FormDeletionRequest.builder()
+        .keys(List.of("orders-a", "orders-b", "orders-c", "missing")).build());
+    awaitJobs();
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    assertThat(job.getRequestedCount()).isEqualTo(4);
+    assertThat(job.getProcessedCount()).isEqualTo(4);
+    assertThat(job.getDeletedCount()).isEqualTo(2);
+    assertThat(job.getReferencedForms()).containsExactly("orders-c");
+    assertThat(formStorage.findAllIds()).containsExactlyInAnyOrder("orders-c", "ordersx",
+        "users");
+  }
+
+  @Test
+  void shouldDeleteReferencedFormsWhenForced() throws Exception {
+    leaseAndCaptureJobs();
+
+    var job = formDeletionJobService.submitJob(FormDeletionRequest.builder()
+        .keys(List.of("orders-c")).force(true).build());
+    awaitJobs();
+
+    assertThat(job.getDeletedCount()).isEqualTo(1);
+    assertThat(job.getReferencedForms()).isEmpty();
+    verify(formDependencyIndex, never()).getDependents(anyList());
+  }
+
+  @Test
+  void shouldResumeKeyJobAfterLastProcessedKey() throws Exception {
+    var job = FormDeletionJob.builder().id("job").status(JobStatus.IN_PROGRESS)
+        .keys(List.of("orders-a", "orders-b", "orders-c")).processedCount(2).force(true)
+        .build();
+    when(setOperations.members("bpm-form-deletion-jobs-active")).thenReturn(Set.of("job"));
+    when(jobRepository.findAllById(Set.of("job"))).thenReturn(List.of(job));
+    when(redisTemplate.hasKey("bpm-form-deletion-job-leases:job")).thenReturn(false);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(eq("bpm-form-deletion-job-leases:job"), anyString(),
+        any(Duration.class))).thenReturn(true);
+    when(jobRepository.findById("job")).thenReturn(Optional.of(job));
+
+    ((FormDeletionJobServiceImpl) formDeletionJobService).resumeJobs();
+    awaitJobs();
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    verify(setOperations).remove("bpm-form-deletion-jobs-active", "job");
+    assertThat(job.getProcessedCount()).isEqualTo(3);
+    assertThat(formStorage.findAllIds()).containsExactlyInAnyOrder("orders-a", "orders-b",
+        "ordersx", "users");
+  }
+
+  @Test
+  void shouldStopJobWhoseLeaseIsLost() throws Exception {
+    leaseAndCaptureJobs();
+    doReturn(0L).when(redisTemplate).execute(any(RedisScript.class), anyList(), anyString(),
+        anyString());
+
+    var job = formDeletionJobService.submitJob(FormDeletionRequest.builder()
+        .keys(List.of("orders-a", "orders-b")).force(true).build());
+    awaitJobs();
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.IN_PROGRESS);
+    assertThat(job.getProcessedCount()).isZero();
+    assertThat(formStorage.findAllIds()).hasSize(5);
+  }
+
+  @Test
+  void shouldRejectRequestWithBothKeysAndPrefix() {
+    var request = FormDeletionRequest.builder().keys(List.of("orders-a")).prefix("orders-")
+        .build();
+
+    var exception = assertThrows(FormSchemaValidationException.class,
+        () -> formDeletionJobService.submitJob(request));
+
+    assertThat(exception.getMessage()).isEqualTo(
+        "The deletion job must contain either form keys or a non-blank key prefix");
+    verify(jobRepository, never()).save(any());
+  }
+
+  @Test
+  void shouldRejectPrefixWithReservedCharacter() {
+    var request = FormDeletionRequest.builder().prefix("registry-b:").build();
+
+    assertThrows(InvalidFormKeyException.class, () -> formDeletionJobService.submitJob(request));
+
+    verify(jobRepository, never()).save(any());
+  }
+
+  private ArgumentCaptor<FormDeletionJob> leaseAndCaptureJobs() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(true);
+    var jobCaptor = ArgumentCaptor.forClass(FormDeletionJob.class);
+    when(jobRepository.save(jobCaptor.capture())).thenAnswer(i -> i.getArgument(0));
+    when(jobRepository.findById(anyString()))
+        .thenAnswer(i -> Optional.of(jobCaptor.getAllValues().get(0)));
+    return jobCaptor;
+  }
+
+  private void awaitJobs() throws InterruptedException {
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormDependencyIndexUnavailableException;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+@ExtendWith(MockitoExtension.class)
+class FormDependencyIndexTest {
+
+  private static final String STATE_KEY = "bpm-form-schema-dependency-index-state:{registry-a}";
+  private static final String LEASE_KEY = "bpm-form-schema-dependency-index-leases:{registry-a}";
+  private static final String TOUCHED_KEY =
+      "bpm-form-schema-dependency-index-touched:{registry-a}";
+  private static final List<String> INDEX_KEYS = List.of(STATE_KEY, LEASE_KEY, TOUCHED_KEY);
+  private static final Duration LEASE_DURATION = Duration.ofSeconds(60);
+  private static final String DEPENDENTS_KEY = "bpm-form-schema-dependents:registry-a:";
+  private static final String REFERENCES_KEY = "bpm-form-schema-references:registry-a:";
+  private static final String APPLICATION = "{\"name\":\"application\",\"components\":["
+      + "{\"type\":\"form\",\"form\":\"Address\"},{\"type\":\"panel\",\"components\":["
+      + "{\"type\":\"form\",\"form\":\"country\"}]}]}";
+  private static final String APPLICATION_WITHOUT_ADDRESS = "{\"name\":\"application\","
+      + "\"components\":[{\"type\":\"form\",\"form\":\"country\"}]}";
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+
+  @Mock
+  SetOperations<String, String> setOperations;
+
+  @Mock
+  ValueOperations<String, String> valueOperations;
+
+  @Mock
+  HashOperations<String, Object, Object> hashOperations;
+
+  @Mock
+  FormStorage formStorage;
+
+  FormDependencyIndex formDependencyIndex;
+
+  @BeforeEach
+  void init() {
+    formDependencyIndex = new FormDependencyIndex(redisTemplate, formStorage, LEASE_DURATION);
+  }
+
+  @Test
+  void shouldBuildIndexOfTenantUnderLeaseTakenBeforeReadingForms() {
+    mockBuild();
+    when(formStorage.findAllIds()).thenReturn(Set.of("registry-a:application", "other"));
+    when(formStorage.findAllById(List.of("registry-a:application"))).thenReturn(List.of(
+        FormSchema.builder().id("registry-a:application").formData(APPLICATION).build()));
+    when(setOperations.members(DEPENDENTS_KEY + "address")).thenReturn(Set.of("application"));
+
+    var dependents = TenantContext.callAs("registry-a",
+        () -> formDependencyIndex.getDependents("address", false));
+
+    assertThat(dependents).containsExactly("application");
+    var order = inOrder(valueOperations, formStorage, setOperations, redisTemplate);
+    order.verify(valueOperations).setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_DURATION));
+    order.verify(formStorage).findAllIds();
+    order.verify(setOperations).add(REFERENCES_KEY + "application", "address", "country");
+    order.verify(redisTemplate).execute(any(RedisScript.class), eq(INDEX_KEYS), anyString(),
+        eq("1"));
+    order.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LEASE_KEY)),
+        anyString());
+    verify(setOperations).add(DEPENDENTS_KEY + "address", "application");
+    verify(setOperations).add(DEPENDENTS_KEY + "country", "application");
+  }
+
+  @Test
+  void shouldFailFastWhileAnotherInstanceBuildsIndex() {
+    when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(redisTemplate.getExpire(LEASE_KEY)).thenReturn(17L);
+
+    var exception = assertThrows(FormDependencyIndexUnavailableException.class,
+        () -> TenantContext.callAs("registry-a",
+            () -> formDependencyIndex.getDependents(List.of("country", "person"))));
+
+    assertThat(exception.getRetryAfterSeconds()).isEqualTo(17);
+    verify(formStorage, never()).findAllIds();
+    verify(redisTemplate, never()).opsForSet();
+  }
+
+  @Test
+  void shouldReadFormsWrittenDuringBuildAgainBeforeMarkingItBuilt() {
+    mockBuild();
+    when(formStorage.findAllIds()).thenReturn(Set.of("registry-a:application"));
+    when(formStorage.findAllById(List.of("registry-a:application")))
+        .thenReturn(List.of(
+            FormSchema.builder().id("registry-a:application").formData(APPLICATION).build()))
+        .thenReturn(List.of(FormSchema.builder().id("registry-a:application")
+            .formData(APPLICATION_WITHOUT_ADDRESS).build()));
+    when(setOperations.pop(TOUCHED_KEY, 100)).thenReturn(List.of("application"))
+        .thenReturn(List.of());
+
+    TenantContext.callAs("registry-a", () -> formDependencyIndex.getDependents("country", false));
+
+    // the build stored the references it read, the touched form is unlinked from them
+    verify(setOperations).remove(DEPENDENTS_KEY + "address", "application");
+    verify(setOperations).add(REFERENCES_KEY + "application", "country");
+    verify(redisTemplate).execute(any(RedisScript.class), eq(INDEX_KEYS), anyString(), eq("1"));
+  }
+
+  @Test
+  void shouldUpdateIndexAndRecordTouchedFormWhileIndexIsBuilt() {
+    mockWritten(1L, "application");
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+    TenantContext.callAs("registry-a", () -> {
+      formDependencyIndex.updated("application", APPLICATION);
+      return null;
+    });
+
+    verify(setOperations).add(DEPENDENTS_KEY + "address", "application");
+    verify(setOperations).add(REFERENCES_KEY + "application", "address", "country");
+  }
+
+  @Test
+  void shouldLeaveIndexToNextReadWhenWrittenBeforeBuilt() {
+    mockWritten(0L, "application");
+
+    TenantContext.callAs("registry-a", () -> {
+      formDependencyIndex.updated("application", APPLICATION);
+      return null;
+    });
+
+    verify(formStorage, never()).findAllIds();
+    verify(redisTemplate, never()).opsForSet();
+  }
+
+  @Test
+  void shouldUpdateOnlyChangedReferences() {
+    mockWritten(1L, "application");
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    when(setOperations.members(REFERENCES_KEY + "application"))
+        .thenReturn(Set.of("address", "person"));
+
+    TenantContext.callAs("registry-a", () -> {
+      formDependencyIndex.updated("application", APPLICATION);
+      return null;
+    });
+
+    verify(setOperations).remove(DEPENDENTS_KEY + "person", "application");
+    verify(setOperations).add(DEPENDENTS_KEY + "country", "application");
+    verify(setOperations, never()).add(DEPENDENTS_KEY + "address", "application");
+    verify(redisTemplate).delete(REFERENCES_KEY + "application");
+    verify(setOperations).add(REFERENCES_KEY + "application", "address", "country");
+    verify(formStorage, never()).findAllIds();
+  }
+
+  @Test
+  void shouldRemoveReferencesOfDeletedForm() {
+    mockWritten(1L, "application");
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    when(setOperations.members(REFERENCES_KEY + "application")).thenReturn(Set.of("address"));
+
+    TenantContext.callAs("registry-a", () -> {
+      formDependencyIndex.removed("application");
+      return null;
+    });
+
+    verify(setOperations).remove(DEPENDENTS_KEY + "address", "application");
+    verify(redisTemplate).delete(REFERENCES_KEY + "application");
+    verify(setOperations, never()).add(anyString(), any());
+  }
+
+  @Test
+  void shouldFindDependentsTransitively() {
+    when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.hasKey(STATE_KEY, "built")).thenReturn(true);
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    when(setOperations.members(DEPENDENTS_KEY + "country")).thenReturn(Set.of("address"));
+    when(setOperations.members(DEPENDENTS_KEY + "address"))
+        .thenReturn(Set.of("profile", "application"));
+    when(setOperations.members(DEPENDENTS_KEY + "profile")).thenReturn(Set.of("application"));
+    when(setOperations.members(DEPENDENTS_KEY + "application")).thenReturn(Set.of());
+
+    var dependents = TenantContext.callAs("registry-a",
+        () -> formDependencyIndex.getDependents("country", true));
+
+    assertThat(dependents).containsExactly("address", "application", "profile");
+    verify(formStorage, never()).findAllIds();
+  }
+
+  @Test
+  void shouldRebuildOnlyIndexOfCurrentTenant() {
+    mockBuild();
+    when(formStorage.findAllIds()).thenReturn(Set.of("registry-b:application"));
+
+    TenantContext.callAs("registry-a", () -> {
+      formDependencyIndex.rebuild();
+      return null;
+    });
+
+    var order = inOrder(hashOperations, redisTemplate, valueOperations);
+    order.verify(hashOperations).delete(STATE_KEY, "built");
+    order.verify(redisTemplate).delete(LEASE_KEY);
+    order.verify(valueOperations).setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_DURATION));
+    verify(formStorage, never()).findAllById(any());
+    verify(redisTemplate).execute(any(RedisScript.class), eq(INDEX_KEYS), anyString(), eq("0"));
+  }
+
+  @Test
+  void shouldKeepIndexKeysOfTenantInOneClusterSlot() {
+    assertThat(ClusterSlotHashUtil.isSameSlotForAllKeys(
+        INDEX_KEYS.stream().map(String::getBytes).toArray(byte[][]::new))).isTrue();
+  }
+
+  @Test
+  void shouldDropIndexWhenUpdateFails() {
+    mockWritten(1L, "application");
+    when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    doThrow(new IllegalStateException("redis")).when(setOperations).members(anyString());
+
+    TenantContext.callAs("registry-a", () -> {
+      formDependencyIndex.updated("application", APPLICATION);
+      return null;
+    });
+
+    verify(hashOperations).delete(STATE_KEY, "built");
+  }
+
+  private void mockBuild() {
+    lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(eq(LEASE_KEY), anyString(), eq(LEASE_DURATION)))
+        .thenReturn(true);
+    lenient().when(redisTemplate.execute(any(RedisScript.class), eq(List.of(LEASE_KEY)),
+        anyString(), eq("60000"))).thenReturn(1L);
+    lenient().when(redisTemplate.execute(any(RedisScript.class), eq(INDEX_KEYS), anyString(),
+        anyString())).thenReturn(1L);
+  }
+
+  private void mockWritten(long written, String formKey) {
+    when(redisTemplate.execute(any(RedisScript.class), eq(INDEX_KEYS), eq(formKey)))
+        .thenReturn(written);
+  }
+}
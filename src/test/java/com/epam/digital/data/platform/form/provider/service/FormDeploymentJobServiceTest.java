@@ -0,0 +1,299 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.ItemStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJob.JobStatus;
+import com.epam.digital.data.platform.form.provider.entity.FormDeploymentJobPayload;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.repository.FormDeploymentJobPayloadRepository;
+import com.epam.digital.data.platform.form.provider.repository.FormDeploymentJobRepository;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDeploymentJobServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaValidationServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+@ExtendWith(MockitoExtension.class)
+class FormDeploymentJobServiceTest {
+
+  @Mock
+  FormDeploymentJobRepository jobRepository;
+  @Mock
+  FormDeploymentJobPayloadRepository payloadRepository;
+  @Mock
+  FormStorage formRepository;
+  @Mock
+  FormSchemaValidationServiceImpl formSchemaValidationService;
+  @Mock
+  FormSchemaVersionService formSchemaVersionService;
+  @Mock
+  FormKeyIndex formKeyIndex;
+  @Mock
+  FormGenerationService formGenerationService;
+  @Mock
+  StringRedisTemplate redisTemplate;
+  @Mock
+  ValueOperations<String, String> valueOperations;
+  @Mock
+  SetOperations<String, String> setOperations;
+  @Mock
+  ZSetOperations<String, String> zSetOperations;
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  ExecutorService deploymentJobExecutor;
+  ThreadPoolExecutor validationExecutor;
+  FormDeploymentJobService formDeploymentJobService;
+
+  @BeforeEach
+  void init() {
+    lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    lenient().when(valueOperations.setIfAbsent(anyString(), eq("true"))).thenReturn(false);
+    lenient().when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(),
+        anyString())).thenReturn(1L);
+    deploymentJobExecutor = Executors.newSingleThreadExecutor();
+    validationExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    var formSchemaProviderService = new FormSchemaProviderServiceImpl(formSchemaValidationService,
+        formRepository, objectMapper, new FormComponentIndexer(objectMapper),
+        formSchemaVersionService, new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC()),
+        formKeyIndex, new StageTracer(mock(Tracer.class)), mock(TenantQuotaService.class),
+        mock(FormChangeFeedService.class), mock(FormDependencyIndex.class),
+        mock(FormFootprintService.class), mock(FormSnapshotStore.class),
+        mock(FormGenerationService.class), new SimpleMeterRegistry());
+    formDeploymentJobService = new FormDeploymentJobServiceImpl(jobRepository, payloadRepository,
+        formSchemaProviderService, formSchemaValidationService, formGenerationService,
+        redisTemplate, deploymentJobExecutor, validationExecutor, objectMapper, 2,
+        Duration.ofMinutes(1), Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    deploymentJobExecutor.shutdownNow();
+    validationExecutor.shutdownNow();
+  }
+
+  @Test
+  void shouldDeployValidFormsInBatchesAndReportInvalidOnes() throws Exception {
+    var forms = List.of(form("First"), form("second"), "{\"title\":\"broken\"}");
+    var errors = Map.of("name", ValidationError.builder().path("name")
+        .massage("$.name: is missing but it is required").build());
+    when(formSchemaValidationService.validate(anyString(), any())).thenReturn(Map.of());
+    when(formSchemaValidationService.validate(eq(forms.get(2)), any())).thenReturn(errors);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(true);
+    var jobCaptor = ArgumentCaptor.forClass(FormDeploymentJob.class);
+    var payloadCaptor = ArgumentCaptor.forClass(FormDeploymentJobPayload.class);
+    when(payloadRepository.save(payloadCaptor.capture())).thenAnswer(i -> i.getArgument(0));
+    when(jobRepository.save(jobCaptor.capture())).thenAnswer(i -> i.getArgument(0));
+    when(jobRepository.findById(anyString()))
+        .thenAnswer(i -> Optional.of(jobCaptor.getAllValues().get(0)));
+    when(payloadRepository.findById(anyString()))
+        .thenAnswer(i -> Optional.of(payloadCaptor.getValue()));
+
+    var job = formDeploymentJobService.submitJob("[" + String.join(",", forms) + "]",
+        ValidationMode.COMPLETE, false);
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(payloadCaptor.getValue().getForms()).isEqualTo(forms);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    assertThat(job.getDeployedCount()).isEqualTo(2);
+    assertThat(job.getFailedCount()).isEqualTo(1);
+    assertThat(job.getItems().get(0).getFormName()).isEqualTo("first");
+    assertThat(job.getItems().get(2).getStatus()).isEqualTo(ItemStatus.FAILED);
+    assertThat(job.getItems().get(2).getErrors()).isEqualTo(errors);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<FormSchema>> batchCaptor = ArgumentCaptor.forClass(List.class);
+    verify(formRepository, times(1)).saveAll(batchCaptor.capture());
+    assertThat(batchCaptor.getValue()).extracting(FormSchema::getId)
+        .containsExactly("first", "second");
+    verify(payloadRepository).deleteById(job.getId());
+  }
+
+  @Test
+  void shouldActivateNewGenerationWhenEveryFormIsDeployed() throws Exception {
+    when(formSchemaValidationService.validate(anyString(), any())).thenReturn(Map.of());
+    when(formGenerationService.createGeneration()).thenReturn("g1");
+    stubJobProcessing();
+
+    var job = formDeploymentJobService.submitJob("[" + form("first") + "," + form("second") + "]",
+        ValidationMode.COMPLETE, true);
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    assertThat(job.getGeneration()).isEqualTo("g1");
+    assertThat(job.getGenerationActivated()).isTrue();
+    verify(formGenerationService).write(eq("g1"), anyList());
+    verify(formGenerationService).activate("g1");
+    verify(formRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void shouldDiscardNewGenerationWhenAnyFormFails() throws Exception {
+    var broken = "{\"title\":\"broken\"}";
+    when(formSchemaValidationService.validate(anyString(), any())).thenReturn(Map.of());
+    when(formSchemaValidationService.validate(eq(broken), any())).thenReturn(
+        Map.of("name", ValidationError.builder().path("name").massage("missing").build()));
+    when(formGenerationService.createGeneration()).thenReturn("g1");
+    stubJobProcessing();
+
+    var job = formDeploymentJobService.submitJob("[" + form("first") + "," + broken + "]",
+        ValidationMode.COMPLETE, true);
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    assertThat(job.getGenerationActivated()).isFalse();
+    verify(formGenerationService).discard("g1");
+    verify(formGenerationService, never()).activate(anyString());
+  }
+
+  @Test
+  void shouldNotProcessJobLeasedByAnotherInstance() throws Exception {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(false);
+
+    formDeploymentJobService.submitJob("[" + form("first") + "]", ValidationMode.COMPLETE,
+        false);
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+    verify(jobRepository, never()).findById(anyString());
+    verify(formRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void shouldResumeUnfinishedJobsWithoutLease() throws Exception {
+    var job = FormDeploymentJob.builder().id("job").status(JobStatus.IN_PROGRESS)
+        .items(List.of()).build();
+    when(setOperations.members("bpm-form-deployment-jobs-active")).thenReturn(Set.of("job"));
+    when(jobRepository.findAllById(Set.of("job"))).thenReturn(List.of(job));
+    when(redisTemplate.hasKey("bpm-form-deployment-job-leases:job")).thenReturn(false);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(eq("bpm-form-deployment-job-leases:job"), anyString(),
+        any(Duration.class))).thenReturn(true);
+    when(jobRepository.findById("job")).thenReturn(Optional.of(job));
+
+    ((FormDeploymentJobServiceImpl) formDeploymentJobService).resumeJobs();
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    verify(setOperations).remove("bpm-form-deployment-jobs-active", "job");
+  }
+
+  @Test
+  void shouldStopJobWhoseLeaseIsLost() throws Exception {
+    stubJobProcessing();
+    doReturn(0L).when(redisTemplate).execute(any(RedisScript.class), anyList(), anyString(),
+        anyString());
+
+    var job = formDeploymentJobService.submitJob("[" + form("first") + "]",
+        ValidationMode.COMPLETE, false);
+    deploymentJobExecutor.shutdown();
+    deploymentJobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(job.getStatus()).isEqualTo(JobStatus.IN_PROGRESS);
+    verify(formRepository, never()).saveAll(anyList());
+    verify(payloadRepository, never()).deleteById(anyString());
+  }
+
+  @Test
+  void shouldRejectNonArrayBody() {
+    var exception = assertThrows(FormSchemaValidationException.class,
+        () -> formDeploymentJobService.submitJob(form("first"), ValidationMode.COMPLETE,
+            false));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The deployment job must contain a JSON array of forms");
+  }
+
+  private void stubJobProcessing() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(true);
+    var jobCaptor = ArgumentCaptor.forClass(FormDeploymentJob.class);
+    var payloadCaptor = ArgumentCaptor.forClass(FormDeploymentJobPayload.class);
+    when(payloadRepository.save(payloadCaptor.capture())).thenAnswer(i -> i.getArgument(0));
+    when(jobRepository.save(jobCaptor.capture())).thenAnswer(i -> i.getArgument(0));
+    when(jobRepository.findById(anyString()))
+        .thenAnswer(i -> Optional.of(jobCaptor.getAllValues().get(0)));
+    when(payloadRepository.findById(anyString()))
+        .thenAnswer(i -> Optional.of(payloadCaptor.getValue()));
+  }
+
+  private static String form(String name) {
+    return "{\"name\":\"" + name + "\",\"title\":\"Test\",\"display\":\"form\",\"components\":[]}";
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.FootprintMetric;
+import com.epam.digital.data.platform.form.provider.dto.FormFootprint;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaNotFoundException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.service.impl.FormFootprintServiceImpl;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class FormFootprintServiceTest {
+
+  private static final String FOOTPRINTS_KEY = "bpm-form-schema-footprints:registry-a";
+  private static final String READS_KEY = "bpm-form-schema-reads:registry-a";
+  private static final String APPLICATION = "{\"name\":\"application\",\"components\":["
+      + "{\"type\":\"textfield\",\"key\":\"name\"},{\"type\":\"panel\",\"components\":["
+      + "{\"type\":\"columns\",\"columns\":[{\"components\":[{\"type\":\"textfield\"}]}]},"
+      + "{\"type\":\"form\",\"form\":\"address\",\"components\":[{\"type\":\"textfield\"}]}]}]}";
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+
+  @Mock
+  HashOperations<String, Object, Object> hashOperations;
+
+  FormFootprintServiceImpl formFootprintService;
+
+  @BeforeEach
+  void init() {
+    formFootprintService = new FormFootprintServiceImpl(redisTemplate, 100);
+  }
+
+  @Test
+  void shouldMeasureFormOnWrite() {
+    when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+
+    TenantContext.callAs("registry-a", () -> {
+      formFootprintService.updated("application", APPLICATION);
+      return null;
+    });
+
+    var captor = ArgumentCaptor.forClass(Object.class);
+    verify(hashOperations).put(any(), any(), captor.capture());
+    verify(hashOperations).put(FOOTPRINTS_KEY, "application", captor.getValue());
+    var footprint = captor.getValue().toString().split(":");
+    assertThat(Long.parseLong(footprint[0]))
+        .isEqualTo(APPLICATION.getBytes(StandardCharsets.UTF_8).length);
+    assertThat(Long.parseLong(footprint[1])).isPositive().isLessThan(Long.parseLong(footprint[0]));
+    // name, panel, columns, the textfield in the columns and the nested form
+    assertThat(footprint[2]).isEqualTo("5");
+    assertThat(footprint[3]).isEqualTo("3");
+  }
+
+  @Test
+  void shouldReportFormsRankedByMetric() {
+    when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.entries(FOOTPRINTS_KEY)).thenReturn(Map.of(
+        "application", "1000:300:40:3",
+        "address", "200:100:5:1",
+        "profile", "500:150:10:2"));
+    when(hashOperations.entries(READS_KEY)).thenReturn(Map.of("address", "7", "profile", "1"));
+
+    var report = TenantContext.callAs("registry-a", () -> {
+      formFootprintService.read("profile");
+      formFootprintService.read("profile");
+      return formFootprintService.getReport(FootprintMetric.READ_COUNT, 2);
+    });
+
+    assertThat(report.getFormCount()).isEqualTo(3);
+    assertThat(report.getFormDataBytes()).isEqualTo(1700);
+    assertThat(report.getCompressedBytes()).isEqualTo(550);
+    assertThat(report.getComponentCount()).isEqualTo(55);
+    assertThat(report.getMaxDepth()).isEqualTo(3);
+    assertThat(report.getReadCount()).isEqualTo(10);
+    assertThat(report.getForms()).extracting(FormFootprint::getKey)
+        .containsExactly("address", "profile");
+    assertThat(report.getForms().get(1).getReadCount()).isEqualTo(3);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldFlushReadCountsInOnePipeline() {
+    TenantContext.callAs("registry-a", () -> {
+      formFootprintService.read("application");
+      formFootprintService.read("application");
+      return null;
+    });
+    formFootprintService.read("application");
+
+    formFootprintService.flushReads();
+    formFootprintService.flushReads();
+
+    var captor = ArgumentCaptor.forClass(RedisCallback.class);
+    verify(redisTemplate).executePipelined(captor.capture());
+    var connection = mock(StringRedisConnection.class);
+    captor.getValue().doInRedis(connection);
+    verify(connection).hIncrBy(READS_KEY, "application", 2);
+    verify(connection).hIncrBy("bpm-form-schema-reads:", "application", 1);
+  }
+
+  @Test
+  void shouldForgetDeletedForms() {
+    when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.get(FOOTPRINTS_KEY, "application")).thenReturn(null);
+
+    TenantContext.callAs("registry-a", () -> {
+      formFootprintService.read("application");
+      formFootprintService.removed(List.of("application"));
+      return null;
+    });
+    formFootprintService.flushReads();
+
+    verify(hashOperations).delete(FOOTPRINTS_KEY, "application");
+    verify(hashOperations).delete(READS_KEY, "application");
+    verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    assertThrows(FormSchemaNotFoundException.class, () -> TenantContext.callAs("registry-a",
+        () -> formFootprintService.getFootprint("Application")));
+  }
+
+  @Test
+  void shouldRejectTooManyReportedForms() {
+    var exception = assertThrows(FormSchemaValidationException.class,
+        () -> formFootprintService.getReport(FootprintMetric.FORM_DATA_BYTES, 101));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The number of reported forms must be between 1 and 100.");
+  }
+}
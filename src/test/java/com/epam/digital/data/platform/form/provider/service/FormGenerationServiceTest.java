@@ -0,0 +1,328 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.FormGenerationInProgressException;
+import com.epam.digital.data.platform.form.provider.exception.TenantQuotaExceededException;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.storage.impl.GenerationalFormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+@ExtendWith(MockitoExtension.class)
+class FormGenerationServiceTest {
+
+  private static final String TENANT = "registry-a";
+  private static final String BUILDING_FIELD = "building:registry-a";
+  private static final String USAGE_KEY = "bpm-form-schema-generation-usage:registry-a:new";
+  private static final Duration BUILD_TIMEOUT = Duration.ofMinutes(30);
+
+  @Mock
+  GenerationalFormStorage formStorage;
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+
+  @Mock
+  HashOperations<String, Object, Object> hashOperations;
+
+  @Mock
+  FormKeyIndex formKeyIndex;
+
+  @Mock
+  FormDependencyIndex formDependencyIndex;
+
+  @Mock
+  FormFootprintService formFootprintService;
+
+  @Mock
+  FormSchemaVersionService formSchemaVersionService;
+
+  @Mock
+  TenantQuotaService tenantQuotaService;
+
+  @Mock
+  FormChangeFeedService formChangeFeedService;
+
+  FormGenerationService formGenerationService;
+
+  @BeforeEach
+  void init() {
+    formGenerationService = newFormGenerationService(tenantQuotaService);
+  }
+
+  @Test
+  void shouldActivateGenerationAndRecordVersionsOfChangedForms() {
+    mockScan(List.of("registry-a:same", "registry-a:changed", "registry-a:removed"),
+        List.of("registry-a:same", "registry-a:changed", "registry-a:added"));
+    mockScript("old");
+    when(formStorage.findAllById(
+        List.of("registry-a:same", "registry-a:changed", "registry-a:added")))
+        .thenReturn(List.of(form("registry-a:same", "same"), form("registry-a:changed", "new"),
+            form("registry-a:added", "added")));
+    when(formStorage.findAllById("old",
+        List.of("registry-a:same", "registry-a:changed", "registry-a:added")))
+        .thenReturn(List.of(form("registry-a:same", "same"), form("registry-a:changed", "old")));
+
+    activate("new");
+
+    verify(redisTemplate).execute(any(RedisScript.class),
+        eq(List.of(GenerationalFormStorage.GENERATIONS_KEY)), eq(TENANT), eq("new"), anyString());
+    verify(redisTemplate).delete(USAGE_KEY);
+    verify(formStorage).reload();
+    verify(formSchemaVersionService).recordVersion("changed", "{\"v\":\"old\"}",
+        "{\"v\":\"new\"}");
+    verify(formSchemaVersionService).recordVersion("added", null, "{\"v\":\"added\"}");
+    verify(formSchemaVersionService, never()).recordVersion(eq("same"), any(), any());
+    verify(formSchemaVersionService).deleteHistory("removed");
+    verify(formFootprintService).updated("added", "{\"v\":\"added\"}");
+    verify(formFootprintService).removed(List.of("removed"));
+    verify(formKeyIndex).removed(List.of("registry-a:removed"));
+    verify(formDependencyIndex).rebuild();
+    verify(tenantQuotaService).resetUsage();
+    verify(formChangeFeedService).publish(FormChangeType.RESET, null, null);
+  }
+
+  @Test
+  void shouldOnlyUpdateIndexesWhenActivatedAgain() {
+    mockScan(List.of("registry-a:kept", "registry-a:removed"), List.of("registry-a:kept"));
+    mockScript(null);
+    when(formStorage.findAllById(List.of("registry-a:kept")))
+        .thenReturn(List.of(form("registry-a:kept", "kept")));
+
+    activate("new");
+
+    verify(formStorage, never()).findAllById(anyString(), any());
+    verify(formSchemaVersionService, never()).recordVersion(any(), any(), any());
+    verify(formSchemaVersionService, never()).deleteHistory(any());
+    verify(formFootprintService).updated("kept", "{\"v\":\"kept\"}");
+    verify(formFootprintService).removed(List.of("removed"));
+    verify(formKeyIndex).removed(List.of("registry-a:removed"));
+    verify(tenantQuotaService).resetUsage();
+    verify(formChangeFeedService).publish(FormChangeType.RESET, null, null);
+  }
+
+  @Test
+  void shouldRetireDiscardedGenerationAndEndItsBuild() {
+    TenantContext.callAs(TENANT, () -> {
+      formGenerationService.discard("new");
+      return null;
+    });
+
+    verify(redisTemplate).execute(any(RedisScript.class),
+        eq(List.of(GenerationalFormStorage.GENERATIONS_KEY)), eq(TENANT), eq("new"), anyString());
+    verify(redisTemplate).delete(USAGE_KEY);
+  }
+
+  @Test
+  void shouldDeleteGenerationsRetiredLongerThanRetention() {
+    var expired = String.valueOf(Instant.now().minus(Duration.ofHours(1)).toEpochMilli());
+    var recent = String.valueOf(Instant.now().toEpochMilli());
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    doReturn(Map.of(
+        "active:registry-a", "current",
+        "retired:registry-a:expired", expired,
+        "retired:registry-a:recent", recent,
+        "retired:registry-b:reactivated", expired))
+        .when(hashOperations).entries(GenerationalFormStorage.GENERATIONS_KEY);
+    when(formStorage.activeGeneration("registry-a")).thenReturn("current");
+    when(formStorage.activeGeneration("registry-b")).thenReturn("reactivated");
+    when(formStorage.deleteGeneration("registry-a", "expired", 10)).thenReturn(3L);
+
+    formGenerationService.collectGarbage();
+
+    verify(formStorage).deleteGeneration("registry-a", "expired", 10);
+    verify(formStorage, never()).deleteGeneration(eq("registry-a"), eq("recent"), anyInt());
+    verify(formStorage, never()).deleteGeneration(eq("registry-b"), any(), anyInt());
+    verify(hashOperations).delete(GenerationalFormStorage.GENERATIONS_KEY,
+        "retired:registry-a:expired");
+    verify(hashOperations).delete(GenerationalFormStorage.GENERATIONS_KEY,
+        "retired:registry-b:reactivated");
+    verify(hashOperations, never()).delete(GenerationalFormStorage.GENERATIONS_KEY,
+        "retired:registry-a:recent");
+  }
+
+  @Test
+  void shouldRejectWritesWhileGenerationIsBuilt() {
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.get(GenerationalFormStorage.GENERATIONS_KEY, BUILDING_FIELD))
+        .thenReturn("new:" + Instant.now().plus(BUILD_TIMEOUT).toEpochMilli());
+
+    var exception = assertThrows(FormGenerationInProgressException.class,
+        () -> TenantContext.callAs(TENANT, () -> {
+          formGenerationService.checkNoGenerationInProgress();
+          return null;
+        }));
+
+    assertThat(exception.getMessage()).isEqualTo("The forms of the tenant 'registry-a' are being "
+        + "replaced by the generation new, try again once its deployment is finished.");
+  }
+
+  @Test
+  void shouldAcceptWritesOnceBuildTimedOut() {
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.get(GenerationalFormStorage.GENERATIONS_KEY, BUILDING_FIELD))
+        .thenReturn("new:" + Instant.now().minusSeconds(1).toEpochMilli());
+
+    TenantContext.callAs(TENANT, () -> {
+      formGenerationService.checkNoGenerationInProgress();
+      return null;
+    });
+  }
+
+  @Test
+  void shouldMarkCreatedGenerationAsBuilt() {
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+
+    var generation = TenantContext.callAs(TENANT, formGenerationService::createGeneration);
+
+    verify(hashOperations).put(eq(GenerationalFormStorage.GENERATIONS_KEY), eq(BUILDING_FIELD),
+        argThat(marker -> marker.toString().startsWith(generation + ":")));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldKeepKeysOfEveryScriptInOneClusterSlot() {
+    mockScan(List.of(), List.of());
+    mockScript(null);
+
+    activate("new");
+    TenantContext.callAs(TENANT, () -> {
+      formGenerationService.discard("new");
+      return null;
+    });
+
+    ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+    verify(redisTemplate, times(2)).execute(any(RedisScript.class), keys.capture(), anyString(),
+        anyString(), anyString());
+    assertThat(keys.getAllValues()).allSatisfy(scriptKeys -> assertThat(
+        ClusterSlotHashUtil.isSameSlotForAllKeys(
+            scriptKeys.stream().map(String::getBytes).toArray(byte[][]::new))).isTrue());
+  }
+
+  @Test
+  void shouldRejectBatchTakingNewFormSetAboveQuota() {
+    var formGenerationService = newFormGenerationService(
+        new TenantQuotaService(redisTemplate, mock(FormStorage.class), 2, 0));
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.get(USAGE_KEY, "forms")).thenReturn("2");
+
+    var exception = assertThrows(TenantQuotaExceededException.class,
+        () -> TenantContext.callAs(TENANT, () -> {
+          formGenerationService.write("new", List.of(form("form", "v")));
+          return null;
+        }));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The tenant 'registry-a' can store at most 2 forms, the new form set has 3.");
+    verify(formStorage, never()).saveAll(anyString(), anyList());
+  }
+
+  @Test
+  void shouldCountWrittenBatchTowardsNewFormSet() {
+    var formGenerationService = newFormGenerationService(
+        new TenantQuotaService(redisTemplate, mock(FormStorage.class), 2, 0));
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+
+    TenantContext.callAs(TENANT, () -> {
+      formGenerationService.write("new", List.of(form("form", "v")));
+      return null;
+    });
+
+    verify(hashOperations).put(eq(GenerationalFormStorage.GENERATIONS_KEY), eq(BUILDING_FIELD),
+        argThat(marker -> marker.toString().startsWith("new:")));
+    verify(formStorage).saveAll(eq("new"), anyList());
+    verify(hashOperations).increment(USAGE_KEY, "forms", 1L);
+    verify(hashOperations).increment(USAGE_KEY, "bytes", 9L);
+    verify(formKeyIndex).added("registry-a:form");
+  }
+
+  private FormGenerationService newFormGenerationService(TenantQuotaService tenantQuotaService) {
+    return new FormGenerationService(formStorage,
+        new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC()), redisTemplate,
+        formKeyIndex, formDependencyIndex, formFootprintService, formSchemaVersionService,
+        tenantQuotaService, formChangeFeedService, 10, Duration.ofMinutes(10), BUILD_TIMEOUT);
+  }
+
+  private void activate(String generation) {
+    TenantContext.callAs(TENANT, () -> {
+      formGenerationService.activate(generation);
+      return null;
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private void mockScan(List<String> before, List<String> after) {
+    doAnswer(invocation -> {
+      invocation.<Consumer<List<String>>>getArgument(2).accept(before);
+      return null;
+    }).doAnswer(invocation -> {
+      invocation.<Consumer<List<String>>>getArgument(2).accept(after);
+      return null;
+    }).when(formStorage).scanIds(eq("registry-a:"), eq(10), any(Consumer.class));
+  }
+
+  private void mockScript(String previousGeneration) {
+    doReturn(previousGeneration).when(redisTemplate).execute(any(RedisScript.class), anyList(),
+        anyString(), anyString(), anyString());
+  }
+
+  private static FormSchema form(String id, String version) {
+    return FormSchema.builder()
+        .id(id)
+        .formData("{\"v\":\"" + version + "\"}")
+        .contentHash(version)
+        .build();
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.storage.impl.InMemoryFormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class FormKeyIndexTest {
+
+  static final String CHANNEL = "form-key-changes";
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+
+  FormStorage formStorage;
+  FormKeyIndex formKeyIndex;
+
+  @BeforeEach
+  void init() {
+    formStorage = new InMemoryFormStorage();
+    formKeyIndex = newFormKeyIndex(formStorage);
+  }
+
+  @Test
+  void shouldReportEveryKeyAsPossiblyPresentBeforeFirstBuild() {
+    assertThat(formKeyIndex.mightContain("missing")).isTrue();
+  }
+
+  @Test
+  void shouldReportStoredKeysOnlyAfterRebuild() {
+    formStorage.save(form("first"));
+
+    formKeyIndex.rebuild();
+
+    assertThat(formKeyIndex.mightContain("first")).isTrue();
+    assertThat(formKeyIndex.mightContain("missing")).isFalse();
+  }
+
+  @Test
+  void shouldAddWrittenKeyAndNotifyOtherInstances() {
+    formKeyIndex.rebuild();
+
+    formKeyIndex.added("second");
+
+    assertThat(formKeyIndex.mightContain("second")).isTrue();
+    verify(redisTemplate).convertAndSend(CHANNEL, "+second");
+  }
+
+  @Test
+  void shouldAddKeyWrittenByOtherInstance() {
+    formKeyIndex.rebuild();
+
+    formKeyIndex.onMessage(message("+third"), null);
+
+    assertThat(formKeyIndex.mightContain("third")).isTrue();
+  }
+
+  @Test
+  void shouldRebuildAfterKeyIsDeletedOnOtherInstance() {
+    formStorage.save(form("first"));
+    formKeyIndex.rebuild();
+    formStorage.deleteById("first");
+
+    formKeyIndex.onMessage(message("-first"), null);
+    formKeyIndex.refresh();
+
+    assertThat(formKeyIndex.mightContain("first")).isFalse();
+  }
+
+  @Test
+  void shouldConfirmMissingKeysWithStorageAfterResubscribeUntilRebuilt() {
+    formKeyIndex.rebuild();
+    assertThat(formKeyIndex.mightContain("created-while-disconnected")).isFalse();
+
+    formStorage.save(form("created-while-disconnected"));
+    formKeyIndex.onChannelSubscribed("form-key-changes".getBytes(StandardCharsets.UTF_8), 1);
+
+    assertThat(formKeyIndex.mightContain("missing")).isTrue();
+
+    formKeyIndex.refresh();
+
+    assertThat(formKeyIndex.mightContain("created-while-disconnected")).isTrue();
+    assertThat(formKeyIndex.mightContain("missing")).isFalse();
+  }
+
+  @Test
+  void shouldKeepWorkingWhenNotificationCannotBePublished() {
+    formKeyIndex.rebuild();
+    doThrow(new IllegalStateException("Redis is down")).when(redisTemplate)
+        .convertAndSend(anyString(), anyString());
+
+    formKeyIndex.added("second");
+
+    assertThat(formKeyIndex.mightContain("second")).isTrue();
+  }
+
+  @Test
+  void shouldPassEveryKeyThroughWhenStorageCannotBeListed() {
+    var failingStorage = mock(FormStorage.class);
+    when(failingStorage.findAllIds()).thenThrow(new IllegalStateException("Redis is down"));
+    var failingIndex = newFormKeyIndex(failingStorage);
+
+    failingIndex.rebuild();
+
+    assertThat(failingIndex.mightContain("missing")).isTrue();
+  }
+
+  @Test
+  void shouldRejectMostMissingKeys() {
+    IntStream.range(0, 5_000).forEach(i -> formStorage.save(form("form-" + i)));
+    formKeyIndex.rebuild();
+
+    var falsePositives = IntStream.range(0, 10_000)
+        .filter(i -> formKeyIndex.mightContain("missing-form-" + i))
+        .count();
+
+    assertThat(IntStream.range(0, 5_000).allMatch(i -> formKeyIndex.mightContain("form-" + i)))
+        .isTrue();
+    assertThat(falsePositives).isLessThan(300);
+  }
+
+  private FormKeyIndex newFormKeyIndex(FormStorage formStorage) {
+    return new FormKeyIndex(formStorage,
+        new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC()), redisTemplate, CHANNEL,
+        100, 0.01, Duration.ofMinutes(30));
+  }
+
+  private static FormSchema form(String id) {
+    return FormSchema.builder().id(id).formData("{}").build();
+  }
+
+  private static DefaultMessage message(String body) {
+    return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+        body.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -16,16 +16,40 @@
 
 package com.epam.digital.data.platform.form.provider.service;
 
+import com.epam.digital.data.platform.form.provider.dto.FormChangeType;
 import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
 import com.epam.digital.data.platform.form.provider.entity.FormSchema;
 import com.epam.digital.data.platform.form.provider.exception.FormDataRepositoryCommunicationException;
+import com.epam.digital.data.platform.form.provider.exception.FormGenerationInProgressException;
 import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
 import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
-import com.epam.digital.data.platform.form.provider.repository.FormRepository;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaNotFoundException;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaReferencedException;
+import com.epam.digital.data.platform.form.provider.exception.InvalidFormKeyException;
+import com.epam.digital.data.platform.form.provider.exception.TenantQuotaExceededException;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
 import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -39,14 +63,20 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.sleuth.Tracer;
 import util.TestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -55,32 +85,73 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 class FormSchemaProviderServiceTest {
 
   @Mock
-  FormRepository repository;
+  FormStorage repository;
 
   @Mock
   FormSchemaValidationService formSchemaValidationService;
 
+  @Mock
+  FormSchemaVersionService formSchemaVersionService;
+
+  @Mock
+  FormKeyIndex formKeyIndex;
+
+  @Mock
+  Tracer tracer;
+
+  @Mock
+  TenantQuotaService tenantQuotaService;
+
+  @Mock
+  FormChangeFeedService formChangeFeedService;
+
+  @Mock
+  FormDependencyIndex formDependencyIndex;
+
+  @Mock
+  FormFootprintService formFootprintService;
+  @Mock
+  FormSnapshotStore formSnapshotStore;
+
+  @Mock
+  FormGenerationService formGenerationService;
+
   ObjectMapper objectMapper = new ObjectMapper();
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
   FormSchemaProviderService formSchemaProviderService;
 
   @BeforeEach
   void init() {
+    lenient().when(formKeyIndex.mightContain(any())).thenReturn(true);
     this.formSchemaProviderService =
-        new FormSchemaProviderServiceImpl(formSchemaValidationService, repository, objectMapper);
+        new FormSchemaProviderServiceImpl(formSchemaValidationService, repository, objectMapper,
+            new FormComponentIndexer(objectMapper), formSchemaVersionService,
+            new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC()), formKeyIndex,
+            new StageTracer(tracer), tenantQuotaService, formChangeFeedService,
+            formDependencyIndex, formFootprintService, formSnapshotStore, formGenerationService,
+            meterRegistry);
   }
 
   @Test
   void validSaveForm() throws JsonProcessingException {
     var form = TestUtils.getContent("valid-form-put.json");
 
-    formSchemaProviderService.saveForm(form);
+    formSchemaProviderService.saveForm(form, ValidationMode.COMPLETE);
 
     var captor = ArgumentCaptor.forClass(FormSchema.class);
     verify(repository).save(captor.capture());
+    verify(formKeyIndex).added("citizen-shared-officer-sign-app");
+    verify(formDependencyIndex).updated("citizen-shared-officer-sign-app",
+        captor.getValue().getFormData());
+    verify(formFootprintService).updated("citizen-shared-officer-sign-app",
+        captor.getValue().getFormData());
     assertThat(captor.getValue().getId()).isEqualTo("citizen-shared-officer-sign-app");
     assertThat(objectMapper.readTree(captor.getValue().getFormData()))
         .isEqualTo(objectMapper.readTree(TestUtils.getContent("valid-form.json")));
+    assertThat(captor.getValue().getComponentIndex()).hasSize(31);
+    assertThat(captor.getValue().getComponentIndex().get("submit").getPath())
+        .isEqualTo("$.components[30]");
   }
 
   @Test
@@ -88,24 +159,43 @@ class FormSchemaProviderServiceTest {
     var errors = Map.of("name", ValidationError.builder()
         .massage("name: is missing but it is required")
         .path("name").build());
-    when(formSchemaValidationService.validate(any())).thenReturn(
+    when(formSchemaValidationService.validate(any(), any())).thenReturn(
         errors);
 
     var exception = assertThrows(FormSchemaValidationException.class,
-        () -> formSchemaProviderService.saveForm(any()));
+        () -> formSchemaProviderService.saveForm(null, null));
 
     assertThat(exception.getMessage()).isEqualTo("Form Schema is not valid.");
     assertThat(exception.getValidationErrors()).isEqualTo(errors);
     verify(repository, never()).save(any());
   }
 
+  @Test
+  void shouldRejectWritesWhileGenerationIsBuilt() {
+    var form = TestUtils.getContent("valid-form-put.json");
+    doThrow(new FormGenerationInProgressException("in progress"))
+        .when(formGenerationService).checkNoGenerationInProgress();
+
+    assertThrows(FormGenerationInProgressException.class,
+        () -> formSchemaProviderService.saveForm(form, ValidationMode.COMPLETE));
+    assertThrows(FormGenerationInProgressException.class,
+        () -> formSchemaProviderService.updateForm("citizen-shared-officer-sign-app", form,
+            ValidationMode.COMPLETE));
+    assertThrows(FormGenerationInProgressException.class,
+        () -> formSchemaProviderService.deleteFormByKey("citizen-shared-officer-sign-app", false));
+
+    verify(repository, never()).save(any());
+    verify(repository, never()).deleteById(any());
+    verify(formSchemaValidationService, never()).validate(any(), any());
+  }
+
   @Test
   void saveShouldThrowFormDataRepositoryCommunicationException() {
     var form = TestUtils.getContent("valid-form.json");
     when(repository.save(any())).thenThrow(new RuntimeException());
 
     var exception = assertThrows(FormDataRepositoryCommunicationException.class,
-        () -> formSchemaProviderService.saveForm(form));
+        () -> formSchemaProviderService.saveForm(form, ValidationMode.COMPLETE));
 
     assertThat(exception.getMessage()).isEqualTo("Error during storage invocation");
   }
@@ -124,6 +214,99 @@ class FormSchemaProviderServiceTest {
     assertEquals(form, formByKey);
   }
 
+  @Test
+  void concurrentGetFormByKeyShouldBeCoalescedIntoOneRead() throws Exception {
+    var callers = 16;
+    var formSchema = FormSchema.builder().id("test-key")
+        .formData("{\"name\":\"test-key\"}").build();
+    var coalesced = meterRegistry.counter("form.schema.read.coalesced");
+    when(repository.findById("test-key")).thenAnswer(invocation -> {
+      var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (coalesced.count() < callers - 1 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      return Optional.of(formSchema);
+    });
+
+    var executor = Executors.newFixedThreadPool(callers);
+    try {
+      var start = new CountDownLatch(1);
+      var results = new CompletableFuture<?>[callers];
+      for (int i = 0; i < callers; i++) {
+        results[i] = CompletableFuture.supplyAsync(() -> {
+          awaitQuietly(start);
+          return formSchemaProviderService.getFormByKey("test-key");
+        }, executor);
+      }
+      start.countDown();
+      CompletableFuture.allOf(results).get(10, TimeUnit.SECONDS);
+
+      for (var result : results) {
+        assertEquals("test-key", ((JSONObject) result.get()).getAsString("name"));
+      }
+      verify(repository, times(1)).findById("test-key");
+      assertThat(coalesced.count()).isEqualTo(callers - 1);
+      verify(formFootprintService, times(callers)).read("test-key");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void validGetFormComponentByKey(boolean indexed) {
+    var formData = ((JSONObject) JSONValue.parse(
+        TestUtils.getContent("valid-form-with-special-characters.json"))).toJSONString();
+    var formSchema = FormSchema.builder().id("test-key").formData(formData).build();
+    var location = new FormComponentIndexer(objectMapper).index(formData).get("submit");
+    when(repository.findComponentData("test-key", "submit"))
+        .thenReturn(indexed ? Optional.of(location.cut(formData)) : Optional.empty());
+    if (!indexed) {
+      when(repository.findById("test-key")).thenReturn(Optional.of(formSchema));
+    }
+
+    var component = formSchemaProviderService.getFormComponentByKey("TEST-KEY", "submit");
+
+    assertEquals("button", component.getAsString("type"));
+    assertEquals("submit", component.getAsString("key"));
+    verify(repository, times(indexed ? 0 : 1)).findById("test-key");
+  }
+
+  @Test
+  void getFormComponentByKeyShouldIndexFormOnReadWhenLocationIsStale() {
+    var formData = ((JSONObject) JSONValue.parse(
+        TestUtils.getContent("valid-form-with-special-characters.json"))).toJSONString();
+    when(repository.findComponentData("test-key", "submit"))
+        .thenReturn(Optional.of("{\"key\":\"other\"}"));
+    when(repository.findById("test-key"))
+        .thenReturn(Optional.of(FormSchema.builder().id("test-key").formData(formData).build()));
+
+    var component = formSchemaProviderService.getFormComponentByKey("test-key", "submit");
+
+    assertEquals("submit", component.getAsString("key"));
+  }
+
+  @Test
+  void getFormComponentByKeyShouldThrowNoFormDataExceptionWhenComponentMissing() {
+    var formSchema = FormSchema.builder().id("test-key")
+        .formData("{\"name\":\"test-key\",\"components\":[]}").build();
+    when(repository.findById("test-key")).thenReturn(Optional.of(formSchema));
+
+    var exception = assertThrows(FormSchemaDataException.class,
+        () -> formSchemaProviderService.getFormComponentByKey("test-key", "missing"));
+
+    assertThat(exception.getMessage()).isEqualTo(
+        "The component 'missing' is missing in the UI form scheme 'test-key'.");
+  }
+
   @Test
   void getFormByKeyShouldThrowNoFormDataException() {
     var key = "test-key";
@@ -136,6 +319,18 @@ class FormSchemaProviderServiceTest {
         String.format("The UI form scheme for the specified key '%s' is missing.", key));
   }
 
+  @Test
+  void getFormByKeyShouldNotReadStorageWhenKeyIsNotIndexed() {
+    when(formKeyIndex.mightContain("missing-key")).thenReturn(false);
+
+    var exception = assertThrows(FormSchemaNotFoundException.class,
+        () -> formSchemaProviderService.getFormByKey("MISSING-KEY"));
+
+    assertThat(exception.getStackTrace()).isEmpty();
+    verify(repository, never()).findById(any());
+    assertThat(meterRegistry.counter("form.schema.read.missing-key").count()).isEqualTo(1);
+  }
+
   @Test
   void getFormByKeyShouldThrowFormDataRepositoryCommunicationException() {
     when(repository.findById("key")).thenThrow(new RuntimeException());
@@ -149,15 +344,57 @@ class FormSchemaProviderServiceTest {
   @Test
   void validUpdateForm() throws JsonProcessingException {
     var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form-put.json"));
-    when(repository.existsById("citizen-shared-officer-sign-app")).thenReturn(true);
+    when(repository.findById("citizen-shared-officer-sign-app")).thenReturn(Optional.of(
+        FormSchema.builder().id("citizen-shared-officer-sign-app").formData("{}").build()));
 
-    formSchemaProviderService.updateForm("CITIZEN-SHARED-OFFICER-SIGN-APP", form.toJSONString());
+    formSchemaProviderService.updateForm("CITIZEN-SHARED-OFFICER-SIGN-APP", form.toJSONString(),
+        ValidationMode.COMPLETE);
 
     var captor = ArgumentCaptor.forClass(FormSchema.class);
     verify(repository).save(captor.capture());
     assertThat(captor.getValue().getId()).isEqualTo("citizen-shared-officer-sign-app");
     assertThat(objectMapper.readTree(captor.getValue().getFormData()))
             .isEqualTo(objectMapper.readTree(TestUtils.getContent("valid-form.json")));
+    verify(formSchemaVersionService).recordVersion("citizen-shared-officer-sign-app", "{}",
+        captor.getValue().getFormData());
+  }
+
+  @Test
+  void updateFormShouldSkipUnchangedForm() {
+    var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form-put.json"));
+    formSchemaProviderService.saveForm(TestUtils.getContent("valid-form-put.json"),
+        ValidationMode.COMPLETE);
+    var captor = ArgumentCaptor.forClass(FormSchema.class);
+    verify(repository).save(captor.capture());
+    when(repository.findById("citizen-shared-officer-sign-app"))
+        .thenReturn(Optional.of(captor.getValue()));
+
+    formSchemaProviderService.updateForm("CITIZEN-SHARED-OFFICER-SIGN-APP", form.toJSONString(),
+        ValidationMode.COMPLETE);
+
+    verify(formSchemaValidationService, times(1)).validate(anyString(), any());
+    verify(repository, times(1)).save(any());
+    assertThat(meterRegistry.counter("form.schema.write.skipped").count()).isEqualTo(1);
+  }
+
+  @Test
+  void updateFormShouldWriteChangedForm() {
+    formSchemaProviderService.saveForm(TestUtils.getContent("valid-form-put.json"),
+        ValidationMode.COMPLETE);
+    var captor = ArgumentCaptor.forClass(FormSchema.class);
+    verify(repository).save(captor.capture());
+    when(repository.findById("citizen-shared-officer-sign-app"))
+        .thenReturn(Optional.of(captor.getValue()));
+    var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form-put.json"));
+    form.put("title", "Changed title");
+
+    formSchemaProviderService.updateForm("CITIZEN-SHARED-OFFICER-SIGN-APP", form.toJSONString(),
+        ValidationMode.COMPLETE);
+
+    verify(repository, times(2)).save(captor.capture());
+    assertThat(captor.getValue().getContentHash()).isNotEqualTo(
+        captor.getAllValues().get(0).getContentHash());
+    assertThat(meterRegistry.counter("form.schema.write.skipped").count()).isZero();
   }
 
   @Test
@@ -166,7 +403,8 @@ class FormSchemaProviderServiceTest {
     String formName = form.getAsString("name");
 
     var exception = assertThrows(FormSchemaDataException.class,
-        () -> formSchemaProviderService.updateForm(formName, form.toJSONString()));
+        () -> formSchemaProviderService.updateForm(formName, form.toJSONString(),
+            ValidationMode.COMPLETE));
 
     assertThat(exception.getMessage()).isEqualTo(
         String.format("The UI form scheme for the specified key '%s' is missing.", formName));
@@ -176,10 +414,11 @@ class FormSchemaProviderServiceTest {
   void updateFormShouldThrowFormSchemaValidationExceptionWhenKeysDifferent() {
     var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json"));
     String formName = "another-name";
-    when(formSchemaValidationService.validate(any())).thenReturn(Collections.emptyMap());
+    when(formSchemaValidationService.validate(any(), any())).thenReturn(Collections.emptyMap());
 
     var exception = assertThrows(FormSchemaValidationException.class,
-        () -> formSchemaProviderService.updateForm(formName, form.toJSONString()));
+        () -> formSchemaProviderService.updateForm(formName, form.toJSONString(),
+            ValidationMode.COMPLETE));
 
     assertThat(exception.getMessage()).isEqualTo(
         "The 'key: another-name' from request must be equal to the "
@@ -190,11 +429,12 @@ class FormSchemaProviderServiceTest {
   @Test
   void shouldBeValidationErrorsWhenEntityExists() {
     var form = (JSONObject) JSONValue.parse(TestUtils.getContent("valid-form.json"));
-    when(formSchemaValidationService.validate(any())).thenReturn(Collections.emptyMap());
+    when(formSchemaValidationService.validate(any(), any())).thenReturn(Collections.emptyMap());
     when(repository.existsById(any())).thenReturn(true);
 
     var exception = assertThrows(FormSchemaValidationException.class,
-        () -> formSchemaProviderService.saveForm(form.toJSONString()));
+        () -> formSchemaProviderService.saveForm(form.toJSONString(),
+            ValidationMode.COMPLETE));
 
     assertThat(exception.getMessage()).isEqualTo(
         "The UI form scheme for the specified key 'citizen-shared-officer-sign-app' is already exist.");
@@ -203,9 +443,39 @@ class FormSchemaProviderServiceTest {
   @Test
   void validDeleteFormByKey() {
     var key = "test-key";
-    formSchemaProviderService.deleteFormByKey(key);
+    formSchemaProviderService.deleteFormByKey(key, false);
 
     verify(repository).deleteById(key);
+    verify(formSchemaVersionService).deleteHistory(key);
+    verify(formKeyIndex).removed(key);
+    verify(formDependencyIndex).removed(key);
+    verify(formFootprintService).removed(List.of(key));
+    verify(formChangeFeedService).publish(FormChangeType.DELETED, key, null);
+  }
+
+  @Test
+  void deleteShouldRejectReferencedForm() {
+    when(formDependencyIndex.getDependents("address", false))
+        .thenReturn(List.of("application", "profile"));
+
+    var exception = assertThrows(FormSchemaReferencedException.class,
+        () -> formSchemaProviderService.deleteFormByKey("Address", false));
+
+    assertThat(exception.getMessage()).isEqualTo(
+        "The UI form scheme 'Address' is referenced by the forms [application, profile].");
+    assertThat(exception.getDependents()).containsExactly("application", "profile");
+    verify(repository, never()).deleteById(any());
+    verify(formChangeFeedService, never()).publish(any(), any(), any());
+  }
+
+  @Test
+  void forcedDeleteShouldRemoveReferencedForm() {
+    when(formDependencyIndex.getDependents("address", false)).thenReturn(List.of("application"));
+
+    formSchemaProviderService.deleteFormByKey("Address", true);
+
+    verify(repository).deleteById("address");
+    verify(formDependencyIndex).removed("address");
   }
 
   @Test
@@ -213,8 +483,106 @@ class FormSchemaProviderServiceTest {
     doThrow(new RuntimeException()).when(repository).deleteById("key");
 
     var exception = assertThrows(FormDataRepositoryCommunicationException.class,
-        () -> formSchemaProviderService.deleteFormByKey("KEY"));
+        () -> formSchemaProviderService.deleteFormByKey("KEY", false));
 
     assertThat(exception.getMessage()).isEqualTo("Error during storage invocation");
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldStoreFormsOfTenantUnderTenantKeys() {
+    var form = TestUtils.getContent("valid-form-put.json");
+
+    TenantContext.callAs("registry-a", () -> {
+      formSchemaProviderService.saveForm(form, ValidationMode.COMPLETE);
+      return null;
+    });
+
+    var captor = ArgumentCaptor.forClass(FormSchema.class);
+    verify(repository).existsById("registry-a:citizen-shared-officer-sign-app");
+    verify(repository).save(captor.capture());
+    assertThat(captor.getValue().getId()).isEqualTo("registry-a:citizen-shared-officer-sign-app");
+    verify(formKeyIndex).added("registry-a:citizen-shared-officer-sign-app");
+    verify(formSchemaVersionService).recordVersion(eq("citizen-shared-officer-sign-app"),
+        isNull(), anyString());
+    verify(tenantQuotaService).checkQuota(eq(1L), anyLong());
+    verify(tenantQuotaService).recordUsage(eq(1L), anyLong());
+    verify(formChangeFeedService).publish(FormChangeType.CREATED,
+        "citizen-shared-officer-sign-app", captor.getValue().getContentHash());
+  }
+
+  @Test
+  void shouldNotReadFormsOfAnotherTenant() {
+    var exception = assertThrows(FormSchemaNotFoundException.class,
+        () -> TenantContext.callAs("registry-a",
+            () -> formSchemaProviderService.getFormByKey("KEY")));
+
+    verify(repository).findById("registry-a:key");
+    assertThat(exception.getMessage())
+        .isEqualTo("The UI form scheme for the specified key 'KEY' is missing.");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"registry-b:key", "@generation:key", "{key}"})
+  void shouldRejectKeysWithReservedCharacters(String key) {
+    var exception = assertThrows(InvalidFormKeyException.class,
+        () -> TenantContext.callAs("registry-a",
+            () -> formSchemaProviderService.getFormByKey(key)));
+
+    verify(repository, never()).findById(any());
+    assertThat(exception.getMessage()).isEqualTo(String.format(
+        "The form key '%s' must not contain any of the characters '{}:@'.", key));
+  }
+
+  @Test
+  void saveShouldNotWriteWhenTenantQuotaIsExceeded() {
+    doThrow(new TenantQuotaExceededException("quota")).when(tenantQuotaService)
+        .checkQuota(anyLong(), anyLong());
+
+    assertThrows(TenantQuotaExceededException.class,
+        () -> formSchemaProviderService.saveForm(TestUtils.getContent("valid-form-put.json"),
+            ValidationMode.COMPLETE));
+
+    verify(repository, never()).save(any());
+    verify(tenantQuotaService, never()).recordUsage(anyLong(), anyLong());
+  }
+
+  @Test
+  void deleteShouldReleaseTenantQuota() {
+    when(tenantQuotaService.isEnabled()).thenReturn(true);
+    when(repository.findById("key"))
+        .thenReturn(Optional.of(FormSchema.builder().id("key").formData("{}").build()));
+
+    formSchemaProviderService.deleteFormByKey("KEY", false);
+
+    verify(repository).deleteById("key");
+    verify(tenantQuotaService).recordUsage(-1, -2);
+  }
+
+  @Test
+  void shouldReadBatchOfFormsWithOneStorageCall() {
+    when(formKeyIndex.mightContain("registry-a:missing")).thenReturn(false);
+    when(repository.findAllById(List.of("registry-a:test-form"))).thenReturn(List.of(
+        FormSchema.builder().id("registry-a:test-form").formData("{\"name\":\"test-form\"}")
+            .contentHash("hash").build()));
+
+    var forms = TenantContext.callAs("registry-a",
+        () -> formSchemaProviderService.getFormsByKeys(List.of("TEST-FORM", "test-form",
+            "missing")));
+
+    assertThat(forms).hasSize(1);
+    assertThat(forms.get(0).getKey()).isEqualTo("test-form");
+    assertThat(forms.get(0).getContentHash()).isEqualTo("hash");
+    assertThat(forms.get(0).getForm().getAsString("name")).isEqualTo("test-form");
+    verify(formFootprintService).read("test-form");
+  }
+
+  @Test
+  void shouldRejectTooLargeBatch() {
+    var keys = Collections.nCopies(101, "test-form");
+
+    assertThrows(FormSchemaValidationException.class,
+        () -> formSchemaProviderService.getFormsByKeys(keys));
+
+    verify(repository, never()).findAllById(any());
+  }
+}
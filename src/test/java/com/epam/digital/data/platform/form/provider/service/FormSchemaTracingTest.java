@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.propagation.TraceContextOrSamplingFlags;
+import brave.sampler.Sampler;
+import com.epam.digital.data.platform.form.provider.config.SleuthConfig;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComplexityBudget;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaValidationServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.GenericSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.impl.InMemoryFormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.brave.bridge.BraveBaggageManager;
+import org.springframework.cloud.sleuth.brave.bridge.BraveCurrentTraceContext;
+import org.springframework.cloud.sleuth.brave.bridge.BraveSpan;
+import org.springframework.cloud.sleuth.brave.bridge.BraveTracer;
+import org.springframework.cloud.sleuth.http.HttpRequest;
+import org.springframework.core.io.ClassRelativeResourceLoader;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import util.TestUtils;
+
+@Slf4j
+class FormSchemaTracingTest {
+
+  private static final String FORMS_JSON_SCHEMA = "classpath:schema/forms-schema.json";
+
+  final ObjectMapper objectMapper = new ObjectMapper();
+  final List<MutableSpan> finishedSpans = new CopyOnWriteArrayList<>();
+
+  Tracing tracing;
+  Tracer tracer;
+  InMemoryFormStorage formStorage;
+  FormSchemaProviderServiceImpl formSchemaProviderService;
+  String formData;
+  String formKey;
+
+  @BeforeEach
+  void init() {
+    tracing = Tracing.newBuilder()
+        .sampler(Sampler.ALWAYS_SAMPLE)
+        .addSpanHandler(new SpanHandler() {
+          @Override
+          public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+            finishedSpans.add(span);
+            return true;
+          }
+        })
+        .build();
+    tracer = new BraveTracer(tracing.tracer(),
+        new BraveCurrentTraceContext(tracing.currentTraceContext()), new BraveBaggageManager());
+    formStorage = new InMemoryFormStorage();
+    formSchemaProviderService = newFormSchemaProviderService(new StageTracer(tracer));
+    formData = TestUtils.getContent("valid-form.json");
+    formKey = readName(formData);
+  }
+
+  @AfterEach
+  void tearDown() {
+    tracing.close();
+  }
+
+  @Test
+  void shouldRecordStagesOfSampledWrite() {
+    var request = tracer.nextSpan().name("post /api/forms").start();
+    try (var ignored = tracer.withSpan(request)) {
+      formSchemaProviderService.saveForm(formData, ValidationMode.COMPLETE);
+    } finally {
+      request.end();
+    }
+
+    var stages = finishedSpans.stream()
+        .filter(span -> request.context().spanId().equals(span.parentId()))
+        .collect(Collectors.toList());
+    assertThat(stages).extracting(MutableSpan::name).contains("form.parse",
+        "form.validate.schema", "form.validate.duplicates", "storage.read", "storage.write");
+    assertThat(stages).allMatch(span -> span.traceId().equals(request.context().traceId()));
+    var write = stages.stream().filter(span -> "storage.write".equals(span.name())).findFirst();
+    assertThat(write).get()
+        .extracting(span -> Long.parseLong(span.tag(StageTracer.PAYLOAD_SIZE_TAG)))
+        .matches(size -> size > 0);
+  }
+
+  @Test
+  void shouldNotRecordStagesOfUnsampledRead() {
+    formSchemaProviderService.saveForm(formData, ValidationMode.COMPLETE);
+    finishedSpans.clear();
+
+    var request = unsampledSpan();
+    try (var ignored = tracer.withSpan(request)) {
+      formSchemaProviderService.getFormByKey(formKey);
+    } finally {
+      request.end();
+    }
+
+    assertThat(finishedSpans).isEmpty();
+  }
+
+  @Test
+  void shouldSampleWritesAndReadsWithOwnProbability() {
+    var sampler = new SleuthConfig().httpServerSampler(0.0f, 1.0f);
+
+    assertThat(sampler.trySample(request("GET"))).isFalse();
+    assertThat(sampler.trySample(request("HEAD"))).isFalse();
+    assertThat(sampler.trySample(request("POST"))).isTrue();
+    assertThat(sampler.trySample(request("PUT"))).isTrue();
+    assertThat(sampler.trySample(request("DELETE"))).isTrue();
+  }
+
+  @Test
+  @Tag("performance")
+  void measureReadTracingOverhead() {
+    formSchemaProviderService.saveForm(formData, ValidationMode.COMPLETE);
+    var untraced = newFormSchemaProviderService(new StageTracer(mock(Tracer.class)));
+
+    var untracedNanos = averageReadNanos(untraced, null);
+    var unsampledNanos = averageReadNanos(formSchemaProviderService, unsampledSpan());
+    var sampledNanos = averageReadNanos(formSchemaProviderService, tracer.nextSpan().start());
+
+    log.info("Form read of {} bytes: untraced {} ns, unsampled {} ns (x{}), sampled {} ns (x{})",
+        formData.length(), untracedNanos, unsampledNanos,
+        String.format("%.3f", (double) unsampledNanos / untracedNanos), sampledNanos,
+        String.format("%.3f", (double) sampledNanos / untracedNanos));
+  }
+
+  private long averageReadNanos(FormSchemaProviderServiceImpl service,
+      Span request) {
+    var iterations = 2_000;
+    for (var i = 0; i < iterations; i++) {
+      read(service, request);
+    }
+    var start = System.nanoTime();
+    for (var i = 0; i < iterations; i++) {
+      read(service, request);
+    }
+    return (System.nanoTime() - start) / iterations;
+  }
+
+  private void read(FormSchemaProviderServiceImpl service,
+      Span request) {
+    if (request == null) {
+      service.getFormByKey(formKey);
+      return;
+    }
+    try (var ignored = tracer.withSpan(request)) {
+      service.getFormByKey(formKey);
+    }
+  }
+
+  private Span unsampledSpan() {
+    return BraveSpan.fromBrave(
+        tracing.tracer().nextSpan(TraceContextOrSamplingFlags.NOT_SAMPLED).start());
+  }
+
+  private FormSchemaProviderServiceImpl newFormSchemaProviderService(StageTracer stageTracer) {
+    var circuitBreaker = new CircuitBreaker(5, Duration.ofSeconds(10), Clock.systemUTC());
+    var schemaValidator = new GenericSchemaValidator(testJsonSchema(), testJsonSchemaFactory());
+    var validationService = new FormSchemaValidationServiceImpl(schemaValidator, objectMapper, 100,
+        10, stageTracer, FormComplexityBudget.unlimited());
+    var formKeyIndex = new FormKeyIndex(formStorage, circuitBreaker,
+        mock(StringRedisTemplate.class), "form-key-changes", 100, 0.01, Duration.ofMinutes(30));
+    return new FormSchemaProviderServiceImpl(validationService, formStorage, objectMapper,
+        new FormComponentIndexer(objectMapper), mock(FormSchemaVersionService.class),
+        circuitBreaker, formKeyIndex, stageTracer, mock(TenantQuotaService.class),
+        mock(FormChangeFeedService.class), mock(FormDependencyIndex.class),
+        mock(FormFootprintService.class), mock(FormSnapshotStore.class),
+        mock(FormGenerationService.class), new SimpleMeterRegistry());
+  }
+
+  private static HttpRequest request(String method) {
+    var request = mock(HttpRequest.class);
+    when(request.method()).thenReturn(method);
+    return request;
+  }
+
+  @SneakyThrows
+  private String readName(String formData) {
+    return objectMapper.readTree(formData).get("name").asText();
+  }
+
+  @SneakyThrows
+  private JsonSchema testJsonSchema() {
+    var resource = new ClassRelativeResourceLoader(getClass()).getResource(FORMS_JSON_SCHEMA);
+    return testJsonSchemaFactory().getSchema(resource.getInputStream());
+  }
+
+  private static JsonSchemaFactory testJsonSchemaFactory() {
+    return JsonSchemaFactory
+        .builder(JsonSchemaFactory.getInstance(VersionFlag.V4))
+        .objectMapper(new JsonMapper())
+        .build();
+  }
+}
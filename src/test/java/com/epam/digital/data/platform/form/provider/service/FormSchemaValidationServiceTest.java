@@ -20,15 +20,23 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import com.epam.digital.data.platform.form.provider.dto.ValidationError;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
 import com.epam.digital.data.platform.form.provider.exception.FormSchemaValidationException;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComplexityBudget;
 import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaValidationServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.GenericSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.SchemaValidator;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion.VersionFlag;
+import java.util.List;
 import java.util.Map;
 import lombok.SneakyThrows;
 import org.assertj.core.api.Assertions;
@@ -39,6 +47,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.core.io.ClassRelativeResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 import util.TestUtils;
@@ -53,8 +62,10 @@ class FormSchemaValidationServiceTest {
 
   @BeforeEach
   public void setUp() {
-    this.formSchemaValidationService = new FormSchemaValidationServiceImpl(testJsonSchema(),
-        new ObjectMapper());
+    var schemaValidator = new GenericSchemaValidator(testJsonSchema(), testJsonSchemaFactory());
+    this.formSchemaValidationService = new FormSchemaValidationServiceImpl(schemaValidator,
+        new ObjectMapper(), 100, 2, new StageTracer(mock(Tracer.class)),
+        FormComplexityBudget.unlimited());
   }
 
   @ParameterizedTest
@@ -62,7 +73,7 @@ class FormSchemaValidationServiceTest {
   void shouldNotHaveErrors(String path) {
     var formData = TestUtils.getContent(path);
 
-    var validationErrors = formSchemaValidationService.validate(formData);
+    var validationErrors = formSchemaValidationService.validate(formData, ValidationMode.COMPLETE);
 
     assertThat(validationErrors, is(IsMapWithSize.anEmptyMap()));
   }
@@ -71,7 +82,7 @@ class FormSchemaValidationServiceTest {
   void shouldBeValidationErrorsOnDuplicateName() {
     var formData = TestUtils.getContent("duplicate-properties-form.json");
 
-    var validationErrors = formSchemaValidationService.validate(formData);
+    var validationErrors = formSchemaValidationService.validate(formData, ValidationMode.COMPLETE);
     System.err.println(validationErrors);
     assertThat(validationErrors, is(IsMapWithSize.aMapWithSize(4)));
   }
@@ -80,10 +91,11 @@ class FormSchemaValidationServiceTest {
   void shouldBeValidationErrorsOnMissedRequiredProperties() {
     var expectedErrors = Map.of("name", ValidationError.builder()
         .path("name")
-        .massage("$.name: is missing but it is required").build());
+        .massage("$.name: is missing but it is required")
+        .messages(List.of("$.name: is missing but it is required")).build());
     var formData = TestUtils.getContent("missed-required-properties-form.json");
 
-    var validationErrors = formSchemaValidationService.validate(formData);
+    var validationErrors = formSchemaValidationService.validate(formData, ValidationMode.COMPLETE);
 
     assertThat(validationErrors, is(IsMapWithSize.aMapWithSize(1)));
     assertEquals(expectedErrors, validationErrors);
@@ -94,20 +106,158 @@ class FormSchemaValidationServiceTest {
     var formData = TestUtils.getContent("broken-structure-form.json");
 
     var exception = assertThrows(FormSchemaValidationException.class,
-        () -> formSchemaValidationService.validate(formData));
+        () -> formSchemaValidationService.validate(formData, ValidationMode.COMPLETE));
 
     Assertions.assertThat(exception.getMessage())
         .isEqualTo("Error during form schema validation: schema is not valid");
   }
 
+  @Test
+  void shouldKeepAllErrorsOfPathWithinLimit() {
+    var formData = "{\"name\": 1, \"title\": 2, \"display\": \"form\"}";
+
+    var validationErrors = formSchemaValidationService.validate(formData,
+        ValidationMode.COMPLETE);
+
+    Assertions.assertThat(validationErrors).containsOnlyKeys("integer");
+    Assertions.assertThat(validationErrors.get("integer").getMessages()).containsExactlyInAnyOrder(
+        "$.name: integer found, string expected", "$.title: integer found, string expected");
+    Assertions.assertThat(validationErrors.get("integer").getOmittedMessages()).isZero();
+  }
+
+  @Test
+  void shouldCountMessagesAboveLimitPerPath() {
+    var schemaValidator = new GenericSchemaValidator(testJsonSchema(), testJsonSchemaFactory());
+    var limitedValidationService = new FormSchemaValidationServiceImpl(schemaValidator,
+        new ObjectMapper(), 100, 1, new StageTracer(mock(Tracer.class)),
+        FormComplexityBudget.unlimited());
+    var formData = "{\"name\": 1, \"title\": 2, \"display\": \"form\"}";
+
+    var validationErrors = limitedValidationService.validate(formData, ValidationMode.COMPLETE);
+
+    var integerError = validationErrors.get("integer");
+    Assertions.assertThat(integerError.getMessages()).containsExactly(integerError.getMassage());
+    Assertions.assertThat(integerError.getOmittedMessages()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldReturnOnlyFirstErrorInFailFastMode() {
+    var formData = TestUtils.getContent("duplicate-properties-form.json");
+
+    var validationErrors = formSchemaValidationService.validate(formData,
+        ValidationMode.FAIL_FAST);
+
+    assertThat(validationErrors, is(IsMapWithSize.aMapWithSize(1)));
+    Assertions.assertThat(validationErrors.values().iterator().next().getMessages()).isNull();
+  }
+
+  @Test
+  void shouldReportMissedRequiredPropertyInFailFastMode() {
+    var formData = TestUtils.getContent("missed-required-properties-form.json");
+
+    var validationErrors = formSchemaValidationService.validate(formData,
+        ValidationMode.FAIL_FAST);
+
+    assertEquals(Map.of("name", ValidationError.builder()
+        .path("name")
+        .massage("$.name: is missing but it is required").build()), validationErrors);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"form-{tag}", "acme:form", "@generation"})
+  void shouldRejectReservedCharactersInName(String name) {
+    var formData = TestUtils.getContent("valid-form.json")
+        .replace("\"name\": \"citizen-shared-officer-sign-app\"", "\"name\": \"" + name + "\"");
+
+    var validationErrors = formSchemaValidationService.validate(formData,
+        ValidationMode.FAIL_FAST);
+
+    assertEquals(Map.of("name", ValidationError.builder()
+        .path("name")
+        .massage("The form name must not contain any of the characters '{}:@'.").build()),
+        validationErrors);
+  }
+
+  @Test
+  void shouldNotHaveErrorsInFailFastMode() {
+    var formData = TestUtils.getContent("valid-form.json");
+
+    var validationErrors = formSchemaValidationService.validate(formData,
+        ValidationMode.FAIL_FAST);
+
+    assertThat(validationErrors, is(IsMapWithSize.anEmptyMap()));
+  }
+
+  @Test
+  void shouldReportBudgetViolationsWithoutSchemaValidation() {
+    var schemaValidator = mock(SchemaValidator.class);
+    var budgetedValidationService = new FormSchemaValidationServiceImpl(schemaValidator,
+        new ObjectMapper(), 100, 2, new StageTracer(mock(Tracer.class)),
+        new FormComplexityBudget(0, 3, 2, 7, 2));
+    var formData = "{\"name\":\"form\",\"tags\":[1,2,3],\"components\":["
+        + "{\"type\":\"panel\",\"components\":[{\"type\":\"columns\",\"components\":["
+        + "{\"label\":\"too long\"}]}]},{\"type\":\"button\"}]}";
+
+    var validationErrors = budgetedValidationService.validate(formData, ValidationMode.COMPLETE);
+
+    Assertions.assertThat(validationErrors).containsOnlyKeys("$.tags",
+        "$.components[0].components[0].components[0]",
+        "$.components[0].components[0].components[0].label", "$.components[1]");
+    Assertions.assertThat(validationErrors.get("$.tags").getMassage())
+        .isEqualTo("The array has more than 2 elements.");
+    Assertions.assertThat(
+            validationErrors.get("$.components[0].components[0].components[0]").getMassage())
+        .isEqualTo("The component is nested 3 levels deep, at most 2 are allowed.");
+    Assertions.assertThat(
+            validationErrors.get("$.components[0].components[0].components[0].label").getMassage())
+        .isEqualTo("The string is 8 characters long, at most 7 are allowed.");
+    Assertions.assertThat(validationErrors.get("$.components[1]").getMassage())
+        .isEqualTo("The form has more than 3 components.");
+    verifyNoInteractions(schemaValidator);
+  }
+
+  @Test
+  void shouldStopAtFirstBudgetViolationInFailFastMode() {
+    var schemaValidator = mock(SchemaValidator.class);
+    var budgetedValidationService = new FormSchemaValidationServiceImpl(schemaValidator,
+        new ObjectMapper(), 100, 2, new StageTracer(mock(Tracer.class)),
+        new FormComplexityBudget(0, 0, 0, 0, 2));
+    var formData = "{\"tags\":[1,2,3],\"values\":[1,2,3], \"broken\"";
+
+    var validationErrors = budgetedValidationService.validate(formData,
+        ValidationMode.FAIL_FAST);
+
+    assertEquals(Map.of("$.tags", ValidationError.builder()
+        .path("$.tags")
+        .massage("The array has more than 2 elements.").build()), validationErrors);
+    verifyNoInteractions(schemaValidator);
+  }
+
+  @Test
+  void shouldRejectTooLargeFormWithoutParsing() {
+    var budgetedValidationService = new FormSchemaValidationServiceImpl(
+        mock(SchemaValidator.class), new ObjectMapper(), 100, 2,
+        new StageTracer(mock(Tracer.class)), new FormComplexityBudget(10, 0, 0, 0, 0));
+
+    var formData = "{\"name\":\"\u00e9\u00e9\u00e9\u00e9\"}";
+
+    var validationErrors = budgetedValidationService.validate(formData, ValidationMode.COMPLETE);
+
+    Assertions.assertThat(validationErrors).containsOnlyKeys("$");
+    Assertions.assertThat(validationErrors.get("$").getMassage())
+        .isEqualTo("The form is 19 bytes long, at most 10 are allowed.");
+  }
+
   @SneakyThrows
   public JsonSchema testJsonSchema() {
     var resource = resourceLoader.getResource(FORMS_JSON_SCHEMA);
-    var factory = JsonSchemaFactory
+    return testJsonSchemaFactory().getSchema(resource.getInputStream());
+  }
+
+  private JsonSchemaFactory testJsonSchemaFactory() {
+    return JsonSchemaFactory
         .builder(JsonSchemaFactory.getInstance(VersionFlag.V4))
         .objectMapper(new JsonMapper())
         .build();
-
-    return factory.getSchema(resource.getInputStream());
   }
 }
\ No newline at end of file
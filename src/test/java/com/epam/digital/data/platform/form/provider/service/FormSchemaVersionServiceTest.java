@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaVersion;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.entity.FormSchemaDelta.Segment;
+import com.epam.digital.data.platform.form.provider.entity.FormSchemaHistory;
+import com.epam.digital.data.platform.form.provider.exception.FormSchemaDataException;
+import com.epam.digital.data.platform.form.provider.repository.FormSchemaHistoryRepository;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaVersionServiceImpl;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FormSchemaVersionServiceTest {
+
+  static final String KEY = "test-form";
+
+  @Mock
+  FormSchemaHistoryRepository historyRepository;
+  @Mock
+  FormStorage formRepository;
+
+  FormSchemaVersionService formSchemaVersionService;
+  AtomicReference<FormSchemaHistory> storedHistory = new AtomicReference<>();
+  AtomicReference<String> storedFormData = new AtomicReference<>();
+
+  @BeforeEach
+  void init() {
+    formSchemaVersionService = new FormSchemaVersionServiceImpl(historyRepository, formRepository,
+        3, 10);
+    lenient().doAnswer(invocation -> {
+      storedHistory.set(invocation.getArgument(0));
+      return invocation.getArgument(0);
+    }).when(historyRepository).save(any());
+    lenient().doAnswer(invocation -> Optional.ofNullable(storedHistory.get()))
+        .when(historyRepository).findById(KEY);
+    lenient().doAnswer(invocation -> Optional.ofNullable(storedFormData.get())
+            .map(formData -> FormSchema.builder().id(KEY).formData(formData).build()))
+        .when(formRepository).findById(KEY);
+  }
+
+  @Test
+  void shouldRebuildOlderVersionsFromDeltas() {
+    deploy(null, form("v1"));
+    deploy(form("v1"), form("v2"));
+    deploy(form("v2"), form("v3 with a longer title"));
+
+    assertThat(formSchemaVersionService.getVersions(KEY))
+        .extracting(FormSchemaVersion::getVersion, FormSchemaVersion::isCurrent)
+        .containsExactly(
+            tuple(3, true),
+            tuple(2, false),
+            tuple(1, false));
+    assertThat(formSchemaVersionService.getVersion(KEY, 3))
+        .isEqualTo(parse(form("v3 with a longer title")));
+    assertThat(formSchemaVersionService.getVersion(KEY, 2)).isEqualTo(parse(form("v2")));
+    assertThat(formSchemaVersionService.getVersion("TEST-FORM", 1)).isEqualTo(parse(form("v1")));
+    assertThat(storedHistory.get().getDeltas().get(0).getSegments())
+        .extracting(Segment::getText)
+        .containsExactly("2");
+  }
+
+  @Test
+  void shouldCopyUnchangedPartsBetweenEdits() {
+    var unchanged = "\"description\":\"" + IntStream.range(0, 10)
+        .mapToObj(i -> "unchanged text " + i).collect(Collectors.joining(" ")) + "\",";
+    deploy(null, "{\"title\":\"v1\"," + unchanged + "\"label\":\"a\"}");
+    deploy("{\"title\":\"v1\"," + unchanged + "\"label\":\"a\"}",
+        "{\"title\":\"v2\"," + unchanged + "\"label\":\"b\"}");
+
+    assertThat(storedHistory.get().getDeltas().get(0).getSegments())
+        .extracting(Segment::getText)
+        .containsExactly("1", null, "a");
+    assertThat(formSchemaVersionService.getVersion(KEY, 1))
+        .isEqualTo(parse("{\"title\":\"v1\"," + unchanged + "\"label\":\"a\"}"));
+  }
+
+  @Test
+  void shouldNotRebuildVersionsFromHistoryOfAnotherForm() {
+    deploy(null, form("v1"));
+    deploy(form("v1"), form("v2"));
+    storedFormData.set(form("v3"));
+
+    var exception = assertThrows(FormSchemaDataException.class,
+        () -> formSchemaVersionService.getVersion(KEY, 1));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The version '1' of the UI form scheme 'test-form' is missing.");
+  }
+
+  @Test
+  void shouldStartHistoryAnewWhenItDoesNotMatchPreviousForm() {
+    deploy(null, form("v1"));
+    deploy(form("v1"), form("v2"));
+    var lineage = storedHistory.get().getLineage();
+
+    deploy(form("v3"), form("v4"));
+
+    assertThat(storedHistory.get().getLineage()).isNotEqualTo(lineage);
+    assertThat(formSchemaVersionService.getVersions(KEY))
+        .extracting(FormSchemaVersion::getVersion)
+        .containsExactly(3, 2);
+    assertThat(formSchemaVersionService.getVersion(KEY, 2)).isEqualTo(parse(form("v3")));
+  }
+
+  @Test
+  void shouldNotFailWriteWhenHistoryIsNotSaved() {
+    doThrow(new IllegalStateException("unavailable")).when(historyRepository).save(any());
+
+    assertDoesNotThrow(() -> deploy(null, form("v1")));
+  }
+
+  @Test
+  void shouldKeepBoundedNumberOfVersions() {
+    deploy(null, form("v1"));
+    for (var i = 2; i <= 5; i++) {
+      deploy(form("v" + (i - 1)), form("v" + i));
+    }
+
+    assertThat(formSchemaVersionService.getVersions(KEY))
+        .extracting(FormSchemaVersion::getVersion)
+        .containsExactly(5, 4, 3);
+    assertThat(formSchemaVersionService.getVersion(KEY, 3)).isEqualTo(parse(form("v3")));
+
+    var exception = assertThrows(FormSchemaDataException.class,
+        () -> formSchemaVersionService.getVersion(KEY, 2));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The version '2' of the UI form scheme 'test-form' is missing.");
+  }
+
+  @Test
+  void shouldCacheRebuiltVersions() {
+    deploy(null, form("v1"));
+    deploy(form("v1"), form("v2"));
+
+    formSchemaVersionService.getVersion(KEY, 1);
+    formSchemaVersionService.getVersion(KEY, 1);
+
+    verify(formRepository, times(1)).findById(KEY);
+  }
+
+  @Test
+  void shouldNotRecordUnchangedForm() {
+    deploy(null, form("v1"));
+    deploy(form("v1"), form("v1"));
+
+    assertThat(storedHistory.get().getCurrentVersion()).isEqualTo(1);
+    verify(historyRepository, times(1)).save(any());
+  }
+
+  @Test
+  void shouldReportLegacyFormAsSingleVersion() {
+    storedFormData.set(form("v1"));
+
+    assertThat(formSchemaVersionService.getVersions(KEY))
+        .extracting(FormSchemaVersion::getVersion)
+        .containsExactly(1);
+  }
+
+  @Test
+  void shouldThrowWhenFormIsMissing() {
+    var exception = assertThrows(FormSchemaDataException.class,
+        () -> formSchemaVersionService.getVersions(KEY));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The UI form scheme for the specified key 'test-form' is missing.");
+  }
+
+  private void deploy(String previousFormData, String formData) {
+    storedFormData.set(formData);
+    formSchemaVersionService.recordVersion(KEY, previousFormData, formData);
+  }
+
+  private static String form(String title) {
+    return "{\"name\":\"test-form\",\"title\":\"" + title + "\",\"components\":[]}";
+  }
+
+  private static JSONObject parse(String formData) {
+    return JSONValue.parse(formData, JSONObject.class);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import com.epam.digital.data.platform.form.provider.controller.FormSchemaProviderController;
+import com.epam.digital.data.platform.form.provider.dto.FormSchemaContent;
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.exception.FormDataRepositoryCommunicationException;
+import com.epam.digital.data.platform.form.provider.repository.FormRepository;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComponentIndexer;
+import com.epam.digital.data.platform.form.provider.service.impl.FormDependencyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormGenerationService;
+import com.epam.digital.data.platform.form.provider.service.impl.FormKeyIndex;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaProviderServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSnapshotStore;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.storage.impl.RedisFormStorage;
+import com.epam.digital.data.platform.form.provider.util.CircuitBreaker;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.http.HttpHeaders;
+import util.RedisStandIn;
+import util.TestUtils;
+
+class FormSnapshotFallbackTest {
+
+  static final Duration OPEN_DURATION = Duration.ofMillis(500);
+
+  @TempDir
+  Path snapshotDirectory;
+
+  RedisStandIn redis;
+  RedisStandIn.Repositories repositories;
+  CircuitBreaker circuitBreaker;
+  FormSchemaProviderServiceImpl formSchemaProviderService;
+  FormSnapshotStore formSnapshotStore;
+  FormSchemaProviderController controller;
+
+  @BeforeEach
+  void init() throws Exception {
+    redis = new RedisStandIn().start();
+    repositories = redis.repositories();
+    var formStorage = new RedisFormStorage(repositories.getRepository(FormRepository.class),
+        repositories.getStringRedisTemplate());
+
+    var objectMapper = new ObjectMapper();
+    var validationService = mock(FormSchemaValidationService.class);
+    Mockito.when(validationService.validate(Mockito.anyString(), Mockito.any()))
+        .thenReturn(Map.of());
+    circuitBreaker = new CircuitBreaker(2, OPEN_DURATION, Clock.systemUTC());
+    var formKeyIndex = new FormKeyIndex(formStorage, circuitBreaker,
+        repositories.getStringRedisTemplate(), "form-key-changes", 100, 0.01,
+        Duration.ofMinutes(30));
+    formSnapshotStore = new FormSnapshotStore(formStorage, circuitBreaker,
+        snapshotDirectory.resolve("forms.snapshot"));
+    formSchemaProviderService = new FormSchemaProviderServiceImpl(validationService, formStorage,
+        objectMapper, new FormComponentIndexer(objectMapper),
+        mock(FormSchemaVersionService.class), circuitBreaker, formKeyIndex,
+        new StageTracer(mock(Tracer.class)), mock(TenantQuotaService.class),
+        mock(FormChangeFeedService.class), mock(FormDependencyIndex.class),
+        mock(FormFootprintService.class), formSnapshotStore, mock(FormGenerationService.class),
+        new SimpleMeterRegistry());
+    controller = new FormSchemaProviderController(formSchemaProviderService,
+        mock(FormSchemaVersionService.class), mock(FormBundleService.class));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    repositories.close();
+    redis.close();
+  }
+
+  @Test
+  void shouldServeSnapshotWhileRedisIsDownAndRecoverWithoutRestart() throws Exception {
+    var form = TestUtils.getContent("valid-form.json");
+    var expected = JSONValue.parse(form, JSONObject.class);
+    var key = expected.getAsString("name");
+    formSchemaProviderService.saveForm(form, ValidationMode.COMPLETE);
+    formSnapshotStore.refresh();
+
+    var fresh = controller.getForm(key);
+    assertThat(fresh.getBody()).isEqualTo(expected);
+    assertThat(fresh.getHeaders().containsKey(HttpHeaders.WARNING)).isFalse();
+
+    redis.kill();
+
+    for (var i = 0; i < 3; i++) {
+      var stale = controller.getForm(key);
+      assertThat(stale.getBody()).isEqualTo(expected);
+      assertThat(stale.getHeaders().getFirst(HttpHeaders.WARNING))
+          .isEqualTo("110 - \"Response is Stale\"");
+      assertThat(stale.getHeaders().getFirst(HttpHeaders.AGE)).isNotNull();
+    }
+    assertThat(circuitBreaker.isOpen()).isTrue();
+    assertThrows(FormDataRepositoryCommunicationException.class,
+        () -> controller.getForm("missing-in-snapshot"));
+
+    var staleForms = controller.getForms(List.of(key, "missing-in-snapshot"));
+    assertThat(staleForms.getBody())
+        .extracting(FormSchemaContent::getKey, FormSchemaContent::getForm)
+        .containsExactly(tuple(key, expected));
+    assertThat(staleForms.getHeaders().getFirst(HttpHeaders.WARNING))
+        .isEqualTo("110 - \"Response is Stale\"");
+    var components = (JSONArray) expected.get("components");
+    var component = (JSONObject) components.get(0);
+    assertThat(controller.getFormComponent(key, component.getAsString("key")).getBody())
+        .isEqualTo(component);
+
+    formSnapshotStore.refresh();
+    assertThat(controller.getForm(key).getBody()).isEqualTo(expected);
+
+    redis.start();
+
+    var deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+    var recovered = controller.getForm(key);
+    while (recovered.getHeaders().containsKey(HttpHeaders.WARNING)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(OPEN_DURATION.toMillis() / 5);
+      recovered = controller.getForm(key);
+    }
+    assertThat(recovered.getHeaders().containsKey(HttpHeaders.WARNING)).isFalse();
+    assertThat(recovered.getBody()).isEqualTo(expected);
+    assertThat(circuitBreaker.isOpen()).isFalse();
+  }
+
+  @Test
+  void shouldLoadSnapshotWrittenBeforeRestart() {
+    var form = TestUtils.getContent("valid-form.json");
+    var key = JSONValue.parse(form, JSONObject.class).getAsString("name");
+    formSchemaProviderService.saveForm(form, ValidationMode.COMPLETE);
+    formSnapshotStore.refresh();
+
+    var restarted = new FormSnapshotStore(mock(FormStorage.class), circuitBreaker,
+        snapshotDirectory.resolve("forms.snapshot"));
+    restarted.load();
+
+    assertThat(restarted.getFormByKey(key.toUpperCase()))
+        .contains(JSONValue.parse(form, JSONObject.class));
+    assertThat(restarted.getCreatedAt()).isEqualTo(formSnapshotStore.getCreatedAt());
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.epam.digital.data.platform.form.provider.dto.ValidationMode;
+import com.epam.digital.data.platform.form.provider.service.impl.FormComplexityBudget;
+import com.epam.digital.data.platform.form.provider.service.impl.FormSchemaValidationServiceImpl;
+import com.epam.digital.data.platform.form.provider.service.impl.GeneratedFormsSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.GenericSchemaValidator;
+import com.epam.digital.data.platform.form.provider.service.impl.SchemaValidator;
+import com.epam.digital.data.platform.form.provider.util.StageTracer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.core.io.DefaultResourceLoader;
+import util.TestUtils;
+
+@Slf4j
+class GeneratedFormsSchemaValidatorTest {
+
+  private static final Path GENERATED_SOURCE = Path.of("src/main/java",
+      GeneratedFormsSchemaValidator.class.getName().replace('.', '/') + ".java");
+  private static final List<String> FORMS = List.of("valid-form.json", "valid-form-put.json",
+      "valid-form-with-special-characters.json", "invalid-form.json",
+      "missed-required-properties-form.json", "duplicate-properties-form.json");
+  private static final List<String> PROPERTY_VALUES = List.of("\"form\"", "\"Form\"", "\"\"",
+      "\"\\ud83d\\ude00\"", "1", "1.5", "true", "null", "[\"form\"]", "{}");
+  private static final List<String> SOME_PROPERTY_VALUES = List.of("\"form\"", "\"\"", "1",
+      "null");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final JsonSchemaFactory schemaFactory = JsonSchemaFactory
+      .builder(JsonSchemaFactory.getInstance(VersionFlag.V4))
+      .objectMapper(new JsonMapper())
+      .build();
+
+  String schemaContent;
+  SchemaValidator generic;
+  SchemaValidator generated;
+
+  @BeforeEach
+  @SneakyThrows
+  void init() {
+    var resource = new DefaultResourceLoader()
+        .getResource(GeneratedFormsSchemaValidator.SCHEMA_LOCATION);
+    try (var inputStream = resource.getInputStream()) {
+      schemaContent = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    generic = new GenericSchemaValidator(schemaFactory.getSchema(schemaContent), schemaFactory);
+    generated = new GeneratedFormsSchemaValidator();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldBeGeneratedFromCurrentSchema() {
+    var source = new SchemaValidatorGenerator(
+        GeneratedFormsSchemaValidator.class.getPackageName(),
+        GeneratedFormsSchemaValidator.class.getSimpleName(),
+        GeneratedFormsSchemaValidator.SCHEMA_LOCATION)
+        .generate(schemaContent, schemaFactory);
+    if (Boolean.getBoolean("validator.generate")) {
+      Files.writeString(GENERATED_SOURCE, source);
+    }
+
+    assertThat(Files.readString(GENERATED_SOURCE))
+        .as("%s is outdated, regenerate it with -Dvalidator.generate=true", GENERATED_SOURCE)
+        .isEqualTo(source);
+  }
+
+  @Test
+  void shouldReturnSameMessagesAsGenericValidator() {
+    for (var form : forms(PROPERTY_VALUES)) {
+      var node = readTree(form);
+
+      assertThat(generated.validate(node)).as(form).isEqualTo(generic.validate(node));
+      assertThat(generated.findFirstError(node)).as(form).isEqualTo(generic.findFirstError(node));
+    }
+  }
+
+  @Test
+  void shouldReturnSameValidationErrorsAsGenericValidator() {
+    var stageTracer = new StageTracer(mock(Tracer.class));
+    var genericService = new FormSchemaValidationServiceImpl(generic, objectMapper, 100, 2,
+        stageTracer, FormComplexityBudget.unlimited());
+    var generatedService = new FormSchemaValidationServiceImpl(generated, objectMapper, 100, 2,
+        stageTracer, FormComplexityBudget.unlimited());
+
+    for (var form : forms(SOME_PROPERTY_VALUES)) {
+      if (readTree(form).isObject()) {
+        for (var mode : ValidationMode.values()) {
+          assertThat(generatedService.validate(form, mode)).as(form)
+              .isEqualTo(genericService.validate(form, mode));
+        }
+      }
+    }
+  }
+
+  @Test
+  @Tag("performance")
+  void measureGenericAndGeneratedValidationTime() {
+    var results = new ArrayList<String>();
+    for (var path : FORMS) {
+      var node = readTree(TestUtils.getContent(path));
+      var genericNanos = averageNanos(generic, node);
+      var generatedNanos = averageNanos(generated, node);
+      results.add(String.format("%40s: generic %6d ns, generated %6d ns, x%.1f", path,
+          genericNanos, generatedNanos, (double) genericNanos / generatedNanos));
+    }
+    log.info("Form schema validation:\n{}", String.join("\n", results));
+  }
+
+  private List<String> forms(List<String> propertyValues) {
+    var forms = new ArrayList<String>();
+    FORMS.forEach(path -> forms.add(TestUtils.getContent(path)));
+    forms.addAll(List.of("[]", "\"form\"", "1", "true", "null"));
+    var properties = List.of("type", "display", "name", "title");
+    var values = new ArrayList<>(propertyValues);
+    values.add(null);
+    var combinations = (int) Math.pow(values.size(), properties.size());
+    for (var combination = 0; combination < combinations; combination++) {
+      var fields = new ArrayList<String>();
+      var rest = combination;
+      for (var property : properties) {
+        var value = values.get(rest % values.size());
+        rest /= values.size();
+        if (value != null) {
+          fields.add("\"" + property + "\":" + value);
+        }
+      }
+      forms.add("{" + String.join(",", fields) + "}");
+    }
+    return forms;
+  }
+
+  @SneakyThrows
+  private JsonNode readTree(String form) {
+    return objectMapper.readTree(form);
+  }
+
+  private static long averageNanos(SchemaValidator validator, JsonNode form) {
+    for (var i = 0; i < 10_000; i++) {
+      validator.validate(form);
+    }
+    var runs = 100_000;
+    var started = System.nanoTime();
+    for (var i = 0; i < runs; i++) {
+      validator.validate(form);
+    }
+    return (System.nanoTime() - started) / runs;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.service.impl.GenericSchemaValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion.VersionFlag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.TestUtils;
+
+class GenericSchemaValidatorTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final JsonSchemaFactory schemaFactory = JsonSchemaFactory
+      .builder(JsonSchemaFactory.getInstance(VersionFlag.V4))
+      .objectMapper(new JsonMapper())
+      .build();
+
+  JsonSchema schema;
+  GenericSchemaValidator schemaValidator;
+
+  @BeforeEach
+  void init() {
+    schema = schemaFactory.getSchema(TestUtils.getContent("forms-schema-with-components.json"));
+    schemaValidator = new GenericSchemaValidator(schema, schemaFactory);
+  }
+
+  @Test
+  void shouldReturnMessagesOfSchema() {
+    var form = formWithComponents(10, 3);
+
+    var messages = schemaValidator.validate(form);
+
+    assertThat(messages).hasSize(4).containsExactlyInAnyOrderElementsOf(schema.validate(form));
+  }
+
+  @Test
+  void shouldFindFirstErrorOnly() {
+    var form = formWithComponents(10, 3);
+
+    var error = schemaValidator.findFirstError(form);
+
+    assertThat(error).isPresent();
+    assertThat(schema.validate(form)).contains(error.get());
+    assertThat(schemaValidator.findFirstError(formWithComponents(10, 0))).isEmpty();
+  }
+
+  private ObjectNode formWithComponents(int count, int invalidEvery) {
+    var form = objectMapper.createObjectNode().put("name", "form").put("title", "Form");
+    var components = form.putArray("components");
+    for (var i = 0; i < count; i++) {
+      var component = components.addObject().put("type", "textfield");
+      if (invalidEvery == 0 || i % invalidEvery != 0) {
+        component.put("key", "field" + i);
+      }
+    }
+    return form;
+  }
+}
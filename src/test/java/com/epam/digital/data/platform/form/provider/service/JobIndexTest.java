@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.entity.FormDeletionJob;
+import com.epam.digital.data.platform.form.provider.service.impl.JobIndex;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+@ExtendWith(MockitoExtension.class)
+class JobIndexTest {
+
+  static final String KEYSPACE = "bpm-form-deletion-jobs";
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+  @Mock
+  ValueOperations<String, String> valueOperations;
+  @Mock
+  SetOperations<String, String> setOperations;
+  @Mock
+  ZSetOperations<String, String> zSetOperations;
+  @Mock
+  Cursor<String> cursor;
+
+  JobIndex jobIndex;
+
+  @BeforeEach
+  void init() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    jobIndex = new JobIndex(redisTemplate, FormDeletionJob.class);
+  }
+
+  @Test
+  void shouldRemoveIdsOfExpiredJobsOnly() {
+    when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    when(zSetOperations.rangeByScore(eq(KEYSPACE + "-expirations"), eq(0.0), anyDouble(),
+        eq(0L), eq(100L))).thenReturn(new LinkedHashSet<>(List.of("expired", "alive", "kept")));
+    when(redisTemplate.getExpire(KEYSPACE + ":expired", TimeUnit.MILLISECONDS)).thenReturn(-2L);
+    when(redisTemplate.getExpire(KEYSPACE + ":alive", TimeUnit.MILLISECONDS)).thenReturn(5_000L);
+    when(redisTemplate.getExpire(KEYSPACE + ":kept", TimeUnit.MILLISECONDS)).thenReturn(-1L);
+
+    assertThat(jobIndex.removeExpired()).isEqualTo(1);
+
+    verify(setOperations).remove(KEYSPACE, "expired");
+    verify(setOperations).remove(KEYSPACE + "-active", "expired");
+    verify(zSetOperations).remove(KEYSPACE + "-expirations", "expired");
+    verify(zSetOperations).add(eq(KEYSPACE + "-expirations"), eq("alive"), anyDouble());
+    verify(zSetOperations).remove(KEYSPACE + "-expirations", "kept");
+    verify(setOperations, never()).remove(KEYSPACE, "kept");
+  }
+
+  @Test
+  void shouldIndexIdsStoredBeforeIndexOnce() {
+    when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    when(valueOperations.setIfAbsent(KEYSPACE + "-indexed", "true")).thenReturn(true);
+    when(setOperations.scan(eq(KEYSPACE), any(ScanOptions.class))).thenReturn(cursor);
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn("old");
+    when(setOperations.members(KEYSPACE + "-active")).thenReturn(Set.of("old"));
+
+    assertThat(jobIndex.activeIds()).containsExactly("old");
+    jobIndex.activeIds();
+
+    verify(setOperations).add(KEYSPACE + "-active", "old");
+    verify(zSetOperations).addIfAbsent(KEYSPACE + "-expirations", "old", 0);
+    verify(valueOperations).setIfAbsent(KEYSPACE + "-indexed", "true");
+  }
+}
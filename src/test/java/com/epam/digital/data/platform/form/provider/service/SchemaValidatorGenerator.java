@@ -0,0 +1,313 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import com.epam.digital.data.platform.form.provider.util.ContentHash;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.AdditionalPropertiesValidator;
+import com.networknt.schema.EnumValidator;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.JsonValidator;
+import com.networknt.schema.MinLengthValidator;
+import com.networknt.schema.PropertiesValidator;
+import com.networknt.schema.RequiredValidator;
+import com.networknt.schema.TypeValidator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates the source of a {@code SchemaValidator} specialized for one JSON schema.
+ * <p>
+ * The generator walks the validators of the generic networknt schema in the order the generic
+ * engine runs them and emits plain code for each of them, so the generated validator returns the
+ * same messages in the same order. Messages that do not depend on the validated value are built
+ * once as constants. Only the keywords used by the built-in form schema are supported:
+ * {@code type} with a single non-numeric type, {@code enum} of strings, {@code minLength},
+ * {@code required}, {@code properties} and {@code additionalProperties: true}; any other keyword
+ * fails the generation.
+ */
+class SchemaValidatorGenerator {
+
+  private static final String HEADER = String.join("\n",
+      "/*",
+      " * Copyright 2022 EPAM Systems.",
+      " *",
+      " * Licensed under the Apache License, Version 2.0 (the \"License\");",
+      " * you may not use this file except in compliance with the License.",
+      " * You may obtain a copy of the License at",
+      " *",
+      " *     https://www.apache.org/licenses/LICENSE-2.0",
+      " *",
+      " * Unless required by applicable law or agreed to in writing, software",
+      " * distributed under the License is distributed on an \"AS IS\" BASIS,",
+      " * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.",
+      " * See the License for the specific language governing permissions and",
+      " * limitations under the License.",
+      " */",
+      "");
+  private static final Set<String> NON_VALIDATION_KEYWORDS = Set.of("$schema", "id", "title",
+      "description", "definitions", "default");
+  private static final Set<String> SUPPORTED_TYPES = Set.of("object", "string", "array",
+      "boolean", "null");
+
+  private final String packageName;
+  private final String className;
+  private final String schemaLocation;
+  private final List<String> constants = new ArrayList<>();
+  private final List<String> methods = new ArrayList<>();
+  private final Set<String> names = new HashSet<>();
+
+  SchemaValidatorGenerator(String packageName, String className, String schemaLocation) {
+    this.packageName = packageName;
+    this.className = className;
+    this.schemaLocation = schemaLocation;
+  }
+
+  String generate(String schemaContent, JsonSchemaFactory schemaFactory) {
+    var schema = schemaFactory.getSchema(schemaContent);
+    var rootMethod = generateSchema(schema, "$");
+
+    var source = new StringBuilder(HEADER)
+        .append("\n")
+        .append("package ").append(packageName).append(";\n")
+        .append("\n")
+        .append("import com.fasterxml.jackson.databind.JsonNode;\n")
+        .append("import com.networknt.schema.JsonType;\n")
+        .append("import com.networknt.schema.SchemaValidatorsConfig;\n")
+        .append("import com.networknt.schema.TypeFactory;\n")
+        .append("import com.networknt.schema.ValidationMessage;\n")
+        .append("import com.networknt.schema.ValidatorTypeCode;\n")
+        .append("import java.util.ArrayList;\n")
+        .append("import java.util.List;\n")
+        .append("import java.util.Optional;\n")
+        .append("\n")
+        .append("/**\n")
+        .append(" * Validates forms against {@code ").append(schemaLocation)
+        .append("} with code generated from the\n")
+        .append(" * schema. Returns the same messages in the same order as the generic networknt"
+            + " validator.\n")
+        .append(" * <p>\n")
+        .append(" * Generated by {@code SchemaValidatorGenerator}, do not edit. After changing the"
+            + " schema run\n")
+        .append(" * {@code mvn test -Dtest=GeneratedFormsSchemaValidatorTest"
+            + " -Dvalidator.generate=true}.\n")
+        .append(" */\n")
+        .append("public class ").append(className).append(" implements SchemaValidator {\n")
+        .append("\n")
+        .append("  public static final String SCHEMA_LOCATION = \"").append(schemaLocation)
+        .append("\";\n")
+        .append("  public static final String SCHEMA_CONTENT_HASH =\n")
+        .append("      \"").append(ContentHash.of(schema.getSchemaNode())).append("\";\n")
+        .append("\n")
+        .append("  private static final SchemaValidatorsConfig CONFIG = "
+            + "new SchemaValidatorsConfig();\n");
+    constants.forEach(source::append);
+    source.append("\n")
+        .append("  @Override\n")
+        .append("  public List<ValidationMessage> validate(JsonNode formSchemaJson) {\n")
+        .append("    var messages = new ArrayList<ValidationMessage>();\n")
+        .append("    ").append(rootMethod).append("(formSchemaJson, messages, false);\n")
+        .append("    return messages;\n")
+        .append("  }\n")
+        .append("\n")
+        .append("  @Override\n")
+        .append("  public Optional<ValidationMessage> findFirstError(JsonNode formSchemaJson) {\n")
+        .append("    var messages = new ArrayList<ValidationMessage>(1);\n")
+        .append("    ").append(rootMethod).append("(formSchemaJson, messages, true);\n")
+        .append("    return messages.stream().findFirst();\n")
+        .append("  }\n");
+    methods.forEach(method -> source.append("\n").append(method));
+    source.append("\n")
+        .append("  private static boolean add(List<ValidationMessage> messages,"
+            + " ValidationMessage message,\n")
+        .append("      boolean failFast) {\n")
+        .append("    messages.add(message);\n")
+        .append("    return failFast;\n")
+        .append("  }\n")
+        .append("\n")
+        .append("  private static ValidationMessage typeMessage(String at, JsonType nodeType,"
+            + " String expected) {\n")
+        .append("    return ValidationMessage.of(ValidatorTypeCode.TYPE.getValue(),"
+            + " ValidatorTypeCode.TYPE, at,\n")
+        .append("        nodeType.toString(), expected);\n")
+        .append("  }\n")
+        .append("}\n");
+    return source.toString();
+  }
+
+  private String generateSchema(JsonSchema schema, String at) {
+    var methodName = uniqueName("validate" + camelCase(at));
+    var methodIndex = methods.size();
+    methods.add(null);
+    var body = new StringBuilder()
+        .append("  // ").append(at).append("\n")
+        .append("  private static boolean ").append(methodName)
+        .append("(JsonNode node, List<ValidationMessage> messages,\n")
+        .append("      boolean failFast) {\n");
+    for (Map.Entry<String, JsonValidator> entry : schema.getValidators().entrySet()) {
+      var keyword = entry.getKey().substring(entry.getKey().lastIndexOf('/') + 1);
+      var validator = entry.getValue();
+      var keywordNode = schema.getSchemaNode().get(keyword);
+      if (validator instanceof TypeValidator) {
+        body.append(typeCheck(keywordNode, at));
+      } else if (validator instanceof EnumValidator) {
+        body.append(enumCheck(keywordNode, at));
+      } else if (validator instanceof MinLengthValidator) {
+        body.append(minLengthCheck(keywordNode, at));
+      } else if (validator instanceof RequiredValidator) {
+        body.append(requiredCheck(keywordNode, at));
+      } else if (validator instanceof PropertiesValidator) {
+        for (var property : ((PropertiesValidator) validator).getSchemas().entrySet()) {
+          var propertyAt = at + "." + property.getKey();
+          var propertyMethod = generateSchema(property.getValue(), propertyAt);
+          var variable = uniqueName(lowerCamelCase(property.getKey()) + "Node");
+          body.append("    var ").append(variable).append(" = node.get(")
+              .append(javaString(property.getKey())).append(");\n")
+              .append("    if (").append(variable).append(" != null && ").append(propertyMethod)
+              .append("(").append(variable).append(", messages, failFast)) {\n")
+              .append("      return true;\n")
+              .append("    }\n");
+        }
+      } else if (validator instanceof AdditionalPropertiesValidator) {
+        if (!keywordNode.isBoolean() || !keywordNode.booleanValue()) {
+          throw unsupported(at, keyword, keywordNode);
+        }
+      } else if (!NON_VALIDATION_KEYWORDS.contains(keyword)) {
+        throw unsupported(at, keyword, keywordNode);
+      }
+    }
+    body.append("    return false;\n")
+        .append("  }\n");
+    methods.set(methodIndex, body.toString());
+    return methodName;
+  }
+
+  private String typeCheck(JsonNode typeNode, String at) {
+    if (!typeNode.isTextual() || !SUPPORTED_TYPES.contains(typeNode.textValue())) {
+      throw unsupported(at, "type", typeNode);
+    }
+    var jsonType = typeNode.textValue().toUpperCase(Locale.ROOT);
+    return "    var nodeType = TypeFactory.getValueNodeType(node, CONFIG);\n"
+        + "    if (nodeType != JsonType." + jsonType + " && add(messages,\n"
+        + "        typeMessage(" + javaString(at) + ", nodeType, "
+        + javaString(typeNode.textValue()) + "), failFast)) {\n"
+        + "      return true;\n"
+        + "    }\n";
+  }
+
+  private String enumCheck(JsonNode enumNode, String at) {
+    if (!enumNode.isArray() || enumNode.isEmpty()
+        || StreamSupport.stream(enumNode.spliterator(), false).anyMatch(v -> !v.isTextual())) {
+      throw unsupported(at, "enum", enumNode);
+    }
+    var values = StreamSupport.stream(enumNode.spliterator(), false)
+        .map(JsonNode::textValue)
+        .collect(Collectors.toList());
+    var constant = constant("ENUM", at, "ENUM", at,
+        "[" + String.join(", ", values) + "]");
+    var condition = values.stream()
+        .map(value -> "!" + javaString(value) + ".equals(node.textValue())")
+        .collect(Collectors.joining(" && "));
+    return "    if ((!node.isTextual() || " + condition + ")\n"
+        + "        && add(messages, " + constant + ", failFast)) {\n"
+        + "      return true;\n"
+        + "    }\n";
+  }
+
+  private String minLengthCheck(JsonNode minLengthNode, String at) {
+    if (!minLengthNode.isIntegralNumber()) {
+      throw unsupported(at, "minLength", minLengthNode);
+    }
+    var minLength = minLengthNode.intValue();
+    var constant = constant("MIN_LENGTH", at, "MIN_LENGTH", at, String.valueOf(minLength));
+    return "    if (TypeFactory.getValueNodeType(node, CONFIG) == JsonType.STRING\n"
+        + "        && node.textValue().codePointCount(0, node.textValue().length()) < "
+        + minLength + "\n"
+        + "        && add(messages, " + constant + ", failFast)) {\n"
+        + "      return true;\n"
+        + "    }\n";
+  }
+
+  private String requiredCheck(JsonNode requiredNode, String at) {
+    if (!requiredNode.isArray()) {
+      throw unsupported(at, "required", requiredNode);
+    }
+    var check = new StringBuilder("    if (node.isObject()) {\n");
+    for (var field : requiredNode) {
+      var constant = constant("REQUIRED", at + "." + field.asText(), "REQUIRED", at,
+          field.asText());
+      check.append("      if (node.get(").append(javaString(field.asText()))
+          .append(") == null && add(messages, ").append(constant).append(", failFast)) {\n")
+          .append("        return true;\n")
+          .append("      }\n");
+    }
+    return check.append("    }\n").toString();
+  }
+
+  private String constant(String prefix, String path, String typeCode, String at,
+      String argument) {
+    var suffix = path.substring(1).replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    var name = uniqueName(prefix + "_" + (suffix.isEmpty() ? "ROOT" : suffix)
+        .toUpperCase(Locale.ROOT));
+    constants.add("  private static final ValidationMessage " + name + " = ValidationMessage.of(\n"
+        + "      ValidatorTypeCode." + typeCode + ".getValue(), ValidatorTypeCode." + typeCode
+        + ", " + javaString(at) + ",\n"
+        + "      " + javaString(argument) + ");\n");
+    return name;
+  }
+
+  private String uniqueName(String name) {
+    var unique = name;
+    for (var i = 2; !names.add(unique); i++) {
+      unique = name + i;
+    }
+    return unique;
+  }
+
+  private static String camelCase(String path) {
+    var camelCase = new StringBuilder();
+    for (var part : path.substring(1).split("[^A-Za-z0-9]+")) {
+      if (!part.isEmpty()) {
+        camelCase.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+      }
+    }
+    return camelCase.length() == 0 ? "Root" : camelCase.toString();
+  }
+
+  private static String lowerCamelCase(String name) {
+    var camelCase = camelCase("$" + name);
+    return Character.toLowerCase(camelCase.charAt(0)) + camelCase.substring(1);
+  }
+
+  private static String javaString(String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  private static IllegalArgumentException unsupported(String at, String keyword,
+      JsonNode value) {
+    return new IllegalArgumentException(String.format(
+        "Keyword '%s' with value %s at %s is not supported by the generator", keyword, value,
+        at));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import com.epam.digital.data.platform.form.provider.exception.TenantQuotaExceededException;
+import com.epam.digital.data.platform.form.provider.service.impl.TenantQuotaService;
+import com.epam.digital.data.platform.form.provider.storage.FormStorage;
+import com.epam.digital.data.platform.form.provider.util.TenantContext;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class TenantQuotaServiceTest {
+
+  private static final String USAGE_KEY = "bpm-form-schema-usage:registry-a";
+
+  @Mock
+  StringRedisTemplate redisTemplate;
+
+  @Mock
+  HashOperations<String, Object, Object> hashOperations;
+
+  @Mock
+  FormStorage formStorage;
+
+  TenantQuotaService tenantQuotaService;
+
+  @BeforeEach
+  void init() {
+    tenantQuotaService = new TenantQuotaService(redisTemplate, formStorage, 2, 100);
+  }
+
+  @Test
+  void shouldCountUsageOfTenantFromStorage() {
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    when(formStorage.findAllIds()).thenReturn(Set.of("registry-a:one", "registry-b:two", "three"));
+    when(formStorage.findAllById(List.of("registry-a:one")))
+        .thenReturn(List.of(FormSchema.builder().id("registry-a:one").formData("{}").build()));
+
+    TenantContext.callAs("registry-a", () -> {
+      tenantQuotaService.checkQuota(1, 10);
+      return null;
+    });
+
+    verify(hashOperations).putIfAbsent(USAGE_KEY, "forms", "1");
+    verify(hashOperations).putIfAbsent(USAGE_KEY, "bytes", "2");
+  }
+
+  @Test
+  void shouldRejectFormAboveFormLimit() {
+    when(redisTemplate.hasKey(USAGE_KEY)).thenReturn(true);
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.get(USAGE_KEY, "forms")).thenReturn("2");
+
+    var exception = assertThrows(TenantQuotaExceededException.class,
+        () -> TenantContext.callAs("registry-a", () -> {
+          tenantQuotaService.checkQuota(1, 10);
+          return null;
+        }));
+
+    assertThat(exception.getMessage())
+        .isEqualTo("The tenant 'registry-a' can store at most 2 forms, 2 are stored already.");
+  }
+
+  @Test
+  void shouldRejectFormAboveByteLimit() {
+    when(redisTemplate.hasKey(USAGE_KEY)).thenReturn(true);
+    when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    when(hashOperations.get(USAGE_KEY, "forms")).thenReturn("1");
+    when(hashOperations.get(USAGE_KEY, "bytes")).thenReturn("95");
+
+    assertThrows(TenantQuotaExceededException.class,
+        () -> TenantContext.callAs("registry-a", () -> {
+          tenantQuotaService.checkQuota(0, 10);
+          return null;
+        }));
+  }
+
+  @Test
+  void shouldNotRecordUsageThatIsNotCountedYet() {
+    when(redisTemplate.hasKey(USAGE_KEY)).thenReturn(false);
+
+    TenantContext.callAs("registry-a", () -> {
+      tenantQuotaService.recordUsage(1, 10);
+      return null;
+    });
+
+    verify(redisTemplate, never()).opsForHash();
+  }
+
+  @Test
+  void shouldSkipRedisWhenQuotaIsDisabled() {
+    var unlimited = new TenantQuotaService(redisTemplate, formStorage, 0, 0);
+
+    unlimited.checkQuota(1000, 1000);
+    unlimited.recordUsage(1000, 1000);
+
+    assertThat(unlimited.isEnabled()).isFalse();
+    verifyNoInteractions(redisTemplate, formStorage);
+    verify(redisTemplate, never()).hasKey(anyString());
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.storage.impl.FileFormStorage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileFormStorageTest extends FormStorageConformanceTest {
+
+  @TempDir
+  Path directory;
+
+  @Override
+  protected FormStorage createStorage() {
+    return new FileFormStorage(directory);
+  }
+
+  @Test
+  void shouldKeepFormsAcrossRestartAndIgnoreTemporaryFiles() throws Exception {
+    var form = form("test/form", "{\"name\":\"test/form\"}");
+    formStorage.save(form);
+    Files.writeString(directory.resolve(".leftover.tmp"), "partial");
+
+    var restarted = new FileFormStorage(directory);
+
+    assertThat(restarted.findById("test/form")).contains(form);
+    assertThat(restarted.findAll()).containsExactly(form);
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.entity.FormComponentLocation;
+import com.epam.digital.data.platform.form.provider.entity.FormSchema;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Contract every {@link FormStorage} engine has to pass. Tests tagged {@code performance} are
+ * skipped by default and run with the {@code performance} Maven profile.
+ */
+@Slf4j
+public abstract class FormStorageConformanceTest {
+
+  protected FormStorage formStorage;
+  private ExecutorService executor;
+
+  protected abstract FormStorage createStorage() throws Exception;
+
+  /**
+   * Whether a reader running concurrently with an update of the same form is guaranteed to see
+   * the form, either its old or its new version.
+   */
+  protected boolean isUpdateVisibleAtomically() {
+    return true;
+  }
+
+  @BeforeEach
+  void initStorage() throws Exception {
+    formStorage = createStorage();
+    executor = Executors.newFixedThreadPool(8);
+  }
+
+  @AfterEach
+  void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldFindSavedForm() {
+    var form = form("test-form", "{\"name\":\"test-form\",\"title\":\"Тестова форма\"}");
+
+    formStorage.save(form);
+
+    assertThat(formStorage.findById("test-form")).contains(form);
+    assertThat(formStorage.existsById("test-form")).isTrue();
+  }
+
+  @Test
+  void shouldReadComponentIndexApartFromForm() {
+    var indexed = indexedForm("test-form", "{\"components\":[]}");
+    formStorage.saveAll(List.of(indexed, form("plain", "{}")));
+
+    assertThat(formStorage.findById("test-form"))
+        .contains(form("test-form", "{\"components\":[]}"));
+    assertThat(formStorage.findAll()).allSatisfy(
+        formSchema -> assertThat(formSchema.getComponentIndex()).isNull());
+    assertThat(formStorage.findComponentIndex("test-form")).contains(indexed.getComponentIndex());
+    assertThat(formStorage.findComponentIndex("plain")).isEmpty();
+    assertThat(formStorage.findComponentIndex("missing")).isEmpty();
+
+    formStorage.save(form("test-form", "{}"));
+    assertThat(formStorage.findComponentIndex("test-form")).isEmpty();
+    formStorage.save(indexed);
+    formStorage.deleteById("test-form");
+    assertThat(formStorage.findComponentIndex("test-form")).isEmpty();
+  }
+
+  @Test
+  void shouldFindComponentDataAtItsLocation() {
+    var component = "{\"key\":\"name\",\"label\":\"Ім'я\"}";
+    var formData = "{\"components\":[" + component + "]}";
+    var indexed = form("test-form", formData).toBuilder()
+        .componentIndex(Map.of("name", FormComponentLocation.builder()
+            .path("$.components[0]")
+            .start(formData.indexOf(component))
+            .end(formData.getBytes(StandardCharsets.UTF_8).length - 2)
+            .build()))
+        .build();
+    formStorage.saveAll(List.of(indexed, form("plain", "{}")));
+
+    assertThat(formStorage.findComponentData("test-form", "name")).contains(component);
+    assertThat(formStorage.findComponentData("test-form", "missing")).isEmpty();
+    assertThat(formStorage.findComponentData("plain", "name")).isEmpty();
+    assertThat(formStorage.findComponentData("missing", "name")).isEmpty();
+  }
+
+  @Test
+  void shouldReturnEmptyForMissingForm() {
+    assertThat(formStorage.findById("missing")).isEmpty();
+    assertThat(formStorage.existsById("missing")).isFalse();
+  }
+
+  @Test
+  void shouldReplaceFormOnSave() {
+    formStorage.save(form("test-form", "{\"v\":1}"));
+    var updated = form("test-form", "{\"v\":2}");
+
+    formStorage.save(updated);
+
+    assertThat(formStorage.findById("test-form")).contains(updated);
+    assertThat(formStorage.findAll()).containsExactly(updated);
+  }
+
+  @Test
+  void shouldDeleteForm() {
+    formStorage.save(form("test-form", "{}"));
+
+    formStorage.deleteById("test-form");
+    formStorage.deleteById("missing");
+
+    assertThat(formStorage.findById("test-form")).isEmpty();
+    assertThat(formStorage.findAll()).isEmpty();
+  }
+
+  @Test
+  void shouldFindFormsInBatch() {
+    var first = form("first", "{\"name\":\"first\"}");
+    var second = form("second", "{\"name\":\"second\"}");
+    formStorage.saveAll(List.of(first, second));
+
+    assertThat(formStorage.findAllById(List.of("first", "missing", "second")))
+        .containsExactlyInAnyOrder(first, second);
+    assertThat(formStorage.findAll()).containsExactlyInAnyOrder(first, second);
+  }
+
+  @Test
+  void shouldFindIdsOfStoredForms() {
+    formStorage.saveAll(List.of(form("first", "{}"), form("second", "{}")));
+    formStorage.save(form("third", "{}"));
+    formStorage.deleteById("second");
+
+    assertThat(formStorage.findAllIds()).containsExactlyInAnyOrder("first", "third");
+  }
+
+  @Test
+  void shouldDeleteFormsInBatch() {
+    formStorage.saveAll(List.of(form("first", "{}"), form("second", "{}"), form("third", "{}")));
+
+    var deleted = formStorage.deleteAllById(List.of("first", "missing", "third"));
+
+    assertThat(deleted).isEqualTo(2);
+    assertThat(formStorage.findAllIds()).containsExactly("second");
+    assertThat(formStorage.findById("first")).isEmpty();
+    assertThat(formStorage.deleteAllById(List.of())).isZero();
+  }
+
+  @Test
+  void shouldScanIdsByPrefixInBatches() {
+    var ids = IntStream.range(0, 25).mapToObj(i -> "registry-a:form-" + i)
+        .collect(Collectors.toList());
+    formStorage.saveAll(ids.stream().map(id -> form(id, "{}")).collect(Collectors.toList()));
+    formStorage.saveAll(List.of(form("registry-b:form-1", "{}"), form("registry-a*", "{}")));
+
+    var batches = new ArrayList<List<String>>();
+    formStorage.scanIds("registry-a:", 10, batches::add);
+
+    assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 10));
+    assertThat(batches.stream().flatMap(List::stream).collect(Collectors.toSet()))
+        .containsExactlyInAnyOrderElementsOf(ids);
+  }
+
+  @Test
+  void shouldDeleteFormsWhileScanning() {
+    formStorage.saveAll(IntStream.range(0, 30).mapToObj(i -> form("form-" + i, "{}"))
+        .collect(Collectors.toList()));
+    formStorage.save(form("other", "{}"));
+
+    formStorage.scanIds("form-", 7, formStorage::deleteAllById);
+
+    assertThat(formStorage.findAllIds()).containsExactly("other");
+  }
+
+  @Test
+  void shouldNotShareStoredForm() {
+    var form = form("test-form", "{}");
+    formStorage.save(form);
+
+    form.setFormData("{\"changed\":true}");
+    formStorage.findById("test-form").orElseThrow().setFormData("{\"changed\":true}");
+
+    assertThat(formStorage.findById("test-form").orElseThrow().getFormData()).isEqualTo("{}");
+  }
+
+  @Test
+  void shouldKeepFormsConsistentUnderConcurrentUpdates() throws Exception {
+    var versions = IntStream.range(0, 20)
+        .mapToObj(i -> "{\"name\":\"test-form\",\"version\":" + i + "}")
+        .collect(Collectors.toList());
+    formStorage.save(form("test-form", versions.get(0)));
+    var writing = new AtomicBoolean(true);
+
+    var tasks = new ArrayList<Callable<Set<String>>>();
+    for (var writer = 0; writer < 2; writer++) {
+      tasks.add(() -> {
+        for (var round = 0; round < 10; round++) {
+          versions.forEach(data -> formStorage.save(form("test-form", data)));
+        }
+        return new HashSet<String>();
+      });
+    }
+    for (var reader = 0; reader < 4; reader++) {
+      tasks.add(() -> {
+        var seen = new HashSet<String>();
+        while (writing.get()) {
+          formStorage.findById("test-form").ifPresentOrElse(
+              form -> seen.add(form.getFormData()),
+              () -> seen.add(null));
+        }
+        return seen;
+      });
+    }
+
+    var futures = new ArrayList<Future<Set<String>>>();
+    tasks.forEach(task -> futures.add(executor.submit(task)));
+    futures.get(0).get(30, TimeUnit.SECONDS);
+    futures.get(1).get(30, TimeUnit.SECONDS);
+    writing.set(false);
+
+    for (var future : futures) {
+      var seen = future.get(30, TimeUnit.SECONDS);
+      if (!isUpdateVisibleAtomically()) {
+        seen.remove(null);
+      }
+      assertThat(versions).containsAll(seen);
+    }
+    assertThat(formStorage.findById("test-form")).contains(form("test-form", versions.get(19)));
+  }
+
+  @Test
+  @Tag("performance")
+  void measureReadWriteThroughput() throws Exception {
+    var forms = 200;
+    var operationsPerThread = 5_000;
+    var formData = "{\"name\":\"form\",\"components\":[" + IntStream.range(0, 50)
+        .mapToObj(i -> "{\"key\":\"field" + i + "\",\"type\":\"textfield\"}")
+        .collect(Collectors.joining(",")) + "]}";
+    IntStream.range(0, forms).forEach(i -> formStorage.save(form("form-" + i, formData)));
+
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var thread = 0; thread < 8; thread++) {
+      var seed = thread;
+      tasks.add(() -> {
+        for (var i = 0; i < operationsPerThread; i++) {
+          var id = "form-" + ((seed * 31 + i) % forms);
+          if (i % 10 == 0) {
+            formStorage.save(form(id, formData));
+          } else {
+            formStorage.findById(id);
+          }
+        }
+        return null;
+      });
+    }
+
+    var start = System.nanoTime();
+    for (var future : executor.invokeAll(tasks)) {
+      future.get();
+    }
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    var operations = 8L * operationsPerThread;
+    log.info("{}: {} operations (10% writes) on 8 threads in {} ms, {} ops/s",
+        getClass().getSimpleName(), operations, elapsed.toMillis(),
+        operations * 1_000_000_000L / Math.max(1, elapsed.toNanos()));
+  }
+
+  protected static FormSchema form(String id, String formData) {
+    return FormSchema.builder()
+        .id(id)
+        .formData(formData)
+        .contentHash(Integer.toHexString(formData.hashCode()))
+        .build();
+  }
+
+  protected static FormSchema indexedForm(String id, String formData) {
+    return form(id, formData).toBuilder()
+        .componentIndex(Map.of("name", FormComponentLocation.builder()
+            .path("$.components[0]").start(1).end(formData.length()).build()))
+        .build();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.storage.impl.GenerationalFormStorage;
+import com.epam.digital.data.platform.form.provider.storage.impl.InMemoryFormStorage;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import util.RedisStandIn;
+
+/**
+ * Runs the conformance suite against non-initial active generations, so every call goes through
+ * the id mapping of the decorator.
+ */
+class GenerationalFormStorageTest extends FormStorageConformanceTest {
+
+  RedisStandIn redis;
+  RedisStandIn.Repositories repositories;
+  InMemoryFormStorage engine;
+  GenerationalFormStorage generationalStorage;
+
+  @Override
+  protected FormStorage createStorage() throws Exception {
+    redis = new RedisStandIn().start();
+    repositories = redis.repositories();
+    activate("", "g1");
+    activate("registry-a", "g2");
+    engine = new InMemoryFormStorage();
+    generationalStorage = new GenerationalFormStorage(engine,
+        repositories.getStringRedisTemplate());
+    return generationalStorage;
+  }
+
+  @AfterEach
+  void stopRedis() throws Exception {
+    repositories.close();
+    redis.close();
+  }
+
+  @Test
+  void shouldServeNewGenerationOnlyAfterSwitch() {
+    formStorage.saveAll(List.of(form("form-1", "{}"), form("form-2", "{}")));
+    generationalStorage.saveAll("g3", List.of(form("form-1", "{\"v\":3}"), form("form-3", "{}")));
+
+    assertThat(formStorage.findAllIds()).containsExactlyInAnyOrder("form-1", "form-2");
+    assertThat(formStorage.findById("form-1").orElseThrow().getFormData()).isEqualTo("{}");
+
+    activate("", "g3");
+    generationalStorage.reload();
+
+    assertThat(formStorage.findAllIds()).containsExactlyInAnyOrder("form-1", "form-3");
+    assertThat(formStorage.findById("form-1").orElseThrow().getFormData())
+        .isEqualTo("{\"v\":3}");
+    assertThat(formStorage.existsById("form-2")).isFalse();
+    assertThat(generationalStorage.activeGeneration("")).isEqualTo("g3");
+    assertThat(generationalStorage.activeGeneration("registry-a")).isEqualTo("g2");
+  }
+
+  @Test
+  void shouldDeleteOnlyFormsOfGivenGenerationAndTenant() {
+    formStorage.saveAll(List.of(form("form-1", "{}"), form("registry-a:form-1", "{}")));
+    generationalStorage.saveAll("g1", List.of(form("registry-a:form-2", "{}")));
+
+    assertThat(generationalStorage.deleteGeneration("", "g1", 1)).isEqualTo(1);
+
+    assertThat(formStorage.findAllIds()).containsExactly("registry-a:form-1");
+    assertThat(engine.findAllIds()).containsExactlyInAnyOrder("@g2:registry-a:form-1",
+        "@g1:registry-a:form-2");
+  }
+
+  private void activate(String tenant, String generation) {
+    repositories.getStringRedisTemplate().opsForHash()
+        .put(GenerationalFormStorage.GENERATIONS_KEY,
+            GenerationalFormStorage.ACTIVE_FIELD_PREFIX + tenant, generation);
+  }
+}
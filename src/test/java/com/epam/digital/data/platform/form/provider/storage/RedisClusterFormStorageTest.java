@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.form.provider.storage.impl.RedisClusterFormStorage;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Runs against a locally started Redis Cluster whose nodes are listed in the
+ * {@code REDIS_CLUSTER_NODES} environment variable, e.g. {@code localhost:7000,localhost:7001}.
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_CLUSTER_NODES", matches = ".+")
+class RedisClusterFormStorageTest extends FormStorageConformanceTest {
+
+  LettuceConnectionFactory connectionFactory;
+  StringRedisTemplate redisTemplate;
+
+  @Override
+  protected FormStorage createStorage() {
+    var nodes = Arrays.asList(System.getenv("REDIS_CLUSTER_NODES").split(","));
+    connectionFactory = new LettuceConnectionFactory(new RedisClusterConfiguration(nodes));
+    connectionFactory.afterPropertiesSet();
+    redisTemplate = new StringRedisTemplate(connectionFactory);
+    var storage = new RedisClusterFormStorage(redisTemplate);
+    storage.findAllIds().forEach(storage::deleteById);
+    return storage;
+  }
+
+  @Test
+  void shouldKeepKeysOfFormInOneSlot() {
+    formStorage.save(form("test-form", "{}"));
+
+    var keys = List.copyOf(redisTemplate.keys("bpm-form-schemas:{test-form}*"));
+
+    assertThat(keys).containsExactlyInAnyOrder("bpm-form-schemas:{test-form}",
+        "bpm-form-schemas:{test-form}:components");
+    assertThat(ClusterSlotHashUtil.isSameSlotForAllKeys(
+        keys.stream().map(String::getBytes).toArray(byte[][]::new))).isTrue();
+  }
+
+  @AfterEach
+  void closeConnection() {
+    connectionFactory.destroy();
+  }
+}
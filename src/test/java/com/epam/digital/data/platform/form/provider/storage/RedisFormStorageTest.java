@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.form.provider.storage;
+
+import com.epam.digital.data.platform.form.provider.repository.FormRepository;
+import com.epam.digital.data.platform.form.provider.storage.impl.RedisFormStorage;
+import org.junit.jupiter.api.AfterEach;
+import util.RedisStandIn;
+
+class RedisFormStorageTest extends FormStorageConformanceTest {
+
+  RedisStandIn redis;
+  RedisStandIn.Repositories repositories;
+
+  @Override
+  protected FormStorage createStorage() throws Exception {
+    redis = new RedisStandIn().start();
+    repositories = redis.repositories();
+    return new RedisFormStorage(repositories.getRepository(FormRepository.class),
+        repositories.getStringRedisTemplate());
+  }
+
+  /**
+   * The repository rewrites a form with separate DEL and HMSET commands.
+   */
+  @Override
+  protected boolean isUpdateVisibleAtomically() {
+    return false;
+  }
+
+  @AfterEach
+  void stopRedis() throws Exception {
+    repositories.close();
+    redis.close();
+  }
+}
@@ -0,0 +1,533 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package util;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ClientOptions.DisconnectedBehavior;
+import io.lettuce.core.protocol.ProtocolVersion;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.repository.support.RedisRepositoryFactory;
+
+/**
+ * Minimal single-process Redis stand-in speaking RESP2, with just the hash, set and key commands
+ * used by Spring Data Redis repositories, a {@code PUBLISH} without subscribers and untrimmed
+ * streams read with {@code XREAD}. It can be
+ * killed and started again on the same port while keeping its data, which is how a Redis failover
+ * looks to the client.
+ */
+public class RedisStandIn implements AutoCloseable {
+
+  private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+  private final Map<String, List<StreamEntry>> streams = new LinkedHashMap<>();
+  private final List<Socket> clients = new CopyOnWriteArrayList<>();
+  private volatile ServerSocket serverSocket;
+  private int port;
+
+  public RedisStandIn start() throws IOException {
+    serverSocket = new ServerSocket();
+    serverSocket.setReuseAddress(true);
+    serverSocket.bind(new InetSocketAddress("localhost", port));
+    port = serverSocket.getLocalPort();
+    var server = serverSocket;
+    var acceptor = new Thread(() -> accept(server), "redis-stand-in-" + port);
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return this;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Connects Spring Data Redis repositories to this server. The client rejects commands while
+   * disconnected and times out after a second, so a killed server shows up as fast failures.
+   */
+  public Repositories repositories() {
+    var connectionFactory = new LettuceConnectionFactory(
+        new RedisStandaloneConfiguration("localhost", port),
+        LettuceClientConfiguration.builder()
+            .clientOptions(ClientOptions.builder()
+                .protocolVersion(ProtocolVersion.RESP2)
+                .disconnectedBehavior(DisconnectedBehavior.REJECT_COMMANDS)
+                .build())
+            .commandTimeout(Duration.ofSeconds(1))
+            .build());
+    connectionFactory.afterPropertiesSet();
+
+    var redisTemplate = new RedisTemplate<byte[], byte[]>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.afterPropertiesSet();
+    var keyValueAdapter = new RedisKeyValueAdapter(redisTemplate);
+    keyValueAdapter.afterPropertiesSet();
+    return new Repositories(connectionFactory, keyValueAdapter);
+  }
+
+  /**
+   * Stops listening and drops all client connections, the stored data is kept.
+   */
+  public void kill() throws IOException {
+    serverSocket.close();
+    for (var client : clients) {
+      client.close();
+    }
+    clients.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    kill();
+  }
+
+  public static class Repositories implements AutoCloseable {
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisKeyValueAdapter keyValueAdapter;
+    private final RedisRepositoryFactory repositoryFactory;
+
+    private Repositories(LettuceConnectionFactory connectionFactory,
+        RedisKeyValueAdapter keyValueAdapter) {
+      this.connectionFactory = connectionFactory;
+      this.keyValueAdapter = keyValueAdapter;
+      this.repositoryFactory = new RedisRepositoryFactory(new RedisKeyValueTemplate(
+          keyValueAdapter,
+          (RedisMappingContext) keyValueAdapter.getConverter().getMappingContext()));
+    }
+
+    public <T> T getRepository(Class<T> repositoryInterface) {
+      return repositoryFactory.getRepository(repositoryInterface);
+    }
+
+    public StringRedisTemplate getStringRedisTemplate() {
+      return new StringRedisTemplate(connectionFactory);
+    }
+
+    public LettuceConnectionFactory getConnectionFactory() {
+      return connectionFactory;
+    }
+
+    @Override
+    public void close() throws Exception {
+      keyValueAdapter.destroy();
+      connectionFactory.destroy();
+    }
+  }
+
+  private void accept(ServerSocket server) {
+    while (!server.isClosed()) {
+      try {
+        var client = server.accept();
+        clients.add(client);
+        var handler = new Thread(() -> serve(client), "redis-stand-in-client");
+        handler.setDaemon(true);
+        handler.start();
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket client) {
+    try (client) {
+      var in = new BufferedInputStream(client.getInputStream());
+      var out = new BufferedOutputStream(client.getOutputStream());
+      List<byte[]> command;
+      while ((command = readCommand(in)) != null) {
+        execute(command, out);
+        out.flush();
+      }
+    } catch (IOException e) {
+      // connection dropped
+    } finally {
+      clients.remove(client);
+    }
+  }
+
+  private void execute(List<byte[]> command, OutputStream out) throws IOException {
+    var name = string(command.get(0)).toUpperCase();
+    switch (name) {
+      case "PING":
+        writeSimple(out, "PONG");
+        break;
+      case "SELECT":
+      case "CLIENT":
+        writeSimple(out, "OK");
+        break;
+      case "HMSET":
+      case "HSET": {
+        var hash = hashes.computeIfAbsent(string(command.get(1)), key -> new ConcurrentHashMap<>());
+        var added = 0;
+        for (var i = 2; i + 1 < command.size(); i += 2) {
+          if (hash.put(string(command.get(i)), command.get(i + 1)) == null) {
+            added++;
+          }
+        }
+        if ("HSET".equals(name)) {
+          writeInteger(out, added);
+        } else {
+          writeSimple(out, "OK");
+        }
+        break;
+      }
+      case "HGET": {
+        var value = hashes.getOrDefault(string(command.get(1)), Map.of())
+            .get(string(command.get(2)));
+        if (value == null) {
+          out.write(bytes("$-1\r\n"));
+        } else {
+          out.write(bytes("$" + value.length + "\r\n"));
+          out.write(value);
+          out.write(bytes("\r\n"));
+        }
+        break;
+      }
+      case "HGETALL": {
+        var hash = hashes.getOrDefault(string(command.get(1)), Map.of());
+        var values = new ArrayList<byte[]>();
+        new LinkedHashMap<>(hash).forEach((field, value) -> {
+          values.add(bytes(field));
+          values.add(value);
+        });
+        writeArray(out, values);
+        break;
+      }
+      case "SADD": {
+        var set = sets.computeIfAbsent(string(command.get(1)),
+            key -> ConcurrentHashMap.newKeySet());
+        var added = 0;
+        for (var i = 2; i < command.size(); i++) {
+          added += set.add(string(command.get(i))) ? 1 : 0;
+        }
+        writeInteger(out, added);
+        break;
+      }
+      case "SREM": {
+        var set = sets.getOrDefault(string(command.get(1)), Set.of());
+        var removed = 0;
+        for (var i = 2; i < command.size(); i++) {
+          removed += set.remove(string(command.get(i))) ? 1 : 0;
+        }
+        writeInteger(out, removed);
+        break;
+      }
+      case "SMEMBERS": {
+        var members = new ArrayList<byte[]>();
+        new LinkedHashSet<>(sets.getOrDefault(string(command.get(1)), Set.of()))
+            .forEach(member -> members.add(bytes(member)));
+        writeArray(out, members);
+        break;
+      }
+      case "SSCAN": {
+        // the cursor is the index into the sorted members, MATCH applies to every page
+        var members = sets.getOrDefault(string(command.get(1)), Set.of()).stream()
+            .sorted()
+            .collect(Collectors.toList());
+        var from = Integer.parseInt(string(command.get(2)));
+        var pattern = globPattern("*");
+        var count = 10;
+        for (var i = 3; i + 1 < command.size(); i += 2) {
+          if ("MATCH".equalsIgnoreCase(string(command.get(i)))) {
+            pattern = globPattern(string(command.get(i + 1)));
+          } else if ("COUNT".equalsIgnoreCase(string(command.get(i)))) {
+            count = Integer.parseInt(string(command.get(i + 1)));
+          }
+        }
+        var to = Math.min(from + count, members.size());
+        var page = new ArrayList<byte[]>();
+        for (var member : members.subList(Math.min(from, to), to)) {
+          if (pattern.matcher(member).matches()) {
+            page.add(bytes(member));
+          }
+        }
+        var cursor = to == members.size() ? "0" : String.valueOf(to);
+        out.write(bytes("*2\r\n$" + cursor.length() + "\r\n" + cursor + "\r\n"));
+        writeArray(out, page);
+        break;
+      }
+      case "DEL":
+      case "UNLINK": {
+        var deleted = 0;
+        for (var i = 1; i < command.size(); i++) {
+          var key = string(command.get(i));
+          deleted += (hashes.remove(key) != null | sets.remove(key) != null) ? 1 : 0;
+        }
+        writeInteger(out, deleted);
+        break;
+      }
+      case "EXISTS": {
+        var existing = 0;
+        for (var i = 1; i < command.size(); i++) {
+          var key = string(command.get(i));
+          existing += hashes.containsKey(key) || sets.containsKey(key) ? 1 : 0;
+        }
+        writeInteger(out, existing);
+        break;
+      }
+      case "KEYS": {
+        var pattern = globPattern(string(command.get(1)));
+        var keys = new ArrayList<byte[]>();
+        hashes.keySet().stream().filter(key -> pattern.matcher(key).matches())
+            .forEach(key -> keys.add(bytes(key)));
+        sets.keySet().stream().filter(key -> pattern.matcher(key).matches())
+            .forEach(key -> keys.add(bytes(key)));
+        writeArray(out, keys);
+        break;
+      }
+      case "XADD":
+        writeBulk(out, streamAdd(command));
+        break;
+      case "XREAD":
+        streamRead(command, out);
+        break;
+      case "PERSIST":
+      case "EXPIRE":
+      case "PEXPIRE":
+      case "PUBLISH":
+        writeInteger(out, 0);
+        break;
+      default:
+        out.write(bytes("-ERR unknown command '" + name + "'\r\n"));
+    }
+  }
+
+  /**
+   * Appends an entry with a generated id; trimming options are ignored.
+   */
+  private String streamAdd(List<byte[]> command) {
+    var idIndex = 2;
+    while (!"*".equals(string(command.get(idIndex)))) {
+      idIndex++;
+    }
+    synchronized (streams) {
+      var entries = streams.computeIfAbsent(string(command.get(1)), key -> new ArrayList<>());
+      var entry = new StreamEntry(System.currentTimeMillis(), 0,
+          new ArrayList<>(command.subList(idIndex + 1, command.size())));
+      if (!entries.isEmpty()) {
+        var last = entries.get(entries.size() - 1);
+        if (last.time >= entry.time) {
+          entry = new StreamEntry(last.time, last.sequence + 1, entry.fields);
+        }
+      }
+      entries.add(entry);
+      streams.notifyAll();
+      return entry.id();
+    }
+  }
+
+  /**
+   * Reads the entries after the given ids, waiting for {@code BLOCK} milliseconds when there are
+   * none yet; {@code $} stands for the last entry at the time of the call.
+   */
+  private void streamRead(List<byte[]> command, OutputStream out) throws IOException {
+    var count = Integer.MAX_VALUE;
+    var block = -1L;
+    var index = 1;
+    for (; !"STREAMS".equalsIgnoreCase(string(command.get(index))); index += 2) {
+      if ("COUNT".equalsIgnoreCase(string(command.get(index)))) {
+        count = Integer.parseInt(string(command.get(index + 1)));
+      } else if ("BLOCK".equalsIgnoreCase(string(command.get(index)))) {
+        block = Long.parseLong(string(command.get(index + 1)));
+      }
+    }
+    var keyCount = (command.size() - index - 1) / 2;
+    var read = new LinkedHashMap<String, List<StreamEntry>>();
+    synchronized (streams) {
+      var after = new LinkedHashMap<String, long[]>();
+      for (var i = 0; i < keyCount; i++) {
+        var key = string(command.get(index + 1 + i));
+        var id = string(command.get(index + 1 + keyCount + i));
+        var entries = streams.getOrDefault(key, List.of());
+        if ("$".equals(id)) {
+          after.put(key, entries.isEmpty() ? new long[] {0, 0}
+              : new long[] {entries.get(entries.size() - 1).time,
+                  entries.get(entries.size() - 1).sequence});
+        } else {
+          var parts = id.split("-");
+          after.put(key, new long[] {Long.parseLong(parts[0]),
+              parts.length > 1 ? Long.parseLong(parts[1]) : 0});
+        }
+      }
+      var deadline = System.currentTimeMillis() + block;
+      while (true) {
+        for (var from : after.entrySet()) {
+          var entries = streams.getOrDefault(from.getKey(), List.of()).stream()
+              .filter(entry -> entry.isAfter(from.getValue()))
+              .limit(count)
+              .collect(Collectors.toList());
+          if (!entries.isEmpty()) {
+            read.put(from.getKey(), entries);
+          }
+        }
+        var remaining = deadline - System.currentTimeMillis();
+        if (!read.isEmpty() || block < 0 || block > 0 && remaining <= 0) {
+          break;
+        }
+        try {
+          streams.wait(block == 0 ? 0 : remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    if (read.isEmpty()) {
+      out.write(bytes("*-1\r\n"));
+      return;
+    }
+    out.write(bytes("*" + read.size() + "\r\n"));
+    for (var stream : read.entrySet()) {
+      out.write(bytes("*2\r\n"));
+      writeBulk(out, stream.getKey());
+      out.write(bytes("*" + stream.getValue().size() + "\r\n"));
+      for (var entry : stream.getValue()) {
+        out.write(bytes("*2\r\n"));
+        writeBulk(out, entry.id());
+        writeArray(out, entry.fields);
+      }
+    }
+  }
+
+  private static Pattern globPattern(String glob) {
+    var regex = new StringBuilder();
+    var chars = glob.toCharArray();
+    for (var i = 0; i < chars.length; i++) {
+      var c = chars[i];
+      if (c == '\\' && i + 1 < chars.length) {
+        regex.append(Pattern.quote(String.valueOf(chars[++i])));
+      } else {
+        regex.append(c == '*' ? ".*" : c == '?' ? "." : Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  private static List<byte[]> readCommand(InputStream in) throws IOException {
+    var marker = in.read();
+    if (marker == -1) {
+      return null;
+    }
+    if (marker != '*') {
+      throw new IOException("Unexpected RESP marker " + (char) marker);
+    }
+    var count = Integer.parseInt(readLine(in));
+    var command = new ArrayList<byte[]>(count);
+    for (var i = 0; i < count; i++) {
+      if (in.read() != '$') {
+        throw new IOException("Bulk string expected");
+      }
+      var value = in.readNBytes(Integer.parseInt(readLine(in)));
+      in.readNBytes(2);
+      command.add(value);
+    }
+    return command;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    var line = new StringBuilder();
+    int c;
+    while ((c = in.read()) != '\r') {
+      if (c == -1) {
+        throw new IOException("Connection closed");
+      }
+      line.append((char) c);
+    }
+    in.read();
+    return line.toString();
+  }
+
+  private static void writeSimple(OutputStream out, String value) throws IOException {
+    out.write(bytes("+" + value + "\r\n"));
+  }
+
+  private static void writeInteger(OutputStream out, long value) throws IOException {
+    out.write(bytes(":" + value + "\r\n"));
+  }
+
+  private static void writeBulk(OutputStream out, String value) throws IOException {
+    var data = bytes(value);
+    out.write(bytes("$" + data.length + "\r\n"));
+    out.write(data);
+    out.write(bytes("\r\n"));
+  }
+
+  private static void writeArray(OutputStream out, List<byte[]> values) throws IOException {
+    out.write(bytes("*" + values.size() + "\r\n"));
+    for (var value : values) {
+      out.write(bytes("$" + value.length + "\r\n"));
+      out.write(value);
+      out.write(bytes("\r\n"));
+    }
+  }
+
+  private static class StreamEntry {
+
+    private final long time;
+    private final long sequence;
+    private final List<byte[]> fields;
+
+    private StreamEntry(long time, long sequence, List<byte[]> fields) {
+      this.time = time;
+      this.sequence = sequence;
+      this.fields = fields;
+    }
+
+    private String id() {
+      return time + "-" + sequence;
+    }
+
+    private boolean isAfter(long[] id) {
+      return time > id[0] || time == id[0] && sequence > id[1];
+    }
+  }
+
+  // ISO-8859-1 maps every byte to one char, so binary keys and values survive the round trip
+  private static String string(byte[] value) {
+    return new String(value, StandardCharsets.ISO_8859_1);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.ISO_8859_1);
+  }
+}